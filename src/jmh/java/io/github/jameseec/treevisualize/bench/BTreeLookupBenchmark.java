@@ -0,0 +1,66 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.AVLTree;
+import io.github.jameseec.treevisualize.model.BTree;
+import io.github.jameseec.treevisualize.model.Tree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookup throughput of B-trees of several orders against an AVL tree, each populated with
+ * {@code size} keys inserted one at a time in the order of {@code stream} and probed according to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class BTreeLookupBenchmark {
+    private static final int PROBES = 1 << 16;
+
+    /** AVL, or the order of a B-tree. */
+    @Param({"AVL", "16", "64", "256"})
+    public String structure;
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    public KeyStream stream;
+
+    private Tree tree;
+    private int[] probes;
+    private int probeIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidNodeCountException {
+        tree = structure.equals("AVL") ? new AVLTree(Tree.UNBOUNDED)
+                : new BTree(Integer.parseInt(structure), Tree.UNBOUNDED);
+        int[] population = stream.population(size, 1);
+        for (int key : population) {
+            tree.insert(key);
+        }
+        probes = stream.probes(population, PROBES, 4);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        int key = probes[probeIndex];
+        probeIndex = (probeIndex + 1) & (PROBES - 1);
+        return tree.contains(key);
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.AVLTree;
+import io.github.jameseec.treevisualize.model.ConcurrentTree;
+import io.github.jameseec.treevisualize.model.OperationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookup throughput on a shared {@link ConcurrentTree} of {@code size} keys.
+ * {@code contains} has readers only; run it with {@code -t 1,2,4,8} to see how reads scale with threads.
+ * The {@code mixed} group pairs one writer, which inserts and deletes absent keys, with three readers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ConcurrentTreeBenchmark {
+    private static final int PROBES = 1 << 16;
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private ConcurrentTree tree;
+    private int[] probes;
+    private int[] absent;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidNodeCountException {
+        int[] population = KeyStream.UNIFORM.population(size, 1);
+        tree = new ConcurrentTree(AVLTree::new);
+        tree.insertAll(population);
+        probes = KeyStream.UNIFORM.probes(population, PROBES, 4);
+        absent = KeyStream.UNIFORM.absent(size, PROBES, 2);
+    }
+
+    /** Per-thread position in the probe and absent key arrays. */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+        final OperationResult result = new OperationResult();
+    }
+
+    @Benchmark
+    public boolean contains(Cursor cursor) {
+        cursor.index = (cursor.index + 1) & (PROBES - 1);
+        return tree.contains(probes[cursor.index]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public boolean mixedReader(Cursor cursor) {
+        return contains(cursor);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public OperationResult mixedWriter(Cursor cursor) throws InvalidNodeCountException {
+        cursor.index = (cursor.index + 1) & (PROBES - 1);
+        tree.insert(absent[cursor.index], cursor.result);
+        return tree.delete(absent[cursor.index], cursor.result);
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.AVLTree;
+import io.github.jameseec.treevisualize.model.FrozenTree;
+import io.github.jameseec.treevisualize.model.Tree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Measures lookups per second in a balanced AVL tree against a {@link FrozenTree} of the same {@code size}
+ * keys, probed with uniformly random keys of which about half are present. Only the structure measured is
+ * built, so the 100M-key AVL tree needs most of the heap to itself. Both structures are shared by every
+ * benchmark thread; run with {@code -t 1,2,4} to see how lookups scale with concurrent readers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class FrozenLookupBenchmark {
+    private static final int PROBES = 1 << 16;
+
+    @Param({"AVL", "FROZEN"})
+    public String structure;
+
+    @Param({"1000000", "100000000"})
+    public int size;
+
+    /** Lookup of the structure measured; each fork sees one implementation, so the call stays monomorphic. */
+    private IntPredicate contains;
+    private int[] probes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidNodeCountException {
+        int[] keys = IntStream.range(0, size).map(i -> 2 * i).toArray();
+        if (structure.equals("AVL")) {
+            Tree tree = new AVLTree(Tree.UNBOUNDED);
+            tree.buildFrom(keys);
+            contains = tree::contains;
+        } else {
+            contains = FrozenTree.of(keys)::contains;
+        }
+        probes = KeyStream.UNIFORM.probes(keys, PROBES, 4);
+    }
+
+    /** Per-thread position in the probe array, so that threads share nothing they write. */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+    }
+
+    @Benchmark
+    public boolean contains(Cursor cursor) {
+        cursor.index = (cursor.index + 1) & (PROBES - 1);
+        return contains.test(probes[cursor.index]);
+    }
+}
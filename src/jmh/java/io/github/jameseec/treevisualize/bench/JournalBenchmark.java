@@ -0,0 +1,89 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.AVLTree;
+import io.github.jameseec.treevisualize.model.JournaledTree;
+import io.github.jameseec.treevisualize.model.Tree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Measures the time per insert or delete of a 1M-key AVL tree with and without a {@link JournaledTree}.
+ * {@code commitEvery} is the number of records per disk sync, 0 meaning no journal, and 1 a sync per operation.
+ * Every invocation inserts a batch of absent keys and deletes them again, so the tree keeps its size; the
+ * default checkpoint interval applies, so checkpoint copies are part of the cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class JournalBenchmark {
+    private static final int SIZE = 1_000_000;
+    private static final int BATCH = 1024;
+
+    @Param({"0", "1", "64", "1024"})
+    public int commitEvery;
+
+    private Path directory;
+    private Tree tree;
+    private int[] absent;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InvalidNodeCountException {
+        int[] population = KeyStream.UNIFORM.population(SIZE, 1);
+        absent = KeyStream.UNIFORM.absent(SIZE, BATCH, 2);
+        if (commitEvery == 0) {
+            tree = new AVLTree();
+        } else {
+            directory = Files.createTempDirectory("journal");
+            tree = new JournaledTree(directory, AVLTree::new, commitEvery,
+                    JournaledTree.DEFAULT_COMMIT_INTERVAL_MILLIS, JournaledTree.DEFAULT_CHECKPOINT_EVERY);
+        }
+        tree.buildFrom(IntStream.of(population).sorted().distinct().toArray());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (tree instanceof JournaledTree journaled) {
+            journaled.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * BATCH)
+    public void insertAndDelete() throws InvalidNodeCountException {
+        for (int key : absent) {
+            tree.insert(key);
+        }
+        for (int key : absent) {
+            tree.delete(key);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.jameseec.treevisualize.bench;
+
+import java.util.Random;
+
+/**
+ * Key distributions used to populate and probe trees in benchmarks.
+ * Populations hold n distinct even keys, so odd keys are always absent.
+ */
+public enum KeyStream {
+    /** Keys inserted and probed in uniformly random order. */
+    UNIFORM,
+    /** Keys inserted and probed in ascending order. */
+    SORTED,
+    /** Keys inserted and probed in descending order. */
+    REVERSE_SORTED,
+    /** Keys inserted in random order, probed with a Zipfian skew towards a few hot keys. */
+    ZIPFIAN;
+
+    private static final double ZIPF_THETA = 0.99;
+
+    /**
+     * Returns n distinct even keys in the order they should be inserted.
+     */
+    public int[] population(int n, long seed) {
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = 2 * ((this == REVERSE_SORTED) ? n - 1 - i : i);
+        }
+        if (this == UNIFORM || this == ZIPFIAN) {
+            shuffle(keys, new Random(seed));
+        }
+        return keys;
+    }
+
+    /**
+     * Returns count keys absent from a population of size n, continuing the stream's order.
+     */
+    public int[] absent(int n, int count, long seed) {
+        int[] keys = new int[count];
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            keys[i] = switch (this) {
+                case SORTED -> 2 * n + 2 * i;
+                case REVERSE_SORTED -> -2 - 2 * i;
+                default -> 2 * random.nextInt(n) + 1;
+            };
+        }
+        return keys;
+    }
+
+    /**
+     * Returns count lookup keys against the given population, roughly half of them present
+     * except for Zipfian streams, which only probe present keys.
+     */
+    public int[] probes(int[] population, int count, long seed) {
+        int n = population.length;
+        int[] keys = new int[count];
+        Random random = new Random(seed);
+        switch (this) {
+            case SORTED -> {
+                for (int i = 0; i < count; i++) {
+                    keys[i] = (int) ((long) i * 2 * n / count);
+                }
+            }
+            case REVERSE_SORTED -> {
+                for (int i = 0; i < count; i++) {
+                    keys[i] = (int) ((long) (count - 1 - i) * 2 * n / count);
+                }
+            }
+            case UNIFORM -> {
+                for (int i = 0; i < count; i++) {
+                    keys[i] = random.nextInt(2 * n);
+                }
+            }
+            case ZIPFIAN -> {
+                Zipf zipf = new Zipf(n);
+                for (int i = 0; i < count; i++) {
+                    keys[i] = population[zipf.next(random)];
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static void shuffle(int[] keys, Random random) {
+        for (int i = keys.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = keys[i];
+            keys[i] = keys[j];
+            keys[j] = temp;
+        }
+    }
+
+    /**
+     * Zipfian rank generator over [0, n), using the closed-form approximation of Gray et al.
+     */
+    private static final class Zipf {
+        private final int n;
+        private final double zetaN;
+        private final double alpha;
+        private final double eta;
+
+        Zipf(int n) {
+            this.n = n;
+            double zeta = 0;
+            for (int i = 1; i <= n; i++) {
+                zeta += 1 / Math.pow(i, ZIPF_THETA);
+            }
+            double zeta2 = 1 + 1 / Math.pow(2, ZIPF_THETA);
+            this.zetaN = zeta;
+            this.alpha = 1 / (1 - ZIPF_THETA);
+            this.eta = (1 - Math.pow(2.0 / n, 1 - ZIPF_THETA)) / (1 - zeta2 / zeta);
+        }
+
+        int next(Random random) {
+            double u = random.nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1) {
+                return 0;
+            }
+            if (uz < 1 + Math.pow(0.5, ZIPF_THETA)) {
+                return Math.min(1, n - 1);
+            }
+            return (int) Math.min(n - 1, n * Math.pow(eta * u - eta + 1, alpha));
+        }
+    }
+}
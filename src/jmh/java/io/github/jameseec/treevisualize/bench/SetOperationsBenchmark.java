@@ -0,0 +1,72 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.AVLTree;
+import io.github.jameseec.treevisualize.model.Tree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.PrimitiveIterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures merging two AVL trees of {@code size} uniformly random keys each, with the join-based
+ * parallel union against inserting the second tree's keys one at a time. Both trees are rebuilt before
+ * every invocation, since the union consumes them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SetOperationsBenchmark {
+
+    @Param({"1000000", "5000000"})
+    public int size;
+
+    private int[] firstKeys;
+    private int[] secondKeys;
+    private AVLTree first;
+    private AVLTree second;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        firstKeys = IntStream.of(KeyStream.UNIFORM.population(size, 1)).sorted().distinct().toArray();
+        secondKeys = IntStream.of(KeyStream.UNIFORM.population(size, 2)).sorted().distinct().toArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void build() throws InvalidNodeCountException {
+        first = new AVLTree(Tree.UNBOUNDED);
+        first.buildFrom(firstKeys);
+        second = new AVLTree(Tree.UNBOUNDED);
+        second.buildFrom(secondKeys);
+    }
+
+    @Benchmark
+    public AVLTree union() throws InvalidNodeCountException {
+        first.union(second);
+        return first;
+    }
+
+    @Benchmark
+    public AVLTree insertEach() throws InvalidNodeCountException {
+        PrimitiveIterator.OfInt keys = second.iterator();
+        while (keys.hasNext()) {
+            first.insert(keys.nextInt());
+        }
+        return first;
+    }
+}
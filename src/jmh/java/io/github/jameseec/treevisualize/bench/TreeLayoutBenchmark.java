@@ -0,0 +1,102 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.Tree;
+import io.github.jameseec.treevisualize.view.LayoutStrategy;
+import io.github.jameseec.treevisualize.view.TreeLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the layout {@link io.github.jameseec.treevisualize.view.TreeRenderer} computes on every update,
+ * without creating any scene graph nodes, for each {@link LayoutStrategy}: from scratch, and after inserting or
+ * deleting a key either reusing the shapes of unchanged subtrees or measuring every subtree again.
+ * Also prints the width of the drawing after each trial, in pixels, to compare how compact the strategies are;
+ * SORTED BSTs are degenerate chains.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeLayoutBenchmark {
+
+    @Param({"BST", "AVL"})
+    public TreeType treeType;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"UNIFORM", "SORTED"})
+    public KeyStream stream;
+
+    @Param({"PHANTOM", "TIDY"})
+    public String strategy;
+
+    private Tree tree;
+    private TreeLayout layout;
+    /** Keys absent from the tree, each inserted by one update and deleted by the next. */
+    private int[] absent;
+    private int updates;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidNodeCountException {
+        tree = treeType.populate(stream.population(size, 1), stream);
+        layout = new TreeLayout(strategy.equals("TIDY") ? LayoutStrategy.TIDY : LayoutStrategy.PHANTOM);
+        tree.setListener(layout::onTreeEvent);
+        absent = stream.absent(size, 1024, 2);
+        layout.compute(tree.getRoot(), 1000, 60);
+    }
+
+    @TearDown(Level.Trial)
+    public void printWidth() {
+        System.out.printf("%n%s layout of %d-node %s (%s): %.0f px wide%n", strategy, tree.getSize(), treeType,
+                stream, layout.getSubtreeExtent(tree.getRoot()));
+    }
+
+    @Benchmark
+    public TreeLayout compute() {
+        layout.invalidateAll();
+        layout.compute(tree.getRoot(), 1000, 60);
+        return layout;
+    }
+
+    @Benchmark
+    public TreeLayout relayoutIncrementally() throws InvalidNodeCountException {
+        update();
+        layout.compute(tree.getRoot(), 1000, 60);
+        return layout;
+    }
+
+    @Benchmark
+    public TreeLayout relayoutFully() throws InvalidNodeCountException {
+        update();
+        layout.invalidateAll();
+        layout.compute(tree.getRoot(), 1000, 60);
+        return layout;
+    }
+
+    // Inserts the next absent key, or deletes the key inserted by the update before
+    private void update() throws InvalidNodeCountException {
+        int key = absent[(updates >> 1) % absent.length];
+        if ((updates++ & 1) == 0) {
+            tree.insert(key);
+        } else {
+            tree.delete(key);
+        }
+    }
+}
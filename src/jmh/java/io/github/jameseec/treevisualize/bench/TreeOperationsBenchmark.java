@@ -0,0 +1,134 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.Node;
+import io.github.jameseec.treevisualize.model.Tree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the average time of single tree operations against a tree of {@code size} keys,
+ * populated and probed according to {@code stream}.
+ * Inserts and deletes run in batches that {@link Batches} undoes, untimed, after each invocation,
+ * so every batch starts from the same tree. Lookups leave the tree unchanged and run without
+ * invocation-level fixtures, which would distort their timing.
+ * Sorted and reverse-sorted BSTs are limited to {@link TreeType#DEGENERATE_LIMIT} keys and fail setup above it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class TreeOperationsBenchmark {
+    private static final int BATCH = 1024;
+    private static final int PROBES = 1 << 16;
+
+    @Param({"BST", "AVL"})
+    public TreeType treeType;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"UNIFORM", "SORTED", "REVERSE_SORTED", "ZIPFIAN"})
+    public KeyStream stream;
+
+    private int[] population;
+    private Tree tree;
+    private int[] probes;
+    private int probeIndex;
+
+    /**
+     * Keys the write benchmarks insert and delete, and the untimed restore of the tree after every invocation.
+     * Only the write benchmarks use this state, so only they pay for its invocation-level teardown.
+     */
+    @State(Scope.Benchmark)
+    public static class Batches {
+        private Tree tree;
+        private int[] absent;
+        private int[] present;
+
+        @Setup(Level.Trial)
+        public void setUp(TreeOperationsBenchmark benchmark) {
+            tree = benchmark.tree;
+            absent = benchmark.stream.absent(benchmark.size, BATCH, 2);
+            // Spread deletes across the population in insertion order
+            int[] population = benchmark.population;
+            present = new int[Math.min(BATCH, population.length)];
+            for (int i = 0; i < present.length; i++) {
+                present[i] = population[(int) ((long) i * population.length / present.length)];
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void restore() throws InvalidNodeCountException {
+            for (int key : absent) {
+                tree.delete(key);
+            }
+            for (int key : present) {
+                tree.insert(key);
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidNodeCountException {
+        population = stream.population(size, 1);
+        tree = treeType.populate(population, stream);
+        probes = stream.probes(population, PROBES, 4);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void insert(Batches batches, Blackhole blackhole) throws InvalidNodeCountException {
+        for (int key : batches.absent) {
+            blackhole.consume(tree.insert(key));
+        }
+    }
+
+    /** Deletes min(BATCH, size) keys per invocation, which is under BATCH only for the smallest sizes. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void delete(Batches batches, Blackhole blackhole) {
+        for (int key : batches.present) {
+            blackhole.consume(tree.delete(key));
+        }
+    }
+
+    @Benchmark
+    public Node find() {
+        return tree.find(nextProbe());
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return tree.contains(nextProbe());
+    }
+
+    @Benchmark
+    public List<Node> findWithPath() {
+        return tree.findWithPath(nextProbe());
+    }
+
+    private int nextProbe() {
+        int key = probes[probeIndex];
+        probeIndex = (probeIndex + 1) & (PROBES - 1);
+        return key;
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.AVLTree;
+import io.github.jameseec.treevisualize.model.SubtreeAggregates;
+import io.github.jameseec.treevisualize.model.Tree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.PrimitiveIterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full scan of an AVL tree of {@code size} uniformly random keys with the in-order iterator,
+ * a sequential stream and a parallel stream on the common fork-join pool. {@code augmented} trees have
+ * exact split sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TreeStreamBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean augmented;
+
+    private Tree tree;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidNodeCountException {
+        tree = augmented ? new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates()) : new AVLTree();
+        tree.insertAll(KeyStream.UNIFORM.population(size, 1));
+    }
+
+    @Benchmark
+    public long iterator() {
+        long sum = 0;
+        PrimitiveIterator.OfInt keys = tree.iterator();
+        while (keys.hasNext()) {
+            sum += keys.nextInt();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sequentialStream() {
+        return tree.stream().asLongStream().sum();
+    }
+
+    @Benchmark
+    public long parallelStream() {
+        return tree.stream().parallel().asLongStream().sum();
+    }
+}
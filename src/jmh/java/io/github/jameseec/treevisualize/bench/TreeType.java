@@ -0,0 +1,43 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.AVLTree;
+import io.github.jameseec.treevisualize.model.BinarySearchTree;
+import io.github.jameseec.treevisualize.model.RedBlackTree;
+import io.github.jameseec.treevisualize.model.Tree;
+
+/**
+ * Tree implementations that benchmarks can be parameterized over.
+ */
+public enum TreeType {
+    BST, AVL, RED_BLACK;
+
+    /** Largest sorted population a simple BST is built from, since each insert walks the whole chain. */
+    public static final int DEGENERATE_LIMIT = 100_000;
+
+    public Tree create() {
+        return switch (this) {
+            case BST -> new BinarySearchTree();
+            case AVL -> new AVLTree();
+            case RED_BLACK -> new RedBlackTree();
+        };
+    }
+
+    /**
+     * Creates a tree and inserts keys one by one in order.
+     *
+     * @throws IllegalArgumentException if a simple BST would degenerate past {@code DEGENERATE_LIMIT}
+     */
+    public Tree populate(int[] keys, KeyStream stream) throws InvalidNodeCountException {
+        boolean ordered = stream == KeyStream.SORTED || stream == KeyStream.REVERSE_SORTED;
+        if (this == BST && ordered && keys.length > DEGENERATE_LIMIT) {
+            throw new IllegalArgumentException("Building a " + stream + " BST of " + keys.length
+                    + " keys is quadratic; use at most " + DEGENERATE_LIMIT);
+        }
+        Tree tree = create();
+        for (int key : keys) {
+            tree.insert(key);
+        }
+        return tree;
+    }
+}
@@ -1,14 +1,24 @@
 package io.github.jameseec.treevisualize.controller;
 
 import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
-import io.github.jameseec.treevisualize.model.AVLTree;
-import io.github.jameseec.treevisualize.model.BinarySearchTree;
+import io.github.jameseec.treevisualize.model.BTree;
+import io.github.jameseec.treevisualize.model.OperationResult;
+import io.github.jameseec.treevisualize.model.PersistentAVLTree;
+import io.github.jameseec.treevisualize.model.PersistentBinarySearchTree;
+import io.github.jameseec.treevisualize.model.PersistentTree;
+import io.github.jameseec.treevisualize.model.RedBlackTree;
+import io.github.jameseec.treevisualize.model.SubtreeAggregates;
 import io.github.jameseec.treevisualize.model.Tree;
+import io.github.jameseec.treevisualize.model.VersionHistory;
 import io.github.jameseec.treevisualize.view.AVLRenderer;
+import io.github.jameseec.treevisualize.view.BTreeRenderer;
 import io.github.jameseec.treevisualize.view.BSTRenderer;
+import io.github.jameseec.treevisualize.view.LayoutStrategy;
+import io.github.jameseec.treevisualize.view.RedBlackRenderer;
 import io.github.jameseec.treevisualize.view.TreeRenderer;
 import io.github.jameseec.treevisualize.view.ZoomPanPane;
 import javafx.application.Platform;
+import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.Pane;
@@ -16,10 +26,15 @@ import javafx.scene.layout.StackPane;
 import javafx.scene.control.TextFormatter;
 import javafx.stage.Stage;
 
+import java.util.Random;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 
 public class VisualizeController {
+    /** Order of drawn B-trees, small enough that pages split and merge after a few operations. */
+    private static final int BTREE_ORDER = 4;
+    /** Most random values added at once, enough to try the canvas on large trees. */
+    private static final int RANDOM_BATCH = 100_000;
     @FXML
     private Pane contentPane;
     @FXML
@@ -32,11 +47,22 @@ public class VisualizeController {
     private TextField findField;
     @FXML
     private Label infoLabel;
+    @FXML
+    private Slider versionSlider;
 
     private Tree currentTree;
+    private final OperationResult operationResult = new OperationResult();
     private TreeRenderer currentRenderer;
     private ZoomPanPane zoomPanPane;
     private Stage stage;
+    /** Set while the slider is moved to match the tree, so that it does not move the tree in turn. */
+    private boolean syncingSlider;
+    private boolean showSubtreeSizes;
+    /** Whether trees are drawn into a canvas, which lifts the limit on their size. */
+    private boolean canvasRendering;
+    /** Whether to use the tidy layout, which is narrower than the default for unbalanced trees. */
+    private boolean compactLayout;
+    private final Random random = new Random();
 
     public VisualizeController() {
         System.out.println("Controller created.");
@@ -48,10 +74,12 @@ public class VisualizeController {
         zoomPanPane = new ZoomPanPane(contentPane);
         viewportStack.getChildren().addFirst(zoomPanPane);
 
-        currentTree = new BinarySearchTree();
+        currentTree = new PersistentBinarySearchTree(Tree.MAX_SIZE, new SubtreeAggregates());
         System.out.println("New BinarySearchTree created.");
-        currentRenderer = new BSTRenderer(currentTree, contentPane);
+        useRenderer(new BSTRenderer(currentTree, contentPane));
         addTextFormatters();
+        versionSlider.valueProperty().addListener(
+                (observable, oldValue, newValue) -> onVersionSelected(newValue.intValue()));
 
         Platform.runLater(() -> {
                     try {
@@ -63,6 +91,7 @@ public class VisualizeController {
                         System.out.println("Something went wrong while initiating default tree.");
                     }
                     currentRenderer.updatePane();
+                    updateHistoryControls();
                     zoomPanPane.resetView();
                     stage = (Stage) infoLabel.getScene().getWindow();
                 }
@@ -90,8 +119,10 @@ public class VisualizeController {
     public void onAddNode() {
         handleIntInput(addField, value -> {
             try {
-                if (currentTree.insert(value)) {
+                if (currentTree.insert(value, operationResult).isChanged()) {
                     currentRenderer.updatePane();
+                    updateHistoryControls();
+                    infoLabel.setText("Inserted " + value + describePath(operationResult));
                 } else {
                     infoLabel.setText("The value " + value + " is already in the tree!");
                 }
@@ -103,8 +134,10 @@ public class VisualizeController {
 
     public void onDeleteNode() {
         handleIntInput(deleteField, value -> {
-            if (currentTree.delete(value)) {
+            if (currentTree.delete(value, operationResult).isChanged()) {
                 currentRenderer.updatePane();
+                updateHistoryControls();
+                infoLabel.setText("Deleted " + value + describePath(operationResult));
             } else {
                 infoLabel.setText("The value " + value + " is not in the tree!");
             }
@@ -112,23 +145,168 @@ public class VisualizeController {
     }
 
     public void onFindNode() {
-        handleIntInput(findField, value -> {
-            currentRenderer.showSearchPath(value);
-            if (currentTree.contains(value)) {
-                infoLabel.setText("Found " + value + " in the tree!");
-            } else {
-                infoLabel.setText("Value " + value + " not found.");
-            }
-        });
+        handleIntInput(findField, this::showSearch);
+    }
+
+    /**
+     * Shows the search path to value, and whether it was found.
+     */
+    private void showSearch(int value) {
+        currentRenderer.showSearchPath(value);
+        if (!currentTree.contains(value)) {
+            infoLabel.setText("Value " + value + " not found.");
+        } else if (currentTree.getAugmentation() == null) {
+            infoLabel.setText("Found " + value + " in the tree!");
+        } else {
+            infoLabel.setText("Found " + value + " in the tree, with " + currentTree.rank(value)
+                    + " smaller value(s)!");
+        }
+    }
+
+    /**
+     * Inserts a batch of random values, as many as the tree has room for up to {@code RANDOM_BATCH}.
+     */
+    public void onAddRandom() {
+        int count = Math.min(RANDOM_BATCH, currentTree.getMaxSize() - currentTree.getSize());
+        int[] values = random.ints(count, -10 * RANDOM_BATCH, 10 * RANDOM_BATCH).toArray();
+        try {
+            int inserted = currentTree.insertAll(values);
+            currentRenderer.updatePane();
+            updateHistoryControls();
+            infoLabel.setText("Inserted " + inserted + " random value(s), " + currentTree.getSize() + " in total.");
+        } catch (InvalidNodeCountException e) {
+            infoLabel.setText(e.getMessage());
+        }
     }
 
     public void onClear() {
         currentTree.clear();
         zoomPanPane.resetView();
         currentRenderer.updatePane();
+        updateHistoryControls();
         infoLabel.setText("Tree has been cleared!");
     }
 
+    public void onUndo() {
+        if (currentTree instanceof PersistentTree persistentTree && persistentTree.undo()) {
+            currentRenderer.updatePane();
+            updateHistoryControls();
+            infoLabel.setText("Undone. " + describeVersion(persistentTree.getHistory()));
+        } else {
+            infoLabel.setText("Nothing to undo!");
+        }
+    }
+
+    public void onRedo() {
+        if (currentTree instanceof PersistentTree persistentTree && persistentTree.redo()) {
+            currentRenderer.updatePane();
+            updateHistoryControls();
+            infoLabel.setText("Redone. " + describeVersion(persistentTree.getHistory()));
+        } else {
+            infoLabel.setText("Nothing to redo!");
+        }
+    }
+
+    /**
+     * Shows the version picked on the slider.
+     */
+    private void onVersionSelected(int index) {
+        if (syncingSlider || !(currentTree instanceof PersistentTree persistentTree)) {
+            return;
+        }
+        VersionHistory history = persistentTree.getHistory();
+        if (index != history.getCurrent()) {
+            persistentTree.goToVersion(index);
+            currentRenderer.updatePane();
+            infoLabel.setText(describeVersion(history));
+        }
+    }
+
+    /**
+     * Moves the version slider to the tree's current version, disabling it for trees without history.
+     */
+    private void updateHistoryControls() {
+        syncingSlider = true;
+        if (currentTree instanceof PersistentTree persistentTree) {
+            VersionHistory history = persistentTree.getHistory();
+            versionSlider.setMax(history.getVersionCount() - 1);
+            versionSlider.setValue(history.getCurrent());
+            versionSlider.setDisable(history.getVersionCount() < 2);
+        } else {
+            versionSlider.setMax(0);
+            versionSlider.setValue(0);
+            versionSlider.setDisable(true);
+        }
+        syncingSlider = false;
+    }
+
+    /**
+     * Describes the current version and the memory the retained versions take.
+     */
+    private String describeVersion(VersionHistory history) {
+        int current = history.getCurrent();
+        return "Showing version " + (history.getEvictedCount() + current) + " of "
+                + (history.getEvictedCount() + history.getVersionCount() - 1)
+                + " (" + history.getCopiedNodes(current) + " node(s) copied, "
+                + history.getRetainedBytes() / 1024 + " KB retained).";
+    }
+
+    public void onToggleSubtreeSizes(ActionEvent event) {
+        showSubtreeSizes = ((CheckMenuItem) event.getSource()).isSelected();
+        currentRenderer.setShowSubtreeSizes(showSubtreeSizes);
+        currentRenderer.updatePane();
+    }
+
+    public void onToggleCompactLayout(ActionEvent event) {
+        compactLayout = ((CheckMenuItem) event.getSource()).isSelected();
+        currentRenderer.setLayoutStrategy(compactLayout ? LayoutStrategy.TIDY : LayoutStrategy.PHANTOM);
+        currentRenderer.updatePane();
+    }
+
+    /**
+     * Switches between drawing shapes and drawing into a canvas, starting a new tree of the current type
+     * as trees drawn into a canvas have no size limit.
+     */
+    public void onToggleCanvas(ActionEvent event) {
+        canvasRendering = ((CheckMenuItem) event.getSource()).isSelected();
+        if (currentTree instanceof BTree) {
+            infoLabel.setText("B-trees are always drawn as shapes.");
+        } else if (currentTree instanceof RedBlackTree) {
+            onSwitchRedBlack();
+        } else if (currentTree instanceof PersistentAVLTree) {
+            onSwitchAVL();
+        } else {
+            onSwitchBST();
+        }
+    }
+
+    /**
+     * Largest tree to draw: the scene graph slows down past a few thousand shapes, a canvas does not.
+     */
+    private int treeCapacity() {
+        return canvasRendering ? Tree.UNBOUNDED : Tree.MAX_SIZE;
+    }
+
+    /**
+     * Replaces the current renderer with renderer, drawing into a canvas if canvas rendering is on.
+     */
+    private void useRenderer(TreeRenderer renderer) {
+        if (currentRenderer != null) {
+            currentRenderer.dispose();
+        }
+        currentRenderer = renderer;
+        renderer.setShowSubtreeSizes(showSubtreeSizes);
+        renderer.setLayoutStrategy(compactLayout ? LayoutStrategy.TIDY : LayoutStrategy.PHANTOM);
+        renderer.setOnNodeClicked(this::showSearch);
+        if (renderer instanceof BTreeRenderer) {
+            return;
+        }
+        renderer.setCullingViewport(zoomPanPane);
+        if (canvasRendering) {
+            renderer.setCanvasViewport(zoomPanPane);
+        }
+    }
+
     public void onResetZoom() {
         zoomPanPane.resetZoom();
     }
@@ -139,29 +317,57 @@ public class VisualizeController {
 
     public void onSwitchAVL() {
         stage.setTitle("AVL Tree Visualizer");
-        currentTree = new AVLTree();
+        currentTree = new PersistentAVLTree(treeCapacity(), new SubtreeAggregates());
         System.out.println("New AVL Tree created.");
 
-        currentRenderer = new AVLRenderer(currentTree, contentPane);
+        useRenderer(new AVLRenderer(currentTree, contentPane));
         currentRenderer.updatePane();
+        updateHistoryControls();
 
         zoomPanPane.resetView();
         infoLabel.setText("Switched to AVL Tree!");
     }
 
+    public void onSwitchRedBlack() {
+        stage.setTitle("Red-Black Tree Visualizer");
+        currentTree = new RedBlackTree(treeCapacity(), new SubtreeAggregates());
+        System.out.println("New Red-Black Tree created.");
+
+        useRenderer(new RedBlackRenderer(currentTree, contentPane));
+        currentRenderer.updatePane();
+        updateHistoryControls();
+
+        zoomPanPane.resetView();
+        infoLabel.setText("Switched to Red-Black Tree!");
+    }
+
     public void onSwitchBST() {
         stage.setTitle("Simple BST visualizer");
-        currentTree = new BinarySearchTree();
+        currentTree = new PersistentBinarySearchTree(treeCapacity(), new SubtreeAggregates());
         System.out.println("New BinarySearchTree created.");
 
-        currentRenderer = new BSTRenderer(currentTree, contentPane);
+        useRenderer(new BSTRenderer(currentTree, contentPane));
         currentRenderer.updatePane();
+        updateHistoryControls();
 
         zoomPanPane.resetView();
 
         infoLabel.setText("Switched to simple binary search tree!");
     }
 
+    public void onSwitchBTree() {
+        stage.setTitle("B-Tree Visualizer");
+        currentTree = new BTree(BTREE_ORDER, Tree.MAX_SIZE);
+        System.out.println("New B-Tree created.");
+
+        useRenderer(new BTreeRenderer(currentTree, contentPane));
+        currentRenderer.updatePane();
+        updateHistoryControls();
+
+        zoomPanPane.resetView();
+        infoLabel.setText("Switched to B-Tree of order " + BTREE_ORDER + "!");
+    }
+
     public void onInOrder() {
         currentRenderer.showInOrderTraversal();
         infoLabel.setText("Showing In-Order Traversal.");
@@ -177,6 +383,21 @@ public class VisualizeController {
         infoLabel.setText("Showing Post-Order Traversal.");
     }
 
+    /**
+     * Describes the nodes visited and rotations performed by the last insert or delete.
+     */
+    private String describePath(OperationResult result) {
+        String visited = (currentTree instanceof BTree) ? " page(s)" : " node(s)";
+        String description = " after visiting " + result.getPathLength() + visited;
+        if (result.getRotations() > 0) {
+            description += ", " + result.getRotations() + " rotation(s)";
+        }
+        if (result.getRecolorings() > 0) {
+            description += ", " + result.getRecolorings() + " recoloring(s)";
+        }
+        return description + ".";
+    }
+
     /**
      * Helper for parsing an int from a text field, then applying a function if successful.
      *
@@ -0,0 +1,262 @@
+package io.github.jameseec.treevisualize.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Join-based algorithms on AVL subtrees, after Blelloch, Ferizovic and Sun, "Just Join for Parallel
+ * Ordered Sets". Every operation is built from {@link #join}, which links two trees of any heights through
+ * a middle node in time proportional to the difference of their heights.
+ * The algorithms reuse the nodes of their inputs, so input subtrees must not be used afterwards unless
+ * stated otherwise. Recursion depth is bounded by the trees' heights.
+ */
+final class AVLJoin {
+    /** Subtrees of at most this height are processed without forking further tasks. */
+    static final int SEQUENTIAL_HEIGHT = 12;
+
+    private AVLJoin() {
+    }
+
+    /**
+     * Result of splitting a subtree at a key: the nodes below it, the node holding it if any,
+     * and the nodes above it.
+     */
+    record Parts(Node less, Node found, Node greater) {
+    }
+
+    /** Set operations that can run as fork-join tasks. */
+    enum Operation {
+        UNION, INTERSECTION, DIFFERENCE
+    }
+
+    /**
+     * Links left, middle and right into one balanced tree, where every value in left is smaller than
+     * middle's and every value in right is larger.
+     */
+    static Node join(Node left, Node middle, Node right, Augmentation augmentation) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        if (leftHeight > rightHeight + 1) {
+            return joinRight(left, middle, right, augmentation);
+        }
+        if (rightHeight > leftHeight + 1) {
+            return joinLeft(left, middle, right, augmentation);
+        }
+        middle.setLeftChild(left);
+        middle.setRightChild(right);
+        update(middle, augmentation);
+        return middle;
+    }
+
+    // Joins along the right spine of the taller left tree, rebalancing on the way back up.
+    private static Node joinRight(Node left, Node middle, Node right, Augmentation augmentation) {
+        Node spine = left.getRightChild();
+        if (height(spine) <= height(right) + 1) {
+            middle.setLeftChild(spine);
+            middle.setRightChild(right);
+            update(middle, augmentation);
+            if (height(middle) <= height(left.getLeftChild()) + 1) {
+                left.setRightChild(middle);
+                update(left, augmentation);
+                return left;
+            }
+            left.setRightChild(rotateRight(middle, augmentation));
+            update(left, augmentation);
+            return rotateLeft(left, augmentation);
+        }
+        Node joined = joinRight(spine, middle, right, augmentation);
+        left.setRightChild(joined);
+        update(left, augmentation);
+        if (height(joined) <= height(left.getLeftChild()) + 1) {
+            return left;
+        }
+        return rotateLeft(left, augmentation);
+    }
+
+    // Mirror image of joinRight, along the left spine of the taller right tree.
+    private static Node joinLeft(Node left, Node middle, Node right, Augmentation augmentation) {
+        Node spine = right.getLeftChild();
+        if (height(spine) <= height(left) + 1) {
+            middle.setLeftChild(left);
+            middle.setRightChild(spine);
+            update(middle, augmentation);
+            if (height(middle) <= height(right.getRightChild()) + 1) {
+                right.setLeftChild(middle);
+                update(right, augmentation);
+                return right;
+            }
+            right.setLeftChild(rotateLeft(middle, augmentation));
+            update(right, augmentation);
+            return rotateRight(right, augmentation);
+        }
+        Node joined = joinLeft(left, middle, spine, augmentation);
+        right.setLeftChild(joined);
+        update(right, augmentation);
+        if (height(joined) <= height(right.getRightChild()) + 1) {
+            return right;
+        }
+        return rotateRight(right, augmentation);
+    }
+
+    /**
+     * Joins two trees where every value in left is smaller than every value in right.
+     */
+    static Node join2(Node left, Node right, Augmentation augmentation) {
+        if (left == null) {
+            return right;
+        }
+        Parts last = splitLast(left, augmentation);
+        return join(last.less(), last.found(), right, augmentation);
+    }
+
+    // Removes the largest node of root's tree, returning it as found and the remaining tree as less.
+    private static Parts splitLast(Node root, Augmentation augmentation) {
+        if (root.getRightChild() == null) {
+            return new Parts(root.getLeftChild(), root, null);
+        }
+        Parts last = splitLast(root.getRightChild(), augmentation);
+        return new Parts(join(root.getLeftChild(), root, last.less(), augmentation), last.found(), null);
+    }
+
+    /**
+     * Splits root's tree into the values below key, the node holding key if any, and the values above key.
+     * The found node keeps its old children, which belong to the other parts.
+     */
+    static Parts split(Node root, int key, Augmentation augmentation) {
+        if (root == null) {
+            return new Parts(null, null, null);
+        }
+        if (key == root.getValue()) {
+            return new Parts(root.getLeftChild(), root, root.getRightChild());
+        }
+        if (key < root.getValue()) {
+            Parts parts = split(root.getLeftChild(), key, augmentation);
+            Node greater = join(parts.greater(), root, root.getRightChild(), augmentation);
+            return new Parts(parts.less(), parts.found(), greater);
+        }
+        Parts parts = split(root.getRightChild(), key, augmentation);
+        Node less = join(root.getLeftChild(), root, parts.less(), augmentation);
+        return new Parts(less, parts.found(), parts.greater());
+    }
+
+    /**
+     * Runs a set operation on the common fork-join pool, counting the values found in both trees.
+     * Union and intersection consume both trees; difference consumes a and only reads b.
+     */
+    static Node apply(Operation operation, Node a, Node b, Augmentation augmentation, LongAdder matches) {
+        SetOperationTask task = new SetOperationTask(operation, a, b, augmentation, matches);
+        if (Math.min(height(a), height(b)) <= SEQUENTIAL_HEIGHT) {
+            return task.compute();
+        }
+        return ForkJoinPool.commonPool().invoke(task);
+    }
+
+    private static final class SetOperationTask extends RecursiveTask<Node> {
+        private final Operation operation;
+        private final Node a;
+        private final Node b;
+        private final Augmentation augmentation;
+        private final LongAdder matches;
+
+        SetOperationTask(Operation operation, Node a, Node b, Augmentation augmentation, LongAdder matches) {
+            this.operation = operation;
+            this.a = a;
+            this.b = b;
+            this.augmentation = augmentation;
+            this.matches = matches;
+        }
+
+        @Override
+        protected Node compute() {
+            return switch (operation) {
+                case UNION -> union();
+                case INTERSECTION -> intersection();
+                case DIFFERENCE -> difference();
+            };
+        }
+
+        private Node union() {
+            if (a == null) {
+                return b;
+            }
+            if (b == null) {
+                return a;
+            }
+            Parts parts = split(b, a.getValue(), augmentation);
+            if (parts.found() != null) {
+                matches.increment();
+            }
+            Node[] halves = both(a.getLeftChild(), parts.less(), a.getRightChild(), parts.greater());
+            return AVLJoin.join(halves[0], a, halves[1], augmentation);
+        }
+
+        private Node intersection() {
+            if (a == null || b == null) {
+                return null;
+            }
+            Parts parts = split(b, a.getValue(), augmentation);
+            Node[] halves = both(a.getLeftChild(), parts.less(), a.getRightChild(), parts.greater());
+            if (parts.found() != null) {
+                matches.increment();
+                return AVLJoin.join(halves[0], a, halves[1], augmentation);
+            }
+            return join2(halves[0], halves[1], augmentation);
+        }
+
+        private Node difference() {
+            if (a == null || b == null) {
+                return a;
+            }
+            Parts parts = split(a, b.getValue(), augmentation);
+            if (parts.found() != null) {
+                matches.increment();
+            }
+            Node[] halves = both(parts.less(), b.getLeftChild(), parts.greater(), b.getRightChild());
+            return join2(halves[0], halves[1], augmentation);
+        }
+
+        // Applies the operation to (a1, b1) and (a2, b2), forking the first pair if both pairs are large.
+        private Node[] both(Node a1, Node b1, Node a2, Node b2) {
+            boolean large = Math.min(height(a1), height(b1)) > SEQUENTIAL_HEIGHT
+                    && Math.min(height(a2), height(b2)) > SEQUENTIAL_HEIGHT;
+            SetOperationTask first = new SetOperationTask(operation, a1, b1, augmentation, matches);
+            SetOperationTask second = new SetOperationTask(operation, a2, b2, augmentation, matches);
+            if (!large) {
+                return new Node[] {first.compute(), second.compute()};
+            }
+            first.fork();
+            Node secondResult = second.compute();
+            return new Node[] {first.join(), secondResult};
+        }
+    }
+
+    static int height(Node node) {
+        return (node == null) ? -1 : node.getHeight();
+    }
+
+    private static void update(Node node, Augmentation augmentation) {
+        node.setHeight(1 + Math.max(height(node.getLeftChild()), height(node.getRightChild())));
+        if (augmentation != null) {
+            augmentation.update(node);
+        }
+    }
+
+    private static Node rotateRight(Node root, Augmentation augmentation) {
+        Node newRoot = root.getLeftChild();
+        root.setLeftChild(newRoot.getRightChild());
+        newRoot.setRightChild(root);
+        update(root, augmentation);
+        update(newRoot, augmentation);
+        return newRoot;
+    }
+
+    private static Node rotateLeft(Node root, Augmentation augmentation) {
+        Node newRoot = root.getRightChild();
+        root.setRightChild(newRoot.getLeftChild());
+        newRoot.setLeftChild(root);
+        update(root, augmentation);
+        update(newRoot, augmentation);
+        return newRoot;
+    }
+}
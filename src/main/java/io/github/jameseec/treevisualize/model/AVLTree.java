@@ -1,45 +1,115 @@
 package io.github.jameseec.treevisualize.model;
 
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Represents an AVL Tree that disallows duplicates.
+ * Besides single inserts and deletes, supports join, split and join-based set operations, which run
+ * their independent halves as fork-join tasks.
  */
 public class AVLTree extends Tree {
 
     /**
-     * Inserts a node with given val into node root, using tree-specific implementations.
-     * Does not check for duplicates or increment {@code size}.
+     * Result of {@link #split}: the values below the key, whether the key was present, and the values above it.
+     */
+    public record Split(AVLTree less, boolean found, AVLTree greater) {
+    }
+
+    /**
+     * Constructor that creates an empty tree.
+     */
+    public AVLTree() {
+        super();
+    }
+
+    /**
+     * Constructor that creates an empty tree holding at most {@code maxSize} nodes.
      *
-     * @param current node to insert new node into
-     * @param val value of new node to insert
+     * @param maxSize maximum number of nodes, or {@code Tree.UNBOUNDED}
      */
-    @Override
-    protected void insertNode(Node current, int val) {
-        root = insertRecursive(current, val);
+    public AVLTree(int maxSize) {
+        super(maxSize);
     }
 
-    private Node insertRecursive(Node current, int val) {
-        if (current == null) {
-            return new Node(val);
-        }
-        if (val < current.getValue()) {
-            current.setLeftChild(insertRecursive(current.getLeftChild(), val));
-        } else {
-            current.setRightChild(insertRecursive(current.getRightChild(), val));
+    /**
+     * Constructor that creates an empty tree holding at most {@code maxSize} nodes, maintaining
+     * the given augmentation in every node.
+     *
+     * @param maxSize maximum number of nodes, or {@code Tree.UNBOUNDED}
+     * @param augmentation augmentation to maintain, or null for plain nodes
+     */
+    public AVLTree(int maxSize, Augmentation augmentation) {
+        super(maxSize, augmentation);
+    }
+
+    /**
+     * Inserts a node with given val into the tree in a single descent, rejecting duplicates,
+     * then rebalances on the way back up. Does not increment {@code size}.
+     *
+     * @param val value of new node to insert
+     * @param result result to record the outcome, path length and rotations in
+     */
+    @Override
+    protected void insertNode(int val, OperationResult result) {
+        // Record the path down to the insertion point
+        int depth = 0;
+        Node current = root;
+        while (current != null) {
+            pushPath(depth++, current);
+            emit(TreeEvent.VISIT, current, null);
+            if (val < current.getValue()) {
+                current = current.getLeftChild();
+            } else if (val > current.getValue()) {
+                current = current.getRightChild();
+            } else {
+                result.setOutcome(OperationResult.Outcome.DUPLICATE);
+                result.setPathLength(depth);
+                clearPath(depth);
+                return;
+            }
         }
-        updateHeight(current);
+        result.setOutcome(OperationResult.Outcome.INSERTED);
+        result.setPathLength(depth);
 
-        // Handle rotations
-        return balance(current);
+        // Walk back up, relinking each rebalanced subtree into its parent
+        Node subtree = newNode(val);
+        for (int i = depth - 1; i >= 0; i--) {
+            Node parent = path[i];
+            if (val < parent.getValue()) {
+                parent.setLeftChild(subtree);
+            } else {
+                parent.setRightChild(subtree);
+            }
+            emit(TreeEvent.LINK, parent, subtree);
+            int oldHeight = parent.getHeight();
+            updateHeight(parent);
+            augment(parent);
+            subtree = balance(parent, result);
+            if (subtree == parent && parent.getHeight() == oldHeight) {
+                // Nothing above this node can change shape, though its ancestors' subtrees did
+                augmentPath(i - 1);
+                clearPath(depth);
+                return;
+            }
+        }
+        root = subtree;
+        emit(TreeEvent.LINK, null, root);
+        clearPath(depth);
     }
 
-    private Node balance(Node node) {
+    private Node balance(Node node, OperationResult result) {
         int balance = getBalance(node);
 
         // Left heavy
         if (balance > 1) {
             if (getBalance(node.getLeftChild()) < 0) {
                 node.setLeftChild(rotateLeft(node.getLeftChild())); // LR case
+                emit(TreeEvent.LINK, node, node.getLeftChild());
+                result.addRotations(1);
             }
+            result.addRotations(1);
             return rotateRight(node); // LL case
         }
 
@@ -47,7 +117,10 @@ public class AVLTree extends Tree {
         if (balance < -1) {
             if (getBalance(node.getRightChild()) > 0) {
                 node.setRightChild(rotateRight(node.getRightChild())); // RL case
+                emit(TreeEvent.LINK, node, node.getRightChild());
+                result.addRotations(1);
             }
+            result.addRotations(1);
             return rotateLeft(node); // RR case
         }
 
@@ -55,38 +128,244 @@ public class AVLTree extends Tree {
     }
 
     /**
-     * Deletes the node with the specified value from the tree if it exists.
+     * Deletes the node with given val from the tree in a single descent if it exists,
+     * then rebalances up to the root. Does not decrement {@code size}.
      *
-     * @return true if val was deleted. false if it doesn't exist.
+     * @param val value of node to delete
+     * @param result result to record the outcome, path length and rotations in
      */
     @Override
-    public boolean delete(int val) {
-        if (!contains(val)) return false;
-        root = deleteRecursive(root, val);
-        size--;
-        return true;
+    protected void deleteNode(int val, OperationResult result) {
+        int depth = 0;
+        Node current = root;
+        while (current != null && current.getValue() != val) {
+            pushPath(depth++, current);
+            emit(TreeEvent.VISIT, current, null);
+            current = (val < current.getValue()) ? current.getLeftChild() : current.getRightChild();
+        }
+        if (current == null) {
+            result.setOutcome(OperationResult.Outcome.NOT_FOUND);
+            result.setPathLength(depth);
+            clearPath(depth);
+            return;
+        }
+        pushPath(depth++, current);
+        emit(TreeEvent.VISIT, current, null);
+
+        // Node with two children: copy inorder successor's value, then remove the successor instead
+        if (current.getLeftChild() != null && current.getRightChild() != null) {
+            Node target = current;
+            current = current.getRightChild();
+            while (current != null) {
+                pushPath(depth++, current);
+                emit(TreeEvent.VISIT, current, null);
+                current = current.getLeftChild();
+            }
+            target.setValue(path[depth - 1].getValue());
+            emit(TreeEvent.SWAP_VALUE, target, path[depth - 1]);
+        }
+        result.setOutcome(OperationResult.Outcome.DELETED);
+        result.setPathLength(depth);
+
+        // Node with only one child or no child
+        Node removed = path[depth - 1];
+        Node subtree = (removed.getLeftChild() == null) ? removed.getRightChild() : removed.getLeftChild();
+        for (int i = depth - 2; i >= 0; i--) {
+            Node parent = path[i];
+            if (parent.getLeftChild() == path[i + 1]) {
+                parent.setLeftChild(subtree);
+            } else {
+                parent.setRightChild(subtree);
+            }
+            emit(TreeEvent.LINK, parent, subtree);
+            int oldHeight = parent.getHeight();
+            updateHeight(parent);
+            augment(parent);
+            subtree = balance(parent, result);
+            if (subtree == parent && parent.getHeight() == oldHeight) {
+                augmentPath(i - 1);
+                clearPath(depth);
+                return;
+            }
+        }
+        root = subtree;
+        emit(TreeEvent.LINK, null, root);
+        clearPath(depth);
+    }
+
+    /**
+     * Joins two trees and a key between them into one tree, in time proportional to the difference of
+     * their heights. Both trees are emptied.
+     *
+     * @param left tree whose values are all smaller than key
+     * @param key value of the node linking the trees
+     * @param right tree whose values are all larger than key
+     * @return a new tree with left's capacity and augmentation
+     * @throws IllegalArgumentException if the values are not ordered, or the trees maintain different augmentations
+     * @throws InvalidNodeCountException if the joined tree would exceed left's {@code maxSize}
+     */
+    public static AVLTree join(AVLTree left, int key, AVLTree right) throws InvalidNodeCountException {
+        left.requireCompatible(right);
+        if ((left.root != null && lastValue(left.root) >= key) || (right.root != null && firstValue(right.root) <= key)) {
+            throw new IllegalArgumentException("Values must be ordered left < " + key + " < right");
+        }
+        int size = left.size + right.size + 1;
+        if (size > left.maxSize) {
+            throw new InvalidNodeCountException("Too many nodes! Maximum allowed is " + left.maxSize);
+        }
+        AVLTree joined = new AVLTree(left.maxSize, left.augmentation);
+        joined.root = AVLJoin.join(left.root, joined.newNode(key), right.root, left.augmentation);
+        joined.size = size;
+        left.clear();
+        right.clear();
+        return joined;
     }
 
-    private Node deleteRecursive(Node node, int val) {
-        if (node == null) return null;
+    /**
+     * Splits a tree into the values below key and the values above it, in time proportional to its height.
+     * Counting the nodes of each part takes time proportional to the smaller part unless the tree
+     * maintains {@link SubtreeAggregates}. The tree is emptied.
+     *
+     * @param tree tree to split
+     * @param key value to split at, which is in neither part
+     * @return both parts, with the tree's capacity and augmentation, and whether key was present
+     */
+    public static Split split(AVLTree tree, int key) {
+        AVLJoin.Parts parts = AVLJoin.split(tree.root, key, tree.augmentation);
+        int remaining = tree.size - (parts.found() == null ? 0 : 1);
+        AVLTree less = new AVLTree(tree.maxSize, tree.augmentation);
+        AVLTree greater = new AVLTree(tree.maxSize, tree.augmentation);
+        less.root = parts.less();
+        less.size = tree.countNodes(parts.less(), parts.greater(), remaining);
+        greater.root = parts.greater();
+        greater.size = remaining - less.size;
+        tree.clear();
+        return new Split(less, parts.found() != null, greater);
+    }
 
-        if (val < node.getValue()) {
-            node.setLeftChild(deleteRecursive(node.getLeftChild(), val));
-        } else if (val > node.getValue()) {
-            node.setRightChild(deleteRecursive(node.getRightChild(), val));
-        } else {
-            // Node with only one child or no child
-            if (node.getLeftChild() == null) return node.getRightChild();
-            if (node.getRightChild() == null) return node.getLeftChild();
+    /**
+     * Adds every value of other to this tree, in O(m log(n/m + 1)) work for trees of sizes m <= n.
+     * Independent halves run in parallel on the common fork-join pool. other is emptied.
+     *
+     * @return number of values added
+     * @throws IllegalArgumentException if other is this tree or maintains a different augmentation
+     * @throws InvalidNodeCountException if the sizes of both trees add up to more than {@code maxSize};
+     *                                   neither tree is changed
+     */
+    public int union(AVLTree other) throws InvalidNodeCountException {
+        requireCompatible(other);
+        if ((long) size + other.size > maxSize) {
+            throw new InvalidNodeCountException("Too many nodes! Maximum allowed is " + maxSize);
+        }
+        LongAdder duplicates = new LongAdder();
+        root = AVLJoin.apply(AVLJoin.Operation.UNION, root, other.root, augmentation, duplicates);
+        int added = other.size - duplicates.intValue();
+        size += added;
+        other.clear();
+        return added;
+    }
 
-            // Node with two children: get inorder successor
-            Node successor = inOrderSuccessor(node);
-            node.setValue(successor.getValue());
-            node.setRightChild(deleteRecursive(node.getRightChild(), successor.getValue()));
+    /**
+     * Removes every value of this tree that is not in other, in O(m log(n/m + 1)) work for trees of
+     * sizes m <= n. Independent halves run in parallel on the common fork-join pool. other is emptied.
+     *
+     * @return number of values removed
+     * @throws IllegalArgumentException if other is this tree or maintains a different augmentation
+     */
+    public int intersection(AVLTree other) {
+        requireCompatible(other);
+        LongAdder common = new LongAdder();
+        root = AVLJoin.apply(AVLJoin.Operation.INTERSECTION, root, other.root, augmentation, common);
+        int removed = size - common.intValue();
+        size = common.intValue();
+        other.clear();
+        return removed;
+    }
+
+    /**
+     * Removes every value of this tree that is in other, in O(m log(n/m + 1)) work for trees of
+     * sizes m <= n. Independent halves run in parallel on the common fork-join pool. other is unchanged.
+     *
+     * @return number of values removed
+     * @throws IllegalArgumentException if other is this tree or maintains a different augmentation
+     */
+    public int difference(AVLTree other) {
+        requireCompatible(other);
+        LongAdder removed = new LongAdder();
+        root = AVLJoin.apply(AVLJoin.Operation.DIFFERENCE, root, other.root, augmentation, removed);
+        size -= removed.intValue();
+        return removed.intValue();
+    }
+
+    /**
+     * Removes every value between lo and hi inclusive with two splits and a join, in time proportional to
+     * the tree's height plus, unless the tree maintains {@link SubtreeAggregates}, the number of values removed.
+     *
+     * @return number of values removed
+     */
+    public int deleteRange(int lo, int hi) {
+        if (lo > hi || root == null) {
+            return 0;
         }
+        AVLJoin.Parts below = AVLJoin.split(root, lo, augmentation);
+        AVLJoin.Parts above = AVLJoin.split(below.greater(), hi, augmentation);
+        int removed = (below.found() == null ? 0 : 1) + (above.found() == null ? 0 : 1)
+                + countNodes(above.less(), null, 0);
+        root = AVLJoin.join2(below.less(), above.greater(), augmentation);
+        size -= removed;
+        return removed;
+    }
 
-        updateHeight(node);
-        return balance(node);
+    // Counts the nodes under less, given that less and other hold total nodes together. Without subtree
+    // sizes, steps through both in lockstep so that the cost is that of the smaller one.
+    private int countNodes(Node less, Node other, int total) {
+        if (augmentation instanceof SubtreeAggregates) {
+            return (less == null) ? 0 : ((AugmentedNode) less).getSubtreeSize();
+        }
+        PreOrderIterator lessNodes = new PreOrderIterator(less);
+        PreOrderIterator otherNodes = new PreOrderIterator(other);
+        int lessCount = 0;
+        int otherCount = 0;
+        while (true) {
+            if (!lessNodes.hasNext()) {
+                return lessCount;
+            }
+            lessNodes.nextInt();
+            lessCount++;
+            if (other == null) {
+                continue;
+            }
+            if (!otherNodes.hasNext()) {
+                return total - otherCount;
+            }
+            otherNodes.nextInt();
+            otherCount++;
+        }
+    }
+
+    private void requireCompatible(AVLTree other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot combine a tree with itself");
+        }
+        Class<?> ours = (augmentation == null) ? null : augmentation.getClass();
+        Class<?> theirs = (other.augmentation == null) ? null : other.augmentation.getClass();
+        if (ours != theirs) {
+            throw new IllegalArgumentException("Trees must maintain the same augmentation");
+        }
+    }
+
+    private static int firstValue(Node node) {
+        while (node.getLeftChild() != null) {
+            node = node.getLeftChild();
+        }
+        return node.getValue();
+    }
+
+    private static int lastValue(Node node) {
+        while (node.getRightChild() != null) {
+            node = node.getRightChild();
+        }
+        return node.getValue();
     }
 
     // Gets balance of given node.
@@ -109,9 +388,12 @@ public class AVLTree extends Tree {
 
         newRoot.setRightChild(root);
         root.setLeftChild(movedSubtree);
+        emit(TreeEvent.ROTATE_RIGHT, root, newRoot);
 
         updateHeight(root);
         updateHeight(newRoot);
+        augment(root);
+        augment(newRoot);
 
         return newRoot;
     }
@@ -122,14 +404,18 @@ public class AVLTree extends Tree {
 
         newRoot.setLeftChild(root);
         root.setRightChild(movedSubtree);
+        emit(TreeEvent.ROTATE_LEFT, root, newRoot);
 
         updateHeight(root);
         updateHeight(newRoot);
+        augment(root);
+        augment(newRoot);
 
         return newRoot;
     }
 
     private void updateHeight(Node node) {
         node.setHeight(1 + Math.max(height(node.getLeftChild()), height(node.getRightChild())));
+        emit(TreeEvent.HEIGHT_UPDATE, node, null);
     }
 }
@@ -0,0 +1,173 @@
+package io.github.jameseec.treevisualize.model;
+
+/**
+ * AVL tree which disallows duplicates, storing its nodes in a {@link NodeArena}.
+ * Node heights live in the arena's metadata byte. Produces the same shapes as {@link AVLTree}.
+ */
+public class ArenaAVLTree extends ArenaTree {
+
+    /**
+     * Constructor that creates an empty, unbounded tree on a heap arena.
+     */
+    public ArenaAVLTree() {
+        this(NodeArena.onHeap(16), UNBOUNDED);
+    }
+
+    /**
+     * Constructor that creates an empty tree on the given arena, holding at most {@code maxSize} nodes.
+     *
+     * @param arena empty arena to store nodes in
+     * @param maxSize maximum number of nodes, or {@code Tree.UNBOUNDED}
+     */
+    public ArenaAVLTree(NodeArena arena, int maxSize) {
+        super(arena, maxSize);
+    }
+
+    @Override
+    protected void insertNode(int val, OperationResult result) {
+        int depth = 0;
+        int current = rootSlot;
+        while (current != NodeArena.NIL) {
+            pushSlot(depth++, current);
+            int key = arena.key(current);
+            if (val < key) {
+                current = arena.left(current);
+            } else if (val > key) {
+                current = arena.right(current);
+            } else {
+                result.setOutcome(OperationResult.Outcome.DUPLICATE);
+                result.setPathLength(depth);
+                return;
+            }
+        }
+        result.setOutcome(OperationResult.Outcome.INSERTED);
+        result.setPathLength(depth);
+
+        int subtree = arena.allocate(val);
+        for (int i = depth - 1; i >= 0; i--) {
+            int parent = slotPath[i];
+            if (val < arena.key(parent)) {
+                arena.setLeft(parent, subtree);
+            } else {
+                arena.setRight(parent, subtree);
+            }
+            int oldHeight = arena.meta(parent);
+            updateHeight(parent);
+            subtree = balance(parent, result);
+            if (subtree == parent && arena.meta(parent) == oldHeight) {
+                return;
+            }
+        }
+        rootSlot = subtree;
+    }
+
+    @Override
+    protected void deleteNode(int val, OperationResult result) {
+        int depth = 0;
+        int current = rootSlot;
+        while (current != NodeArena.NIL && arena.key(current) != val) {
+            pushSlot(depth++, current);
+            current = (val < arena.key(current)) ? arena.left(current) : arena.right(current);
+        }
+        if (current == NodeArena.NIL) {
+            result.setOutcome(OperationResult.Outcome.NOT_FOUND);
+            result.setPathLength(depth);
+            return;
+        }
+        pushSlot(depth++, current);
+
+        // Node with two children: copy inorder successor's key, then remove the successor instead
+        if (arena.left(current) != NodeArena.NIL && arena.right(current) != NodeArena.NIL) {
+            int target = current;
+            current = arena.right(current);
+            while (current != NodeArena.NIL) {
+                pushSlot(depth++, current);
+                current = arena.left(current);
+            }
+            arena.setKey(target, arena.key(slotPath[depth - 1]));
+        }
+        result.setOutcome(OperationResult.Outcome.DELETED);
+        result.setPathLength(depth);
+
+        int removed = slotPath[depth - 1];
+        int subtree = (arena.left(removed) == NodeArena.NIL) ? arena.right(removed) : arena.left(removed);
+        arena.free(removed);
+        for (int i = depth - 2; i >= 0; i--) {
+            int parent = slotPath[i];
+            if (arena.left(parent) == slotPath[i + 1]) {
+                arena.setLeft(parent, subtree);
+            } else {
+                arena.setRight(parent, subtree);
+            }
+            int oldHeight = arena.meta(parent);
+            updateHeight(parent);
+            subtree = balance(parent, result);
+            if (subtree == parent && arena.meta(parent) == oldHeight) {
+                return;
+            }
+        }
+        rootSlot = subtree;
+    }
+
+    @Override
+    protected void copyMeta(int slot, Node node) {
+        node.setHeight(arena.meta(slot));
+    }
+
+    private int balance(int slot, OperationResult result) {
+        int balance = getBalance(slot);
+
+        // Left heavy
+        if (balance > 1) {
+            if (getBalance(arena.left(slot)) < 0) {
+                arena.setLeft(slot, rotateLeft(arena.left(slot))); // LR case
+                result.addRotations(1);
+            }
+            result.addRotations(1);
+            return rotateRight(slot); // LL case
+        }
+
+        // Right heavy
+        if (balance < -1) {
+            if (getBalance(arena.right(slot)) > 0) {
+                arena.setRight(slot, rotateRight(arena.right(slot))); // RL case
+                result.addRotations(1);
+            }
+            result.addRotations(1);
+            return rotateLeft(slot); // RR case
+        }
+
+        return slot;
+    }
+
+    private int getBalance(int slot) {
+        return (slot == NodeArena.NIL) ? 0 : height(arena.left(slot)) - height(arena.right(slot));
+    }
+
+    // Returns stored height, -1 if slot is NIL
+    private int height(int slot) {
+        return (slot == NodeArena.NIL) ? -1 : arena.meta(slot);
+    }
+
+    private int rotateRight(int slot) {
+        int newRoot = arena.left(slot);
+        arena.setLeft(slot, arena.right(newRoot));
+        arena.setRight(newRoot, slot);
+        updateHeight(slot);
+        updateHeight(newRoot);
+        return newRoot;
+    }
+
+    private int rotateLeft(int slot) {
+        int newRoot = arena.right(slot);
+        arena.setRight(slot, arena.left(newRoot));
+        arena.setLeft(newRoot, slot);
+        updateHeight(slot);
+        updateHeight(newRoot);
+        return newRoot;
+    }
+
+    private void updateHeight(int slot) {
+        arena.setMeta(slot, (byte) (1 + Math.max(height(arena.left(slot)), height(arena.right(slot)))));
+    }
+}
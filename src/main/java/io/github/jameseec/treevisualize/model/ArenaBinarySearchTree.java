@@ -0,0 +1,111 @@
+package io.github.jameseec.treevisualize.model;
+
+/**
+ * Simple binary search tree which disallows duplicates, storing its nodes in a {@link NodeArena}.
+ * Produces the same shapes as {@link BinarySearchTree}.
+ */
+public class ArenaBinarySearchTree extends ArenaTree {
+
+    /**
+     * Constructor that creates an empty, unbounded tree on a heap arena.
+     */
+    public ArenaBinarySearchTree() {
+        this(NodeArena.onHeap(16), UNBOUNDED);
+    }
+
+    /**
+     * Constructor that creates an empty tree on the given arena, holding at most {@code maxSize} nodes.
+     *
+     * @param arena empty arena to store nodes in
+     * @param maxSize maximum number of nodes, or {@code Tree.UNBOUNDED}
+     */
+    public ArenaBinarySearchTree(NodeArena arena, int maxSize) {
+        super(arena, maxSize);
+    }
+
+    @Override
+    protected void insertNode(int val, OperationResult result) {
+        if (rootSlot == NodeArena.NIL) {
+            rootSlot = arena.allocate(val);
+            result.setOutcome(OperationResult.Outcome.INSERTED);
+            return;
+        }
+        int current = rootSlot;
+        int visited = 1;
+        while (true) {
+            int key = arena.key(current);
+            if (val > key) {
+                int right = arena.right(current);
+                if (right == NodeArena.NIL) {
+                    arena.setRight(current, arena.allocate(val));
+                    break;
+                }
+                current = right;
+            } else if (val < key) {
+                int left = arena.left(current);
+                if (left == NodeArena.NIL) {
+                    arena.setLeft(current, arena.allocate(val));
+                    break;
+                }
+                current = left;
+            } else {
+                result.setOutcome(OperationResult.Outcome.DUPLICATE);
+                result.setPathLength(visited);
+                return;
+            }
+            visited++;
+        }
+        result.setOutcome(OperationResult.Outcome.INSERTED);
+        result.setPathLength(visited);
+    }
+
+    @Override
+    protected void deleteNode(int val, OperationResult result) {
+        int parent = NodeArena.NIL;
+        int current = rootSlot;
+        int visited = 0;
+        while (current != NodeArena.NIL && arena.key(current) != val) {
+            visited++;
+            parent = current;
+            current = (val < arena.key(current)) ? arena.left(current) : arena.right(current);
+        }
+        if (current == NodeArena.NIL) {
+            result.setOutcome(OperationResult.Outcome.NOT_FOUND);
+            result.setPathLength(visited);
+            return;
+        }
+        visited++;
+
+        if (arena.left(current) != NodeArena.NIL && arena.right(current) != NodeArena.NIL) {
+            // Move in-order successor's key into current, then unlink the successor
+            int successorParent = current;
+            int successor = arena.right(current);
+            visited++;
+            while (arena.left(successor) != NodeArena.NIL) {
+                successorParent = successor;
+                successor = arena.left(successor);
+                visited++;
+            }
+            arena.setKey(current, arena.key(successor));
+            parent = successorParent;
+            current = successor;
+        }
+
+        int replacement = (arena.left(current) == NodeArena.NIL) ? arena.right(current) : arena.left(current);
+        if (parent == NodeArena.NIL) {
+            rootSlot = replacement;
+        } else if (arena.left(parent) == current) {
+            arena.setLeft(parent, replacement);
+        } else {
+            arena.setRight(parent, replacement);
+        }
+        arena.free(current);
+        result.setOutcome(OperationResult.Outcome.DELETED);
+        result.setPathLength(visited);
+    }
+
+    @Override
+    protected void copyMeta(int slot, Node node) {
+        // Simple BSTs keep no metadata
+    }
+}
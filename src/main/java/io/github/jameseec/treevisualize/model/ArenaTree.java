@@ -0,0 +1,286 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Base class for trees that store their nodes in a {@link NodeArena} instead of {@link Node} objects.
+ * Keeps the {@link Tree} API: lookups run directly on the arena, while methods returning {@link Node}s
+ * hand out detached copies. {@link #getRoot()} materializes the whole tree once per modification,
+ * so it is intended for rendering small trees rather than for hot paths.
+ */
+public abstract class ArenaTree extends Tree {
+    protected final NodeArena arena;
+    protected int rootSlot = NodeArena.NIL;
+    /** Scratch stack of slots visited by the last descent. */
+    protected int[] slotPath = new int[32];
+    private Node view;
+
+    protected ArenaTree(NodeArena arena, int maxSize) {
+        super(maxSize);
+        this.arena = arena;
+    }
+
+    @Override
+    public OperationResult insert(int val, OperationResult result) throws InvalidNodeCountException {
+        super.insert(val, result);
+        if (result.isChanged()) {
+            view = null;
+        }
+        return result;
+    }
+
+    @Override
+    public OperationResult delete(int val, OperationResult result) {
+        super.delete(val, result);
+        if (result.isChanged()) {
+            view = null;
+        }
+        return result;
+    }
+
+    /**
+     * Counts the slots visited, each compared once, and the rotations and slot allocated in the metrics,
+     * if there are any.
+     */
+    @Override
+    protected void applyInsert(int val, OperationResult result) {
+        super.applyInsert(val, result);
+        TreeMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.countSteps(result.getPathLength(), result.getPathLength(), result.getRotations());
+            if (result.isChanged()) {
+                metrics.countAllocation();
+            }
+        }
+    }
+
+    /**
+     * Counts the slots visited and the rotations in the metrics, if there are any. The walk to a successor
+     * counts as comparisons too, as the path length does not tell it apart.
+     */
+    @Override
+    protected void applyDelete(int val, OperationResult result) {
+        super.applyDelete(val, result);
+        TreeMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.countSteps(result.getPathLength(), result.getPathLength(), result.getRotations());
+        }
+    }
+
+    /**
+     * Returns a detached copy of the node with the specified value, or null if absent.
+     * The copy has no children.
+     */
+    @Override
+    public Node find(int val) {
+        int slot = search(val);
+        return (slot == NodeArena.NIL) ? null : detach(slot);
+    }
+
+    @Override
+    public boolean contains(int val) {
+        return search(val) != NodeArena.NIL;
+    }
+
+    // Returns the slot holding val, or NIL if absent, timing, counting and recording the search while metrics or
+    // a flight recording are in use.
+    private int search(int val) {
+        TreeOperationEvent event = beginOperation(TreeMetrics.Operation.FIND, val);
+        if (event == null) {
+            return findSlot(val);
+        }
+        int visits = 0;
+        int current = rootSlot;
+        while (current != NodeArena.NIL) {
+            visits++;
+            int key = arena.key(current);
+            if (key == val) {
+                break;
+            }
+            current = (key < val) ? arena.right(current) : arena.left(current);
+        }
+        TreeMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.countSteps(visits, visits, 0);
+        }
+        endFind(event, val, current != NodeArena.NIL, visits);
+        return current;
+    }
+
+    /**
+     * Returns detached copies of the nodes visited while attempting to find specified value.
+     */
+    @Override
+    public List<Node> findWithPath(int val) {
+        ArrayList<Node> visited = new ArrayList<>();
+        int current = rootSlot;
+        while (current != NodeArena.NIL) {
+            visited.add(detach(current));
+            int key = arena.key(current);
+            if (key < val) {
+                current = arena.right(current);
+            } else if (key > val) {
+                current = arena.left(current);
+            } else {
+                break;
+            }
+        }
+        return visited;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        arena.clear();
+        rootSlot = NodeArena.NIL;
+        view = null;
+    }
+
+    /**
+     * Gets a {@link Node} copy of the whole tree, built on first use after each modification.
+     */
+    @Override
+    public Node getRoot() {
+        if (view == null && rootSlot != NodeArena.NIL) {
+            view = materialize();
+        }
+        return view;
+    }
+
+    /**
+     * Arena trees have no {@link Node}s to report steps with.
+     *
+     * @throws UnsupportedOperationException always, unless listener is null
+     */
+    @Override
+    public void setListener(TreeListener listener) {
+        if (listener != null) {
+            throw new UnsupportedOperationException("Arena trees do not report events");
+        }
+    }
+
+    /**
+     * Gets the arena holding this tree's nodes.
+     */
+    public NodeArena getArena() {
+        return arena;
+    }
+
+    @Override
+    protected void buildBalanced(int[] keys, int count) {
+        arena.clear();
+        rootSlot = buildRange(keys, 0, count - 1);
+        size = count;
+        view = null;
+    }
+
+    // Builds keys[lo..hi] around its midpoint, storing each slot's height in its metadata byte.
+    private int buildRange(int[] keys, int lo, int hi) {
+        if (lo > hi) {
+            return NodeArena.NIL;
+        }
+        int mid = (lo + hi) >>> 1;
+        int slot = arena.allocate(keys[mid]);
+        int left = buildRange(keys, lo, mid - 1);
+        int right = buildRange(keys, mid + 1, hi);
+        arena.setLeft(slot, left);
+        arena.setRight(slot, right);
+        int leftHeight = (left == NodeArena.NIL) ? -1 : arena.meta(left);
+        int rightHeight = (right == NodeArena.NIL) ? -1 : arena.meta(right);
+        arena.setMeta(slot, (byte) (1 + Math.max(leftHeight, rightHeight)));
+        return slot;
+    }
+
+    @Override
+    protected int[] inOrderKeys() {
+        int[] keys = new int[size];
+        int count = 0;
+        int depth = 0;
+        int current = rootSlot;
+        while (current != NodeArena.NIL || depth > 0) {
+            while (current != NodeArena.NIL) {
+                pushSlot(depth++, current);
+                current = arena.left(current);
+            }
+            current = slotPath[--depth];
+            keys[count++] = arena.key(current);
+            current = arena.right(current);
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the slot holding val, or {@code NodeArena.NIL} if absent.
+     */
+    protected int findSlot(int val) {
+        int current = rootSlot;
+        while (current != NodeArena.NIL) {
+            int key = arena.key(current);
+            if (key == val) {
+                return current;
+            }
+            current = (key < val) ? arena.right(current) : arena.left(current);
+        }
+        return NodeArena.NIL;
+    }
+
+    /**
+     * Stores slot at the given depth of the {@code slotPath} scratch stack, growing it if needed.
+     */
+    protected void pushSlot(int depth, int slot) {
+        if (depth == slotPath.length) {
+            slotPath = Arrays.copyOf(slotPath, slotPath.length * 2);
+        }
+        slotPath[depth] = slot;
+    }
+
+    /**
+     * Copies the arena's metadata byte for slot onto a detached node.
+     */
+    protected abstract void copyMeta(int slot, Node node);
+
+    private Node detach(int slot) {
+        Node node = new Node(arena.key(slot));
+        copyMeta(slot, node);
+        return node;
+    }
+
+    // Builds a Node copy of the tree in pre-order, using explicit stacks instead of recursion.
+    private Node materialize() {
+        int[] slots = new int[64];
+        Node[] copies = new Node[64];
+        Node copyRoot = detach(rootSlot);
+        slots[0] = rootSlot;
+        copies[0] = copyRoot;
+        int top = 1;
+        while (top > 0) {
+            top--;
+            int slot = slots[top];
+            Node copy = copies[top];
+            copies[top] = null;
+            int left = arena.left(slot);
+            int right = arena.right(slot);
+            if (top + 2 > slots.length) {
+                slots = Arrays.copyOf(slots, slots.length * 2);
+                copies = Arrays.copyOf(copies, copies.length * 2);
+            }
+            if (right != NodeArena.NIL) {
+                Node child = detach(right);
+                copy.setRightChild(child);
+                slots[top] = right;
+                copies[top++] = child;
+            }
+            if (left != NodeArena.NIL) {
+                Node child = detach(left);
+                copy.setLeftChild(child);
+                slots[top] = left;
+                copies[top++] = child;
+            }
+        }
+        return copyRoot;
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.jameseec.treevisualize.model;
+
+/**
+ * Extra data kept in every node and computed from the node's own value and its children, such as the
+ * number of nodes in its subtree. Trees created with an augmentation create their nodes through it and
+ * call {@link #update} on every node whose subtree changed, children before parents, including both
+ * nodes of every rotation.
+ */
+public interface Augmentation {
+
+    /**
+     * Creates a node with the given value, no children and augmented data describing just itself.
+     *
+     * @param value value of the node
+     * @return a new node, of a subclass of {@link Node} holding the augmented data
+     */
+    Node newNode(int value);
+
+    /**
+     * Recomputes the augmented data of node from its value and its children, whose data is up to date.
+     *
+     * @param node a node created by {@link #newNode}
+     */
+    void update(Node node);
+}
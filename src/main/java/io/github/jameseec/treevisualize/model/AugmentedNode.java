@@ -0,0 +1,58 @@
+package io.github.jameseec.treevisualize.model;
+
+/**
+ * Node that also holds aggregates over its subtree, maintained by {@link SubtreeAggregates}.
+ */
+public class AugmentedNode extends Node {
+    private int subtreeSize;
+    private long subtreeSum;
+    private int subtreeMin;
+    private int subtreeMax;
+
+    /**
+     * Constructs a node with specified value and no children, whose aggregates cover only itself.
+     * @param value value to assign to node.
+     */
+    public AugmentedNode(int value) {
+        super(value);
+        this.subtreeSize = 1;
+        this.subtreeSum = value;
+        this.subtreeMin = value;
+        this.subtreeMax = value;
+    }
+
+    /**
+     * Gets the number of nodes in this node's subtree, including itself.
+     */
+    public int getSubtreeSize() {
+        return subtreeSize;
+    }
+
+    /**
+     * Gets the sum of the values in this node's subtree.
+     */
+    public long getSubtreeSum() {
+        return subtreeSum;
+    }
+
+    /**
+     * Gets the smallest value in this node's subtree.
+     */
+    public int getSubtreeMin() {
+        return subtreeMin;
+    }
+
+    /**
+     * Gets the largest value in this node's subtree.
+     */
+    public int getSubtreeMax() {
+        return subtreeMax;
+    }
+
+    void setAggregates(int size, long sum, int min, int max) {
+        this.subtreeSize = size;
+        this.subtreeSum = sum;
+        this.subtreeMin = min;
+        this.subtreeMax = max;
+    }
+}
@@ -0,0 +1,625 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Represents a B-tree that disallows duplicates. Keys are stored in sorted primitive arrays in pages of up to
+ * {@code order - 1} keys, so a lookup reads a few contiguous arrays instead of one node per level.
+ * Every page but the root holds at least {@code ceil(order / 2) - 1} keys, and all leaves are at the same depth.
+ * <p>
+ * Keeps the {@link Tree} API: methods returning {@link Node}s hand out detached copies, and {@link #getRoot()}
+ * builds a balanced binary tree of the same keys once per modification, so it is intended for small trees.
+ * Use {@link #getRootPage()} to read the pages themselves.
+ */
+public class BTree extends Tree {
+    /** Order used unless specified, which fills a page's keys into a few cache lines. */
+    public static final int DEFAULT_ORDER = 32;
+
+    private final int order;
+    private final int minKeys;
+    private Page rootPage;
+    /** Scratch stacks of the pages visited by the last descent, and the child taken from each. */
+    private Page[] pagePath = new Page[16];
+    private int[] childPath = new int[16];
+    /** Key comparisons made by the last insert or delete, for the metrics. */
+    private int comparisons;
+    private Node view;
+
+    /**
+     * Page of a B-tree: a sorted run of keys and, unless it is a leaf, one more child than keys.
+     */
+    public static final class Page {
+        /** Keys, with room for one more than the maximum so that a page can overflow before it splits. */
+        private final int[] keys;
+        private final Page[] children;
+        private int count;
+
+        private Page(int order, boolean leaf) {
+            keys = new int[order];
+            children = leaf ? null : new Page[order + 1];
+        }
+
+        public int getKeyCount() {
+            return count;
+        }
+
+        public int getKey(int index) {
+            return keys[index];
+        }
+
+        /**
+         * Gets the child holding the keys between key {@code index - 1} and key {@code index}.
+         *
+         * @throws IllegalStateException if this page is a leaf
+         */
+        public Page getChild(int index) {
+            if (children == null) {
+                throw new IllegalStateException("Leaf pages have no children");
+            }
+            return children[index];
+        }
+
+        public boolean isLeaf() {
+            return children == null;
+        }
+
+        // Overwrite a page's contents without keeping any invariant, so that tests can break them.
+
+        void setKey(int index, int key) {
+            keys[index] = key;
+        }
+
+        void setKeyCount(int count) {
+            this.count = count;
+        }
+
+        void setChild(int index, Page child) {
+            children[index] = child;
+        }
+
+        // Inserts key at index, with child as the page after it unless this is a leaf.
+        private void insertAt(int index, int key, Page child) {
+            System.arraycopy(keys, index, keys, index + 1, count - index);
+            keys[index] = key;
+            if (children != null) {
+                System.arraycopy(children, index + 1, children, index + 2, count - index);
+                children[index + 1] = child;
+            }
+            count++;
+        }
+
+        // Removes key at index, and the child after it unless this is a leaf.
+        private void removeAt(int index) {
+            System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+            if (children != null) {
+                System.arraycopy(children, index + 2, children, index + 1, count - index - 1);
+                children[count] = null;
+            }
+            count--;
+        }
+
+        private int search(int val) {
+            return Arrays.binarySearch(keys, 0, count, val);
+        }
+    }
+
+    /**
+     * Constructor that creates an empty B-tree of {@code DEFAULT_ORDER} with no limit on its size.
+     */
+    public BTree() {
+        this(DEFAULT_ORDER, UNBOUNDED);
+    }
+
+    /**
+     * Constructor that creates an empty B-tree of the given order holding at most {@code maxSize} keys.
+     *
+     * @param order maximum number of children of a page
+     * @param maxSize maximum number of keys, or {@code UNBOUNDED}
+     * @throws IllegalArgumentException if order is less than 3 or maxSize is negative
+     */
+    public BTree(int order, int maxSize) {
+        super(maxSize);
+        if (order < 3) {
+            throw new IllegalArgumentException("Order must be at least 3: " + order);
+        }
+        this.order = order;
+        this.minKeys = (order + 1) / 2 - 1;
+    }
+
+    @Override
+    public OperationResult insert(int val, OperationResult result) throws InvalidNodeCountException {
+        super.insert(val, result);
+        if (result.isChanged()) {
+            view = null;
+        }
+        return result;
+    }
+
+    @Override
+    public OperationResult delete(int val, OperationResult result) {
+        super.delete(val, result);
+        if (result.isChanged()) {
+            view = null;
+        }
+        return result;
+    }
+
+    /**
+     * Inserts val into its leaf, splitting full pages on the way back up. The path length counts pages.
+     */
+    @Override
+    protected void insertNode(int val, OperationResult result) {
+        comparisons = 0;
+        if (rootPage == null) {
+            rootPage = newPage(true);
+            rootPage.insertAt(0, val, null);
+            result.setOutcome(OperationResult.Outcome.INSERTED);
+            result.setPathLength(1);
+            return;
+        }
+        int depth = 0;
+        Page page = rootPage;
+        while (true) {
+            int index = page.search(val);
+            comparisons += probes(page);
+            if (index >= 0) {
+                result.setOutcome(OperationResult.Outcome.DUPLICATE);
+                result.setPathLength(depth + 1);
+                clearPages(depth);
+                return;
+            }
+            index = -index - 1;
+            if (page.isLeaf()) {
+                page.insertAt(index, val, null);
+                break;
+            }
+            pushPage(depth++, page, index);
+            page = page.children[index];
+        }
+        result.setOutcome(OperationResult.Outcome.INSERTED);
+        result.setPathLength(depth + 1);
+
+        for (int level = depth; page.count == order; level--) {
+            int middle = order / 2;
+            int median = page.keys[middle];
+            Page right = split(page, middle);
+            if (level == 0) {
+                rootPage = newPage(false);
+                rootPage.children[0] = page;
+                rootPage.insertAt(0, median, right);
+                break;
+            }
+            page = pagePath[level - 1];
+            page.insertAt(childPath[level - 1], median, right);
+        }
+        clearPages(depth);
+    }
+
+    // Moves the keys and children after index middle of an overflowing page into a new right sibling.
+    private Page split(Page page, int middle) {
+        Page right = newPage(page.isLeaf());
+        right.count = page.count - middle - 1;
+        System.arraycopy(page.keys, middle + 1, right.keys, 0, right.count);
+        if (!page.isLeaf()) {
+            System.arraycopy(page.children, middle + 1, right.children, 0, right.count + 1);
+            Arrays.fill(page.children, middle + 1, page.count + 1, null);
+        }
+        page.count = middle;
+        return right;
+    }
+
+    /**
+     * Deletes val, replacing it by its predecessor if it is in an inner page, then refills pages left with
+     * too few keys by borrowing from or merging with a sibling on the way back up. The path length counts pages.
+     */
+    @Override
+    protected void deleteNode(int val, OperationResult result) {
+        comparisons = 0;
+        int depth = 0;
+        Page page = rootPage;
+        int index = -1;
+        while (page != null) {
+            index = page.search(val);
+            comparisons += probes(page);
+            if (index >= 0 || page.isLeaf()) {
+                break;
+            }
+            index = -index - 1;
+            pushPage(depth++, page, index);
+            page = page.children[index];
+        }
+        if (page == null || index < 0) {
+            result.setOutcome(OperationResult.Outcome.NOT_FOUND);
+            result.setPathLength(page == null ? depth : depth + 1);
+            clearPages(depth);
+            return;
+        }
+
+        if (page.isLeaf()) {
+            page.removeAt(index);
+        } else {
+            // Replace val by its predecessor, the last key of the rightmost leaf of the left subtree
+            Page target = page;
+            int targetIndex = index;
+            pushPage(depth++, page, index);
+            page = page.children[index];
+            while (!page.isLeaf()) {
+                pushPage(depth++, page, page.count);
+                page = page.children[page.count];
+            }
+            target.keys[targetIndex] = page.keys[page.count - 1];
+            page.count--;
+        }
+        result.setOutcome(OperationResult.Outcome.DELETED);
+        result.setPathLength(depth + 1);
+
+        for (int level = depth; level > 0 && page.count < minKeys; level--) {
+            Page parent = pagePath[level - 1];
+            rebalance(parent, childPath[level - 1]);
+            page = parent;
+        }
+        if (rootPage.count == 0) {
+            rootPage = rootPage.isLeaf() ? null : rootPage.children[0];
+        }
+        clearPages(depth);
+    }
+
+    // Refills the child at index of parent, which has one key too few, from a sibling or by merging.
+    private void rebalance(Page parent, int index) {
+        Page page = parent.children[index];
+        Page left = (index > 0) ? parent.children[index - 1] : null;
+        Page right = (index < parent.count) ? parent.children[index + 1] : null;
+        if (left != null && left.count > minKeys) {
+            // Rotate the separator down into page and the left sibling's last key up
+            System.arraycopy(page.keys, 0, page.keys, 1, page.count);
+            page.keys[0] = parent.keys[index - 1];
+            parent.keys[index - 1] = left.keys[left.count - 1];
+            if (!page.isLeaf()) {
+                System.arraycopy(page.children, 0, page.children, 1, page.count + 1);
+                page.children[0] = left.children[left.count];
+                left.children[left.count] = null;
+            }
+            page.count++;
+            left.count--;
+        } else if (right != null && right.count > minKeys) {
+            page.keys[page.count] = parent.keys[index];
+            parent.keys[index] = right.keys[0];
+            if (!page.isLeaf()) {
+                page.children[page.count + 1] = right.children[0];
+                System.arraycopy(right.children, 1, right.children, 0, right.count);
+                right.children[right.count] = null;
+            }
+            System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+            page.count++;
+            right.count--;
+        } else if (left != null) {
+            merge(parent, index - 1);
+        } else {
+            merge(parent, index);
+        }
+    }
+
+    // Merges the children on either side of parent's key at index, with that key between them.
+    private void merge(Page parent, int index) {
+        Page left = parent.children[index];
+        Page right = parent.children[index + 1];
+        left.keys[left.count] = parent.keys[index];
+        System.arraycopy(right.keys, 0, left.keys, left.count + 1, right.count);
+        if (!left.isLeaf()) {
+            System.arraycopy(right.children, 0, left.children, left.count + 1, right.count + 1);
+        }
+        left.count += right.count + 1;
+        parent.removeAt(index);
+    }
+
+    // Creates an empty page for an insert, counting it as an allocation if there are metrics.
+    private Page newPage(boolean leaf) {
+        TreeMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.countAllocation();
+        }
+        return new Page(order, leaf);
+    }
+
+    // Returns the most key comparisons a binary search of page makes, which is how many the metrics count.
+    private static int probes(Page page) {
+        return 32 - Integer.numberOfLeadingZeros(page.count);
+    }
+
+    /**
+     * Counts the pages visited, the key comparisons of searching them and the pages created in the metrics,
+     * if there are any.
+     */
+    @Override
+    protected void applyInsert(int val, OperationResult result) {
+        super.applyInsert(val, result);
+        TreeMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.countSteps(result.getPathLength(), comparisons, 0);
+        }
+    }
+
+    /**
+     * Counts the pages visited, including those on the walk to a predecessor, and the key comparisons of
+     * searching them in the metrics, if there are any.
+     */
+    @Override
+    protected void applyDelete(int val, OperationResult result) {
+        super.applyDelete(val, result);
+        TreeMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.countSteps(result.getPathLength(), comparisons, 0);
+        }
+    }
+
+    private void pushPage(int depth, Page page, int child) {
+        if (depth == pagePath.length) {
+            pagePath = Arrays.copyOf(pagePath, depth * 2);
+            childPath = Arrays.copyOf(childPath, depth * 2);
+        }
+        pagePath[depth] = page;
+        childPath[depth] = child;
+    }
+
+    private void clearPages(int depth) {
+        Arrays.fill(pagePath, 0, depth, null);
+    }
+
+    /**
+     * Replaces the contents of this tree with pages filled as evenly as possible from the sorted keys,
+     * in linear time.
+     */
+    @Override
+    protected void buildBalanced(int[] keys, int count) {
+        int height = 0;
+        while (maxKeys(height) < count) {
+            height++;
+        }
+        rootPage = (count == 0) ? null : buildPage(keys, 0, count, height);
+        size = count;
+        view = null;
+    }
+
+    // Builds a subtree of the given height from keys[from..from + count), spreading keys evenly over
+    // as few children as can hold them. Recursion depth is the height of the tree.
+    private Page buildPage(int[] keys, int from, int count, int height) {
+        Page page = new Page(order, height == 0);
+        if (height == 0) {
+            System.arraycopy(keys, from, page.keys, 0, count);
+            page.count = count;
+            return page;
+        }
+        long childCapacity = maxKeys(height - 1);
+        int children = (int) Math.max(2, (count + 1 + childCapacity) / (childCapacity + 1));
+        int childKeys = count - (children - 1);
+        int next = from;
+        for (int child = 0; child < children; child++) {
+            int share = childKeys / children + ((child < childKeys % children) ? 1 : 0);
+            page.children[child] = buildPage(keys, next, share, height - 1);
+            next += share;
+            if (child < children - 1) {
+                page.keys[child] = keys[next++];
+            }
+        }
+        page.count = children - 1;
+        return page;
+    }
+
+    // Returns the most keys a subtree of the given height holds, saturating at Long.MAX_VALUE.
+    private long maxKeys(int height) {
+        long capacity = 1;
+        for (int i = 0; i <= height; i++) {
+            if (capacity > Long.MAX_VALUE / order) {
+                return Long.MAX_VALUE;
+            }
+            capacity *= order;
+        }
+        return capacity - 1;
+    }
+
+    @Override
+    protected int[] inOrderKeys() {
+        int[] keys = new int[size];
+        int count = 0;
+        PrimitiveIterator.OfInt iterator = iterator();
+        while (iterator.hasNext()) {
+            keys[count++] = iterator.nextInt();
+        }
+        return keys;
+    }
+
+    /**
+     * Returns a detached node holding val, or null if absent.
+     */
+    @Override
+    public Node find(int val) {
+        return contains(val) ? new Node(val) : null;
+    }
+
+    @Override
+    public boolean contains(int val) {
+        TreeOperationEvent event = beginOperation(TreeMetrics.Operation.FIND, val);
+        if (event != null) {
+            return countedContains(val, event);
+        }
+        Page page = rootPage;
+        while (page != null) {
+            int index = page.search(val);
+            if (index >= 0) {
+                return true;
+            }
+            page = page.isLeaf() ? null : page.children[-index - 1];
+        }
+        return false;
+    }
+
+    // Searches for val as contains does, counting its pages and comparisons, then ends the search started with
+    // event.
+    private boolean countedContains(int val, TreeOperationEvent event) {
+        int visits = 0;
+        int compared = 0;
+        boolean found = false;
+        Page page = rootPage;
+        while (page != null) {
+            int index = page.search(val);
+            visits++;
+            compared += probes(page);
+            if (index >= 0) {
+                found = true;
+                break;
+            }
+            page = page.isLeaf() ? null : page.children[-index - 1];
+        }
+        TreeMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.countSteps(visits, compared, 0);
+        }
+        endFind(event, val, found, visits);
+        return found;
+    }
+
+    /**
+     * Returns one detached node per page visited while attempting to find val: the key equal to val, or else
+     * the smallest key above val on the page, or its largest key if val is above all of them.
+     */
+    @Override
+    public List<Node> findWithPath(int val) {
+        List<Node> visited = new ArrayList<>();
+        Page page = rootPage;
+        while (page != null) {
+            int index = page.search(val);
+            if (index >= 0) {
+                visited.add(new Node(val));
+                break;
+            }
+            index = -index - 1;
+            visited.add(new Node(page.keys[Math.min(index, page.count - 1)]));
+            page = page.isLeaf() ? null : page.children[index];
+        }
+        return visited;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        rootPage = null;
+        view = null;
+    }
+
+    /**
+     * Gets a balanced binary tree of this tree's keys, built on first use after each modification.
+     */
+    @Override
+    public Node getRoot() {
+        if (view == null && rootPage != null) {
+            BinarySearchTree binary = new BinarySearchTree();
+            binary.buildBalanced(inOrderKeys(), size);
+            view = binary.getRoot();
+        }
+        return view;
+    }
+
+    /**
+     * B-trees have no {@link Node}s to report steps with.
+     *
+     * @throws UnsupportedOperationException always, unless listener is null
+     */
+    @Override
+    public void setListener(TreeListener listener) {
+        if (listener != null) {
+            throw new UnsupportedOperationException("B-trees do not report events");
+        }
+    }
+
+    /**
+     * Gets the root page, or null if the tree is empty. Pages must not be modified.
+     */
+    public Page getRootPage() {
+        return rootPage;
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * Gets the number of pages from the root to any leaf, or 0 if the tree is empty.
+     */
+    public int getHeight() {
+        int height = 0;
+        for (Page page = rootPage; page != null; page = page.isLeaf() ? null : page.children[0]) {
+            height++;
+        }
+        return height;
+    }
+
+    /**
+     * Returns an iterator over the keys in increasing order, walking the pages directly.
+     * The tree must not be modified while the iterator is in use.
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PageIterator(rootPage);
+    }
+
+    @Override
+    public Spliterator.OfInt spliterator() {
+        return Spliterators.spliterator(iterator(), size, Spliterator.ORDERED | Spliterator.SORTED
+                | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    // In-order walk over pages with a stack of pages and the index of the next key to return from each.
+    private static final class PageIterator implements PrimitiveIterator.OfInt {
+        private Page[] pages = new Page[16];
+        private int[] indices = new int[16];
+        private int depth;
+
+        PageIterator(Page root) {
+            descend(root);
+        }
+
+        // Pushes page and its leftmost descendants, each positioned at its first key.
+        private void descend(Page page) {
+            while (page != null) {
+                if (depth == pages.length) {
+                    pages = Arrays.copyOf(pages, depth * 2);
+                    indices = Arrays.copyOf(indices, depth * 2);
+                }
+                pages[depth] = page;
+                indices[depth++] = 0;
+                page = page.isLeaf() ? null : page.children[0];
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (depth == 0) {
+                throw new NoSuchElementException();
+            }
+            Page page = pages[depth - 1];
+            int index = indices[depth - 1]++;
+            int key = page.keys[index];
+            if (!page.isLeaf()) {
+                descend(page.children[index + 1]);
+            }
+            // Pop every page whose keys and children are exhausted
+            while (depth > 0 && indices[depth - 1] == pages[depth - 1].count) {
+                pages[--depth] = null;
+            }
+            return key;
+        }
+    }
+}
@@ -14,80 +14,121 @@ public class BinarySearchTree extends Tree {
     }
 
     /**
-     * Inserts a node with given val into node root.
-     * Does not check for duplicates or increment {@code size}.
-     * @param current node to insert new node into
+     * Constructor that creates an empty tree holding at most {@code maxSize} nodes.
+     *
+     * @param maxSize maximum number of nodes, or {@code Tree.UNBOUNDED}
+     */
+    public BinarySearchTree(int maxSize) {
+        super(maxSize);
+    }
+
+    /**
+     * Constructor that creates an empty tree holding at most {@code maxSize} nodes, maintaining
+     * the given augmentation in every node.
+     *
+     * @param maxSize maximum number of nodes, or {@code Tree.UNBOUNDED}
+     * @param augmentation augmentation to maintain, or null for plain nodes
+     */
+    public BinarySearchTree(int maxSize, Augmentation augmentation) {
+        super(maxSize, augmentation);
+    }
+
+    /**
+     * Inserts a node with given val into the tree in a single descent, rejecting duplicates.
+     * Does not increment {@code size}.
      * @param val value of new node to insert
+     * @param result result to record the outcome and path length in
      */
     @Override
-    protected void insertNode(Node current, int val) {
-        if (val > current.getValue()) {
-            if (current.getRightChild() == null) {
-                current.setRightChild(new Node(val));
+    protected void insertNode(int val, OperationResult result) {
+        int depth = 0;
+        Node current = this.root;
+        while (current != null) {
+            pushPath(depth++, current);
+            emit(TreeEvent.VISIT, current, null);
+            if (val > current.getValue()) {
+                current = current.getRightChild();
+            } else if (val < current.getValue()) {
+                current = current.getLeftChild();
             } else {
-                insertNode(current.getRightChild(), val);
+                result.setOutcome(OperationResult.Outcome.DUPLICATE);
+                result.setPathLength(depth);
+                clearPath(depth);
+                return;
             }
+        }
+        Node inserted = newNode(val);
+        if (depth == 0) {
+            this.root = inserted;
+        } else if (val > path[depth - 1].getValue()) {
+            path[depth - 1].setRightChild(inserted);
         } else {
-            if (current.getLeftChild() == null) {
-                current.setLeftChild(new Node(val));
-            } else {
-                insertNode(current.getLeftChild(), val);
-            }
+            path[depth - 1].setLeftChild(inserted);
         }
+        emit(TreeEvent.LINK, (depth == 0) ? null : path[depth - 1], inserted);
+        result.setOutcome(OperationResult.Outcome.INSERTED);
+        result.setPathLength(depth);
+        augmentPath(depth - 1);
+        clearPath(depth);
     }
 
     /**
-     * Deletes node with specified value from tree if it exists.
+     * Deletes node with specified value from tree in a single descent, if it exists.
      * If the node has two children, replaces with its in-order successor.
-     * Decrements {@code size}.
+     * Does not decrement {@code size}.
      *
      * @param val value of node to be deleted
-     * @return true if deletion successful, or false if node not found
+     * @param result result to record the outcome and path length in
      */
     @Override
-    public boolean delete(int val) {
-        // Contains check could be optimized (one less traversal).
-        if (!contains(val)) {
-            return false;
-        } else {
-            this.root = deleteNode(this.root, val);
-            this.size--;
-            return true;
+    protected void deleteNode(int val, OperationResult result) {
+        int depth = 0;
+        Node current = this.root;
+        while (current != null && current.getValue() != val) {
+            pushPath(depth++, current);
+            emit(TreeEvent.VISIT, current, null);
+            current = val < current.getValue() ? current.getLeftChild() : current.getRightChild();
         }
-    }
-
-    /**
-     * Recursive deletion function for simple BST using in-order successor.
-     *
-     * @param current current node being checked for deletion
-     * @param val value of node to be deleted.
-     * @return modified node with deletion completed
-     */
-    private Node deleteNode(Node current, int val) {
         if (current == null) {
-            return null;
-        } else if (val < current.getValue()) {
-            current.setLeftChild(deleteNode(current.getLeftChild(), val));
-        } else if (val > current.getValue()) {
-            current.setRightChild(deleteNode(current.getRightChild(), val));
-        } else {
-            // Case 1: No children or one child
-            if (current.getLeftChild() == null) {
-                return current.getRightChild(); // replaces with right child or null
-            } else if (current.getRightChild() == null) {
-                return current.getLeftChild();
-            } else {
-                // get in-order successor
-                Node successor = inOrderSuccessor(current);
-                // swap values of current and in-order successor
-                int tempValue = current.getValue();
-                current.setValue(successor.getValue());
-                successor.setValue(tempValue);
-                // delete in-order successor (now with current's original value)
-                current.setRightChild(deleteNode(current.getRightChild(), tempValue));
+            result.setOutcome(OperationResult.Outcome.NOT_FOUND);
+            result.setPathLength(depth);
+            clearPath(depth);
+            return;
+        }
+        pushPath(depth++, current);
+        emit(TreeEvent.VISIT, current, null);
+
+        if (current.getLeftChild() != null && current.getRightChild() != null) {
+            // get in-order successor, recording the path to it
+            Node target = current;
+            current = current.getRightChild();
+            while (current != null) {
+                pushPath(depth++, current);
+                emit(TreeEvent.VISIT, current, null);
+                current = current.getLeftChild();
             }
+            // swap values of target and in-order successor
+            Node successor = path[depth - 1];
+            target.setValue(successor.getValue());
+            successor.setValue(val);
+            emit(TreeEvent.SWAP_VALUE, target, successor);
+        }
+
+        // delete the node at the end of the path, which has at most one child
+        Node removed = path[depth - 1];
+        Node replacement = (removed.getLeftChild() == null) ? removed.getRightChild() : removed.getLeftChild();
+        if (depth == 1) {
+            this.root = replacement;
+        } else if (path[depth - 2].getLeftChild() == removed) {
+            path[depth - 2].setLeftChild(replacement);
+        } else {
+            path[depth - 2].setRightChild(replacement);
         }
-        return current;
+        emit(TreeEvent.LINK, (depth == 1) ? null : path[depth - 2], replacement);
+        result.setOutcome(OperationResult.Outcome.DELETED);
+        result.setPathLength(depth);
+        augmentPath(depth - 2);
+        clearPath(depth);
     }
 
 }
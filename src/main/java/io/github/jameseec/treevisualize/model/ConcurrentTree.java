@@ -0,0 +1,522 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe wrapper around a {@link Node}-based tree, for one or more producer threads writing while
+ * other threads such as the renderer read.
+ * Writers are serialized by a {@link StampedLock}. Lookups walk the live tree under an optimistic stamp
+ * without blocking writers, and are retried, then run under the read lock, if a write overlapped them.
+ * {@link #getRoot()} returns the root of a {@link #snapshot()}, so a renderer always walks one consistent
+ * version of the tree however long it takes.
+ * <p>
+ * Wrapping a {@link PersistentTree} is preferred: as it never modifies a node once it is part of a version, each
+ * write publishes its root, and lookups and snapshots read the published root without locking or copying.
+ * Trees that modify nodes in place are copied for snapshots, optimistically, so that writers are only ever held
+ * back by the copy of a small tree.
+ */
+public class ConcurrentTree extends Tree {
+    /** Optimistic attempts made before a read falls back to the read lock. */
+    private static final int OPTIMISTIC_ATTEMPTS = 3;
+    /**
+     * Largest tree a snapshot copies under the read lock once optimistic copies keep failing, which holds writers
+     * back for the copy. Snapshots of larger trees back off until a copy completes between two writes.
+     */
+    static final int LOCKED_COPY_LIMIT = 4096;
+    /** Longest pause between the optimistic copies of a large tree. */
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    /** Thrown by optimistic walks that step more often than the tree has nodes, i.e. saw a torn rotation. */
+    private static final IllegalStateException TORN_READ =
+            new IllegalStateException("Walk overlapped a write") {
+                @Override
+                public synchronized Throwable fillInStackTrace() {
+                    return this;
+                }
+            };
+
+    private final StampedLock lock = new StampedLock();
+    private final Supplier<? extends Tree> factory;
+    private final Tree delegate;
+    /** Whether the delegate is persistent, so that published roots are never modified. */
+    private final boolean persistent;
+    /** The tree as of the last write. Only written under the write lock. */
+    private volatile Published published = new Published(0, 0, null);
+    private volatile Snapshot cachedSnapshot;
+    /** Result of the boolean write methods. Only used under the write lock. */
+    private final OperationResult writeResult = new OperationResult();
+
+    // Held in fields so that lookups do not allocate a lambda per call
+    private final Walk<Boolean> containsWalk = (root, budget, val) -> walkTo(root, budget, val) != null;
+    private final Walk<Node> findWalk = (root, budget, val) -> detach(walkTo(root, budget, val));
+    private final Walk<List<Node>> pathWalk = this::walkPath;
+
+    private record Snapshot(long version, Tree tree) {
+    }
+
+    /**
+     * Version and size of the tree after a write, counting the writes that changed it, and its root if the
+     * delegate is persistent.
+     */
+    private record Published(long version, int size, Node root) {
+    }
+
+    /**
+     * Descent from root towards val that fails on stepping more than budget times.
+     */
+    @FunctionalInterface
+    private interface Walk<T> {
+        T apply(Node root, int budget, int val);
+    }
+
+    /**
+     * Constructor that wraps an empty tree created by factory. The factory is also used to create snapshots,
+     * so it should return a new tree of the same type and capacity on every call.
+     *
+     * @param factory creates empty trees, e.g. {@code AVLTree::new}
+     * @throws IllegalArgumentException if the factory returns a non-empty tree, an {@link ArenaTree} or a {@link BTree}
+     */
+    public ConcurrentTree(Supplier<? extends Tree> factory) {
+        this(factory, factory.get());
+    }
+
+    private ConcurrentTree(Supplier<? extends Tree> factory, Tree delegate) {
+        super(delegate.getMaxSize());
+        if (delegate instanceof ArenaTree || delegate instanceof BTree || delegate instanceof ConcurrentTree) {
+            throw new IllegalArgumentException("Only Node-based trees can be wrapped, not "
+                    + delegate.getClass().getSimpleName());
+        }
+        if (delegate.getRoot() != null) {
+            throw new IllegalArgumentException("Factory must create empty trees");
+        }
+        this.factory = factory;
+        this.delegate = delegate;
+        this.persistent = delegate instanceof PersistentTree;
+    }
+
+    @Override
+    public boolean insert(int val) throws InvalidNodeCountException {
+        long stamp = lock.writeLock();
+        try {
+            return written(super.insert(val, writeResult)).isChanged();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public OperationResult insert(int val, OperationResult result) throws InvalidNodeCountException {
+        long stamp = lock.writeLock();
+        try {
+            return written(super.insert(val, result));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean delete(int val) {
+        long stamp = lock.writeLock();
+        try {
+            return written(super.delete(val, writeResult)).isChanged();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public OperationResult delete(int val, OperationResult result) {
+        long stamp = lock.writeLock();
+        try {
+            return written(super.delete(val, result));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Publishes a write that changed the tree. Must hold the write lock.
+    private OperationResult written(OperationResult result) {
+        if (result.isChanged()) {
+            publish();
+        }
+        return result;
+    }
+
+    /**
+     * Applies an insert to the wrapped tree. Called by {@link #insert} under the write lock.
+     */
+    @Override
+    protected void insertNode(int val, OperationResult result) {
+        delegate.applyInsert(val, result);
+    }
+
+    /**
+     * Applies a delete to the wrapped tree. Called by {@link #delete} under the write lock.
+     */
+    @Override
+    protected void deleteNode(int val, OperationResult result) {
+        delegate.applyDelete(val, result);
+    }
+
+    @Override
+    public void buildFrom(int[] sortedDistinct) throws InvalidNodeCountException {
+        long stamp = lock.writeLock();
+        try {
+            delegate.buildFrom(sortedDistinct);
+            publish();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int insertAll(int[] values) throws InvalidNodeCountException {
+        long stamp = lock.writeLock();
+        try {
+            int inserted = delegate.insertAll(values);
+            if (inserted > 0) {
+                publish();
+            }
+            return inserted;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            delegate.clear();
+            publish();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Makes a completed write visible to readers. Must hold the write lock.
+    private void publish() {
+        size = delegate.size;
+        published = new Published(published.version() + 1, delegate.getSize(), persistent ? delegate.root : null);
+    }
+
+    /**
+     * Sets the listener of the wrapped tree, which reports the steps of writes while holding the write lock.
+     * Reads run on the live tree without locking and report nothing.
+     */
+    @Override
+    public void setListener(TreeListener listener) {
+        long stamp = lock.writeLock();
+        try {
+            delegate.setListener(listener);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public TreeListener getListener() {
+        return delegate.getListener();
+    }
+
+    /**
+     * Sets the metrics of this tree, which times writes, and of the wrapped tree, which counts their steps,
+     * all while holding the write lock. Reads run on the live tree without locking and are not counted, but are
+     * recorded for Flight Recorder.
+     */
+    @Override
+    public void setMetrics(TreeMetrics metrics) {
+        long stamp = lock.writeLock();
+        try {
+            super.setMetrics(metrics);
+            delegate.setMetrics(metrics);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean contains(int val) {
+        if (TreeOperationEvent.isRecording()) {
+            return recordedFind(val) != null;
+        }
+        return readConsistently(containsWalk, val);
+    }
+
+    /**
+     * Returns a detached copy of the node with the specified value, or null if absent.
+     * The copy has the node's value, height and color but no children.
+     */
+    @Override
+    public Node find(int val) {
+        if (TreeOperationEvent.isRecording()) {
+            return recordedFind(val);
+        }
+        return readConsistently(findWalk, val);
+    }
+
+    // Finds val along the path to it, so that the recorded event has the path length too
+    private Node recordedFind(int val) {
+        TreeOperationEvent event = new TreeOperationEvent();
+        event.begin();
+        List<Node> path = readConsistently(pathWalk, val);
+        Node found = (!path.isEmpty() && path.getLast().getValue() == val) ? path.getLast() : null;
+        commitFind(event, val, found != null, path.size());
+        return found;
+    }
+
+    /**
+     * Returns detached copies of the nodes visited while attempting to find the specified value,
+     * all taken from the same version of the tree.
+     */
+    @Override
+    public List<Node> findWithPath(int val) {
+        return readConsistently(pathWalk, val);
+    }
+
+    // Runs walk on the published root of a persistent tree. Otherwise runs it on the live tree under an
+    // optimistic stamp until no write overlaps it, then under the read lock.
+    private <T> T readConsistently(Walk<T> walk, int val) {
+        if (persistent) {
+            Published current = published;
+            return walk.apply(current.root(), current.size(), val);
+        }
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    T result = walk.apply(delegate.root, published.size(), val);
+                    if (lock.validate(stamp)) {
+                        return result;
+                    }
+                } catch (RuntimeException e) {
+                    // The walk saw a half-applied write, so the stamp is invalid as well; retry.
+                }
+            }
+            Thread.onSpinWait();
+        }
+        long stamp = lock.readLock();
+        try {
+            return walk.apply(delegate.root, published.size(), val);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Descends from root towards val. A tree of n nodes is never deeper than n, so a longer walk
+    // must have followed a link a writer was in the middle of changing.
+    private static Node walkTo(Node root, int budget, int val) {
+        Node current = root;
+        while (current != null && current.getValue() != val) {
+            if (--budget < 0) {
+                throw TORN_READ;
+            }
+            current = current.getValue() < val ? current.getRightChild() : current.getLeftChild();
+        }
+        return current;
+    }
+
+    private List<Node> walkPath(Node root, int budget, int val) {
+        ArrayList<Node> visited = new ArrayList<>();
+        Node current = root;
+        while (current != null) {
+            if (--budget < 0) {
+                throw TORN_READ;
+            }
+            visited.add(detach(current));
+            if (current.getValue() < val) {
+                current = current.getRightChild();
+            } else if (current.getValue() > val) {
+                current = current.getLeftChild();
+            } else {
+                break;
+            }
+        }
+        return visited;
+    }
+
+    // Copies node's own fields, or returns null for null.
+    private static Node detach(Node node) {
+        if (node == null) {
+            return null;
+        }
+        Node copy = new Node(node.getValue());
+        copy.setHeight(node.getHeight());
+        copy.setColor(node.getColor());
+        return copy;
+    }
+
+    /**
+     * Returns a copy of the tree as of the latest completed write, which is shared by every caller asking for
+     * that version, so it must be treated as read-only: lookups and traversals of its nodes are safe from any
+     * thread, but its write methods are not.
+     * <p>
+     * Persistent trees are not copied: the snapshot shares the nodes of the published version. Other trees are
+     * copied at most once per version without blocking writers, retrying if a write overlaps the copy. Once copies
+     * keep failing, trees of up to {@code LOCKED_COPY_LIMIT} nodes are copied under the read lock, while larger
+     * trees back off until a copy fits between two writes, so a writer that never pauses delays their snapshots.
+     *
+     * @return a tree of the wrapped type that no writer of this tree modifies
+     */
+    public Tree snapshot() {
+        Published current = published;
+        Snapshot cached = cachedSnapshot;
+        if (cached != null && cached.version() == current.version()) {
+            return cached.tree();
+        }
+        if (persistent) {
+            return cache(current.version(), current.root(), current.size());
+        }
+        long backoffNanos = 1000;
+        for (int attempt = 1; ; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    Published copied = published;
+                    Node copiedRoot = copyNodes(delegate.root, copied.size());
+                    if (lock.validate(stamp)) {
+                        return cache(copied.version(), copiedRoot, copied.size());
+                    }
+                } catch (RuntimeException e) {
+                    // Torn copy; retry.
+                }
+            }
+            if (attempt < OPTIMISTIC_ATTEMPTS) {
+                Thread.onSpinWait();
+            } else if (published.size() <= LOCKED_COPY_LIMIT) {
+                break;
+            } else {
+                LockSupport.parkNanos(backoffNanos);
+                backoffNanos = Math.min(backoffNanos * 2, MAX_BACKOFF_NANOS);
+            }
+        }
+        long stamp = lock.readLock();
+        try {
+            Published copied = published;
+            return cache(copied.version(), copyNodes(delegate.root, copied.size()), copied.size());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Tree cache(long copiedVersion, Node copiedRoot, int copiedSize) {
+        Tree tree = factory.get();
+        tree.root = copiedRoot;
+        tree.size = copiedSize;
+        Snapshot cached = cachedSnapshot;
+        if (cached == null || cached.version() < copiedVersion) {
+            cachedSnapshot = new Snapshot(copiedVersion, tree);
+        }
+        return tree;
+    }
+
+    // Copies the subtree under root in pre-order using explicit stacks, failing if it holds more than
+    // count nodes. Also used by JournaledTree to capture checkpoints.
+    static Node copyNodes(Node root, int count) {
+        if (root == null) {
+            return null;
+        }
+        Node[] sources = new Node[32];
+        Node[] copies = new Node[32];
+        Node copiedRoot = detach(root);
+        sources[0] = root;
+        copies[0] = copiedRoot;
+        int depth = 1;
+        int copied = 1;
+        while (depth > 0) {
+            depth--;
+            Node source = sources[depth];
+            Node copy = copies[depth];
+            sources[depth] = null;
+            Node left = source.getLeftChild();
+            Node right = source.getRightChild();
+            copied += (left == null ? 0 : 1) + (right == null ? 0 : 1);
+            if (copied > count) {
+                throw TORN_READ;
+            }
+            if (depth + 2 > sources.length) {
+                sources = Arrays.copyOf(sources, sources.length * 2);
+                copies = Arrays.copyOf(copies, copies.length * 2);
+            }
+            if (right != null) {
+                copy.setRightChild(detach(right));
+                sources[depth] = right;
+                copies[depth++] = copy.getRightChild();
+            }
+            if (left != null) {
+                copy.setLeftChild(detach(left));
+                sources[depth] = left;
+                copies[depth++] = copy.getLeftChild();
+            }
+        }
+        return copiedRoot;
+    }
+
+    /**
+     * Gets the root of the latest {@link #snapshot()}. The returned nodes are never modified by writers.
+     */
+    @Override
+    public Node getRoot() {
+        return snapshot().getRoot();
+    }
+
+    @Override
+    public int getSize() {
+        return published.size();
+    }
+
+    /**
+     * Returns the keys of the latest snapshot in increasing order. Uses its own stack rather than the
+     * snapshot's {@code path}, since a snapshot can be read by several threads at once.
+     */
+    @Override
+    protected int[] inOrderKeys() {
+        Tree tree = snapshot();
+        int[] keys = new int[tree.size];
+        Node[] stack = new Node[32];
+        int count = 0;
+        int depth = 0;
+        Node current = tree.root;
+        while (current != null || depth > 0) {
+            while (current != null) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = current;
+                current = current.getLeftChild();
+            }
+            current = stack[--depth];
+            keys[count++] = current.getValue();
+            current = current.getRightChild();
+        }
+        return keys;
+    }
+
+    /**
+     * Returns a spliterator over the latest {@link #snapshot()}, which writers never modify.
+     */
+    @Override
+    public Spliterator.OfInt spliterator() {
+        return snapshot().spliterator();
+    }
+
+    /**
+     * Gets the number of writes that have changed this tree, which identifies the version a snapshot shows.
+     */
+    public long getVersion() {
+        return published.version();
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
@@ -0,0 +1,168 @@
+package io.github.jameseec.treevisualize.model;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Immutable, read-optimized copy of a tree's keys in one {@code int[]} laid out in Eytzinger order: the
+ * breadth-first order of a complete binary search tree, with the root at index 1 and the children of index
+ * {@code k} at {@code 2k} and {@code 2k + 1}.
+ * <p>
+ * A lookup walks down from the root by index arithmetic alone, so there are no pointers to chase, the top
+ * levels share a few cache lines, and the comparison at each level selects the next index instead of
+ * branching, which keeps mispredictions off the hot path for unpredictable keys. Instances are safe to share
+ * between threads.
+ */
+public final class FrozenTree {
+    /** Most keys a frozen tree holds, so that indices below the bottom level still fit in an int. */
+    public static final int MAX_KEYS = (1 << 30) - 1;
+    /** Keys in Eytzinger order from index 1; index 0 is unused. */
+    private final int[] keys;
+    private final int size;
+
+    private FrozenTree(int[] keys, int size) {
+        this.keys = keys;
+        this.size = size;
+    }
+
+    private static int[] allocate(int size) {
+        if (size > MAX_KEYS) {
+            throw new IllegalArgumentException("Cannot freeze more than " + MAX_KEYS + " keys: " + size);
+        }
+        return new int[size + 1];
+    }
+
+    /**
+     * Copies the keys of tree into a new frozen tree, in time linear in its size.
+     * Later changes to tree do not affect the copy.
+     *
+     * @param tree tree to freeze, of any type
+     * @throws IllegalArgumentException if tree holds more than {@code MAX_KEYS} keys
+     */
+    public static FrozenTree of(Tree tree) {
+        int size = tree.getSize();
+        int[] keys = allocate(size);
+        PrimitiveIterator.OfInt inOrder = tree.iterator();
+        for (int k = firstIndex(size); k != 0; k = nextIndex(k, size)) {
+            keys[k] = inOrder.nextInt();
+        }
+        return new FrozenTree(keys, size);
+    }
+
+    /**
+     * Creates a frozen tree of the given keys, in time linear in their number.
+     *
+     * @param sortedDistinct keys in strictly increasing order
+     * @throws IllegalArgumentException if the keys are not strictly increasing or more than {@code MAX_KEYS}
+     */
+    public static FrozenTree of(int[] sortedDistinct) {
+        int size = sortedDistinct.length;
+        int[] keys = allocate(size);
+        int i = 0;
+        for (int k = firstIndex(size); k != 0; k = nextIndex(k, size)) {
+            if (i > 0 && sortedDistinct[i - 1] >= sortedDistinct[i]) {
+                throw new IllegalArgumentException("Keys must be strictly increasing, but found "
+                        + sortedDistinct[i - 1] + " before " + sortedDistinct[i]);
+            }
+            keys[k] = sortedDistinct[i++];
+        }
+        return new FrozenTree(keys, size);
+    }
+
+    // Returns the index of the smallest key, the leftmost index of the implicit tree, or 0 if it is empty.
+    private static int firstIndex(int size) {
+        if (size == 0) {
+            return 0;
+        }
+        int k = 1;
+        while (k <= size >>> 1) {
+            k <<= 1;
+        }
+        return k;
+    }
+
+    // Returns the in-order successor of index k in an implicit tree of size nodes, or 0 after the last.
+    private static int nextIndex(int k, int size) {
+        if (k <= (size - 1) >>> 1) {
+            // k has a right child: go to the leftmost index below it
+            k = 2 * k + 1;
+            while (k <= size >>> 1) {
+                k <<= 1;
+            }
+            return k;
+        }
+        // Climb while k is a right child, then once more to the parent of the left child
+        k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+        return k;
+    }
+
+    /**
+     * Returns the index of the smallest key not less than val, or 0 if every key is less.
+     * The descent always runs to the bottom of the tree, and the index of the last step at which it went
+     * left is recovered from the trailing one bits of the final index.
+     * <p>
+     * Java has no prefetch instruction, so each step also reads the key at {@code 16k}: the 16 descendants
+     * four levels below k are adjacent from there, and the read does not depend on any comparison, so the
+     * processor fetches their cache line while the descent is still a few levels above it. The keys read
+     * ahead are summed into a local that nothing uses, so the JIT is free to drop those reads; storing the
+     * sum in a field would keep them, but makes every lookup write to memory that concurrent readers share.
+     */
+    private int lowerBound(int val) {
+        int[] keys = this.keys;
+        int n = size;
+        int readAheadLimit = n >>> 4;
+        int readAhead = 0;
+        int k = 1;
+        while (k <= n) {
+            readAhead += keys[(k <= readAheadLimit) ? k << 4 : 0];
+            k = 2 * k + ((keys[k] < val) ? 1 : 0);
+        }
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    public boolean contains(int val) {
+        int k = lowerBound(val);
+        return k != 0 && keys[k] == val;
+    }
+
+    /**
+     * Returns the smallest key not less than val.
+     *
+     * @throws NoSuchElementException if every key is less than val
+     */
+    public int ceiling(int val) {
+        int k = lowerBound(val);
+        if (k == 0) {
+            throw new NoSuchElementException("No key is at least " + val);
+        }
+        return keys[k];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns an iterator over the keys in increasing order.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int k = firstIndex(size);
+
+            @Override
+            public boolean hasNext() {
+                return k != 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (k == 0) {
+                    throw new NoSuchElementException();
+                }
+                int key = keys[k];
+                k = nextIndex(k, size);
+                return key;
+            }
+        };
+    }
+}
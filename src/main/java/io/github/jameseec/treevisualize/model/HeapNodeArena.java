@@ -0,0 +1,78 @@
+package io.github.jameseec.treevisualize.model;
+
+import java.util.Arrays;
+
+/**
+ * Node arena stored as parallel primitive arrays on the Java heap.
+ */
+class HeapNodeArena extends NodeArena {
+    private int[] keys;
+    private int[] left;
+    private int[] right;
+    private byte[] meta;
+
+    HeapNodeArena(int initialCapacity) {
+        keys = new int[initialCapacity];
+        left = new int[initialCapacity];
+        right = new int[initialCapacity];
+        meta = new byte[initialCapacity];
+    }
+
+    @Override
+    public int key(int slot) {
+        return keys[slot];
+    }
+
+    @Override
+    public void setKey(int slot, int key) {
+        keys[slot] = key;
+    }
+
+    @Override
+    public int left(int slot) {
+        return left[slot];
+    }
+
+    @Override
+    public void setLeft(int slot, int child) {
+        left[slot] = child;
+    }
+
+    @Override
+    public int right(int slot) {
+        return right[slot];
+    }
+
+    @Override
+    public void setRight(int slot, int child) {
+        right[slot] = child;
+    }
+
+    @Override
+    public byte meta(int slot) {
+        return meta[slot];
+    }
+
+    @Override
+    public void setMeta(int slot, byte value) {
+        meta[slot] = value;
+    }
+
+    @Override
+    public int capacity() {
+        return keys.length;
+    }
+
+    @Override
+    public long footprintBytes() {
+        return (long) capacity() * SLOT_BYTES;
+    }
+
+    @Override
+    protected void grow(int newCapacity) {
+        keys = Arrays.copyOf(keys, newCapacity);
+        left = Arrays.copyOf(left, newCapacity);
+        right = Arrays.copyOf(right, newCapacity);
+        meta = Arrays.copyOf(meta, newCapacity);
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.jameseec.treevisualize.model;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Iterates over the values of a tree in increasing order, optionally limited to a range.
+ * Keeps the unvisited ancestors of the next node on an explicit stack, so it uses O(height) memory
+ * and does not recurse. The tree must not be modified during iteration.
+ */
+public class InOrderIterator implements PrimitiveIterator.OfInt {
+    private final int hi;
+    private Node[] stack = new Node[32];
+    private int depth;
+
+    /**
+     * Constructs an iterator over all values of the tree under root.
+     *
+     * @param root root of the tree to iterate over, or null
+     */
+    public InOrderIterator(Node root) {
+        this(root, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs an iterator over the values between lo and hi inclusive of the tree under root,
+     * seeking to lo in time proportional to the tree's height.
+     *
+     * @param root root of the tree to iterate over, or null
+     * @param lo smallest value to return
+     * @param hi largest value to return
+     */
+    public InOrderIterator(Node root, int lo, int hi) {
+        this.hi = hi;
+        // Keep only the ancestors at or above lo; everything left of the seek path is smaller
+        Node current = root;
+        while (current != null) {
+            if (current.getValue() < lo) {
+                current = current.getRightChild();
+            } else {
+                push(current);
+                current = current.getLeftChild();
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return depth > 0 && stack[depth - 1].getValue() <= hi;
+    }
+
+    @Override
+    public int nextInt() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Node node = stack[--depth];
+        stack[depth] = null;
+        Node current = node.getRightChild();
+        while (current != null) {
+            push(current);
+            current = current.getLeftChild();
+        }
+        return node.getValue();
+    }
+
+    private void push(Node node) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = node;
+    }
+}
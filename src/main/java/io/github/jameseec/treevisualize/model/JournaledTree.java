@@ -0,0 +1,458 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Wraps a tree with a write-ahead journal in a directory, so that its contents survive restarts and crashes.
+ * <p>
+ * Every insert, delete and clear that changes the tree is appended to an {@link OperationJournal} before it is
+ * applied, so a failed append leaves the tree unchanged. Records are committed to disk in batches: once
+ * {@code commitEvery} records are pending, every {@code commitIntervalMillis} from a background thread, on
+ * {@link #sync()} and on {@link #close()}. A crash loses at most the operations of the last uncommitted batch.
+ * Every {@code checkpointEvery} operations, the tree is copied and saved as a {@link TreeSnapshot} in the
+ * background, after which the journal segments it covers are deleted. Bulk loads through {@link #buildFrom} and
+ * {@link #insertAll} are not journaled but checkpointed before they return.
+ * <p>
+ * Opening a directory loads the latest checkpoint and replays the journal after it, so the recovered tree has the
+ * same shape as the one that was journaled. Like other trees, a journaled tree must not be used from several
+ * threads at once.
+ */
+public class JournaledTree extends Tree implements AutoCloseable {
+    /** Records committed per disk sync unless specified. */
+    public static final int DEFAULT_COMMIT_EVERY = 1024;
+    /** Longest time a record waits to be committed unless specified. */
+    public static final long DEFAULT_COMMIT_INTERVAL_MILLIS = 10;
+    /** Operations between checkpoints unless specified. */
+    public static final long DEFAULT_CHECKPOINT_EVERY = 1_000_000;
+
+    static final String CHECKPOINT_PREFIX = "checkpoint-";
+    static final String CHECKPOINT_SUFFIX = ".bin";
+
+    private final Path directory;
+    private final Tree delegate;
+    private final long checkpointEvery;
+    private final OperationJournal journal;
+    private final ScheduledExecutorService background;
+    /** Sequence number of the last operation covered by the latest checkpoint started. */
+    private long checkpointSequence;
+    private Future<?> pendingCheckpoint;
+    private boolean closed;
+
+    /**
+     * Constructor that opens or creates a journal in directory with default batching and checkpoints.
+     *
+     * @param directory directory holding the journal and checkpoints, created if absent
+     * @param factory creates an empty tree of the type to journal, e.g. {@code AVLTree::new}
+     * @throws IOException if the directory cannot be read or holds a damaged checkpoint
+     */
+    public JournaledTree(Path directory, Supplier<? extends Tree> factory) throws IOException {
+        this(directory, factory, DEFAULT_COMMIT_EVERY, DEFAULT_COMMIT_INTERVAL_MILLIS, DEFAULT_CHECKPOINT_EVERY);
+    }
+
+    /**
+     * Constructor that opens or creates a journal in directory, recovering the tree it holds.
+     *
+     * @param directory directory holding the journal and checkpoints, created if absent
+     * @param factory creates an empty tree of the type to journal, e.g. {@code AVLTree::new}
+     * @param commitEvery records committed per disk sync, 1 making every operation durable before it returns
+     * @param commitIntervalMillis longest time a record waits to be committed
+     * @param checkpointEvery operations between checkpoints
+     * @throws IllegalArgumentException if an argument is not positive, or the factory returns a non-empty tree,
+     *                                  an {@link ArenaTree}, a {@link BTree} or a wrapper
+     * @throws IOException if the directory cannot be read or holds a damaged checkpoint
+     */
+    public JournaledTree(Path directory, Supplier<? extends Tree> factory, int commitEvery,
+                         long commitIntervalMillis, long checkpointEvery) throws IOException {
+        this(directory, factory.get(), commitEvery, commitIntervalMillis, checkpointEvery);
+    }
+
+    private JournaledTree(Path directory, Tree delegate, int commitEvery, long commitIntervalMillis,
+                          long checkpointEvery) throws IOException {
+        super(delegate.getMaxSize(), delegate.getAugmentation());
+        if (delegate instanceof ArenaTree || delegate instanceof BTree || delegate instanceof ConcurrentTree
+                || delegate instanceof JournaledTree) {
+            throw new IllegalArgumentException("Only Node-based trees can be journaled, not "
+                    + delegate.getClass().getSimpleName());
+        }
+        if (delegate.getRoot() != null) {
+            throw new IllegalArgumentException("Factory must create empty trees");
+        }
+        if (commitEvery < 1 || commitIntervalMillis < 1 || checkpointEvery < 1) {
+            throw new IllegalArgumentException("Batch sizes and intervals must be positive");
+        }
+        this.directory = directory;
+        this.delegate = delegate;
+        this.checkpointEvery = checkpointEvery;
+        Files.createDirectories(directory);
+        long nextSequence = recover();
+        this.journal = new OperationJournal(directory, nextSequence, commitEvery);
+        this.background = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "tree-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        background.scheduleWithFixedDelay(journal::commitQuietly, commitIntervalMillis, commitIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // Loads the latest checkpoint into the delegate and replays the journal segments after it.
+    // Returns the sequence number of the next operation.
+    private long recover() throws IOException {
+        long checkpoint = -1;
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long sequence = parseSequence(name, CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+                if (sequence > checkpoint) {
+                    checkpoint = sequence;
+                }
+                long start = parseSequence(name, OperationJournal.SEGMENT_PREFIX, OperationJournal.SEGMENT_SUFFIX);
+                if (start >= 0) {
+                    segments.put(start, file);
+                }
+            }
+        }
+        if (checkpoint >= 0) {
+            Tree loaded = TreeSnapshot.load(checkpointFile(checkpoint), delegate.getMaxSize(),
+                    delegate.getAugmentation());
+            if (TreeSnapshot.Type.of(loaded) != TreeSnapshot.Type.of(delegate)) {
+                // Saved by a tree of another type, so only its keys carry over
+                try {
+                    delegate.buildFrom(loaded.stream().toArray());
+                } catch (InvalidNodeCountException e) {
+                    throw new IOException("Checkpoint holds more than " + delegate.getMaxSize() + " nodes", e);
+                }
+            } else if (delegate instanceof PersistentTree persistent) {
+                persistent.restore(loaded.root, loaded.size);
+            } else {
+                delegate.root = loaded.root;
+                delegate.size = loaded.size;
+            }
+        }
+        // Sequence numbers start at 1, so a checkpoint taken before any operation covers 0
+        long covered = Math.max(checkpoint, 0);
+        checkpointSequence = covered;
+
+        // Segments before the one holding the first operation after the checkpoint hold only operations it
+        // covers, and may be left with gaps between them by a crash while a checkpoint deleted them
+        Long first = segments.floorKey(covered + 1);
+        if (first == null && !segments.isEmpty()) {
+            throw new IOException("Journal in " + directory + " is missing operations " + (covered + 1)
+                    + " to " + (segments.firstKey() - 1));
+        }
+        if (first != null) {
+            for (Path stale : segments.headMap(first).values()) {
+                Files.deleteIfExists(stale);
+            }
+            segments.headMap(first).clear();
+        }
+        long expected = (first == null) ? covered + 1 : first;
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            if (segment.getKey() != expected) {
+                // Segments after a torn commit were never acknowledged, so they are discarded
+                Files.delete(segment.getValue());
+                continue;
+            }
+            expected = OperationJournal.replay(segment.getValue(), expected, (sequence, operation, key) -> {
+                if (sequence > covered) {
+                    replay(operation, key);
+                }
+            });
+        }
+        root = delegate.root;
+        size = delegate.size;
+        return Math.max(expected, covered + 1);
+    }
+
+    private void replay(byte operation, int key) throws IOException {
+        switch (operation) {
+            case OperationJournal.INSERT -> {
+                try {
+                    delegate.insert(key);
+                } catch (InvalidNodeCountException e) {
+                    throw new IOException("Journal holds more than " + delegate.getMaxSize() + " nodes", e);
+                }
+            }
+            case OperationJournal.DELETE -> delegate.delete(key);
+            default -> delegate.clear();
+        }
+    }
+
+    // Returns the sequence number in a file name of the form prefix + number + suffix, or -1.
+    private static long parseSequence(String name, String prefix, String suffix) {
+        if (!name.startsWith(prefix) || !name.endsWith(suffix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private Path checkpointFile(long sequence) {
+        return directory.resolve(String.format("%s%020d%s", CHECKPOINT_PREFIX, sequence, CHECKPOINT_SUFFIX));
+    }
+
+    /**
+     * Journals the insert unless val is already in the tree, then applies it to the journaled tree.
+     *
+     * @throws UncheckedIOException if the journal fails, leaving the tree unchanged
+     */
+    @Override
+    protected void insertNode(int val, OperationResult result) {
+        requireOpen();
+        long sequence = holds(delegate.root, val) ? -1 : append(OperationJournal.INSERT, val);
+        delegate.applyInsert(val, result);
+        root = delegate.root;
+        checkpointIfDue(sequence);
+    }
+
+    /**
+     * Journals the delete if val is in the tree, then applies it to the journaled tree.
+     *
+     * @throws UncheckedIOException if the journal fails, leaving the tree unchanged
+     */
+    @Override
+    protected void deleteNode(int val, OperationResult result) {
+        requireOpen();
+        long sequence = holds(delegate.root, val) ? append(OperationJournal.DELETE, val) : -1;
+        delegate.applyDelete(val, result);
+        root = delegate.root;
+        checkpointIfDue(sequence);
+    }
+
+    /**
+     * Journals and then applies the clear, unless the tree is already empty.
+     *
+     * @throws UncheckedIOException if the journal fails, leaving the tree unchanged
+     */
+    @Override
+    public void clear() {
+        requireOpen();
+        if (delegate.root != null) {
+            long sequence = append(OperationJournal.CLEAR, 0);
+            delegate.clear();
+            root = null;
+            size = 0;
+            checkpointIfDue(sequence);
+        }
+    }
+
+    // Looks val up without reporting a search, to decide whether a write will change the tree.
+    private static boolean holds(Node root, int val) {
+        Node current = root;
+        while (current != null && current.getValue() != val) {
+            current = current.getValue() < val ? current.getRightChild() : current.getLeftChild();
+        }
+        return current != null;
+    }
+
+    /**
+     * Replaces the contents of the tree, then checkpoints it and waits for the checkpoint to be saved,
+     * as bulk loads are not journaled.
+     *
+     * @throws UncheckedIOException if the checkpoint fails
+     */
+    @Override
+    protected void buildBalanced(int[] keys, int count) {
+        requireOpen();
+        delegate.buildBalanced(keys, count);
+        root = delegate.root;
+        size = delegate.size;
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Appends a change not yet applied to the delegate, returning its sequence number.
+    private long append(byte operation, int val) {
+        try {
+            return journal.append(operation, val);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Starts a checkpoint if enough operations passed since the last one, once the change journaled as sequence
+    // has been applied. Does nothing for -1, as for writes that changed nothing.
+    private void checkpointIfDue(long sequence) {
+        if (sequence < 0) {
+            return;
+        }
+        try {
+            if (pendingCheckpoint != null && pendingCheckpoint.isDone()) {
+                awaitCheckpoint();
+            }
+            if (pendingCheckpoint == null && sequence - checkpointSequence >= checkpointEvery) {
+                startCheckpoint();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sets the listener of this tree, which reports searches, and of the journaled tree, which reports
+     * the steps of writes. Replaying the journal on recovery reports nothing.
+     */
+    @Override
+    public void setListener(TreeListener listener) {
+        super.setListener(listener);
+        delegate.setListener(listener);
+    }
+
+    /**
+     * Sets the metrics of this tree, which times operations and counts searches, and of the journaled tree,
+     * which counts the steps of writes. Replaying the journal on recovery is not counted.
+     */
+    @Override
+    public void setMetrics(TreeMetrics metrics) {
+        super.setMetrics(metrics);
+        delegate.setMetrics(metrics);
+    }
+
+    /**
+     * Commits every operation so far to disk.
+     */
+    public void sync() throws IOException {
+        requireOpen();
+        journal.commit();
+    }
+
+    /**
+     * Saves the current tree as a checkpoint and deletes the journal segments it covers, waiting for it
+     * to complete.
+     */
+    public void checkpoint() throws IOException {
+        requireOpen();
+        awaitCheckpoint();
+        startCheckpoint();
+        awaitCheckpoint();
+    }
+
+    // Starts a new journal segment and saves a copy of the tree in the background. Persistent trees never
+    // modify their nodes, so their current root is saved without copying.
+    private void startCheckpoint() throws IOException {
+        long sequence = journal.rotate();
+        Tree image = TreeSnapshot.Type.of(delegate).newTree(UNBOUNDED, null);
+        image.root = (delegate instanceof PersistentTree) ? delegate.root
+                : ConcurrentTree.copyNodes(delegate.root, delegate.size);
+        image.size = delegate.size;
+        checkpointSequence = sequence;
+        pendingCheckpoint = background.submit(() -> {
+            saveCheckpoint(image, sequence);
+            return null;
+        });
+    }
+
+    // Saves image as the checkpoint covering operations up to sequence, then deletes older checkpoints and
+    // the segments holding only operations it covers. Segments are deleted oldest first, so a crash part-way
+    // leaves the journal without gaps.
+    private void saveCheckpoint(Tree image, long sequence) throws IOException {
+        TreeSnapshot.save(image, checkpointFile(sequence));
+        TreeMap<Long, Path> covered = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long checkpoint = parseSequence(name, CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+                long start = parseSequence(name, OperationJournal.SEGMENT_PREFIX, OperationJournal.SEGMENT_SUFFIX);
+                if (checkpoint >= 0 && checkpoint < sequence) {
+                    Files.deleteIfExists(file);
+                } else if (start >= 0 && start <= sequence) {
+                    covered.put(start, file);
+                }
+            }
+        }
+        for (Path segment : covered.values()) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    private void awaitCheckpoint() throws IOException {
+        if (pendingCheckpoint == null) {
+            return;
+        }
+        try {
+            pendingCheckpoint.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a checkpoint");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Checkpoint failed", e.getCause());
+        } finally {
+            pendingCheckpoint = null;
+        }
+    }
+
+    private void requireOpen() {
+        if (closed) {
+            throw new IllegalStateException("Journaled tree is closed");
+        }
+    }
+
+    /**
+     * Gets the sequence number the next journaled operation will have, which counts the operations
+     * journaled since the directory was created.
+     */
+    public long getNextSequence() {
+        return journal.getNextSequence();
+    }
+
+    /**
+     * Gets the number of disk syncs of the journal since it was opened.
+     */
+    public long getCommitCount() {
+        return journal.getCommitCount();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the journaled tree, which must only be read.
+     */
+    Tree getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Waits for a pending checkpoint, commits the journal and closes it. Later changes throw
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        background.shutdown();
+        try {
+            awaitCheckpoint();
+        } finally {
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.jameseec.treevisualize.model;
+
+/**
+ * Slot-based storage for binary tree nodes, used by {@link ArenaTree} in place of {@link Node} objects.
+ * Each node is an int slot index into parallel columns of keys, left children, right children and
+ * a metadata byte (height for AVL trees, color for red-black trees).
+ * Slots freed by deletes are recycled through a free list threaded through the left column.
+ */
+public abstract class NodeArena {
+    /** Slot index representing a missing child. */
+    public static final int NIL = -1;
+    /** Bytes used by one slot across all columns: key, left, right and metadata. */
+    protected static final int SLOT_BYTES = 3 * Integer.BYTES + 1;
+    private int nextUnused;
+    private int freeHead = NIL;
+    private int allocated;
+
+    /**
+     * Creates an arena backed by parallel arrays on the Java heap.
+     *
+     * @param initialCapacity number of slots to reserve up front
+     */
+    public static NodeArena onHeap(int initialCapacity) {
+        return new HeapNodeArena(initialCapacity);
+    }
+
+    /**
+     * Creates an arena backed by direct (off-heap) buffers, invisible to the garbage collector.
+     *
+     * @param initialCapacity number of slots to reserve up front
+     */
+    public static NodeArena offHeap(int initialCapacity) {
+        return new OffHeapNodeArena(initialCapacity);
+    }
+
+    /**
+     * Allocates a slot holding key, with no children and zero metadata.
+     *
+     * @return index of the new slot
+     */
+    public int allocate(int key) {
+        int slot;
+        if (freeHead != NIL) {
+            slot = freeHead;
+            freeHead = left(slot);
+        } else {
+            if (nextUnused == capacity()) {
+                grow(Math.max(16, capacity() + (capacity() >> 1)));
+            }
+            slot = nextUnused++;
+        }
+        setKey(slot, key);
+        setLeft(slot, NIL);
+        setRight(slot, NIL);
+        setMeta(slot, (byte) 0);
+        allocated++;
+        return slot;
+    }
+
+    /**
+     * Returns slot to the free list for reuse by a later allocation.
+     */
+    public void free(int slot) {
+        setLeft(slot, freeHead);
+        freeHead = slot;
+        allocated--;
+    }
+
+    /**
+     * Frees every slot at once, keeping the reserved capacity.
+     */
+    public void clear() {
+        nextUnused = 0;
+        freeHead = NIL;
+        allocated = 0;
+    }
+
+    /**
+     * Gets the number of slots currently holding nodes.
+     */
+    public int allocated() {
+        return allocated;
+    }
+
+    public abstract int key(int slot);
+
+    public abstract void setKey(int slot, int key);
+
+    public abstract int left(int slot);
+
+    public abstract void setLeft(int slot, int child);
+
+    public abstract int right(int slot);
+
+    public abstract void setRight(int slot, int child);
+
+    public abstract byte meta(int slot);
+
+    public abstract void setMeta(int slot, byte meta);
+
+    /**
+     * Gets the number of slots reserved, including free ones.
+     */
+    public abstract int capacity();
+
+    /**
+     * Gets the number of bytes reserved by the columns of this arena.
+     */
+    public abstract long footprintBytes();
+
+    /**
+     * Grows every column to hold newCapacity slots, preserving existing contents.
+     */
+    protected abstract void grow(int newCapacity);
+}
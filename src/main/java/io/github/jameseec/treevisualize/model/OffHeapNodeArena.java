@@ -0,0 +1,100 @@
+package io.github.jameseec.treevisualize.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Node arena stored in direct buffers outside the Java heap, so large trees add no GC marking work.
+ * Each column is a separate native-order buffer, limited to 2^31 bytes.
+ */
+class OffHeapNodeArena extends NodeArena {
+    private IntBuffer keys;
+    private IntBuffer left;
+    private IntBuffer right;
+    private ByteBuffer meta;
+    private int capacity;
+
+    OffHeapNodeArena(int initialCapacity) {
+        capacity = initialCapacity;
+        keys = allocateInts(initialCapacity);
+        left = allocateInts(initialCapacity);
+        right = allocateInts(initialCapacity);
+        meta = ByteBuffer.allocateDirect(initialCapacity);
+    }
+
+    private static IntBuffer allocateInts(int count) {
+        return ByteBuffer.allocateDirect(count * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    @Override
+    public int key(int slot) {
+        return keys.get(slot);
+    }
+
+    @Override
+    public void setKey(int slot, int key) {
+        keys.put(slot, key);
+    }
+
+    @Override
+    public int left(int slot) {
+        return left.get(slot);
+    }
+
+    @Override
+    public void setLeft(int slot, int child) {
+        left.put(slot, child);
+    }
+
+    @Override
+    public int right(int slot) {
+        return right.get(slot);
+    }
+
+    @Override
+    public void setRight(int slot, int child) {
+        right.put(slot, child);
+    }
+
+    @Override
+    public byte meta(int slot) {
+        return meta.get(slot);
+    }
+
+    @Override
+    public void setMeta(int slot, byte value) {
+        meta.put(slot, value);
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public long footprintBytes() {
+        return (long) capacity * SLOT_BYTES;
+    }
+
+    @Override
+    protected void grow(int newCapacity) {
+        if ((long) newCapacity * Integer.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap arena cannot hold more than "
+                    + (Integer.MAX_VALUE / Integer.BYTES) + " nodes");
+        }
+        keys = copyInts(keys, newCapacity);
+        left = copyInts(left, newCapacity);
+        right = copyInts(right, newCapacity);
+        ByteBuffer newMeta = ByteBuffer.allocateDirect(newCapacity);
+        newMeta.put(0, meta, 0, capacity);
+        meta = newMeta;
+        capacity = newCapacity;
+    }
+
+    private IntBuffer copyInts(IntBuffer source, int newCapacity) {
+        IntBuffer copy = allocateInts(newCapacity);
+        copy.put(0, source, 0, capacity);
+        return copy;
+    }
+}
@@ -0,0 +1,210 @@
+package io.github.jameseec.treevisualize.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only log of the operations applied to a {@link JournaledTree}, split into segment files that each
+ * start at a known sequence number.
+ * <p>
+ * Every operation is a 16-byte big-endian record: its sequence number, the key, the operation code, a reserved
+ * byte and a 16-bit checksum of the other fields. Records are gathered in a buffer and written with a single
+ * {@code write} and {@code force} once {@code commitEvery} records are pending, or whenever {@link #commit()}
+ * is called, so a batch of operations shares one disk sync.
+ * <p>
+ * Thread-safe: the owning tree appends while a background thread commits on a timer.
+ */
+final class OperationJournal implements Closeable {
+    static final int RECORD_BYTES = 16;
+    static final byte INSERT = 1;
+    static final byte DELETE = 2;
+    static final byte CLEAR = 3;
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int READ_BUFFER_BYTES = RECORD_BYTES << 16;
+
+    private final Path directory;
+    private final ByteBuffer buffer;
+    private FileChannel channel;
+    /** Sequence number of the first record of the open segment. */
+    private long segmentStart;
+    private long nextSequence;
+    private long commits;
+    /** Failure of a background commit, reported by the next append. */
+    private IOException failure;
+
+    /**
+     * Opens a new segment whose first record will have the given sequence number, replacing any segment
+     * of that name.
+     */
+    OperationJournal(Path directory, long nextSequence, int commitEvery) throws IOException {
+        this.directory = directory;
+        this.buffer = ByteBuffer.allocateDirect(commitEvery * RECORD_BYTES).order(ByteOrder.BIG_ENDIAN);
+        this.nextSequence = nextSequence;
+        openSegment();
+    }
+
+    /**
+     * Appends a record, committing the batch if it is full.
+     *
+     * @return sequence number of the record
+     * @throws IOException if this or an earlier background commit failed
+     */
+    synchronized long append(byte operation, int key) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        long sequence = nextSequence++;
+        buffer.putLong(sequence);
+        buffer.putInt(key);
+        buffer.put(operation);
+        buffer.put((byte) 0);
+        buffer.putShort(checksum(sequence, key, operation));
+        if (!buffer.hasRemaining()) {
+            commit();
+        }
+        return sequence;
+    }
+
+    /**
+     * Writes the pending records and forces them to disk. Does nothing if no records are pending.
+     */
+    synchronized void commit() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            commits++;
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Commits pending records from a background thread, keeping any failure for the next append.
+     */
+    synchronized void commitQuietly() {
+        try {
+            commit();
+        } catch (IOException e) {
+            // Kept in failure
+        }
+    }
+
+    /**
+     * Commits the open segment and starts a new one at the next sequence number, unless the open segment
+     * is still empty.
+     *
+     * @return sequence number of the last record appended, which every earlier segment covers
+     */
+    synchronized long rotate() throws IOException {
+        commit();
+        if (nextSequence != segmentStart) {
+            channel.close();
+            openSegment();
+        }
+        return nextSequence - 1;
+    }
+
+    private void openSegment() throws IOException {
+        segmentStart = nextSequence;
+        channel = FileChannel.open(segment(directory, segmentStart), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Gets the number of disk syncs so far, each of which committed a batch of records.
+     */
+    synchronized long getCommitCount() {
+        return commits;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            commit();
+        } finally {
+            channel.close();
+        }
+    }
+
+    static Path segment(Path directory, long start) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, start, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Receives the records read back from a segment.
+     */
+    @FunctionalInterface
+    interface RecordHandler {
+        void accept(long sequence, byte operation, int key) throws IOException;
+    }
+
+    /**
+     * Reads a segment's records in order, stopping at the first record that is incomplete, fails its
+     * checksum or breaks the sequence, as left by a crash during a commit. Truncates the segment there.
+     *
+     * @param segment segment to read
+     * @param expected sequence number the first record must have
+     * @param handler receives every valid record
+     * @return sequence number following the last valid record
+     */
+    static long replay(Path segment, long expected, RecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES).order(ByteOrder.BIG_ENDIAN);
+            long validBytes = 0;
+            boolean torn = false;
+            while (!torn && channel.read(buffer) > 0) {
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_BYTES) {
+                    long sequence = buffer.getLong();
+                    int key = buffer.getInt();
+                    byte operation = buffer.get();
+                    buffer.get();
+                    short checksum = buffer.getShort();
+                    if (sequence != expected || operation < INSERT || operation > CLEAR
+                            || checksum != checksum(sequence, key, operation)) {
+                        torn = true;
+                        break;
+                    }
+                    handler.accept(sequence, operation, key);
+                    expected++;
+                    validBytes += RECORD_BYTES;
+                }
+                buffer.compact();
+            }
+            if (validBytes < channel.size()) {
+                channel.truncate(validBytes);
+                channel.force(false);
+            }
+            return expected;
+        }
+    }
+
+    // Mixes the fields into 16 bits, so that torn and zero-filled records are rejected.
+    private static short checksum(long sequence, int key, byte operation) {
+        long hash = sequence * 0x9E3779B97F4A7C15L ^ (key & 0xFFFFFFFFL) * 0xC2B2AE3D27D4EB4FL ^ operation;
+        hash ^= hash >>> 29;
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 32;
+        return (short) hash;
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.jameseec.treevisualize.model;
+
+/**
+ * Describes the outcome of a single insert or delete on a tree.
+ * Instances are mutable so that callers can reuse one result across many operations.
+ */
+public class OperationResult {
+
+    /**
+     * Possible outcomes of an insert or delete.
+     */
+    public enum Outcome {
+        INSERTED, DUPLICATE, DELETED, NOT_FOUND
+    }
+
+    private Outcome outcome;
+    private int pathLength;
+    private int rotations;
+    private int recolorings;
+
+    /**
+     * Constructs an empty result, to be filled in by a tree operation.
+     */
+    public OperationResult() {
+        reset();
+    }
+
+    /**
+     * Clears this result so it can be reused for another operation.
+     */
+    void reset() {
+        outcome = null;
+        pathLength = 0;
+        rotations = 0;
+        recolorings = 0;
+    }
+
+    void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+
+    void setPathLength(int pathLength) {
+        this.pathLength = pathLength;
+    }
+
+    void addRotations(int count) {
+        rotations += count;
+    }
+
+    void addRecolorings(int count) {
+        recolorings += count;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Returns true if the operation changed the tree.
+     */
+    public boolean isChanged() {
+        return outcome == Outcome.INSERTED || outcome == Outcome.DELETED;
+    }
+
+    /**
+     * Gets the number of nodes visited while descending the tree, including any walk to an in-order successor.
+     */
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * Gets the number of single rotations performed to rebalance the tree. Double rotations count as two.
+     */
+    public int getRotations() {
+        return rotations;
+    }
+
+    /**
+     * Gets the number of node color changes made to rebalance the tree. Only red-black trees recolor nodes.
+     */
+    public int getRecolorings() {
+        return recolorings;
+    }
+
+    @Override
+    public String toString() {
+        return outcome + " (path length " + pathLength + ", rotations " + rotations
+                + ", recolorings " + recolorings + ")";
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.jameseec.treevisualize.model;
+
+/**
+ * Represents a persistent AVL Tree that disallows duplicates and keeps earlier versions for undo and redo.
+ * Rebalancing copies the nodes a rotation moves, so each version still costs O(log n) nodes.
+ */
+public class PersistentAVLTree extends PersistentTree {
+
+    /**
+     * Constructor that creates an empty tree with the default history limits.
+     */
+    public PersistentAVLTree() {
+        this(UNBOUNDED);
+    }
+
+    /**
+     * Constructor that creates an empty tree holding at most {@code maxSize} nodes, with the default history limits.
+     *
+     * @param maxSize maximum number of nodes, or {@code Tree.UNBOUNDED}
+     */
+    public PersistentAVLTree(int maxSize) {
+        this(maxSize, DEFAULT_MAX_VERSIONS, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Constructor that creates an empty tree holding at most {@code maxSize} nodes.
+     *
+     * @param maxSize maximum number of nodes, or {@code Tree.UNBOUNDED}
+     * @param maxVersions maximum number of versions to retain
+     * @param maxBytes maximum estimated bytes of nodes to retain beyond those of the current version
+     */
+    public PersistentAVLTree(int maxSize, int maxVersions, long maxBytes) {
+        super(maxSize, maxVersions, maxBytes, null);
+    }
+
+    /**
+     * Constructor that creates an empty tree holding at most {@code maxSize} nodes, with the default history
+     * limits, maintaining the given augmentation in every node.
+     *
+     * @param maxSize maximum number of nodes, or {@code Tree.UNBOUNDED}
+     * @param augmentation augmentation to maintain, or null for plain nodes
+     */
+    public PersistentAVLTree(int maxSize, Augmentation augmentation) {
+        super(maxSize, DEFAULT_MAX_VERSIONS, DEFAULT_MAX_BYTES, augmentation);
+    }
+
+    /**
+     * Updates the height of a copied path node and rebalances it.
+     */
+    @Override
+    protected Node fixUp(Node node, OperationResult result) {
+        updateHeight(node);
+        int balance = getBalance(node);
+
+        // Left heavy
+        if (balance > 1) {
+            if (getBalance(node.getLeftChild()) < 0) {
+                node.setLeftChild(rotateLeft(copy(node.getLeftChild()))); // LR case
+                emit(TreeEvent.LINK, node, node.getLeftChild());
+                result.addRotations(1);
+            }
+            result.addRotations(1);
+            return rotateRight(node); // LL case
+        }
+
+        // Right heavy
+        if (balance < -1) {
+            if (getBalance(node.getRightChild()) > 0) {
+                node.setRightChild(rotateRight(copy(node.getRightChild()))); // RL case
+                emit(TreeEvent.LINK, node, node.getRightChild());
+                result.addRotations(1);
+            }
+            result.addRotations(1);
+            return rotateLeft(node); // RR case
+        }
+
+        return node; // already balanced
+    }
+
+    // Gets balance of given node.
+    private int getBalance(Node root) {
+        if (root == null) {
+            return 0;
+        } else {
+            return height(root.getLeftChild()) - height(root.getRightChild());
+        }
+    }
+
+    // Returns stored height, -1 if node is null
+    private int height(Node node) {
+        return (node == null) ? -1 : node.getHeight();
+    }
+
+    // Rotates a new node right, copying the left child that moves above it.
+    private Node rotateRight(Node root) {
+        Node newRoot = copy(root.getLeftChild());
+        root.setLeftChild(newRoot.getRightChild());
+        newRoot.setRightChild(root);
+        emit(TreeEvent.ROTATE_RIGHT, root, newRoot);
+
+        updateHeight(root);
+        updateHeight(newRoot);
+        augment(root);
+        augment(newRoot);
+
+        return newRoot;
+    }
+
+    // Rotates a new node left, copying the right child that moves above it.
+    private Node rotateLeft(Node root) {
+        Node newRoot = copy(root.getRightChild());
+        root.setRightChild(newRoot.getLeftChild());
+        newRoot.setLeftChild(root);
+        emit(TreeEvent.ROTATE_LEFT, root, newRoot);
+
+        updateHeight(root);
+        updateHeight(newRoot);
+        augment(root);
+        augment(newRoot);
+
+        return newRoot;
+    }
+
+    private void updateHeight(Node node) {
+        node.setHeight(1 + Math.max(height(node.getLeftChild()), height(node.getRightChild())));
+        emit(TreeEvent.HEIGHT_UPDATE, node, null);
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.jameseec.treevisualize.model;
+
+/**
+ * Represents a persistent Binary Search Tree that disallows duplicates and keeps earlier versions
+ * for undo and redo.
+ */
+public class PersistentBinarySearchTree extends PersistentTree {
+
+    /**
+     * Constructor that creates an empty tree with the default history limits.
+     */
+    public PersistentBinarySearchTree() {
+        this(UNBOUNDED);
+    }
+
+    /**
+     * Constructor that creates an empty tree holding at most {@code maxSize} nodes, with the default history limits.
+     *
+     * @param maxSize maximum number of nodes, or {@code Tree.UNBOUNDED}
+     */
+    public PersistentBinarySearchTree(int maxSize) {
+        this(maxSize, DEFAULT_MAX_VERSIONS, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Constructor that creates an empty tree holding at most {@code maxSize} nodes.
+     *
+     * @param maxSize maximum number of nodes, or {@code Tree.UNBOUNDED}
+     * @param maxVersions maximum number of versions to retain
+     * @param maxBytes maximum estimated bytes of nodes to retain beyond those of the current version
+     */
+    public PersistentBinarySearchTree(int maxSize, int maxVersions, long maxBytes) {
+        super(maxSize, maxVersions, maxBytes, null);
+    }
+
+    /**
+     * Constructor that creates an empty tree holding at most {@code maxSize} nodes, with the default history
+     * limits, maintaining the given augmentation in every node.
+     *
+     * @param maxSize maximum number of nodes, or {@code Tree.UNBOUNDED}
+     * @param augmentation augmentation to maintain, or null for plain nodes
+     */
+    public PersistentBinarySearchTree(int maxSize, Augmentation augmentation) {
+        super(maxSize, DEFAULT_MAX_VERSIONS, DEFAULT_MAX_BYTES, augmentation);
+    }
+}
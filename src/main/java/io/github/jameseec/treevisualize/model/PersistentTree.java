@@ -0,0 +1,267 @@
+package io.github.jameseec.treevisualize.model;
+
+/**
+ * Base class for persistent trees, which never modify a node once it is part of a version.
+ * Inserts and deletes copy the nodes on the path from the root to the change and share every other node
+ * with the previous version, so each version costs memory proportional to the path length.
+ * Versions are kept in a {@link VersionHistory}, allowing undo, redo and jumping to any retained version.
+ */
+public abstract class PersistentTree extends Tree {
+    /** Number of versions retained unless specified. */
+    public static final int DEFAULT_MAX_VERSIONS = 1000;
+    /** Estimated bytes of nodes retained by old versions unless specified. */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private final VersionHistory history;
+    /** Nodes created by the operation in progress. */
+    private int copiedNodes;
+
+    /**
+     * Constructor that creates an empty tree whose history starts with the empty version.
+     *
+     * @param maxSize maximum number of nodes, or {@code UNBOUNDED}
+     * @param maxVersions maximum number of versions to retain
+     * @param maxBytes maximum estimated bytes of nodes to retain beyond those of the current version
+     * @param augmentation augmentation to maintain, or null for plain nodes
+     */
+    protected PersistentTree(int maxSize, int maxVersions, long maxBytes, Augmentation augmentation) {
+        super(maxSize, augmentation);
+        this.history = new VersionHistory(maxVersions, maxBytes);
+        history.record(null, 0, 0);
+    }
+
+    @Override
+    protected void applyInsert(int val, OperationResult result) {
+        copiedNodes = 0;
+        super.applyInsert(val, result);
+        if (result.isChanged()) {
+            history.record(root, size, copiedNodes);
+        }
+    }
+
+    @Override
+    protected void applyDelete(int val, OperationResult result) {
+        copiedNodes = 0;
+        super.applyDelete(val, result);
+        if (result.isChanged()) {
+            history.record(root, size, copiedNodes);
+        }
+    }
+
+    /**
+     * Replaces the contents of this tree with a balanced tree of fresh nodes, recorded as one version.
+     */
+    @Override
+    protected void buildBalanced(int[] keys, int count) {
+        super.buildBalanced(keys, count);
+        history.record(root, size, count);
+    }
+
+    /**
+     * Replaces the contents of this tree with the given nodes as a new version, taking ownership of them.
+     * Used to restore a tree from disk without changing its shape.
+     */
+    void restore(Node restoredRoot, int restoredSize) {
+        root = restoredRoot;
+        size = restoredSize;
+        history.record(root, size, size);
+    }
+
+    /**
+     * Empties the tree as a new version, so clearing can be undone.
+     */
+    @Override
+    public void clear() {
+        if (root != null) {
+            super.clear();
+            history.record(null, 0, 0);
+        }
+    }
+
+    /**
+     * Inserts a node with given val by copying the path down to its parent, rejecting duplicates.
+     * Does not increment {@code size}.
+     *
+     * @param val value of new node to insert
+     * @param result result to record the outcome, path length and rotations in
+     */
+    @Override
+    protected void insertNode(int val, OperationResult result) {
+        int depth = 0;
+        Node current = root;
+        while (current != null) {
+            pushPath(depth++, current);
+            emit(TreeEvent.VISIT, current, null);
+            if (val < current.getValue()) {
+                current = current.getLeftChild();
+            } else if (val > current.getValue()) {
+                current = current.getRightChild();
+            } else {
+                result.setOutcome(OperationResult.Outcome.DUPLICATE);
+                result.setPathLength(depth);
+                clearPath(depth);
+                return;
+            }
+        }
+        result.setOutcome(OperationResult.Outcome.INSERTED);
+        result.setPathLength(depth);
+
+        Node subtree = newNode(val);
+        copiedNodes++;
+        for (int i = depth - 1; i >= 0; i--) {
+            Node parent = path[i];
+            subtree = copyWithChild(parent, null, subtree, val < parent.getValue(), result);
+        }
+        root = subtree;
+        emit(TreeEvent.LINK, null, root);
+        clearPath(depth);
+    }
+
+    /**
+     * Deletes the node with given val if it exists by copying the path down to it, or down to its in-order
+     * successor if it has two children. Does not decrement {@code size}.
+     *
+     * @param val value of node to delete
+     * @param result result to record the outcome, path length and rotations in
+     */
+    @Override
+    protected void deleteNode(int val, OperationResult result) {
+        int depth = 0;
+        Node current = root;
+        while (current != null && current.getValue() != val) {
+            pushPath(depth++, current);
+            emit(TreeEvent.VISIT, current, null);
+            current = (val < current.getValue()) ? current.getLeftChild() : current.getRightChild();
+        }
+        if (current == null) {
+            result.setOutcome(OperationResult.Outcome.NOT_FOUND);
+            result.setPathLength(depth);
+            clearPath(depth);
+            return;
+        }
+        pushPath(depth++, current);
+        emit(TreeEvent.VISIT, current, null);
+
+        // Node with two children: its copy takes the successor's value, and the successor is removed instead
+        int targetIndex = -1;
+        if (current.getLeftChild() != null && current.getRightChild() != null) {
+            targetIndex = depth - 1;
+            current = current.getRightChild();
+            while (current != null) {
+                pushPath(depth++, current);
+                emit(TreeEvent.VISIT, current, null);
+                current = current.getLeftChild();
+            }
+        }
+        result.setOutcome(OperationResult.Outcome.DELETED);
+        result.setPathLength(depth);
+
+        Node removed = path[depth - 1];
+        Node subtree = (removed.getLeftChild() == null) ? removed.getRightChild() : removed.getLeftChild();
+        for (int i = depth - 2; i >= 0; i--) {
+            Node parent = path[i];
+            Node successor = (i == targetIndex) ? removed : null;
+            subtree = copyWithChild(parent, successor, subtree, parent.getLeftChild() == path[i + 1], result);
+        }
+        root = subtree;
+        emit(TreeEvent.LINK, null, root);
+        clearPath(depth);
+    }
+
+    // Copies original, with successor's value if given, and subtree as its child on the given side,
+    // then fixes it up.
+    private Node copyWithChild(Node original, Node successor, Node subtree, boolean left, OperationResult result) {
+        Node parent = copy(original);
+        if (successor != null) {
+            parent.setValue(successor.getValue());
+            emit(TreeEvent.SWAP_VALUE, parent, successor);
+        }
+        if (left) {
+            parent.setLeftChild(subtree);
+        } else {
+            parent.setRightChild(subtree);
+        }
+        emit(TreeEvent.LINK, parent, subtree);
+        augment(parent);
+        return fixUp(parent, result);
+    }
+
+    /**
+     * Restores tree type-specific invariants at a node copied on the way back up from a change,
+     * whose children are already fixed up. Does nothing by default.
+     *
+     * @param node copy of a path node, which may be modified, with its augmented data up to date
+     * @param result result to record rotations in
+     * @return root of the fixed-up subtree, which must only contain new nodes where it differs from node,
+     *         with their augmented data up to date
+     */
+    protected Node fixUp(Node node, OperationResult result) {
+        return node;
+    }
+
+    /**
+     * Returns a new node with original's value, height, color and children, counting it towards the memory
+     * of the version being created, and reports the links to the shared children. Subclasses must copy any
+     * shared node before modifying it, and augment the copy once its children are final.
+     */
+    protected Node copy(Node original) {
+        Node copy = newNode(original.getValue());
+        copy.setHeight(original.getHeight());
+        copy.setColor(original.getColor());
+        copy.setLeftChild(original.getLeftChild());
+        copy.setRightChild(original.getRightChild());
+        if (hasListener()) {
+            if (copy.getLeftChild() != null) {
+                emit(TreeEvent.LINK, copy, copy.getLeftChild());
+            }
+            if (copy.getRightChild() != null) {
+                emit(TreeEvent.LINK, copy, copy.getRightChild());
+            }
+        }
+        copiedNodes++;
+        return copy;
+    }
+
+    /**
+     * Reverts the tree to the previous version, if one is retained.
+     *
+     * @return true if the tree changed
+     */
+    public boolean undo() {
+        if (!history.canUndo()) {
+            return false;
+        }
+        goToVersion(history.getCurrent() - 1);
+        return true;
+    }
+
+    /**
+     * Moves the tree to the next version after an undo, if one is retained.
+     *
+     * @return true if the tree changed
+     */
+    public boolean redo() {
+        if (!history.canRedo()) {
+            return false;
+        }
+        goToVersion(history.getCurrent() + 1);
+        return true;
+    }
+
+    /**
+     * Moves the tree to any retained version in constant time. A later insert or delete discards the
+     * versions after it.
+     *
+     * @param index index of the version among the retained versions, 0 being the oldest
+     * @throws IndexOutOfBoundsException if index is not a retained version
+     */
+    public void goToVersion(int index) {
+        history.select(index);
+        root = history.getRoot(index);
+        size = history.getSize(index);
+    }
+
+    public VersionHistory getHistory() {
+        return history;
+    }
+}
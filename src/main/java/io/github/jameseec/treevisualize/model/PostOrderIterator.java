@@ -0,0 +1,57 @@
+package io.github.jameseec.treevisualize.model;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Iterates over the values of a tree in post-order, visiting each node after its left and then its right
+ * subtree. Keeps the path to the next node on an explicit stack and does not recurse.
+ * The tree must not be modified during iteration.
+ */
+public class PostOrderIterator implements PrimitiveIterator.OfInt {
+    private Node[] stack = new Node[32];
+    private int depth;
+
+    /**
+     * Constructs an iterator over the tree under root.
+     *
+     * @param root root of the tree to iterate over, or null
+     */
+    public PostOrderIterator(Node root) {
+        descend(root);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return depth > 0;
+    }
+
+    @Override
+    public int nextInt() {
+        if (depth == 0) {
+            throw new NoSuchElementException();
+        }
+        Node node = stack[--depth];
+        stack[depth] = null;
+        // Coming back up from a left child, the parent's right subtree is next
+        if (depth > 0) {
+            Node parent = stack[depth - 1];
+            if (parent.getLeftChild() == node) {
+                descend(parent.getRightChild());
+            }
+        }
+        return node.getValue();
+    }
+
+    // Pushes the path from node to the first node of its subtree in post-order.
+    private void descend(Node node) {
+        while (node != null) {
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+            }
+            stack[depth++] = node;
+            node = (node.getLeftChild() != null) ? node.getLeftChild() : node.getRightChild();
+        }
+    }
+}
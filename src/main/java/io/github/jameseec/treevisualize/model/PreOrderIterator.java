@@ -0,0 +1,50 @@
+package io.github.jameseec.treevisualize.model;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Iterates over the values of a tree in pre-order, visiting each node before its left and then its right
+ * subtree. Keeps pending right children on an explicit stack and does not recurse.
+ * The tree must not be modified during iteration.
+ */
+public class PreOrderIterator implements PrimitiveIterator.OfInt {
+    private Node[] stack = new Node[32];
+    private int depth;
+
+    /**
+     * Constructs an iterator over the tree under root.
+     *
+     * @param root root of the tree to iterate over, or null
+     */
+    public PreOrderIterator(Node root) {
+        if (root != null) {
+            stack[depth++] = root;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return depth > 0;
+    }
+
+    @Override
+    public int nextInt() {
+        if (depth == 0) {
+            throw new NoSuchElementException();
+        }
+        Node node = stack[--depth];
+        stack[depth] = null;
+        if (depth + 2 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        if (node.getRightChild() != null) {
+            stack[depth++] = node.getRightChild();
+        }
+        if (node.getLeftChild() != null) {
+            stack[depth++] = node.getLeftChild();
+        }
+        return node.getValue();
+    }
+}
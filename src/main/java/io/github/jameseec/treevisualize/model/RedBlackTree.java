@@ -0,0 +1,304 @@
+package io.github.jameseec.treevisualize.model;
+
+/**
+ * Represents a Red-Black Tree that disallows duplicates.
+ * Rebalancing is done bottom-up after each insert or delete, walking back along the recorded descent
+ * path instead of following parent pointers.
+ */
+public class RedBlackTree extends Tree {
+
+    /**
+     * Constructor that creates an empty tree.
+     */
+    public RedBlackTree() {
+        super();
+    }
+
+    /**
+     * Constructor that creates an empty tree holding at most {@code maxSize} nodes.
+     *
+     * @param maxSize maximum number of nodes, or {@code Tree.UNBOUNDED}
+     */
+    public RedBlackTree(int maxSize) {
+        super(maxSize);
+    }
+
+    /**
+     * Constructor that creates an empty tree holding at most {@code maxSize} nodes, maintaining
+     * the given augmentation in every node.
+     *
+     * @param maxSize maximum number of nodes, or {@code Tree.UNBOUNDED}
+     * @param augmentation augmentation to maintain, or null for plain nodes
+     */
+    public RedBlackTree(int maxSize, Augmentation augmentation) {
+        super(maxSize, augmentation);
+    }
+
+    /**
+     * Inserts a red node with given val in a single descent, rejecting duplicates,
+     * then restores the red-black properties. Does not increment {@code size}.
+     *
+     * @param val value of new node to insert
+     * @param result result to record the outcome, path length, rotations and recolorings in
+     */
+    @Override
+    protected void insertNode(int val, OperationResult result) {
+        int depth = 0;
+        Node current = root;
+        while (current != null) {
+            pushPath(depth++, current);
+            emit(TreeEvent.VISIT, current, null);
+            if (val < current.getValue()) {
+                current = current.getLeftChild();
+            } else if (val > current.getValue()) {
+                current = current.getRightChild();
+            } else {
+                result.setOutcome(OperationResult.Outcome.DUPLICATE);
+                result.setPathLength(depth);
+                clearPath(depth);
+                return;
+            }
+        }
+        result.setOutcome(OperationResult.Outcome.INSERTED);
+        result.setPathLength(depth);
+
+        Node inserted = newNode(val);
+        inserted.setColor(Color.RED);
+        if (depth == 0) {
+            root = inserted;
+        } else if (val < path[depth - 1].getValue()) {
+            path[depth - 1].setLeftChild(inserted);
+        } else {
+            path[depth - 1].setRightChild(inserted);
+        }
+        emit(TreeEvent.LINK, (depth == 0) ? null : path[depth - 1], inserted);
+        pushPath(depth, inserted);
+        // Bring the aggregates up to date first; rotations then keep them so
+        augmentPath(depth);
+        fixAfterInsert(depth, result);
+        paint(root, Color.BLACK, result);
+        clearPath(depth + 1);
+    }
+
+    // Resolves a red node at path[i] that may have a red parent, moving up two levels per recoloring.
+    private void fixAfterInsert(int i, OperationResult result) {
+        while (i >= 2 && isRed(path[i - 1])) {
+            Node node = path[i];
+            Node parent = path[i - 1];
+            Node grandparent = path[i - 2];
+            boolean parentIsLeft = grandparent.getLeftChild() == parent;
+            Node uncle = parentIsLeft ? grandparent.getRightChild() : grandparent.getLeftChild();
+
+            if (isRed(uncle)) {
+                // Red uncle: push blackness down from grandparent and continue from there
+                paint(parent, Color.BLACK, result);
+                paint(uncle, Color.BLACK, result);
+                paint(grandparent, Color.RED, result);
+                i -= 2;
+                continue;
+            }
+
+            // Black uncle: rotate node into line with parent, then rotate grandparent
+            if (parentIsLeft) {
+                if (parent.getRightChild() == node) {
+                    grandparent.setLeftChild(rotateLeft(parent, result));
+                    emit(TreeEvent.LINK, grandparent, node);
+                    parent = node;
+                }
+                replaceChild(i - 3, grandparent, rotateRight(grandparent, result));
+            } else {
+                if (parent.getLeftChild() == node) {
+                    grandparent.setRightChild(rotateRight(parent, result));
+                    emit(TreeEvent.LINK, grandparent, node);
+                    parent = node;
+                }
+                replaceChild(i - 3, grandparent, rotateLeft(grandparent, result));
+            }
+            paint(parent, Color.BLACK, result);
+            paint(grandparent, Color.RED, result);
+            return;
+        }
+    }
+
+    /**
+     * Deletes the node with given val in a single descent if it exists, then restores the red-black properties.
+     * A node with two children takes its in-order successor's value and the successor is removed instead.
+     * Does not decrement {@code size}.
+     *
+     * @param val value of node to delete
+     * @param result result to record the outcome, path length, rotations and recolorings in
+     */
+    @Override
+    protected void deleteNode(int val, OperationResult result) {
+        int depth = 0;
+        Node current = root;
+        while (current != null && current.getValue() != val) {
+            pushPath(depth++, current);
+            emit(TreeEvent.VISIT, current, null);
+            current = (val < current.getValue()) ? current.getLeftChild() : current.getRightChild();
+        }
+        if (current == null) {
+            result.setOutcome(OperationResult.Outcome.NOT_FOUND);
+            result.setPathLength(depth);
+            clearPath(depth);
+            return;
+        }
+        pushPath(depth++, current);
+        emit(TreeEvent.VISIT, current, null);
+
+        if (current.getLeftChild() != null && current.getRightChild() != null) {
+            Node target = current;
+            current = current.getRightChild();
+            while (current != null) {
+                pushPath(depth++, current);
+                emit(TreeEvent.VISIT, current, null);
+                current = current.getLeftChild();
+            }
+            target.setValue(path[depth - 1].getValue());
+            emit(TreeEvent.SWAP_VALUE, target, path[depth - 1]);
+        }
+        result.setOutcome(OperationResult.Outcome.DELETED);
+        result.setPathLength(depth);
+
+        // Splice out the removed node, which has at most one child
+        Node removed = path[depth - 1];
+        Node child = (removed.getLeftChild() == null) ? removed.getRightChild() : removed.getLeftChild();
+        int parentIndex = depth - 2;
+        boolean childIsLeft = parentIndex >= 0 && path[parentIndex].getLeftChild() == removed;
+        replaceChild(parentIndex, removed, child);
+        augmentPath(parentIndex);
+
+        if (!isRed(removed)) {
+            fixAfterDelete(child, parentIndex, childIsLeft, result);
+        }
+        clearPath(depth);
+    }
+
+    // Resolves the missing black on node, a possibly null child of path[parentIndex] on the given side.
+    private void fixAfterDelete(Node node, int parentIndex, boolean isLeft, OperationResult result) {
+        while (parentIndex >= 0 && !isRed(node)) {
+            Node parent = path[parentIndex];
+            if (isLeft) {
+                Node sibling = parent.getRightChild();
+                if (isRed(sibling)) {
+                    // Red sibling: rotate it above parent so node gets a black sibling
+                    paint(sibling, Color.BLACK, result);
+                    paint(parent, Color.RED, result);
+                    replaceChild(parentIndex - 1, parent, rotateLeft(parent, result));
+                    path[parentIndex] = sibling;
+                    pushPath(++parentIndex, parent);
+                    sibling = parent.getRightChild();
+                }
+                if (!isRed(sibling.getLeftChild()) && !isRed(sibling.getRightChild())) {
+                    // Black sibling with black children: move the missing black up to parent
+                    paint(sibling, Color.RED, result);
+                    node = parent;
+                    parentIndex--;
+                    isLeft = parentIndex >= 0 && path[parentIndex].getLeftChild() == node;
+                } else {
+                    if (!isRed(sibling.getRightChild())) {
+                        paint(sibling.getLeftChild(), Color.BLACK, result);
+                        paint(sibling, Color.RED, result);
+                        sibling = rotateRight(sibling, result);
+                        parent.setRightChild(sibling);
+                        emit(TreeEvent.LINK, parent, sibling);
+                    }
+                    paint(sibling, parent.getColor(), result);
+                    paint(parent, Color.BLACK, result);
+                    paint(sibling.getRightChild(), Color.BLACK, result);
+                    replaceChild(parentIndex - 1, parent, rotateLeft(parent, result));
+                    return;
+                }
+            } else {
+                Node sibling = parent.getLeftChild();
+                if (isRed(sibling)) {
+                    paint(sibling, Color.BLACK, result);
+                    paint(parent, Color.RED, result);
+                    replaceChild(parentIndex - 1, parent, rotateRight(parent, result));
+                    path[parentIndex] = sibling;
+                    pushPath(++parentIndex, parent);
+                    sibling = parent.getLeftChild();
+                }
+                if (!isRed(sibling.getLeftChild()) && !isRed(sibling.getRightChild())) {
+                    paint(sibling, Color.RED, result);
+                    node = parent;
+                    parentIndex--;
+                    isLeft = parentIndex >= 0 && path[parentIndex].getLeftChild() == node;
+                } else {
+                    if (!isRed(sibling.getLeftChild())) {
+                        paint(sibling.getRightChild(), Color.BLACK, result);
+                        paint(sibling, Color.RED, result);
+                        sibling = rotateLeft(sibling, result);
+                        parent.setLeftChild(sibling);
+                        emit(TreeEvent.LINK, parent, sibling);
+                    }
+                    paint(sibling, parent.getColor(), result);
+                    paint(parent, Color.BLACK, result);
+                    paint(sibling.getLeftChild(), Color.BLACK, result);
+                    replaceChild(parentIndex - 1, parent, rotateRight(parent, result));
+                    return;
+                }
+            }
+        }
+        if (node != null) {
+            paint(node, Color.BLACK, result);
+        }
+    }
+
+    /**
+     * Colors the deepest level of a built tree red and every other node black. Every path from the root
+     * then crosses the same number of black nodes, and red nodes only have black parents.
+     */
+    @Override
+    protected void initBuiltNode(Node node, int depth, int bottomDepth) {
+        node.setColor((depth == bottomDepth && depth > 0) ? Color.RED : Color.BLACK);
+    }
+
+    // Returns true if node is red. Null leaves count as black.
+    private static boolean isRed(Node node) {
+        return node != null && node.getColor() == Color.RED;
+    }
+
+    // Sets node's color, counting and reporting it as a recoloring only if the color changes.
+    private void paint(Node node, Color color, OperationResult result) {
+        if (node.getColor() != color) {
+            node.setColor(color);
+            result.addRecolorings(1);
+            emit(TreeEvent.RECOLOR, node, null);
+        }
+    }
+
+    // Replaces oldChild of path[parentIndex] with newChild, or the root if parentIndex is negative.
+    private void replaceChild(int parentIndex, Node oldChild, Node newChild) {
+        if (parentIndex < 0) {
+            root = newChild;
+        } else if (path[parentIndex].getLeftChild() == oldChild) {
+            path[parentIndex].setLeftChild(newChild);
+        } else {
+            path[parentIndex].setRightChild(newChild);
+        }
+        emit(TreeEvent.LINK, (parentIndex < 0) ? null : path[parentIndex], newChild);
+    }
+
+    private Node rotateRight(Node root, OperationResult result) {
+        Node newRoot = root.getLeftChild();
+        root.setLeftChild(newRoot.getRightChild());
+        newRoot.setRightChild(root);
+        emit(TreeEvent.ROTATE_RIGHT, root, newRoot);
+        augment(root);
+        augment(newRoot);
+        result.addRotations(1);
+        return newRoot;
+    }
+
+    private Node rotateLeft(Node root, OperationResult result) {
+        Node newRoot = root.getRightChild();
+        root.setRightChild(newRoot.getLeftChild());
+        newRoot.setLeftChild(root);
+        emit(TreeEvent.ROTATE_LEFT, root, newRoot);
+        augment(root);
+        augment(newRoot);
+        result.addRotations(1);
+        return newRoot;
+    }
+}
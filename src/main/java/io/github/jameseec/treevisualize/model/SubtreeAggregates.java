@@ -0,0 +1,37 @@
+package io.github.jameseec.treevisualize.model;
+
+/**
+ * Augmentation keeping the size, sum, minimum and maximum of every subtree in {@link AugmentedNode}s.
+ * Trees created with it answer {@link Tree#rank}, {@link Tree#select}, {@link Tree#countRange} and
+ * {@link Tree#sumRange} by following a single root-to-leaf path.
+ */
+public class SubtreeAggregates implements Augmentation {
+
+    @Override
+    public Node newNode(int value) {
+        return new AugmentedNode(value);
+    }
+
+    @Override
+    public void update(Node node) {
+        AugmentedNode left = (AugmentedNode) node.getLeftChild();
+        AugmentedNode right = (AugmentedNode) node.getRightChild();
+        int size = 1;
+        long sum = node.getValue();
+        int min = node.getValue();
+        int max = node.getValue();
+        if (left != null) {
+            size += left.getSubtreeSize();
+            sum += left.getSubtreeSum();
+            min = Math.min(min, left.getSubtreeMin());
+            max = Math.max(max, left.getSubtreeMax());
+        }
+        if (right != null) {
+            size += right.getSubtreeSize();
+            sum += right.getSubtreeSum();
+            min = Math.min(min, right.getSubtreeMin());
+            max = Math.max(max, right.getSubtreeMax());
+        }
+        ((AugmentedNode) node).setAggregates(size, sum, min, max);
+    }
+}
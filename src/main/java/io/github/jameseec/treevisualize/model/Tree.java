@@ -2,56 +2,137 @@ package io.github.jameseec.treevisualize.model;
 
 import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents a tree data structure. Disallows nodes with duplicate values.
+ * <p>
+ * Every insert, delete and find records a {@link TreeOperationEvent} for JDK Flight Recorder and counts its
+ * work in the {@link TreeMetrics}, if there are any. While neither is in use, an operation checks one flag and
+ * creates no event.
  */
 public abstract class Tree {
-    protected static final int MAX_SIZE = 40;
+    /** Node cap used by the visualizer, beyond which a drawn tree stops being readable. */
+    public static final int MAX_SIZE = 40;
+    /** Capacity that places no limit on the number of nodes. */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
     protected Node root;
     protected int size;
+    protected final int maxSize;
+    /** Augmentation maintained in every node, or null if nodes hold no extra data. */
+    protected final Augmentation augmentation;
+    /** Scratch stack of nodes visited by the last descent, reused by iterative operations. */
+    protected Node[] path;
+    /** Result reused by the boolean insert and delete methods. */
+    private final OperationResult lastResult = new OperationResult();
+    /** Receives the steps of operations, or null if nobody listens. */
+    private TreeListener listener;
+    /** Counts the work of operations, or null if it is not measured. */
+    private TreeMetrics metrics;
+    /** Whether metrics are set, so operations are timed and counted. */
+    private boolean instrumented;
+    /** Where steps are reported: the listener, the metrics, both, or null if neither is set. */
+    private TreeListener dispatch;
 
+    /**
+     * Constructor that creates an empty tree with no limit on its size.
+     */
     public Tree() {
+        this(UNBOUNDED);
+    }
+
+    /**
+     * Constructor that creates an empty tree holding at most {@code maxSize} nodes.
+     *
+     * @param maxSize maximum number of nodes, or {@code UNBOUNDED}
+     * @throws IllegalArgumentException if maxSize is negative
+     */
+    public Tree(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * Constructor that creates an empty tree holding at most {@code maxSize} nodes, maintaining
+     * the given augmentation in every node.
+     *
+     * @param maxSize maximum number of nodes, or {@code UNBOUNDED}
+     * @param augmentation augmentation to maintain, or null for plain nodes
+     * @throws IllegalArgumentException if maxSize is negative
+     */
+    public Tree(int maxSize, Augmentation augmentation) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Maximum size cannot be negative: " + maxSize);
+        }
         this.root = null;
         this.size = 0;
+        this.maxSize = maxSize;
+        this.augmentation = augmentation;
+        this.path = new Node[32];
     }
 
     /**
      * Inserts a node with a specified value into the tree if it doesn't already exist
-     * Also fails if {@code size} exceeded {@code MAX_SIZE}. Increments {@code size}.
+     * Also fails if {@code size} exceeded {@code maxSize}. Increments {@code size}.
      *
      * @param val value to insert
      * @return true if val was inserted. false if unsuccessful.
      */
     public boolean insert(int val) throws InvalidNodeCountException {
-        if (this.size >= MAX_SIZE) {
-            throw new InvalidNodeCountException("Too many nodes! Maximum allowed is " + MAX_SIZE);
+        return insert(val, lastResult).isChanged();
+    }
+
+    /**
+     * Inserts a node with a specified value into the tree if it doesn't already exist, descending the tree once.
+     * Also fails if {@code size} exceeded {@code maxSize}. Increments {@code size}.
+     *
+     * @param val value to insert
+     * @param result result to reset and fill in with the outcome of this insert
+     * @return result, with outcome INSERTED or DUPLICATE
+     */
+    public OperationResult insert(int val, OperationResult result) throws InvalidNodeCountException {
+        if (this.size >= maxSize) {
+            throw new InvalidNodeCountException("Too many nodes! Maximum allowed is " + maxSize);
         }
-        if (this.root == null) {
-            this.root = new Node(val);
-            this.size++;
-            return true;
+        TreeOperationEvent event = beginOperation(TreeMetrics.Operation.INSERT, val);
+        applyInsert(val, result);
+        if (event != null) {
+            endOperation(event, TreeMetrics.Operation.INSERT, val, result);
         }
-        // Reject duplicates. Could be optimized (one less traversal).
-        if (contains(val)) {
-            return false;
-        } else {
+        return result;
+    }
+
+    /**
+     * Inserts val as {@link #insert(int, OperationResult)} does, but without timing or recording the operation
+     * as a whole: resets result, calls {@link #insertNode} and increments {@code size}. Trees keeping other state
+     * per write extend this, so that wrappers forwarding their writes here keep that state too.
+     *
+     * @param val value to insert
+     * @param result result to reset and fill in with the outcome of this insert
+     */
+    protected void applyInsert(int val, OperationResult result) {
+        result.reset();
+        insertNode(val, result);
+        if (result.getOutcome() == OperationResult.Outcome.INSERTED) {
             this.size++;
-            insertNode(this.root, val);
-            return true;
         }
     }
 
     /**
-     * Inserts a node with given val into node root, using tree-specific implementations.
-     * Does not check for duplicates or increment {@code size}.
+     * Inserts a node with given val into the tree, using tree-specific implementations.
+     * Rejects duplicates in the same descent, recording the outcome in result. Does not increment {@code size}.
      *
-     * @param current node to insert new node into
-     * @param val     value of new node to insert
+     * @param val value of new node to insert
+     * @param result result to record outcome, path length and rotations in
      */
-    protected abstract void insertNode(Node current, int val);
+    protected abstract void insertNode(int val, OperationResult result);
 
     /**
      * Deletes the node with the specified value from the tree if it exists.
@@ -59,7 +140,341 @@ public abstract class Tree {
      *
      * @return true if val was deleted. false if it doesn't exist.
      */
-    public abstract boolean delete(int val);
+    public boolean delete(int val) {
+        return delete(val, lastResult).isChanged();
+    }
+
+    /**
+     * Deletes the node with the specified value from the tree if it exists, descending the tree once.
+     * Decrements {@code size}.
+     *
+     * @param val value to delete
+     * @param result result to reset and fill in with the outcome of this delete
+     * @return result, with outcome DELETED or NOT_FOUND
+     */
+    public OperationResult delete(int val, OperationResult result) {
+        TreeOperationEvent event = beginOperation(TreeMetrics.Operation.DELETE, val);
+        applyDelete(val, result);
+        if (event != null) {
+            endOperation(event, TreeMetrics.Operation.DELETE, val, result);
+        }
+        return result;
+    }
+
+    /**
+     * Deletes val as {@link #delete(int, OperationResult)} does, but without timing or recording the operation
+     * as a whole: resets result, calls {@link #deleteNode} and decrements {@code size}.
+     *
+     * @param val value to delete
+     * @param result result to reset and fill in with the outcome of this delete
+     */
+    protected void applyDelete(int val, OperationResult result) {
+        result.reset();
+        deleteNode(val, result);
+        if (result.getOutcome() == OperationResult.Outcome.DELETED) {
+            this.size--;
+        }
+    }
+
+    /**
+     * Deletes the node with given val from the tree if it exists, using tree-specific implementations.
+     * Records the outcome in result. Does not decrement {@code size}.
+     *
+     * @param val value of node to delete
+     * @param result result to record outcome, path length and rotations in
+     */
+    protected abstract void deleteNode(int val, OperationResult result);
+
+    /**
+     * Replaces the contents of this tree with a perfectly balanced tree of the given keys, in linear time.
+     * Heights are set for AVL trees and colors for red-black trees, so no rebalancing is needed.
+     *
+     * @param sortedDistinct keys in strictly increasing order
+     * @throws IllegalArgumentException if the keys are not strictly increasing
+     * @throws InvalidNodeCountException if there are more keys than {@code maxSize}
+     */
+    public void buildFrom(int[] sortedDistinct) throws InvalidNodeCountException {
+        for (int i = 1; i < sortedDistinct.length; i++) {
+            if (sortedDistinct[i - 1] >= sortedDistinct[i]) {
+                throw new IllegalArgumentException("Keys must be strictly increasing, but found "
+                        + sortedDistinct[i - 1] + " before " + sortedDistinct[i]);
+            }
+        }
+        if (sortedDistinct.length > maxSize) {
+            throw new InvalidNodeCountException("Too many nodes! Maximum allowed is " + maxSize);
+        }
+        buildBalanced(sortedDistinct, sortedDistinct.length);
+    }
+
+    /**
+     * Inserts every value not already in the tree as one batch.
+     * The batch is sorted and deduplicated, merged with the existing keys, and the tree rebuilt balanced
+     * with {@link #buildFrom}, so a simple BST's shape differs from inserting the values one by one.
+     * Batches small enough that per-key inserts are cheaper than an O(n) rebuild are inserted one by one.
+     *
+     * @param values values to insert, in any order and possibly with duplicates
+     * @return number of values inserted
+     * @throws InvalidNodeCountException if the merged tree would exceed {@code maxSize}; the tree is unchanged
+     */
+    public int insertAll(int[] values) throws InvalidNodeCountException {
+        int[] batch = values.clone();
+        Arrays.sort(batch);
+        int batchSize = 0;
+        for (int i = 0; i < batch.length; i++) {
+            if (i == 0 || batch[i] != batch[i - 1]) {
+                batch[batchSize++] = batch[i];
+            }
+        }
+
+        // Inserting m keys one by one costs about m * log2(n) steps against n for a rebuild
+        if ((long) batchSize * (33 - Integer.numberOfLeadingZeros(size)) < size) {
+            // Check the limit before inserting any key, counting only keys not already in the tree
+            if ((long) size + batchSize > maxSize) {
+                int fresh = 0;
+                for (int i = 0; i < batchSize; i++) {
+                    if (!contains(batch[i])) {
+                        fresh++;
+                    }
+                }
+                if (size + fresh > maxSize) {
+                    throw new InvalidNodeCountException("Too many nodes! Maximum allowed is " + maxSize);
+                }
+            }
+            int inserted = 0;
+            for (int i = 0; i < batchSize; i++) {
+                if (insert(batch[i])) {
+                    inserted++;
+                }
+            }
+            return inserted;
+        }
+
+        int[] existing = inOrderKeys();
+        int[] merged = new int[existing.length + batchSize];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < existing.length || j < batchSize) {
+            if (j == batchSize || (i < existing.length && existing[i] < batch[j])) {
+                merged[count++] = existing[i++];
+            } else if (i == existing.length || batch[j] < existing[i]) {
+                merged[count++] = batch[j++];
+            } else {
+                merged[count++] = existing[i++];
+                j++;
+            }
+        }
+        if (count > maxSize) {
+            throw new InvalidNodeCountException("Too many nodes! Maximum allowed is " + maxSize);
+        }
+        int inserted = count - existing.length;
+        if (inserted > 0) {
+            buildBalanced(merged, count);
+        }
+        return inserted;
+    }
+
+    /**
+     * Replaces the contents of this tree with a balanced tree of the first count keys, which are
+     * sorted and distinct.
+     */
+    protected void buildBalanced(int[] keys, int count) {
+        int bottomDepth = 31 - Integer.numberOfLeadingZeros(Math.max(count, 1));
+        root = buildRange(keys, 0, count - 1, 0, bottomDepth);
+        size = count;
+    }
+
+    // Builds keys[lo..hi] around its midpoint. Recursion depth is logarithmic in the key count.
+    private Node buildRange(int[] keys, int lo, int hi, int depth, int bottomDepth) {
+        if (lo > hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        Node node = newNode(keys[mid]);
+        Node left = buildRange(keys, lo, mid - 1, depth + 1, bottomDepth);
+        Node right = buildRange(keys, mid + 1, hi, depth + 1, bottomDepth);
+        node.setLeftChild(left);
+        node.setRightChild(right);
+        int leftHeight = (left == null) ? -1 : left.getHeight();
+        int rightHeight = (right == null) ? -1 : right.getHeight();
+        node.setHeight(1 + Math.max(leftHeight, rightHeight));
+        initBuiltNode(node, depth, bottomDepth);
+        augment(node);
+        return node;
+    }
+
+    /**
+     * Sets tree type-specific state on a node created by {@link #buildFrom}. Does nothing by default.
+     *
+     * @param node node with children and height already set
+     * @param depth depth of node, 0 for the root
+     * @param bottomDepth depth of the deepest level of the built tree
+     */
+    protected void initBuiltNode(Node node, int depth, int bottomDepth) {
+    }
+
+    /**
+     * Creates a node with given val and no children, through the augmentation if there is one.
+     */
+    protected Node newNode(int val) {
+        if (metrics != null) {
+            metrics.countAllocation();
+        }
+        return (augmentation == null) ? new Node(val) : augmentation.newNode(val);
+    }
+
+    /**
+     * Recomputes the augmented data of node from its children. Does nothing without an augmentation.
+     */
+    protected void augment(Node node) {
+        if (augmentation != null) {
+            augmentation.update(node);
+        }
+    }
+
+    /**
+     * Recomputes the augmented data of {@code path[deepest]} up to {@code path[0]}, children before parents.
+     * Does nothing without an augmentation.
+     *
+     * @param deepest index of the deepest path node whose subtree changed, or -1 for none
+     */
+    protected void augmentPath(int deepest) {
+        if (augmentation != null) {
+            for (int i = deepest; i >= 0; i--) {
+                augmentation.update(path[i]);
+            }
+        }
+    }
+
+    public Augmentation getAugmentation() {
+        return augmentation;
+    }
+
+    /**
+     * Returns the number of keys in the tree smaller than val, in time proportional to the tree's height.
+     *
+     * @throws IllegalStateException if the tree was not created with {@link SubtreeAggregates}
+     */
+    public int rank(int val) {
+        requireAggregates();
+        int rank = 0;
+        Node current = root;
+        while (current != null) {
+            if (val <= current.getValue()) {
+                current = current.getLeftChild();
+            } else {
+                rank += subtreeSize(current.getLeftChild()) + 1;
+                current = current.getRightChild();
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the key with the given rank, i.e. the (k + 1)-th smallest key, in time proportional to
+     * the tree's height.
+     *
+     * @param k number of keys smaller than the key to return
+     * @throws IndexOutOfBoundsException if k is negative or not less than the tree's size
+     * @throws IllegalStateException if the tree was not created with {@link SubtreeAggregates}
+     */
+    public int select(int k) {
+        requireAggregates();
+        if (k < 0 || k >= size) {
+            throw new IndexOutOfBoundsException("No key of rank " + k + " in a tree of " + size);
+        }
+        Node current = root;
+        while (true) {
+            int leftSize = subtreeSize(current.getLeftChild());
+            if (k < leftSize) {
+                current = current.getLeftChild();
+            } else if (k == leftSize) {
+                return current.getValue();
+            } else {
+                k -= leftSize + 1;
+                current = current.getRightChild();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys between lo and hi inclusive, in time proportional to the tree's height.
+     *
+     * @throws IllegalStateException if the tree was not created with {@link SubtreeAggregates}
+     */
+    public int countRange(int lo, int hi) {
+        requireAggregates();
+        if (lo > hi) {
+            return 0;
+        }
+        return (int) (aggregateBelow(hi, true, false) - aggregateBelow(lo, false, false));
+    }
+
+    /**
+     * Returns the sum of the keys between lo and hi inclusive, in time proportional to the tree's height.
+     *
+     * @throws IllegalStateException if the tree was not created with {@link SubtreeAggregates}
+     */
+    public long sumRange(int lo, int hi) {
+        requireAggregates();
+        if (lo > hi) {
+            return 0;
+        }
+        return aggregateBelow(hi, true, true) - aggregateBelow(lo, false, true);
+    }
+
+    // Returns the count, or sum, of keys smaller than val, or also equal to it if inclusive.
+    private long aggregateBelow(int val, boolean inclusive, boolean sum) {
+        long total = 0;
+        Node current = root;
+        while (current != null) {
+            if (val < current.getValue() || (val == current.getValue() && !inclusive)) {
+                current = current.getLeftChild();
+            } else {
+                AugmentedNode left = (AugmentedNode) current.getLeftChild();
+                if (sum) {
+                    total += current.getValue() + ((left == null) ? 0 : left.getSubtreeSum());
+                } else {
+                    total += 1 + ((left == null) ? 0 : left.getSubtreeSize());
+                }
+                current = current.getRightChild();
+            }
+        }
+        return total;
+    }
+
+    private static int subtreeSize(Node node) {
+        return (node == null) ? 0 : ((AugmentedNode) node).getSubtreeSize();
+    }
+
+    private void requireAggregates() {
+        if (!(augmentation instanceof SubtreeAggregates)) {
+            throw new IllegalStateException("Tree must be created with SubtreeAggregates");
+        }
+    }
+
+    /**
+     * Returns all keys of the tree in increasing order, using an explicit stack.
+     */
+    protected int[] inOrderKeys() {
+        int[] keys = new int[size];
+        int count = 0;
+        int depth = 0;
+        int maxDepth = 0;
+        Node current = root;
+        while (current != null || depth > 0) {
+            while (current != null) {
+                pushPath(depth++, current);
+                current = current.getLeftChild();
+            }
+            maxDepth = Math.max(maxDepth, depth);
+            current = path[--depth];
+            keys[count++] = current.getValue();
+            current = current.getRightChild();
+        }
+        clearPath(maxDepth);
+        return keys;
+    }
 
     /**
      * Returns the Node with the specified value from the tree, or null if absent.
@@ -67,49 +482,190 @@ public abstract class Tree {
      * @return Node with specified value if found. null if not found.
      */
     public Node find(int val) {
-        return findNode(this.root, val);
+        TreeOperationEvent event = beginOperation(TreeMetrics.Operation.FIND, val);
+        if (event == null) {
+            Node current = this.root;
+            while (current != null && current.getValue() != val) {
+                emit(TreeEvent.VISIT, current, null);
+                current = current.getValue() < val ? current.getRightChild() : current.getLeftChild();
+            }
+            if (current != null) {
+                emit(TreeEvent.VISIT, current, null);
+            }
+            return current;
+        }
+        Node current = this.root;
+        int pathLength = 0;
+        while (current != null) {
+            pathLength++;
+            emit(TreeEvent.VISIT, current, null);
+            if (current.getValue() == val) {
+                break;
+            }
+            current = current.getValue() < val ? current.getRightChild() : current.getLeftChild();
+        }
+        endFind(event, val, current != null, pathLength);
+        return current;
     }
 
-    private Node findNode(Node root, int val) {
-        if (root == null) {
+    /**
+     * Starts timing an operation in the metrics and recording it for Flight Recorder, unless neither is in use.
+     * Trees that search without {@link #find} bracket their searches with this and {@link #endFind}, so that
+     * every operation is measured alike.
+     *
+     * @return the event to end the operation with, or null if the operation need not be timed or recorded
+     */
+    protected final TreeOperationEvent beginOperation(TreeMetrics.Operation operation, int val) {
+        if (!(instrumented || TreeOperationEvent.isRecording())) {
             return null;
-        } else if (root.getValue() == val) {
-            return root;
-        } else if (root.getValue() < val) {
-            return findNode(root.getRightChild(), val);
-        } else {
-            return findNode(root.getLeftChild(), val);
         }
+        TreeOperationEvent event = new TreeOperationEvent();
+        event.begin();
+        TreeMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.begin(operation, val);
+        }
+        return event;
     }
 
     /**
-     * Returns a list of nodes visited while attempting to find specified value.
+     * Ends an insert or delete started by {@link #beginOperation}, recording its outcome.
+     */
+    protected final void endOperation(TreeOperationEvent event, TreeMetrics.Operation operation, int val,
+                                      OperationResult result) {
+        endMetrics();
+        if (event.shouldCommit()) {
+            event.outcome = result.getOutcome().name();
+            event.pathLength = result.getPathLength();
+            event.rotations = result.getRotations();
+            event.recolorings = result.getRecolorings();
+            commit(event, operation, val);
+        }
+    }
+
+    /**
+     * Ends a search started by {@link #beginOperation}, recording its outcome.
      *
-     * @return a list of visited nodes, ordered from earliest to latest.
+     * @param pathLength number of nodes, or pages, the search visited
      */
-    public List<Node> findWithPath(int val) {
-        ArrayList<Node> path = new ArrayList<>();
-        findWithPathHelper(root, path, val);
-        return path;
+    protected final void endFind(TreeOperationEvent event, int val, boolean found, int pathLength) {
+        endMetrics();
+        commitFind(event, val, found, pathLength);
     }
 
-    private void findWithPathHelper(Node root, List<Node> path, int val) {
-        if (root == null) {
-            return;
+    /**
+     * Records a search for Flight Recorder that was not timed in the metrics, as those of concurrent readers are
+     * not.
+     */
+    final void commitFind(TreeOperationEvent event, int val, boolean found, int pathLength) {
+        if (event.shouldCommit()) {
+            event.outcome = found ? "FOUND" : "NOT_FOUND";
+            event.pathLength = pathLength;
+            commit(event, TreeMetrics.Operation.FIND, val);
         }
-        path.add(root);
-        if (root.getValue() < val) {
-            findWithPathHelper(root.getRightChild(), path, val);
-        } else if (root.getValue() > val){
-            findWithPathHelper(root.getLeftChild(), path, val);
+    }
+
+    private void endMetrics() {
+        TreeMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.end();
         }
     }
 
+    private void commit(TreeOperationEvent event, TreeMetrics.Operation operation, int val) {
+        event.treeType = getClass().getSimpleName();
+        event.operation = operation.name();
+        event.key = val;
+        event.size = getSize();
+        event.commit();
+    }
+
+    /**
+     * Returns a list of nodes visited while attempting to find specified value.
+     *
+     * @return a list of visited nodes, ordered from earliest to latest.
+     */
+    public List<Node> findWithPath(int val) {
+        ArrayList<Node> visited = new ArrayList<>();
+        Node current = this.root;
+        while (current != null) {
+            visited.add(current);
+            emit(TreeEvent.VISIT, current, null);
+            if (current.getValue() < val) {
+                current = current.getRightChild();
+            } else if (current.getValue() > val) {
+                current = current.getLeftChild();
+            } else {
+                break;
+            }
+        }
+        return visited;
+    }
+
     public void clear() {
         root = null;
         size = 0;
     }
 
+    /**
+     * Sets the listener to report the steps of searches, inserts and deletes to, replacing any previous one.
+     *
+     * @param listener listener to call, or null to stop reporting
+     */
+    public void setListener(TreeListener listener) {
+        this.listener = listener;
+        updateDispatch();
+    }
+
+    public TreeListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Sets the metrics to count the work of inserts, deletes and finds in, replacing any previous ones.
+     * Metrics are counted alongside the listener, if there is one.
+     *
+     * @param metrics metrics to count in, or null to stop counting
+     */
+    public void setMetrics(TreeMetrics metrics) {
+        this.metrics = metrics;
+        this.instrumented = metrics != null;
+        updateDispatch();
+    }
+
+    public TreeMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void updateDispatch() {
+        TreeListener listener = this.listener;
+        TreeMetrics metrics = this.metrics;
+        if (listener == null || metrics == null) {
+            dispatch = (listener != null) ? listener : metrics;
+        } else {
+            dispatch = (event, node, other) -> {
+                metrics.onEvent(event, node, other);
+                listener.onEvent(event, node, other);
+            };
+        }
+    }
+
+    /**
+     * Returns true if steps are reported, so that work only needed to describe a step can be skipped.
+     */
+    protected final boolean hasListener() {
+        return dispatch != null;
+    }
+
+    /**
+     * Reports a step to the listener and metrics, if there are any. Costs a single null check otherwise.
+     */
+    protected final void emit(TreeEvent event, Node node, Node other) {
+        if (dispatch != null) {
+            dispatch.onEvent(event, node, other);
+        }
+    }
+
     /**
      * Gets the root node for this tree, or returns null if root was not set.
      */
@@ -121,6 +677,34 @@ public abstract class Tree {
         return this.size;
     }
 
+    /**
+     * Gets the maximum number of nodes this tree accepts, or {@code UNBOUNDED}.
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Stores node at the given depth of the {@code path} scratch stack, growing it if needed.
+     *
+     * @param depth index to store node at
+     * @param node node visited at that depth
+     */
+    protected void pushPath(int depth, Node node) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, path.length * 2);
+        }
+        path[depth] = node;
+    }
+
+    /**
+     * Clears the first {@code depth} entries of the {@code path} scratch stack,
+     * so that removed nodes are not kept reachable.
+     */
+    protected void clearPath(int depth) {
+        Arrays.fill(path, 0, depth, null);
+    }
+
     /**
      * Gets the in-order successor of the current node.
      * Returns the right child's leftmost node.
@@ -142,35 +726,70 @@ public abstract class Tree {
      * @return true if tree contains node with val. false otherwise.
      */
     public boolean contains(int val) {
-        return containNode(this.root, val);
+        return find(val) != null;
     }
 
-    private boolean containNode(Node root, int val) {
-        if (root == null) {
-            return false;
-        } else if (root.getValue() == val) {
-            return true;
-        } else if (root.getValue() < val) {
-            return containNode(root.getRightChild(), val);
-        } else {
-            return containNode(root.getLeftChild(), val);
-        }
+    /**
+     * Returns an iterator over the values of the tree in increasing order.
+     * The tree must not be modified while the iterator is in use.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new InOrderIterator(getRoot());
     }
 
     /**
-     * Returns a string representation of the tree, using brackets to denote children of a node.
+     * Returns an iterator over the values of the tree in pre-order.
+     * The tree must not be modified while the iterator is in use.
      */
-    public String toString() {
-        return toStringRecursive(this.root);
+    public PrimitiveIterator.OfInt preOrderIterator() {
+        return new PreOrderIterator(getRoot());
     }
 
-    private String toStringRecursive(Node root) {
-        if (root == null) {
-            return "null";
-        } else {
-            String leftChild = toStringRecursive(root.getLeftChild());
-            String rightChild = toStringRecursive(root.getRightChild());
-            return root.getValue() + "[" + leftChild + ", " + rightChild + "]";
+    /**
+     * Returns an iterator over the values of the tree in post-order.
+     * The tree must not be modified while the iterator is in use.
+     */
+    public PrimitiveIterator.OfInt postOrderIterator() {
+        return new PostOrderIterator(getRoot());
+    }
+
+    /**
+     * Returns an iterator over the values between lo and hi inclusive in increasing order,
+     * finding the first one in time proportional to the tree's height.
+     * The tree must not be modified while the iterator is in use.
+     */
+    public PrimitiveIterator.OfInt rangeIterator(int lo, int hi) {
+        return new InOrderIterator(getRoot(), lo, hi);
+    }
+
+    /**
+     * Returns a spliterator over the values of the tree in increasing order, which splits along subtrees.
+     * The tree must not be modified while the spliterator is in use.
+     */
+    public Spliterator.OfInt spliterator() {
+        return new TreeSpliterator(getRoot(), getSize());
+    }
+
+    /**
+     * Returns a sequential stream of the values of the tree in increasing order.
+     * Call {@code parallel()} on it to process subtrees on the common fork-join pool.
+     * The tree must not be modified while the stream is in use.
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    /**
+     * Returns a string representation of the tree, using brackets to denote children of a node.
+     * Written iteratively by {@link TreeText}, which can also stream it to any {@link Appendable}.
+     */
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        try {
+            TreeText.write(getRoot(), builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        return builder.toString();
     }
 }
@@ -0,0 +1,29 @@
+package io.github.jameseec.treevisualize.model;
+
+/**
+ * Kinds of step a tree reports to its {@link TreeListener} from inside its algorithms, each with the
+ * one or two nodes it concerns.
+ */
+public enum TreeEvent {
+    /** A search, insert or delete descended to {@code node}. */
+    VISIT,
+    /**
+     * {@code other} was linked as a child of {@code node}, replacing the child on its side, or as the root if
+     * {@code node} is null. {@code other} is null where a child or the root was removed. May restate an
+     * unchanged link when a subtree is relinked on the way back up.
+     */
+    LINK,
+    /** {@code node} was rotated left below {@code other}, its former right child, which took its place. */
+    ROTATE_LEFT,
+    /** {@code node} was rotated right below {@code other}, its former left child, which took its place. */
+    ROTATE_RIGHT,
+    /**
+     * {@code node}, about to lose its value, took the value of {@code other}, its in-order successor, which
+     * is removed instead. Binary search trees swap the two values; balanced trees only copy it.
+     */
+    SWAP_VALUE,
+    /** The height of {@code node} was recomputed from its children. */
+    HEIGHT_UPDATE,
+    /** The color of {@code node} changed. */
+    RECOLOR
+}
@@ -0,0 +1,24 @@
+package io.github.jameseec.treevisualize.model;
+
+/**
+ * Receives the steps of a tree's operations as they happen, in order, for animation, incremental rendering
+ * or tracing. Called on the thread modifying the tree, with the tree in an intermediate state: listeners may
+ * read the nodes they are given but must not modify the tree.
+ * <p>
+ * Events carry no allocated objects, and a tree without a listener only pays a null check per step.
+ * Bulk operations such as {@link Tree#buildFrom}, {@link Tree#insertAll} and {@link Tree#clear} report no steps,
+ * so listeners should treat the tree as replaced after them.
+ */
+@FunctionalInterface
+public interface TreeListener {
+
+    /**
+     * Called for every step of an operation.
+     *
+     * @param event kind of step
+     * @param node node the step concerns, or null for a {@link TreeEvent#LINK} of the root
+     * @param other second node of {@link TreeEvent#LINK}, rotation and {@link TreeEvent#SWAP_VALUE} steps,
+     *              otherwise null
+     */
+    void onEvent(TreeEvent event, Node node, Node other);
+}
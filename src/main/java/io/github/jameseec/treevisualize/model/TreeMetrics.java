@@ -0,0 +1,164 @@
+package io.github.jameseec.treevisualize.model;
+
+import java.util.Arrays;
+
+/**
+ * Counts the work done by the inserts, deletes and finds of the trees it is attached to with
+ * {@link Tree#setMetrics}: key comparisons, nodes visited, rotations, height updates, recolorings,
+ * node allocations and time taken, per kind of operation. Counts are taken from the steps trees report
+ * as {@link TreeEvent}s, so trees only pay for them while metrics are attached. Arena trees and B-trees,
+ * which have no {@link Node}s to report steps with, count them from their descents instead.
+ * <p>
+ * Not thread-safe, like the trees themselves: read {@link #snapshot()} from the thread modifying the tree,
+ * or while it is idle.
+ */
+public final class TreeMetrics implements TreeListener {
+    /**
+     * Kind of operation counted.
+     */
+    public enum Operation {
+        INSERT, DELETE, FIND
+    }
+
+    /**
+     * Totals over every operation of one kind.
+     *
+     * @param operations number of operations
+     * @param comparisons comparisons of the key with a node's value
+     * @param visits nodes visited, including those on the walk to an in-order successor, which are not compared
+     * @param rotations single rotations
+     * @param heightUpdates heights recomputed by AVL trees
+     * @param recolorings color changes of red-black trees
+     * @param allocations nodes created, including copies made by persistent trees
+     * @param nanos time spent in the operations
+     */
+    public record Counts(long operations, long comparisons, long visits, long rotations, long heightUpdates,
+                         long recolorings, long allocations, long nanos) {
+
+        /**
+         * Gets the mean time of an operation in nanoseconds, or 0 if there were none.
+         */
+        public double averageNanos() {
+            return (operations == 0) ? 0 : (double) nanos / operations;
+        }
+    }
+
+    /**
+     * Counts of every kind of operation at one point in time.
+     */
+    public record Snapshot(Counts insert, Counts delete, Counts find) {
+
+        public Counts get(Operation operation) {
+            return switch (operation) {
+                case INSERT -> insert;
+                case DELETE -> delete;
+                case FIND -> find;
+            };
+        }
+    }
+
+    private static final int OPERATIONS = 0;
+    private static final int COMPARISONS = 1;
+    private static final int VISITS = 2;
+    private static final int ROTATIONS = 3;
+    private static final int HEIGHT_UPDATES = 4;
+    private static final int RECOLORINGS = 5;
+    private static final int ALLOCATIONS = 6;
+    private static final int NANOS = 7;
+    private static final int COUNTERS = 8;
+
+    /** Counters of each operation, indexed by ordinal and then by counter. */
+    private final long[][] counts = new long[Operation.values().length][COUNTERS];
+    /** Counters of the operation in progress, or null between operations. */
+    private long[] current;
+    private int key;
+    /** Whether the operation in progress reached the node holding its key, after which visits compare nothing. */
+    private boolean keyReached;
+    private long startNanos;
+
+    /**
+     * Starts counting an operation on key. Called by trees.
+     */
+    void begin(Operation operation, int key) {
+        current = counts[operation.ordinal()];
+        this.key = key;
+        keyReached = false;
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Finishes counting the operation in progress. Called by trees.
+     */
+    void end() {
+        current[NANOS] += System.nanoTime() - startNanos;
+        current[OPERATIONS]++;
+        current = null;
+    }
+
+    /**
+     * Counts a node created by the operation in progress, if any. Called by trees.
+     */
+    void countAllocation() {
+        if (current != null) {
+            current[ALLOCATIONS]++;
+        }
+    }
+
+    /**
+     * Counts the steps of the operation in progress, if any, for trees that do not report them as events.
+     * Called by trees.
+     */
+    void countSteps(int visits, int comparisons, int rotations) {
+        if (current != null) {
+            current[VISITS] += visits;
+            current[COMPARISONS] += comparisons;
+            current[ROTATIONS] += rotations;
+        }
+    }
+
+    /**
+     * Counts a step of the operation in progress. Steps reported outside an operation are ignored.
+     */
+    @Override
+    public void onEvent(TreeEvent event, Node node, Node other) {
+        if (current == null) {
+            return;
+        }
+        switch (event) {
+            case VISIT -> {
+                current[VISITS]++;
+                if (!keyReached) {
+                    current[COMPARISONS]++;
+                    keyReached = node.getValue() == key;
+                }
+            }
+            case ROTATE_LEFT, ROTATE_RIGHT -> current[ROTATIONS]++;
+            case HEIGHT_UPDATE -> current[HEIGHT_UPDATES]++;
+            case RECOLOR -> current[RECOLORINGS]++;
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Returns the counts so far.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(counts(Operation.INSERT), counts(Operation.DELETE), counts(Operation.FIND));
+    }
+
+    private Counts counts(Operation operation) {
+        long[] c = counts[operation.ordinal()];
+        return new Counts(c[OPERATIONS], c[COMPARISONS], c[VISITS], c[ROTATIONS], c[HEIGHT_UPDATES],
+                c[RECOLORINGS], c[ALLOCATIONS], c[NANOS]);
+    }
+
+    /**
+     * Sets every count back to zero.
+     */
+    public void reset() {
+        for (long[] c : counts) {
+            Arrays.fill(c, 0);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.jameseec.treevisualize.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event recorded by every insert, delete and find of a {@link Tree} while a recording has it
+ * enabled. Its duration is the latency of the operation. Trees only create it while {@link #isRecording()}
+ * holds, so operations cost a single flag check while no recording runs.
+ */
+@Name(TreeOperationEvent.NAME)
+@Label("Tree Operation")
+@Category({"Tree Visualizer", "Model"})
+@Description("An insert, delete or find on a tree")
+@StackTrace(false)
+final class TreeOperationEvent extends Event {
+    static final String NAME = "io.github.jameseec.treevisualize.TreeOperation";
+
+    /** Whether any recording is running, kept up to date by a listener on the flight recorder. */
+    private static volatile boolean recording;
+
+    static {
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                update(recorder);
+            }
+
+            @Override
+            public void recordingStateChanged(Recording changed) {
+                update(FlightRecorder.getFlightRecorder());
+            }
+
+            private void update(FlightRecorder recorder) {
+                recording = recorder.getRecordings().stream()
+                        .anyMatch(running -> running.getState() == RecordingState.RUNNING);
+            }
+        });
+    }
+
+    @Label("Tree Type")
+    String treeType;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Key")
+    int key;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Size")
+    @Description("Number of nodes after the operation")
+    int size;
+
+    @Label("Path Length")
+    @Description("Number of nodes visited")
+    int pathLength;
+
+    @Label("Rotations")
+    int rotations;
+
+    @Label("Recolorings")
+    int recolorings;
+
+    /**
+     * Returns true if a recording is running, which may have this event enabled. Checked by trees before
+     * creating the event.
+     */
+    static boolean isRecording() {
+        return recording;
+    }
+}
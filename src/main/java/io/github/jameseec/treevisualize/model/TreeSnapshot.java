@@ -0,0 +1,311 @@
+package io.github.jameseec.treevisualize.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Saves trees to, and loads them from, a compact binary file.
+ * <p>
+ * The file starts with a 12-byte header: the magic number {@code TRVS}, a 2-byte format version, a type byte
+ * (see {@link Type}), a reserved byte and the node count. Nodes follow in pre-order as 5-byte records: the key
+ * and a metadata byte whose low two bits flag a left and a right child. Bits 2 to 7 hold the height of AVL nodes,
+ * and bit 2 marks red nodes of red-black trees. All values are big-endian.
+ * <p>
+ * Saving streams the records through a {@link FileChannel} into a temporary file that replaces the target
+ * once complete, so a crash never leaves a partial snapshot behind. Loading maps the file and links the nodes
+ * in one linear pass, restoring heights and colors as saved, so no rebalancing takes place.
+ */
+public final class TreeSnapshot {
+    /** First four bytes of every snapshot: "TRVS". */
+    public static final int MAGIC = 0x54525653;
+    /** Format version written by this class. */
+    public static final short FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 12;
+    static final int RECORD_BYTES = 5;
+
+    private static final int HAS_LEFT = 1;
+    private static final int HAS_RIGHT = 2;
+    private static final int RED = 4;
+    private static final int HEIGHT_SHIFT = 2;
+    private static final int MAX_HEIGHT = 0xFF >>> HEIGHT_SHIFT;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    /** Bytes of records mapped at once, a whole number of records below the 2 GB limit of a mapping. */
+    private static final long MAP_WINDOW_BYTES = (long) RECORD_BYTES << 26;
+
+    /**
+     * Type of tree stored in a snapshot, and the type rebuilt when loading it.
+     */
+    public enum Type {
+        BINARY_SEARCH, AVL, RED_BLACK;
+
+        /**
+         * Returns the type of the given tree, looking through concurrent wrappers.
+         *
+         * @throws IllegalArgumentException if the tree is of no supported type
+         */
+        public static Type of(Tree tree) {
+            if (tree instanceof ConcurrentTree concurrent) {
+                return of(concurrent.snapshot());
+            }
+            if (tree instanceof BinarySearchTree || tree instanceof PersistentBinarySearchTree
+                    || tree instanceof ArenaBinarySearchTree) {
+                return BINARY_SEARCH;
+            }
+            if (tree instanceof AVLTree || tree instanceof PersistentAVLTree || tree instanceof ArenaAVLTree) {
+                return AVL;
+            }
+            if (tree instanceof RedBlackTree) {
+                return RED_BLACK;
+            }
+            throw new IllegalArgumentException("Cannot save a " + tree.getClass().getSimpleName());
+        }
+
+        Tree newTree(int maxSize, Augmentation augmentation) {
+            return switch (this) {
+                case BINARY_SEARCH -> new BinarySearchTree(maxSize, augmentation);
+                case AVL -> new AVLTree(maxSize, augmentation);
+                case RED_BLACK -> new RedBlackTree(maxSize, augmentation);
+            };
+        }
+    }
+
+    private TreeSnapshot() {
+    }
+
+    /**
+     * Writes the tree to file, replacing it atomically. Concurrent trees are saved as of their latest
+     * completed write. Arena trees are first copied into nodes by {@link Tree#getRoot()}.
+     *
+     * @param tree tree to save, which must not be modified during the call unless it is a {@link ConcurrentTree}
+     * @param file file to create or replace
+     * @throws IllegalArgumentException if the tree is of no supported type
+     * @throws IOException if writing fails, in which case file is unchanged
+     */
+    public static void save(Tree tree, Path file) throws IOException {
+        if (tree instanceof ConcurrentTree concurrent) {
+            tree = concurrent.snapshot();
+        }
+        Type type = Type.of(tree);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.BIG_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putShort(FORMAT_VERSION);
+            buffer.put((byte) type.ordinal());
+            buffer.put((byte) 0);
+            buffer.putInt(tree.getSize());
+            writeNodes(tree.getRoot(), type, buffer, channel);
+            buffer.flip();
+            writeFully(buffer, channel);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Writes the records of root's subtree in pre-order using an explicit stack of pending right children.
+    private static void writeNodes(Node root, Type type, ByteBuffer buffer, FileChannel channel)
+            throws IOException {
+        Node[] stack = new Node[32];
+        int depth = 0;
+        Node current = root;
+        while (current != null) {
+            if (buffer.remaining() < RECORD_BYTES) {
+                buffer.flip();
+                writeFully(buffer, channel);
+                buffer.clear();
+            }
+            Node left = current.getLeftChild();
+            Node right = current.getRightChild();
+            buffer.putInt(current.getValue());
+            buffer.put(meta(current, type, left != null, right != null));
+
+            if (left != null) {
+                if (right != null) {
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, depth * 2);
+                    }
+                    stack[depth++] = right;
+                }
+                current = left;
+            } else if (right != null) {
+                current = right;
+            } else if (depth > 0) {
+                current = stack[--depth];
+                stack[depth] = null;
+            } else {
+                current = null;
+            }
+        }
+    }
+
+    private static byte meta(Node node, Type type, boolean hasLeft, boolean hasRight) {
+        int meta = (hasLeft ? HAS_LEFT : 0) | (hasRight ? HAS_RIGHT : 0);
+        if (type == Type.AVL) {
+            if (node.getHeight() > MAX_HEIGHT) {
+                throw new IllegalStateException("AVL height " + node.getHeight() + " exceeds " + MAX_HEIGHT);
+            }
+            meta |= node.getHeight() << HEIGHT_SHIFT;
+        } else if (type == Type.RED_BLACK && node.getColor() == Color.RED) {
+            meta |= RED;
+        }
+        return (byte) meta;
+    }
+
+    private static void writeFully(ByteBuffer buffer, FileChannel channel) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads a tree saved by {@link #save}, with no limit on its size and plain nodes.
+     *
+     * @throws IOException if reading fails or the file is not a valid snapshot
+     */
+    public static Tree load(Path file) throws IOException {
+        return load(file, Tree.UNBOUNDED, null);
+    }
+
+    /**
+     * Reads a tree saved by {@link #save} into a new tree of the saved type, in time linear in its size.
+     * Augmented data is computed from the children once all nodes are linked.
+     *
+     * @param file snapshot to read
+     * @param maxSize maximum number of nodes of the new tree, or {@code Tree.UNBOUNDED}
+     * @param augmentation augmentation to maintain, or null for plain nodes
+     * @return a {@link BinarySearchTree}, {@link AVLTree} or {@link RedBlackTree}
+     * @throws IOException if reading fails, the file is not a valid snapshot, its keys are not in search order,
+     *                     or it holds more than maxSize nodes
+     */
+    public static Tree load(Path file, int maxSize, Augmentation augmentation) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES) {
+                throw new IOException("Not a tree snapshot: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a tree snapshot: " + file);
+            }
+            short version = header.getShort();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + file);
+            }
+            int typeIndex = header.get();
+            if (typeIndex < 0 || typeIndex >= Type.values().length) {
+                throw new IOException("Unknown tree type " + typeIndex + " in " + file);
+            }
+            Type type = Type.values()[typeIndex];
+            header.get();
+            int count = header.getInt();
+            if (count < 0 || length != HEADER_BYTES + (long) count * RECORD_BYTES) {
+                throw new IOException("Snapshot " + file + " is truncated or corrupt");
+            }
+            if (count > maxSize) {
+                throw new IOException("Snapshot holds " + count + " nodes, more than the maximum of " + maxSize);
+            }
+            Tree tree = type.newTree(maxSize, augmentation);
+            tree.root = readNodes(channel, count, type, tree);
+            tree.size = count;
+            return tree;
+        }
+    }
+
+    // Links count pre-order records into a tree, mapping a window of records at a time. Keeps the nodes
+    // whose right child is still to come on a stack, and the nodes themselves if they need augmenting.
+    // Checks every key against the bounds its ancestors set, exclusive, so the result is a search tree.
+    private static Node readNodes(FileChannel channel, int count, Type type, Tree tree) throws IOException {
+        Node[] created = (tree.augmentation == null) ? null : new Node[count];
+        Node[] stack = new Node[32];
+        // Upper bound of the right subtree of each node on the stack, whose own key is the lower bound
+        long[] highs = new long[32];
+        long low = Long.MIN_VALUE;
+        long high = Long.MAX_VALUE;
+        int depth = 0;
+        Node root = null;
+        Node parent = null;
+        boolean asLeft = false;
+        int read = 0;
+        while (read < count) {
+            long offset = HEADER_BYTES + (long) read * RECORD_BYTES;
+            long windowBytes = Math.min(MAP_WINDOW_BYTES, (long) (count - read) * RECORD_BYTES);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, windowBytes);
+            int records = (int) (windowBytes / RECORD_BYTES);
+            for (int i = 0; i < records; i++) {
+                if (read > 0 && parent == null) {
+                    throw new IOException("Snapshot has nodes after its last subtree");
+                }
+                int key = window.getInt();
+                if (key <= low || key >= high) {
+                    throw new IOException("Snapshot key " + key + " is out of order");
+                }
+                Node node = tree.newNode(key);
+                int meta = window.get() & 0xFF;
+                if (type == Type.AVL) {
+                    node.setHeight(meta >>> HEIGHT_SHIFT);
+                } else if (type == Type.RED_BLACK) {
+                    node.setColor(((meta & RED) != 0) ? Color.RED : Color.BLACK);
+                }
+                if (root == null) {
+                    root = node;
+                } else if (asLeft) {
+                    parent.setLeftChild(node);
+                } else {
+                    parent.setRightChild(node);
+                }
+                if (created != null) {
+                    created[read] = node;
+                }
+                read++;
+
+                if ((meta & HAS_LEFT) != 0) {
+                    if ((meta & HAS_RIGHT) != 0) {
+                        if (depth == stack.length) {
+                            stack = Arrays.copyOf(stack, depth * 2);
+                            highs = Arrays.copyOf(highs, depth * 2);
+                        }
+                        highs[depth] = high;
+                        stack[depth++] = node;
+                    }
+                    parent = node;
+                    asLeft = true;
+                    high = key;
+                } else if ((meta & HAS_RIGHT) != 0) {
+                    parent = node;
+                    asLeft = false;
+                    low = key;
+                } else if (depth > 0) {
+                    parent = stack[--depth];
+                    stack[depth] = null;
+                    asLeft = false;
+                    low = parent.getValue();
+                    high = highs[depth];
+                } else {
+                    parent = null;
+                }
+            }
+        }
+        if (parent != null) {
+            throw new IOException("Snapshot ends before its last subtree is complete");
+        }
+        if (created != null) {
+            // Descendants follow their ancestors in pre-order, so reverse order visits children first
+            for (int i = count - 1; i >= 0; i--) {
+                tree.augment(created[i]);
+            }
+        }
+        return root;
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.jameseec.treevisualize.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Spliterator over the values of a tree in increasing order, which splits along subtrees so that
+ * parallel streams divide a balanced tree into balanced halves.
+ * The remaining values are an optional single lead value followed by, for each node on an explicit stack
+ * from top to bottom, that node and then its right subtree. A split hands out everything but the bottom
+ * node, which starts as the root, so the first split returns the root's left subtree.
+ * Sizes are exact, and the spliterator {@code SIZED}, for trees maintaining {@link SubtreeAggregates}.
+ * The tree must not be modified during traversal.
+ */
+public class TreeSpliterator implements Spliterator.OfInt {
+    private Node[] stack;
+    private int depth;
+    private boolean hasLead;
+    private int lead;
+    private long estimate;
+    private final boolean exact;
+
+    /**
+     * Constructs a spliterator over the tree under root.
+     *
+     * @param root root of the tree to traverse, or null
+     * @param size number of nodes in the tree
+     */
+    public TreeSpliterator(Node root, int size) {
+        this.stack = new Node[32];
+        this.estimate = size;
+        this.exact = root == null || root instanceof AugmentedNode;
+        pushLeftSpine(root);
+    }
+
+    private TreeSpliterator(Node[] stack, int depth, boolean hasLead, int lead, long estimate, boolean exact) {
+        this.stack = stack;
+        this.depth = depth;
+        this.hasLead = hasLead;
+        this.lead = lead;
+        this.estimate = estimate;
+        this.exact = exact;
+    }
+
+    @Override
+    public OfInt trySplit() {
+        if (!hasLead && depth == 1) {
+            // Only the bottom node is left: it becomes the lead, followed by its right subtree
+            Node bottom = stack[0];
+            stack[0] = null;
+            depth = 0;
+            hasLead = true;
+            lead = bottom.getValue();
+            pushLeftSpine(bottom.getRightChild());
+        }
+        if (depth < 2) {
+            return null;
+        }
+
+        long prefixSize;
+        if (exact) {
+            prefixSize = hasLead ? 1 : 0;
+            for (int i = 1; i < depth; i++) {
+                prefixSize += 1 + subtreeSize(stack[i].getRightChild());
+            }
+        } else {
+            prefixSize = estimate >>> 1;
+        }
+        Node[] prefixStack = new Node[Math.max(2 * depth, 16)];
+        System.arraycopy(stack, 1, prefixStack, 0, depth - 1);
+        TreeSpliterator prefix = new TreeSpliterator(prefixStack, depth - 1, hasLead, lead, prefixSize, exact);
+
+        Arrays.fill(stack, 1, depth, null);
+        depth = 1;
+        hasLead = false;
+        estimate -= prefixSize;
+        return prefix;
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer action) {
+        if (hasLead) {
+            hasLead = false;
+            estimate--;
+            action.accept(lead);
+            return true;
+        }
+        if (depth == 0) {
+            return false;
+        }
+        action.accept(pop());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer action) {
+        if (hasLead) {
+            hasLead = false;
+            action.accept(lead);
+        }
+        while (depth > 0) {
+            action.accept(pop());
+        }
+        estimate = 0;
+    }
+
+    // Removes the top node and pushes the left spine of its right subtree, returning the node's value.
+    private int pop() {
+        Node node = stack[--depth];
+        stack[depth] = null;
+        pushLeftSpine(node.getRightChild());
+        if (estimate > 0) {
+            estimate--;
+        }
+        return node.getValue();
+    }
+
+    private void pushLeftSpine(Node node) {
+        while (node != null) {
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+            }
+            stack[depth++] = node;
+            node = node.getLeftChild();
+        }
+    }
+
+    private static long subtreeSize(Node node) {
+        return (node == null) ? 0 : ((AugmentedNode) node).getSubtreeSize();
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = ORDERED | SORTED | DISTINCT | NONNULL;
+        return exact ? characteristics | SIZED | SUBSIZED : characteristics;
+    }
+
+    /**
+     * Returns null, as values are in their natural order.
+     */
+    @Override
+    public Comparator<? super Integer> getComparator() {
+        return null;
+    }
+}
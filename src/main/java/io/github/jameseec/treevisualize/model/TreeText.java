@@ -0,0 +1,263 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Writes and parses the bracket format of {@link Tree#toString()}, in which a node is written as
+ * {@code value[left, right]} and a missing child as {@code null}, e.g. {@code 2[1[null, null], null]}.
+ * <p>
+ * Both directions use explicit stacks, so trees of any depth are handled, and stream their text: the writer
+ * appends piece by piece and the parser reads through a fixed-size buffer, so neither holds the whole text.
+ * Wrap writers of files in buffered ones, as appends are small.
+ */
+public final class TreeText {
+    private static final int READ_BUFFER_CHARS = 8192;
+    /** Stack states: a node's left child is next, its right child is next, or it is complete. */
+    private static final byte LEFT_NEXT = 0;
+    private static final byte RIGHT_NEXT = 1;
+    private static final byte CHILDREN_DONE = 2;
+
+    private TreeText() {
+    }
+
+    /**
+     * Appends the bracket format of the tree under root to out.
+     *
+     * @param root root of the tree to write, or null for an empty tree
+     * @param out destination, e.g. a {@link StringBuilder} or {@link java.io.Writer}
+     */
+    public static void write(Node root, Appendable out) throws IOException {
+        if (root == null) {
+            out.append("null");
+            return;
+        }
+        Node[] nodes = new Node[32];
+        byte[] states = new byte[32];
+        appendOpening(out, root);
+        nodes[0] = root;
+        states[0] = LEFT_NEXT;
+        int depth = 1;
+        while (depth > 0) {
+            Node node = nodes[depth - 1];
+            Node child;
+            if (states[depth - 1] == LEFT_NEXT) {
+                states[depth - 1] = RIGHT_NEXT;
+                child = node.getLeftChild();
+            } else if (states[depth - 1] == RIGHT_NEXT) {
+                out.append(", ");
+                states[depth - 1] = CHILDREN_DONE;
+                child = node.getRightChild();
+            } else {
+                out.append(']');
+                nodes[--depth] = null;
+                continue;
+            }
+            if (child == null) {
+                out.append("null");
+            } else {
+                appendOpening(out, child);
+                if (depth == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, depth * 2);
+                    states = Arrays.copyOf(states, depth * 2);
+                }
+                nodes[depth] = child;
+                states[depth++] = LEFT_NEXT;
+            }
+        }
+    }
+
+    private static void appendOpening(Appendable out, Node node) throws IOException {
+        if (out instanceof StringBuilder builder) {
+            builder.append(node.getValue()).append('[');
+        } else {
+            out.append(Integer.toString(node.getValue())).append('[');
+        }
+    }
+
+    /**
+     * Parses a tree in bracket format from in into tree, keeping its shape, in time linear in the input.
+     * Whitespace between tokens is ignored. AVL heights are computed and checked, and augmented data
+     * is computed, as each node is completed.
+     *
+     * @param in text of one tree, followed by nothing but whitespace
+     * @param tree empty {@link BinarySearchTree} or {@link AVLTree} to fill
+     * @return tree
+     * @throws IllegalArgumentException if tree is not empty or of another type, whose shape the format cannot restore
+     * @throws IOException if reading fails, or the text is malformed, not a binary search tree, or not balanced
+     *                     when filling an AVL tree
+     * @throws InvalidNodeCountException if the text holds more than tree's {@code maxSize} nodes
+     */
+    public static <T extends Tree> T read(Reader in, T tree) throws IOException, InvalidNodeCountException {
+        boolean avl = tree instanceof AVLTree;
+        if (!avl && !(tree instanceof BinarySearchTree)) {
+            throw new IllegalArgumentException("Cannot restore the shape of a " + tree.getClass().getSimpleName());
+        }
+        if (tree.root != null) {
+            throw new IllegalArgumentException("Tree must be empty");
+        }
+        Parser parser = new Parser(in);
+        // Open nodes with whether their right child is next, and the exclusive key bounds of their next child
+        Node[] nodes = new Node[32];
+        boolean[] rightNext = new boolean[32];
+        long[] lower = new long[32];
+        long[] upper = new long[32];
+        int depth = 0;
+        int size = 0;
+        Node root = null;
+        while (true) {
+            long lo = (depth == 0) ? Long.MIN_VALUE : (rightNext[depth - 1] ? nodes[depth - 1].getValue() : lower[depth - 1]);
+            long hi = (depth == 0) ? Long.MAX_VALUE : (rightNext[depth - 1] ? upper[depth - 1] : nodes[depth - 1].getValue());
+            Node node = null;
+            if (!parser.readNull()) {
+                int value = parser.readInt();
+                if (value <= lo || value >= hi) {
+                    throw parser.error("Key " + value + " is out of order");
+                }
+                if (size == tree.maxSize) {
+                    throw new InvalidNodeCountException("Too many nodes! Maximum allowed is " + tree.maxSize);
+                }
+                size++;
+                node = tree.newNode(value);
+                parser.expect('[');
+            }
+            if (depth == 0) {
+                root = node;
+            } else if (rightNext[depth - 1]) {
+                nodes[depth - 1].setRightChild(node);
+            } else {
+                nodes[depth - 1].setLeftChild(node);
+            }
+            if (node != null) {
+                if (depth == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, depth * 2);
+                    rightNext = Arrays.copyOf(rightNext, depth * 2);
+                    lower = Arrays.copyOf(lower, depth * 2);
+                    upper = Arrays.copyOf(upper, depth * 2);
+                }
+                nodes[depth] = node;
+                rightNext[depth] = false;
+                lower[depth] = lo;
+                upper[depth++] = hi;
+                continue;
+            }
+            // A child is complete: close every node whose right child it was, then move to a right child
+            while (depth > 0 && rightNext[depth - 1]) {
+                parser.expect(']');
+                Node closed = nodes[--depth];
+                nodes[depth] = null;
+                int leftHeight = (closed.getLeftChild() == null) ? -1 : closed.getLeftChild().getHeight();
+                int rightHeight = (closed.getRightChild() == null) ? -1 : closed.getRightChild().getHeight();
+                if (avl && Math.abs(leftHeight - rightHeight) > 1) {
+                    throw parser.error("Node " + closed.getValue() + " is not balanced");
+                }
+                closed.setHeight(1 + Math.max(leftHeight, rightHeight));
+                tree.augment(closed);
+            }
+            if (depth == 0) {
+                break;
+            }
+            parser.expect(',');
+            rightNext[depth - 1] = true;
+        }
+        parser.expectEnd();
+        tree.root = root;
+        tree.size = size;
+        return tree;
+    }
+
+    // Reads tokens from a reader through a buffer, skipping whitespace before each one.
+    private static final class Parser {
+        private final Reader in;
+        private final char[] buffer = new char[READ_BUFFER_CHARS];
+        private int position;
+        private int limit;
+        private long offset;
+
+        Parser(Reader in) {
+            this.in = in;
+        }
+
+        // Returns the next character without consuming it, or -1 at the end of the input.
+        private int peek() throws IOException {
+            if (position == limit) {
+                offset += limit;
+                limit = in.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position];
+        }
+
+        private int peekToken() throws IOException {
+            int c = peek();
+            while (c != -1 && Character.isWhitespace(c)) {
+                position++;
+                c = peek();
+            }
+            return c;
+        }
+
+        void expect(char expected) throws IOException {
+            if (peekToken() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+            position++;
+        }
+
+        void expectEnd() throws IOException {
+            if (peekToken() != -1) {
+                throw error("Expected the end of the input");
+            }
+        }
+
+        // Consumes "null" if it is next.
+        boolean readNull() throws IOException {
+            if (peekToken() != 'n') {
+                return false;
+            }
+            for (char c : "null".toCharArray()) {
+                if (peek() != c) {
+                    throw error("Expected 'null'");
+                }
+                position++;
+            }
+            return true;
+        }
+
+        int readInt() throws IOException {
+            boolean negative = peekToken() == '-';
+            if (negative) {
+                position++;
+            }
+            long value = 0;
+            int digits = 0;
+            for (int c = peek(); c >= '0' && c <= '9'; c = peek()) {
+                value = value * 10 + (c - '0');
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    throw error("Key is out of the int range");
+                }
+                digits++;
+                position++;
+            }
+            if (digits == 0) {
+                throw error("Expected a key or 'null'");
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw error("Key is out of the int range");
+            }
+            return (int) value;
+        }
+
+        IOException error(String message) {
+            return new IOException(message + " at character " + (offset + position));
+        }
+    }
+}
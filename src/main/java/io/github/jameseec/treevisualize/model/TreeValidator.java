@@ -0,0 +1,259 @@
+package io.github.jameseec.treevisualize.model;
+
+import java.util.Arrays;
+
+/**
+ * Checks the invariants of a tree in one pass over its nodes: strict search-tree ordering, that
+ * {@link Tree#getSize()} matches the number of nodes, the stored heights and balance factors of AVL trees,
+ * the color rules of red-black trees and the aggregates of {@link AugmentedNode}s. B-trees are checked page
+ * by page instead. The walks keep their own stacks, so even a degenerate tree of millions of nodes takes
+ * linear time and no call stack.
+ */
+public final class TreeValidator {
+
+    private TreeValidator() {
+    }
+
+    /**
+     * Checks every invariant that applies to the type of tree. Wrapped trees are checked by the rules of the
+     * tree they wrap, B-trees by {@link #validatePages} and arena trees through their {@link Tree#getRoot()} view.
+     *
+     * @throws IllegalStateException describing the first violation found
+     */
+    public static void validate(Tree tree) {
+        if (tree instanceof ConcurrentTree concurrent) {
+            tree = concurrent.snapshot();
+        } else if (tree instanceof JournaledTree journaled) {
+            tree = journaled.getDelegate();
+        }
+        boolean avl = tree instanceof AVLTree || tree instanceof PersistentAVLTree || tree instanceof ArenaAVLTree;
+        int count = (tree instanceof BTree btree) ? validatePages(btree)
+                : validate(tree.getRoot(), avl, tree instanceof RedBlackTree);
+        if (count != tree.getSize()) {
+            throw new IllegalStateException("Tree has " + count + " nodes but its size is " + tree.getSize());
+        }
+    }
+
+    /**
+     * Checks the ordering and aggregates of the tree rooted at root, and optionally its AVL or red-black
+     * invariants. Heights count edges, so a leaf has height 0.
+     *
+     * @return number of nodes in the tree
+     * @throws IllegalStateException describing the first violation found
+     */
+    static int validate(Node root, boolean avl, boolean redBlack) {
+        if (root == null) {
+            return 0;
+        }
+        if (redBlack && root.getColor() != Color.BLACK) {
+            throw violation(root, "root is not black");
+        }
+        // Nodes waiting to be summarized; a node's children are pushed above it the first time it is seen
+        Node[] pending = new Node[64];
+        boolean[] expanded = new boolean[64];
+        int top = 0;
+        pending[top++] = root;
+        Summaries summaries = new Summaries();
+        while (top > 0) {
+            Node node = pending[top - 1];
+            if (node == null) {
+                top--;
+                summaries.pushEmpty();
+            } else if (!expanded[top - 1]) {
+                expanded[top - 1] = true;
+                if (top + 2 > pending.length) {
+                    pending = Arrays.copyOf(pending, 2 * pending.length);
+                    expanded = Arrays.copyOf(expanded, 2 * expanded.length);
+                }
+                // Left on top, so the left summary is pushed first
+                pending[top] = node.getRightChild();
+                expanded[top++] = false;
+                pending[top] = node.getLeftChild();
+                expanded[top++] = false;
+            } else {
+                top--;
+                summaries.combine(node, avl, redBlack);
+            }
+        }
+        return summaries.size[0];
+    }
+
+    /**
+     * Checks the pages of a B-tree: that every page but the root is at least half full and none holds more
+     * than {@code order - 1} keys, that keys are strictly increasing within each page and lie between the
+     * separators on either side of it in its parent, that inner pages have a child after every key, and that
+     * all leaves are at the same depth.
+     *
+     * @return number of keys in the tree
+     * @throws IllegalStateException describing the first violation found
+     */
+    static int validatePages(BTree tree) {
+        BTree.Page root = tree.getRootPage();
+        if (root == null) {
+            return 0;
+        }
+        int maxKeys = tree.getOrder() - 1;
+        int minKeys = (tree.getOrder() + 1) / 2 - 1;
+        // Pages still to check, with their depth and the exclusive bounds their keys must lie between
+        BTree.Page[] pending = new BTree.Page[64];
+        int[] depths = new int[64];
+        long[] lows = new long[64];
+        long[] highs = new long[64];
+        int top = 0;
+        pending[top] = root;
+        depths[top] = 0;
+        lows[top] = Long.MIN_VALUE;
+        highs[top++] = Long.MAX_VALUE;
+        int leafDepth = -1;
+        int count = 0;
+        while (top > 0) {
+            BTree.Page page = pending[--top];
+            int depth = depths[top];
+            long low = lows[top];
+            long high = highs[top];
+            int keys = page.getKeyCount();
+            if (keys > maxKeys) {
+                throw violation(page, "holds " + keys + " keys, more than " + maxKeys);
+            }
+            if (keys < ((page == root) ? 1 : minKeys)) {
+                throw violation(page, "holds " + keys + " keys, fewer than " + ((page == root) ? 1 : minKeys));
+            }
+            long previous = low;
+            for (int i = 0; i < keys; i++) {
+                int key = page.getKey(i);
+                if (key <= previous || key >= high) {
+                    throw violation(page, "key " + key + " is out of order between " + bound(previous)
+                            + " and " + bound(high));
+                }
+                previous = key;
+            }
+            count += keys;
+            if (page.isLeaf()) {
+                if (leafDepth < 0) {
+                    leafDepth = depth;
+                } else if (depth != leafDepth) {
+                    throw violation(page, "leaf at depth " + depth + " but another at depth " + leafDepth);
+                }
+                continue;
+            }
+            if (top + keys + 1 > pending.length) {
+                int capacity = 2 * (top + keys + 1);
+                pending = Arrays.copyOf(pending, capacity);
+                depths = Arrays.copyOf(depths, capacity);
+                lows = Arrays.copyOf(lows, capacity);
+                highs = Arrays.copyOf(highs, capacity);
+            }
+            for (int i = 0; i <= keys; i++) {
+                BTree.Page child = page.getChild(i);
+                if (child == null) {
+                    throw violation(page, "has no child " + i);
+                }
+                pending[top] = child;
+                depths[top] = depth + 1;
+                lows[top] = (i == 0) ? low : page.getKey(i - 1);
+                highs[top++] = (i == keys) ? high : page.getKey(i);
+            }
+        }
+        return count;
+    }
+
+    private static String bound(long bound) {
+        return (bound == Long.MIN_VALUE || bound == Long.MAX_VALUE) ? "none" : Long.toString(bound);
+    }
+
+    private static IllegalStateException violation(BTree.Page page, String message) {
+        String first = (page.getKeyCount() > 0) ? Integer.toString(page.getKey(0)) : "empty";
+        return new IllegalStateException("Page " + first + ": " + message);
+    }
+
+    private static IllegalStateException violation(Node node, String message) {
+        return new IllegalStateException("Node " + node.getValue() + ": " + message);
+    }
+
+    /**
+     * Stack of subtree summaries in parallel arrays. An empty subtree has size 0, height -1 and black height 0.
+     */
+    private static final class Summaries {
+        private int top;
+        private int[] size = new int[64];
+        private int[] height = new int[64];
+        private int[] blackHeight = new int[64];
+        private int[] min = new int[64];
+        private int[] max = new int[64];
+        private long[] sum = new long[64];
+
+        void pushEmpty() {
+            push(0, -1, 0, 0, 0, 0);
+        }
+
+        private void push(int size, int height, int blackHeight, int min, int max, long sum) {
+            if (top == this.size.length) {
+                int capacity = 2 * top;
+                this.size = Arrays.copyOf(this.size, capacity);
+                this.height = Arrays.copyOf(this.height, capacity);
+                this.blackHeight = Arrays.copyOf(this.blackHeight, capacity);
+                this.min = Arrays.copyOf(this.min, capacity);
+                this.max = Arrays.copyOf(this.max, capacity);
+                this.sum = Arrays.copyOf(this.sum, capacity);
+            }
+            this.size[top] = size;
+            this.height[top] = height;
+            this.blackHeight[top] = blackHeight;
+            this.min[top] = min;
+            this.max[top] = max;
+            this.sum[top] = sum;
+            top++;
+        }
+
+        // Replaces the summaries of node's children, the top two entries, with the summary of node
+        void combine(Node node, boolean avl, boolean redBlack) {
+            int right = --top;
+            int left = --top;
+            int value = node.getValue();
+            if (size[left] > 0 && max[left] >= value) {
+                throw violation(node, "left subtree holds " + max[left]);
+            }
+            if (size[right] > 0 && min[right] <= value) {
+                throw violation(node, "right subtree holds " + min[right]);
+            }
+            int nodeHeight = 1 + Math.max(height[left], height[right]);
+            if (avl) {
+                if (node.getHeight() != nodeHeight) {
+                    throw violation(node, "stored height " + node.getHeight() + " but actual height " + nodeHeight);
+                }
+                if (Math.abs(height[left] - height[right]) > 1) {
+                    throw violation(node, "unbalanced, subtree heights " + height[left] + " and " + height[right]);
+                }
+            }
+            int nodeBlackHeight = 0;
+            if (redBlack) {
+                Color color = node.getColor();
+                if (color == null) {
+                    throw violation(node, "has no color");
+                }
+                if (color == Color.RED && (isRed(node.getLeftChild()) || isRed(node.getRightChild()))) {
+                    throw violation(node, "red node has a red child");
+                }
+                if (blackHeight[left] != blackHeight[right]) {
+                    throw violation(node, "black heights " + blackHeight[left] + " and " + blackHeight[right]);
+                }
+                nodeBlackHeight = blackHeight[left] + ((color == Color.BLACK) ? 1 : 0);
+            }
+            int nodeSize = size[left] + size[right] + 1;
+            int nodeMin = (size[left] > 0) ? min[left] : value;
+            int nodeMax = (size[right] > 0) ? max[right] : value;
+            long nodeSum = sum[left] + sum[right] + value;
+            if (node instanceof AugmentedNode augmented && (augmented.getSubtreeSize() != nodeSize
+                    || augmented.getSubtreeSum() != nodeSum || augmented.getSubtreeMin() != nodeMin
+                    || augmented.getSubtreeMax() != nodeMax)) {
+                throw violation(node, "aggregates do not match a subtree of " + nodeSize + " nodes summing to "
+                        + nodeSum + " in [" + nodeMin + ", " + nodeMax + "]");
+            }
+            push(nodeSize, nodeHeight, nodeBlackHeight, nodeMin, nodeMax, nodeSum);
+        }
+
+        private static boolean isRed(Node node) {
+            return node != null && node.getColor() == Color.RED;
+        }
+    }
+}
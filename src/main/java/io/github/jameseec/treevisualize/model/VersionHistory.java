@@ -0,0 +1,155 @@
+package io.github.jameseec.treevisualize.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Versions of a {@link PersistentTree}, oldest first, with the position of the current version.
+ * Each version records how many nodes were copied to create it, as every other node is shared with the version
+ * before it. The retained versions thus hold the nodes of the oldest one plus those copied for each later one;
+ * the memory the history retains is that beyond the nodes of the current version, which the tree holds anyway.
+ * Once more than {@code maxVersions} versions are retained, or the history retains more than {@code maxBytes},
+ * the oldest versions are evicted. Evicting a version frees only the nodes the next version does not share.
+ * The current version is never evicted.
+ */
+public class VersionHistory {
+    /** Estimated heap size of a {@link Node} with compressed references: header, two ints and three references. */
+    public static final int NODE_BYTES = 32;
+
+    private final int maxVersions;
+    private final long maxBytes;
+    private final List<Version> versions = new ArrayList<>();
+    private int current = -1;
+    /** Estimated number of distinct nodes across the retained versions. */
+    private long retainedNodes;
+    private int evicted;
+
+    private record Version(Node root, int size, int copiedNodes) {
+        long bytes() {
+            return (long) copiedNodes * NODE_BYTES;
+        }
+    }
+
+    /**
+     * Constructor that creates an empty history.
+     *
+     * @param maxVersions maximum number of versions to retain, at least 1
+     * @param maxBytes maximum estimated bytes of nodes to retain beyond those of the current version
+     * @throws IllegalArgumentException if maxVersions is less than 1 or maxBytes is negative
+     */
+    public VersionHistory(int maxVersions, long maxBytes) {
+        if (maxVersions < 1) {
+            throw new IllegalArgumentException("At least one version must be retained: " + maxVersions);
+        }
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Byte limit cannot be negative: " + maxBytes);
+        }
+        this.maxVersions = maxVersions;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Appends a version after the current one and makes it current, discarding any versions that
+     * could have been redone. Then evicts the oldest versions until both limits are met.
+     *
+     * @param root root of the new version, whose nodes must never be modified again
+     * @param size number of nodes in the new version
+     * @param copiedNodes number of nodes created for the new version
+     */
+    void record(Node root, int size, int copiedNodes) {
+        while (versions.size() > current + 1) {
+            retainedNodes -= versions.removeLast().copiedNodes();
+        }
+        retainedNodes += versions.isEmpty() ? size : copiedNodes;
+        versions.add(new Version(root, size, copiedNodes));
+        current++;
+
+        while (versions.size() > 1 && (versions.size() > maxVersions || getRetainedBytes() > maxBytes)) {
+            Version oldest = versions.removeFirst();
+            Version next = versions.getFirst();
+            // The next version shares all but its copied nodes with the oldest, and those stay retained
+            retainedNodes -= oldest.size() - (next.size() - next.copiedNodes());
+            current--;
+            evicted++;
+        }
+    }
+
+    /**
+     * Makes the version at index current.
+     *
+     * @throws IndexOutOfBoundsException if index is not a retained version
+     */
+    void select(int index) {
+        if (index < 0 || index >= versions.size()) {
+            throw new IndexOutOfBoundsException("No version " + index + " among " + versions.size());
+        }
+        current = index;
+    }
+
+    /**
+     * Gets the index of the current version among the retained versions.
+     */
+    public int getCurrent() {
+        return current;
+    }
+
+    /**
+     * Gets the number of retained versions.
+     */
+    public int getVersionCount() {
+        return versions.size();
+    }
+
+    public boolean canUndo() {
+        return current > 0;
+    }
+
+    public boolean canRedo() {
+        return current < versions.size() - 1;
+    }
+
+    Node getRoot(int index) {
+        return versions.get(index).root();
+    }
+
+    int getSize(int index) {
+        return versions.get(index).size();
+    }
+
+    /**
+     * Gets the number of nodes that were copied to create the version at index.
+     */
+    public int getCopiedNodes(int index) {
+        return versions.get(index).copiedNodes();
+    }
+
+    /**
+     * Gets the estimated bytes of nodes that were copied to create the version at index.
+     */
+    public long getBytes(int index) {
+        return versions.get(index).bytes();
+    }
+
+    /**
+     * Gets the estimated bytes of nodes that the retained versions hold beyond those of the current version,
+     * which is what evicting every other version would free.
+     */
+    public long getRetainedBytes() {
+        return (retainedNodes - versions.get(current).size()) * NODE_BYTES;
+    }
+
+    /**
+     * Gets the number of versions evicted so far, which is also the version number of the oldest retained one.
+     */
+    public int getEvictedCount() {
+        return evicted;
+    }
+
+    public int getMaxVersions() {
+        return maxVersions;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -2,6 +2,7 @@ package io.github.jameseec.treevisualize.view;
 
 
 import io.github.jameseec.treevisualize.model.AVLTree;
+import io.github.jameseec.treevisualize.model.PersistentAVLTree;
 import io.github.jameseec.treevisualize.model.Tree;
 import javafx.scene.layout.Pane;
 
@@ -9,11 +10,18 @@ import javafx.scene.layout.Pane;
  * Renderer for AVL tree with phantom nodes.
  */
 public class AVLRenderer extends TreeRenderer {
-    private final AVLTree avlTree;
-
+    /**
+     * Constructs an AVLRenderer for the specified tree and content pane.
+     *
+     * @param tree the AVL tree to render
+     * @param contentPane the pane where the tree will be drawn
+     * @throws IllegalArgumentException if tree is not an AVLTree or PersistentAVLTree instance
+     */
     public AVLRenderer(Tree tree, Pane contentPane) {
         super(contentPane, tree);
-        avlTree = (AVLTree) tree;
+        if (!(tree instanceof AVLTree || tree instanceof PersistentAVLTree)) {
+            throw new IllegalArgumentException("Tree must be an AVLTree");
+        }
     }
 
 }
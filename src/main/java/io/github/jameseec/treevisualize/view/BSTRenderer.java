@@ -1,6 +1,7 @@
 package io.github.jameseec.treevisualize.view;
 
 import io.github.jameseec.treevisualize.model.BinarySearchTree;
+import io.github.jameseec.treevisualize.model.PersistentBinarySearchTree;
 import io.github.jameseec.treevisualize.model.Tree;
 import javafx.scene.layout.Pane;
 
@@ -10,20 +11,18 @@ import javafx.scene.layout.Pane;
  * treating missing children as phantom nodes to maintain balanced spacing.
  */
 public class BSTRenderer extends TreeRenderer {
-    private final BinarySearchTree bst;
     /**
      * Constructs a BSTRenderer for the specified tree and content pane.
      *
      * @param tree the binary search tree to render
      * @param contentPane the pane where the tree will be drawn
-     * @throws IllegalArgumentException if tree is not a BinarySearchTree instance
+     * @throws IllegalArgumentException if tree is not a BinarySearchTree or PersistentBinarySearchTree instance
      */
     public BSTRenderer(Tree tree, Pane contentPane) {
         super(contentPane, tree);
-        if (!(tree instanceof BinarySearchTree)) {
+        if (!(tree instanceof BinarySearchTree || tree instanceof PersistentBinarySearchTree)) {
             throw new IllegalArgumentException("Tree must be a BinarySearchTree");
         }
-        this.bst = (BinarySearchTree) tree;
     }
 
 }
\ No newline at end of file
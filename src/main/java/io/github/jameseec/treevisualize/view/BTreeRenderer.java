@@ -0,0 +1,314 @@
+package io.github.jameseec.treevisualize.view;
+
+import io.github.jameseec.treevisualize.model.BTree;
+import io.github.jameseec.treevisualize.model.Tree;
+import javafx.geometry.VPos;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Line;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Text;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renderer for B-trees, drawing each page as a row of key cells with an edge from the gap between two keys
+ * to the child holding the keys between them.
+ */
+public class BTreeRenderer extends TreeRenderer {
+    private static final double KEY_WIDTH = 36;
+    private static final double PAGE_HEIGHT = 30;
+    private static final double PAGE_GAP = 16;
+    private static final double LEVEL_HEIGHT = 80;
+    private static final double startY = 60;
+    private final BTree bTree;
+    /** Left edge of each drawn page, keyed by identity as pages are mutable */
+    private Map<BTree.Page, Double> pageX;
+    private Map<BTree.Page, Double> pageY;
+    private Map<Integer, Rectangle> keyCells;       // key : cell drawn for it
+    /** Root page read from the tree by the last update, so that overlays match what was drawn. */
+    private BTree.Page drawnRoot;
+
+    /**
+     * Constructs a BTreeRenderer for the specified tree and content pane.
+     *
+     * @param tree the B-tree to render
+     * @param contentPane the pane where the tree will be drawn
+     * @throws IllegalArgumentException if tree is not a BTree instance
+     */
+    public BTreeRenderer(Tree tree, Pane contentPane) {
+        super(contentPane, tree);
+        if (!(tree instanceof BTree)) {
+            throw new IllegalArgumentException("Tree must be a BTree");
+        }
+        this.bTree = (BTree) tree;
+        pageX = new IdentityHashMap<>();
+        pageY = new IdentityHashMap<>();
+        keyCells = new HashMap<>();
+    }
+
+    /**
+     * Updates the pane by clearing existing content and redrawing all pages.
+     */
+    @Override
+    public void updatePane() {
+        clearContent();
+        drawnRoot = bTree.getRootPage();
+        if (drawnRoot != null) {
+            layout();
+            for (BTree.Page page : pageX.keySet()) {
+                drawEdges(page);
+            }
+            for (BTree.Page page : pageX.keySet()) {
+                drawPage(page);
+            }
+        }
+    }
+
+    /**
+     * B-trees are always drawn into contentPane, being kept small enough to show every page.
+     *
+     * @throws UnsupportedOperationException if viewport is not null
+     */
+    @Override
+    public void setCanvasViewport(ZoomPanPane viewport) {
+        if (viewport != null) {
+            throw new UnsupportedOperationException("B-trees cannot be drawn into a canvas");
+        }
+    }
+
+    @Override
+    public void clearContent() {
+        super.clearContent();
+        drawnRoot = null;
+        pageX = new IdentityHashMap<>();
+        pageY = new IdentityHashMap<>();
+        keyCells = new HashMap<>();
+    }
+
+    /**
+     * Places pages level by level, giving every subtree the width of its widest level and centering each page
+     * over its children, using explicit stacks.
+     */
+    private void layout() {
+        List<BTree.Page> preOrder = preOrderPages(drawnRoot);
+        Map<BTree.Page, Double> widths = new IdentityHashMap<>();
+        // Children follow their parent in pre-order, so reverse order sizes children first
+        for (int i = preOrder.size() - 1; i >= 0; i--) {
+            BTree.Page page = preOrder.get(i);
+            double childrenWidth = -PAGE_GAP;
+            if (!page.isLeaf()) {
+                for (int c = 0; c <= page.getKeyCount(); c++) {
+                    childrenWidth += widths.get(page.getChild(c)) + PAGE_GAP;
+                }
+            }
+            widths.put(page, Math.max(pageWidth(page), childrenWidth));
+        }
+
+        double rootLeft = contentPane.getWidth() / 2 - widths.get(drawnRoot) / 2;
+        Map<BTree.Page, Double> spanLeft = new IdentityHashMap<>();
+        spanLeft.put(drawnRoot, rootLeft);
+        pageY.put(drawnRoot, startY);
+        for (BTree.Page page : preOrder) {
+            double left = spanLeft.get(page);
+            double width = widths.get(page);
+            pageX.put(page, left + (width - pageWidth(page)) / 2);
+            if (page.isLeaf()) {
+                continue;
+            }
+            double childrenWidth = -PAGE_GAP;
+            for (int c = 0; c <= page.getKeyCount(); c++) {
+                childrenWidth += widths.get(page.getChild(c)) + PAGE_GAP;
+            }
+            double childLeft = left + (width - childrenWidth) / 2;
+            for (int c = 0; c <= page.getKeyCount(); c++) {
+                BTree.Page child = page.getChild(c);
+                spanLeft.put(child, childLeft);
+                pageY.put(child, pageY.get(page) + LEVEL_HEIGHT);
+                childLeft += widths.get(child) + PAGE_GAP;
+            }
+        }
+    }
+
+    private static double pageWidth(BTree.Page page) {
+        return page.getKeyCount() * KEY_WIDTH;
+    }
+
+    private static List<BTree.Page> preOrderPages(BTree.Page root) {
+        List<BTree.Page> pages = new ArrayList<>();
+        Deque<BTree.Page> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            BTree.Page page = stack.pop();
+            pages.add(page);
+            if (!page.isLeaf()) {
+                for (int c = page.getKeyCount(); c >= 0; c--) {
+                    stack.push(page.getChild(c));
+                }
+            }
+        }
+        return pages;
+    }
+
+    /**
+     * Draws the edges from the gaps between page's keys to its children, if any.
+     */
+    private void drawEdges(BTree.Page page) {
+        if (page.isLeaf()) {
+            return;
+        }
+        double x = pageX.get(page);
+        double y = pageY.get(page) + PAGE_HEIGHT;
+        for (int c = 0; c <= page.getKeyCount(); c++) {
+            BTree.Page child = page.getChild(c);
+            Line line = new Line(x + c * KEY_WIDTH, y, pageX.get(child) + pageWidth(child) / 2, pageY.get(child));
+            line.setStroke(Color.BLACK);
+            line.setStrokeWidth(2);
+            contentPane.getChildren().add(line);
+        }
+    }
+
+    /**
+     * Draws a page as adjacent cells, one per key. Stores key cells into a map.
+     */
+    private void drawPage(BTree.Page page) {
+        double x = pageX.get(page);
+        double y = pageY.get(page);
+        for (int i = 0; i < page.getKeyCount(); i++) {
+            Rectangle cell = new Rectangle(x + i * KEY_WIDTH, y, KEY_WIDTH, PAGE_HEIGHT);
+            cell.setFill(Color.WHITE);
+            cell.setStroke(Color.BLACK);
+            cell.setStrokeWidth(2);
+            keyCells.put(page.getKey(i), cell);
+            contentPane.getChildren().add(cell);
+
+            Text key = new Text(Integer.toString(page.getKey(i)));
+            key.setTextOrigin(VPos.CENTER);
+            key.setX(cell.getX() + (KEY_WIDTH - key.getBoundsInLocal().getWidth()) / 2);
+            key.setY(y + PAGE_HEIGHT / 2);
+            key.setFill(Color.BLACK);
+            contentPane.getChildren().add(key);
+        }
+    }
+
+    /**
+     * Highlights the pages visited while searching for given val, and the key found if any.
+     * Each visited page is annotated with a number indicating the visit order.
+     *
+     * @param val value to show search path for.
+     */
+    @Override
+    public void showSearchPath(int val) {
+        updatePane();
+        BTree.Page page = drawnRoot;
+        int order = 0;
+        while (page != null) {
+            order++;
+            int index = 0;
+            while (index < page.getKeyCount() && page.getKey(index) < val) {
+                index++;
+            }
+            boolean found = index < page.getKeyCount() && page.getKey(index) == val;
+            for (int i = 0; i < page.getKeyCount(); i++) {
+                Rectangle cell = keyCells.get(page.getKey(i));
+                if (found && i == index) {
+                    cell.setFill(Color.LIGHTGREEN);
+                    cell.setStroke(Color.DARKGREEN);
+                } else if (!found && page.isLeaf()) {
+                    // Search unsuccessful: reached leaf page
+                    cell.setFill(Color.RED);
+                } else {
+                    cell.setFill(Color.LIGHTYELLOW);
+                    cell.setStroke(Color.GREY);
+                }
+            }
+            drawLabel(pageX.get(page) + pageWidth(page) + 3, pageY.get(page) + PAGE_HEIGHT / 2,
+                    Integer.toString(order));
+            if (found || page.isLeaf()) {
+                break;
+            }
+            page = page.getChild(index);
+        }
+    }
+
+    /**
+     * Labels keys with their position in a pre-order walk of the pages, listing each page's keys
+     * before its children's.
+     */
+    @Override
+    public void showPreOrderTraversal() {
+        updatePane();
+        if (drawnRoot != null) {
+            int visitCount = 0;
+            for (BTree.Page page : preOrderPages(drawnRoot)) {
+                for (int i = 0; i < page.getKeyCount(); i++) {
+                    drawKeyOrderLabel(page.getKey(i), ++visitCount);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void showInOrderTraversal() {
+        updatePane();
+        int visitCount = 0;
+        for (var keys = bTree.iterator(); keys.hasNext(); ) {
+            drawKeyOrderLabel(keys.nextInt(), ++visitCount);
+        }
+    }
+
+    /**
+     * Labels keys with their position in a post-order walk of the pages, listing each page's keys
+     * after its children's.
+     */
+    @Override
+    public void showPostOrderTraversal() {
+        updatePane();
+        if (drawnRoot != null) {
+            // Reversing a walk that visits a page, then its children from the right, visits children first
+            List<BTree.Page> pages = new ArrayList<>();
+            Deque<BTree.Page> stack = new ArrayDeque<>();
+            stack.push(drawnRoot);
+            while (!stack.isEmpty()) {
+                BTree.Page page = stack.pop();
+                pages.add(page);
+                if (!page.isLeaf()) {
+                    for (int c = 0; c <= page.getKeyCount(); c++) {
+                        stack.push(page.getChild(c));
+                    }
+                }
+            }
+            int visitCount = 0;
+            for (int p = pages.size() - 1; p >= 0; p--) {
+                BTree.Page page = pages.get(p);
+                for (int i = 0; i < page.getKeyCount(); i++) {
+                    drawKeyOrderLabel(page.getKey(i), ++visitCount);
+                }
+            }
+        }
+    }
+
+    // Draws the visit order above the cell holding key, as the cells of a page touch
+    private void drawKeyOrderLabel(int key, int order) {
+        Rectangle cell = keyCells.get(key);
+        Text label = new Text(Integer.toString(order));
+        label.setTextOrigin(VPos.BOTTOM);
+        label.setX(cell.getX() + (KEY_WIDTH - label.getBoundsInLocal().getWidth()) / 2);
+        label.setY(cell.getY() - 2);
+        contentPane.getChildren().add(label);
+    }
+
+    private void drawLabel(double x, double y, String text) {
+        Text label = new Text(text);
+        label.setTextOrigin(VPos.CENTER);
+        label.setX(x);
+        label.setY(y);
+        contentPane.getChildren().add(label);
+    }
+}
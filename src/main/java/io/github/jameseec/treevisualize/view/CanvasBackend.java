@@ -0,0 +1,294 @@
+package io.github.jameseec.treevisualize.view;
+
+import io.github.jameseec.treevisualize.model.AugmentedNode;
+import io.github.jameseec.treevisualize.model.Node;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.Circle;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Draws trees into a canvas the size of a {@link ZoomPanPane}, for trees too large to keep a few shapes per node
+ * in the scene graph. Each frame applies the pane's zoom and panning and draws only the nodes and edges in view,
+ * found through a {@link NodeIndex}: all edges as one path, then the circles of all nodes styled alike as one
+ * path, then their values. Subtrees too narrow to show at the current zoom are drawn as glyphs, and text too small
+ * to read is left out, as set by {@link LevelOfDetail}. Frames are redrawn after updates and whenever the view
+ * changes, at most once a pulse. Clicks are hit-tested through the same index.
+ */
+final class CanvasBackend implements RenderBackend {
+    private static final double NODE_RADIUS = TreeRenderer.NODE_RADIUS;
+    private final TreeRenderer renderer;
+    private final ZoomPanPane viewport;
+    private final Canvas canvas = new Canvas();
+    private final NodeIndex index = new NodeIndex();
+    private final InvalidationListener viewListener = observable -> requestRedraw();
+    /** Circle and text that styleNode styles, to read back the style of each drawn node. */
+    private final Circle styleCircle = new Circle();
+    private final Text styleText = new Text();
+    private final Text measureText = new Text();
+    private final Font font = Font.getDefault();
+    /** Fill and stroke of nodes highlighted by the last search. */
+    private final Map<Node, Color[]> highlights = new IdentityHashMap<>();
+    /** Search and traversal labels of the last update. */
+    private final Map<Node, String> labels = new IdentityHashMap<>();
+    private TreeLayout layout;
+    private boolean redrawRequested;
+
+    /**
+     * How one node is painted, equal for nodes painted alike.
+     */
+    private record NodeStyle(Paint fill, Paint stroke, double strokeWidth, Paint textFill) {
+    }
+
+    /**
+     * The nodes in view painted in one style, with their positions.
+     */
+    private static final class StyleBatch {
+        final List<Node> nodes = new ArrayList<>();
+        double[] xs = new double[16];
+        double[] ys = new double[16];
+
+        void add(Node node, double x, double y) {
+            int i = nodes.size();
+            if (i == xs.length) {
+                xs = Arrays.copyOf(xs, i * 2);
+                ys = Arrays.copyOf(ys, i * 2);
+            }
+            nodes.add(node);
+            xs[i] = x;
+            ys[i] = y;
+        }
+    }
+
+    CanvasBackend(TreeRenderer renderer, ZoomPanPane viewport) {
+        this.renderer = renderer;
+        this.viewport = viewport;
+        canvas.widthProperty().bind(viewport.widthProperty());
+        canvas.heightProperty().bind(viewport.heightProperty());
+        canvas.addEventHandler(MouseEvent.MOUSE_CLICKED, this::onClicked);
+        viewport.addViewportLayer(canvas);
+        viewport.addViewListener(viewListener);
+    }
+
+    @Override
+    public void draw(Node root, TreeLayout layout) {
+        this.layout = layout;
+        highlights.clear();
+        labels.clear();
+        index.setLayout(layout);
+        requestRedraw();
+    }
+
+    @Override
+    public void highlight(Node node, Color fill, Color stroke) {
+        highlights.put(node, new Color[] {fill, stroke});
+        requestRedraw();
+    }
+
+    @Override
+    public void label(Node node, String text) {
+        labels.put(node, text);
+        requestRedraw();
+    }
+
+    @Override
+    public void clear() {
+        layout = null;
+        highlights.clear();
+        labels.clear();
+        index.clear();
+        requestRedraw();
+    }
+
+    @Override
+    public void dispose() {
+        clear();
+        viewport.removeViewListener(viewListener);
+        viewport.removeViewportLayer(canvas);
+        canvas.widthProperty().unbind();
+        canvas.heightProperty().unbind();
+    }
+
+    // Coalesces the changes made while handling one event, and the view changes of one drag, into one frame
+    private void requestRedraw() {
+        if (!redrawRequested) {
+            redrawRequested = true;
+            Platform.runLater(this::redraw);
+        }
+    }
+
+    private void redraw() {
+        redrawRequested = false;
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (layout == null || layout.getRoot() == null) {
+            return;
+        }
+        double zoom = viewport.getZoom();
+        Bounds visible = viewport.getVisibleContentBounds();
+        gc.setTransform(zoom, 0, 0, zoom, -visible.getMinX() * zoom, -visible.getMinY() * zoom);
+        // Nodes centered just outside the view still show part of their circle or labels
+        double margin = NODE_RADIUS * 4;
+        double minX = visible.getMinX() - margin;
+        double minY = visible.getMinY() - margin;
+        double maxX = visible.getMaxX() + margin;
+        double maxY = visible.getMaxY() + margin;
+        double minExtent = LevelOfDetail.minExtent(zoom);
+        boolean readable = LevelOfDetail.isTextReadable(zoom);
+
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(2);
+        gc.beginPath();
+        index.forEachEdge(minX, minY, maxX, maxY, minExtent, (child, parentX, parentY, childX, childY) -> {
+            gc.moveTo(parentX, parentY);
+            gc.lineTo(childX, childY);
+        });
+        gc.stroke();
+
+        Map<NodeStyle, StyleBatch> batches = new LinkedHashMap<>();
+        StyleBatch glyphs = new StyleBatch();
+        index.forEachNode(minX, minY, maxX, maxY, minExtent, (node, x, y, collapsed) -> {
+            if (collapsed) {
+                glyphs.add(node, x, y);
+            } else {
+                batches.computeIfAbsent(styleOf(node), style -> new StyleBatch()).add(node, x, y);
+            }
+        });
+        drawGlyphs(gc, glyphs);
+        gc.setFont(font);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        for (Map.Entry<NodeStyle, StyleBatch> entry : batches.entrySet()) {
+            drawBatch(gc, entry.getKey(), entry.getValue(), readable);
+        }
+        if (readable) {
+            drawLabels(gc, batches);
+        }
+        drawGlyphLabels(gc, glyphs, zoom, visible);
+    }
+
+    private void drawGlyphs(GraphicsContext gc, StyleBatch glyphs) {
+        gc.beginPath();
+        for (int i = 0; i < glyphs.nodes.size(); i++) {
+            double[] points = LevelOfDetail.glyphPoints(layout, glyphs.nodes.get(i), glyphs.xs[i], glyphs.ys[i]);
+            gc.moveTo(points[0], points[1]);
+            gc.lineTo(points[2], points[3]);
+            gc.lineTo(points[4], points[5]);
+            gc.closePath();
+        }
+        gc.setFill(Color.GAINSBORO);
+        gc.fill();
+        gc.setStroke(Color.GREY);
+        gc.setLineWidth(2);
+        gc.stroke();
+    }
+
+    // Labels glyphs in screen coordinates, so that the labels stay readable however far the view is zoomed out
+    private void drawGlyphLabels(GraphicsContext gc, StyleBatch glyphs, double zoom, Bounds visible) {
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.setFont(LevelOfDetail.GLYPH_FONT);
+        gc.setFill(Color.BLACK);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.BOTTOM);
+        for (int i = 0; i < glyphs.nodes.size(); i++) {
+            Node node = glyphs.nodes.get(i);
+            double[] points = LevelOfDetail.glyphPoints(layout, node, glyphs.xs[i], glyphs.ys[i]);
+            String label = LevelOfDetail.glyphLabel(layout, node, (points[2] - points[4]) * zoom, measureText);
+            if (label != null) {
+                gc.fillText(label, ((points[2] + points[4]) / 2 - visible.getMinX()) * zoom,
+                        (points[3] - visible.getMinY()) * zoom - 1);
+            }
+        }
+    }
+
+    private void drawBatch(GraphicsContext gc, NodeStyle style, StyleBatch batch, boolean readable) {
+        int count = batch.nodes.size();
+        gc.beginPath();
+        for (int i = 0; i < count; i++) {
+            gc.moveTo(batch.xs[i] + NODE_RADIUS, batch.ys[i]);
+            gc.arc(batch.xs[i], batch.ys[i], NODE_RADIUS, NODE_RADIUS, 0, 360);
+            gc.closePath();
+        }
+        gc.setFill(style.fill());
+        gc.fill();
+        gc.setStroke(style.stroke());
+        gc.setLineWidth(style.strokeWidth());
+        gc.stroke();
+        if (!readable) {
+            return;
+        }
+        gc.setFill(style.textFill());
+        for (int i = 0; i < count; i++) {
+            gc.fillText(Integer.toString(batch.nodes.get(i).getValue()), batch.xs[i], batch.ys[i]);
+        }
+    }
+
+    // Draws subtree sizes below nodes and search or traversal labels to their right
+    private void drawLabels(GraphicsContext gc, Map<NodeStyle, StyleBatch> batches) {
+        boolean sizes = renderer.isShowSubtreeSizes();
+        if (!sizes && labels.isEmpty()) {
+            return;
+        }
+        for (StyleBatch batch : batches.values()) {
+            for (int i = 0; i < batch.nodes.size(); i++) {
+                Node node = batch.nodes.get(i);
+                if (sizes && node instanceof AugmentedNode augmented) {
+                    gc.setFill(Color.DIMGREY);
+                    gc.setTextAlign(TextAlignment.CENTER);
+                    gc.setTextBaseline(VPos.TOP);
+                    gc.fillText(Integer.toString(augmented.getSubtreeSize()), batch.xs[i],
+                            batch.ys[i] + NODE_RADIUS + 2);
+                }
+                String label = labels.get(node);
+                if (label != null) {
+                    gc.setFill(Color.BLACK);
+                    gc.setTextAlign(TextAlignment.LEFT);
+                    gc.setTextBaseline(VPos.CENTER);
+                    gc.fillText(label, batch.xs[i] + NODE_RADIUS + 3, batch.ys[i]);
+                }
+            }
+        }
+    }
+
+    // Styles the scratch shapes as the scene graph backend would style the node's shapes, and reads them back
+    private NodeStyle styleOf(Node node) {
+        renderer.applyStyle(node, styleCircle, styleText);
+        Color[] highlight = highlights.get(node);
+        if (highlight != null) {
+            styleCircle.setFill(highlight[0]);
+            styleCircle.setStroke(highlight[1]);
+        }
+        return new NodeStyle(styleCircle.getFill(), styleCircle.getStroke(), styleCircle.getStrokeWidth(),
+                styleText.getFill());
+    }
+
+    private void onClicked(MouseEvent e) {
+        if (!e.isStillSincePress() || layout == null) {
+            return;
+        }
+        Point2D point = viewport.viewportToContent(e.getX(), e.getY());
+        Node node = index.nodeAt(point.getX(), point.getY(), NODE_RADIUS,
+                LevelOfDetail.minExtent(viewport.getZoom()));
+        if (node != null) {
+            renderer.nodeClicked(node);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.jameseec.treevisualize.view;
+
+import io.github.jameseec.treevisualize.model.Node;
+
+/**
+ * Decides where {@link TreeLayout} places the nodes of a tree horizontally; levels are always
+ * {@link TreeLayout#VERTICAL_SPACING} apart. Subtrees are measured bottom-up, each from the shapes of its
+ * children's subtrees only, so a layout costs one call per node.
+ */
+public interface LayoutStrategy {
+    /**
+     * Gives every subtree a width unit for each missing child, so that nodes sit in in-order columns.
+     * Simple to follow, but as wide as the tree has null children.
+     */
+    LayoutStrategy PHANTOM = new PhantomLayout();
+    /**
+     * Reingold–Tilford tidy layout, which centers each node over its children and pushes subtrees only as far
+     * apart as their facing contours require. Much narrower than {@link #PHANTOM} for unbalanced trees.
+     */
+    LayoutStrategy TIDY = new TidyLayout();
+
+    /**
+     * Measures the subtree rooted at node.
+     *
+     * @param node root of the subtree
+     * @param left shape of the left subtree, or null if there is none
+     * @param right shape of the right subtree, or null if there is none
+     * @return the shape of the subtree
+     */
+    SubtreeShape measure(Node node, SubtreeShape left, SubtreeShape right);
+}
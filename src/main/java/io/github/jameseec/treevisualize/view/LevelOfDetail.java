@@ -0,0 +1,74 @@
+package io.github.jameseec.treevisualize.view;
+
+import io.github.jameseec.treevisualize.model.Node;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * Level of detail shared by the render backends. At a given zoom, subtrees allocated less than
+ * {@link #MIN_SUBTREE_PIXELS} on screen collapse into a glyph at their root, a triangle labelled with the number
+ * of nodes and the height of the subtree, and text is hidden once it is too small to read. Zooming in expands
+ * collapsed subtrees a level or so at a time, as each level of a subtree is allocated less space than the last.
+ */
+final class LevelOfDetail {
+    /** Narrowest subtree shown in full, in screen pixels. */
+    static final double MIN_SUBTREE_PIXELS = 64;
+    /** Smallest text drawn, in screen pixels. */
+    static final double MIN_TEXT_PIXELS = 6;
+    /** Size of the text labelling glyphs, in screen pixels whatever the zoom. */
+    static final double GLYPH_TEXT_PIXELS = 10;
+    static final Font GLYPH_FONT = Font.font(GLYPH_TEXT_PIXELS);
+    private static final double NODE_RADIUS = TreeRenderer.NODE_RADIUS;
+
+    private LevelOfDetail() {
+    }
+
+    /**
+     * Gets the narrowest subtree shown in full at zoom, in the coordinates of the layout.
+     */
+    static double minExtent(double zoom) {
+        return MIN_SUBTREE_PIXELS / zoom;
+    }
+
+    /**
+     * Checks whether text of the default font can be read at zoom.
+     */
+    static boolean isTextReadable(double zoom) {
+        return Font.getDefault().getSize() * zoom >= MIN_TEXT_PIXELS;
+    }
+
+    /**
+     * Gets the corners of the glyph drawn for the collapsed subtree rooted at node, at (x, y): a triangle
+     * from the top of where the node's circle would be, over the space allocated to the subtree.
+     *
+     * @return the x- and y-coordinates of the apex, bottom right and bottom left corners, in that order
+     */
+    static double[] glyphPoints(TreeLayout layout, Node node, double x, double y) {
+        double inset = TreeLayout.BASE_WIDTH_UNIT / 2;
+        SubtreeShape shape = layout.getShape(node);
+        double left = x - shape.getLeftExtent() + inset;
+        double right = x + shape.getRightExtent() - inset;
+        double bottom = y + NODE_RADIUS * 1.5;
+        return new double[] {x, y - NODE_RADIUS, right, bottom, left, bottom};
+    }
+
+    /**
+     * Gets the label of the glyph for the subtree rooted at node: its number of nodes and height, or only
+     * its number of nodes if that is all that fits in maxWidth screen pixels.
+     *
+     * @param measure text used to measure labels in {@link #GLYPH_FONT}
+     * @return the label, or null if not even the number of nodes fits
+     */
+    static String glyphLabel(TreeLayout layout, Node node, double maxWidth, Text measure) {
+        String size = Integer.toString(layout.getSubtreeSize(node));
+        String full = size + " / h" + layout.getSubtreeHeight(node);
+        measure.setFont(GLYPH_FONT);
+        for (String label : new String[] {full, size}) {
+            measure.setText(label);
+            if (measure.getLayoutBounds().getWidth() <= maxWidth) {
+                return label;
+            }
+        }
+        return null;
+    }
+}
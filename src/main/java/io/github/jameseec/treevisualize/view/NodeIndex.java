@@ -0,0 +1,186 @@
+package io.github.jameseec.treevisualize.view;
+
+import io.github.jameseec.treevisualize.model.Node;
+
+import java.util.Arrays;
+
+/**
+ * Finds the node of a {@link TreeLayout} under a point, or the nodes and edges within a rectangle, without testing
+ * every node. Queries walk down from the root, placing each node at the offset its parent's shape gives it, and
+ * skip every subtree whose extent misses the rectangle horizontally or that starts below it. A query thus costs
+ * the nodes it finds and their ancestors, and nothing is built ahead of it when the layout changes.
+ * <p>
+ * Queries take a minimum extent for level of detail: subtrees allocated less horizontal space than that are
+ * collapsed into their root, so the nodes below it are skipped. As a subtree is always narrower than its parent's,
+ * a node is shown exactly when its parent's subtree is at least that wide.
+ */
+final class NodeIndex {
+    private TreeLayout layout;
+    /** Nodes still to visit in a walk, with their x-coordinates and levels. */
+    private Node[] stack = new Node[64];
+    private double[] stackXs = new double[64];
+    private int[] stackLevels = new int[64];
+    private Node nearest;
+    private double nearestDistance;
+
+    /**
+     * Callback for the nodes found by {@link #forEachNode}.
+     */
+    interface NodeAction {
+        /**
+         * @param collapsed whether node stands for its whole subtree, which is too narrow to show
+         */
+        void accept(Node node, double x, double y, boolean collapsed);
+    }
+
+    /**
+     * Callback for the edges found by {@link #forEachEdge}.
+     */
+    interface EdgeAction {
+        void accept(Node child, double parentX, double parentY, double childX, double childY);
+    }
+
+    private interface Visitor {
+        void visit(Node node, double x, int level, SubtreeShape shape);
+    }
+
+    /**
+     * Queries layout from now on, as it is laid out at the time of each query.
+     */
+    void setLayout(TreeLayout layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * Stops querying any layout.
+     */
+    void clear() {
+        layout = null;
+    }
+
+    private double levelY(int level) {
+        return layout.getRootY() + level * TreeLayout.VERTICAL_SPACING;
+    }
+
+    /**
+     * Finds the shown node centered nearest to (x, y) within radius of it.
+     *
+     * @param minExtent narrowest subtree to show in full
+     * @return the node, or null if no shown node is centered within radius of the point
+     */
+    Node nodeAt(double x, double y, double radius, double minExtent) {
+        if (layout == null) {
+            return null;
+        }
+        int level = (int) Math.round((y - layout.getRootY()) / TreeLayout.VERTICAL_SPACING);
+        double dy = levelY(level) - y;
+        nearest = null;
+        nearestDistance = radius * radius;
+        walk(x - radius, x + radius, level, minExtent, (node, nodeX, nodeLevel, shape) -> {
+            double dx = nodeX - x;
+            double distance = dx * dx + dy * dy;
+            if (nodeLevel == level && distance <= nearestDistance) {
+                nearest = node;
+                nearestDistance = distance;
+            }
+        });
+        Node found = nearest;
+        nearest = null;
+        return found;
+    }
+
+    /**
+     * Calls action with every shown node centered within the rectangle from (minX, minY) to (maxX, maxY), in
+     * pre-order.
+     *
+     * @param minExtent narrowest subtree to show in full
+     */
+    void forEachNode(double minX, double minY, double maxX, double maxY, double minExtent, NodeAction action) {
+        if (layout == null) {
+            return;
+        }
+        int first = (int) Math.ceil((minY - layout.getRootY()) / TreeLayout.VERTICAL_SPACING);
+        int last = (int) Math.floor((maxY - layout.getRootY()) / TreeLayout.VERTICAL_SPACING);
+        walk(minX, maxX, last, minExtent, (node, x, level, shape) -> {
+            if (level >= first && x >= minX && x <= maxX) {
+                boolean collapsed = shape.getExtent() < minExtent
+                        && (node.getLeftChild() != null || node.getRightChild() != null);
+                action.accept(node, x, levelY(level), collapsed);
+            }
+        });
+    }
+
+    /**
+     * Calls action with every edge that may cross the rectangle from (minX, minY) to (maxX, maxY): those from
+     * the levels the rectangle spans that reach across its horizontal range. Skips the edges within collapsed
+     * subtrees.
+     *
+     * @param minExtent narrowest subtree to show in full
+     */
+    void forEachEdge(double minX, double minY, double maxX, double maxY, double minExtent, EdgeAction action) {
+        if (layout == null) {
+            return;
+        }
+        // Edges from a level span the height between it and the next level
+        int first = (int) Math.floor((minY - layout.getRootY()) / TreeLayout.VERTICAL_SPACING);
+        int last = (int) Math.floor((maxY - layout.getRootY()) / TreeLayout.VERTICAL_SPACING);
+        walk(minX, maxX, last, minExtent, (parent, x, level, shape) -> {
+            if (level >= first && shape.getExtent() >= minExtent) {
+                double y = levelY(level);
+                acceptEdge(x, y, parent.getLeftChild(), x + shape.getLeftChildOffset(), minX, maxX, action);
+                acceptEdge(x, y, parent.getRightChild(), x + shape.getRightChildOffset(), minX, maxX, action);
+            }
+        });
+    }
+
+    private static void acceptEdge(double parentX, double parentY, Node child, double childX, double minX,
+                                   double maxX, EdgeAction action) {
+        if (child != null && Math.min(parentX, childX) <= maxX && Math.max(parentX, childX) >= minX) {
+            action.accept(child, parentX, parentY, childX, parentY + TreeLayout.VERTICAL_SPACING);
+        }
+    }
+
+    /**
+     * Calls visitor in pre-order with every shown node whose subtree overlaps minX to maxX horizontally, down to
+     * lastLevel. A subtree lies within the extent of its root, so no node centered in that range is missed.
+     */
+    private void walk(double minX, double maxX, int lastLevel, double minExtent, Visitor visitor) {
+        Node root = layout.getRoot();
+        if (root == null || lastLevel < 0) {
+            return;
+        }
+        int top = push(0, root, layout.getRootX(), 0);
+        while (top > 0) {
+            top--;
+            Node node = stack[top];
+            double x = stackXs[top];
+            int level = stackLevels[top];
+            stack[top] = null;
+            SubtreeShape shape = layout.getShape(node);
+            if (x - shape.getLeftExtent() > maxX || x + shape.getRightExtent() < minX) {
+                continue;
+            }
+            visitor.visit(node, x, level, shape);
+            if (level < lastLevel && shape.getExtent() >= minExtent) {
+                if (node.getRightChild() != null) {
+                    top = push(top, node.getRightChild(), x + shape.getRightChildOffset(), level + 1);
+                }
+                if (node.getLeftChild() != null) {
+                    top = push(top, node.getLeftChild(), x + shape.getLeftChildOffset(), level + 1);
+                }
+            }
+        }
+    }
+
+    private int push(int top, Node node, double x, int level) {
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, top * 2);
+            stackXs = Arrays.copyOf(stackXs, top * 2);
+            stackLevels = Arrays.copyOf(stackLevels, top * 2);
+        }
+        stack[top] = node;
+        stackXs[top] = x;
+        stackLevels[top] = level;
+        return top + 1;
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.jameseec.treevisualize.view;
+
+import io.github.jameseec.treevisualize.model.Node;
+
+/**
+ * Layout that treats missing children as phantom nodes to maintain balanced spacing. Width represents the number
+ * of horizontal "units" required to draw a subtree: 2 for a leaf, otherwise the sum of its children's widths,
+ * with phantom children counting 1. A node sits after the space allocated to its left subtree.
+ */
+final class PhantomLayout implements LayoutStrategy {
+    private static final double UNIT = TreeLayout.BASE_WIDTH_UNIT;
+
+    @Override
+    public SubtreeShape measure(Node node, SubtreeShape left, SubtreeShape right) {
+        return new SubtreeShape(left, right,
+                (left == null) ? 0 : -left.getRightExtent(),
+                (right == null) ? 0 : right.getLeftExtent(),
+                (left == null) ? UNIT : left.getExtent(),
+                (right == null) ? UNIT : right.getExtent());
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.jameseec.treevisualize.view;
+
+import io.github.jameseec.treevisualize.model.Node;
+import io.github.jameseec.treevisualize.model.RedBlackTree;
+import io.github.jameseec.treevisualize.model.Tree;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.text.Text;
+
+/**
+ * Renderer for Red-Black trees with phantom nodes.
+ * Outlines each node and its value in the node's red or black color, leaving the fill free
+ * for search highlighting.
+ */
+public class RedBlackRenderer extends TreeRenderer {
+    private final RedBlackTree redBlackTree;
+
+    /**
+     * Constructs a RedBlackRenderer for the specified tree and content pane.
+     *
+     * @param tree the red-black tree to render
+     * @param contentPane the pane where the tree will be drawn
+     * @throws IllegalArgumentException if tree is not a RedBlackTree instance
+     */
+    public RedBlackRenderer(Tree tree, Pane contentPane) {
+        super(contentPane, tree);
+        if (!(tree instanceof RedBlackTree)) {
+            throw new IllegalArgumentException("Tree must be a RedBlackTree");
+        }
+        this.redBlackTree = (RedBlackTree) tree;
+    }
+
+    @Override
+    protected void styleNode(Node node, Circle circle, Text text) {
+        Color color = (node.getColor() == io.github.jameseec.treevisualize.model.Color.RED)
+                ? Color.FIREBRICK : Color.BLACK;
+        circle.setStroke(color);
+        circle.setStrokeWidth(3);
+        text.setFill(color);
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.jameseec.treevisualize.view;
+
+import io.github.jameseec.treevisualize.model.Node;
+import javafx.scene.paint.Color;
+
+/**
+ * Draws the trees laid out by a {@link TreeRenderer}, along with the highlights and labels of searches and
+ * traversals. Each call to {@link #draw} replaces the tree drawn before and removes its highlights and labels.
+ */
+interface RenderBackend {
+    /**
+     * Shows the tree rooted at root, positioned by layout.
+     *
+     * @param root root of the tree, or null for an empty tree
+     * @param layout layout of the tree computed for this update
+     */
+    void draw(Node root, TreeLayout layout);
+
+    /**
+     * Recolors the circle of a drawn node until the next draw.
+     */
+    void highlight(Node node, Color fill, Color stroke);
+
+    /**
+     * Shows text to the right of a drawn node until the next draw.
+     */
+    void label(Node node, String text);
+
+    /**
+     * Removes everything drawn. The next draw starts afresh.
+     */
+    void clear();
+
+    /**
+     * Removes everything drawn and anything added to the scene to draw it, as another backend takes over.
+     */
+    void dispose();
+}
@@ -0,0 +1,501 @@
+package io.github.jameseec.treevisualize.view;
+
+import io.github.jameseec.treevisualize.model.AugmentedNode;
+import io.github.jameseec.treevisualize.model.Node;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.geometry.Bounds;
+import javafx.geometry.VPos;
+import javafx.scene.Group;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.Line;
+import javafx.scene.shape.Polygon;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Draws each node as a circle, a text and an edge added to contentPane.
+ * <p>
+ * Shapes are retained between updates, keyed by node identity: an update creates shapes for new nodes,
+ * removes those of nodes no longer in the tree and moves or restyles only the shapes whose node moved,
+ * changed value or changed color. Trees that copy nodes on change, such as persistent trees, get new shapes
+ * for the copied path only.
+ * <p>
+ * Given a viewport, only the nodes and edges in view have shapes. Every update and every change of view finds
+ * them through a {@link NodeIndex}; shapes of nodes that leave the view are hidden and kept in a pool, then
+ * reused for nodes that enter it, so panning neither creates nor removes scene graph nodes once the pool
+ * has filled. The viewport's zoom also sets the {@link LevelOfDetail}: subtrees too narrow to show get a glyph
+ * at their root and no shapes below it, and text too small to read is hidden.
+ */
+final class SceneGraphBackend implements RenderBackend {
+    private static final double NODE_RADIUS = TreeRenderer.NODE_RADIUS;
+    /** Most hidden shapes kept for reuse; shapes released beyond this are removed from the scene graph. */
+    private static final int POOL_LIMIT = 512;
+    private final TreeRenderer renderer;
+    private final Pane contentPane;
+    /** Viewport to draw the nodes in view of, or null to draw every node. */
+    private final ZoomPanPane viewport;
+    private final InvalidationListener viewListener = observable -> requestSync();
+    private final NodeIndex index = new NodeIndex();
+    /** Shapes drawn for each node in view, keyed by identity */
+    private final Map<Node, NodeShapes> shapes = new IdentityHashMap<>();
+    /** Edges in view, keyed by the identity of the child they lead to */
+    private final Map<Node, EdgeShape> edges = new IdentityHashMap<>();
+    private final ArrayDeque<NodeShapes> freeShapes = new ArrayDeque<>();
+    private final ArrayDeque<EdgeShape> freeEdges = new ArrayDeque<>();
+    // Layers keep edges below nodes and labels above them, whatever order shapes are added in
+    private final Group edgeLayer = new Group();
+    private final Group nodeLayer = new Group();
+    private final Group labelLayer = new Group();
+    /** Search and traversal labels, removed by the next update. */
+    private final Group overlayLayer = new Group();
+    /** Fill and stroke of nodes highlighted by the last search, restored by the next update. */
+    private final Map<Node, Color[]> highlights = new IdentityHashMap<>();
+    /** Search and traversal labels of the last update. */
+    private final Map<Node, String> labels = new IdentityHashMap<>();
+    /** Incremented by every update and change of view, to find the shapes it did not reach. */
+    private int generation;
+    private TreeLayout layout;
+    private boolean syncRequested;
+    /** Zoom of the last pass, and whether text was readable at it. */
+    private double zoom = 1;
+    private boolean readable = true;
+    /** Font of glyph labels, scaled to stay the same size on screen at the zoom of the last pass. */
+    private Font glyphFont = LevelOfDetail.GLYPH_FONT;
+    private final Text measureText = new Text();
+
+    /**
+     * Shapes drawn for one node, and the state of the node they were last drawn for.
+     */
+    private static final class NodeShapes {
+        final Circle circle;
+        final Text text;
+        Node node;
+        /** Subtree size label, or null while sizes are not shown. */
+        Text sizeLabel;
+        /** Search or traversal label, or null if the node has none. */
+        Text overlay;
+        /** Glyph drawn while the node's subtree is collapsed, and its label, or null until first collapsed. */
+        Polygon glyph;
+        Text glyphLabel;
+        int value;
+        io.github.jameseec.treevisualize.model.Color color;
+        boolean highlighted;
+        int labelledSize;
+        int generation;
+
+        NodeShapes(Circle circle, Text text) {
+            this.circle = circle;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Edge drawn to one child.
+     */
+    private static final class EdgeShape {
+        final Line line;
+        int generation;
+
+        EdgeShape(Line line) {
+            this.line = line;
+        }
+    }
+
+    /**
+     * @param viewport viewport to draw only the nodes in view of, or null to draw every node
+     */
+    SceneGraphBackend(TreeRenderer renderer, Pane contentPane, ZoomPanPane viewport) {
+        this.renderer = renderer;
+        this.contentPane = contentPane;
+        this.viewport = viewport;
+        // Circles and texts carry their node, so clicks are picked by the scene graph
+        nodeLayer.addEventHandler(MouseEvent.MOUSE_CLICKED, e -> {
+            if (e.isStillSincePress() && e.getTarget() instanceof javafx.scene.Node target
+                    && target.getUserData() instanceof Node node) {
+                renderer.nodeClicked(node);
+            }
+        });
+        if (viewport != null) {
+            viewport.addViewListener(viewListener);
+        }
+    }
+
+    @Override
+    public void draw(Node root, TreeLayout layout) {
+        if (edgeLayer.getParent() != contentPane) {
+            clear();
+            contentPane.getChildren().setAll(edgeLayer, nodeLayer, labelLayer, overlayLayer);
+        }
+        clearOverlays();
+        this.layout = layout;
+        index.setLayout(layout);
+        sync();
+    }
+
+    // Coalesces the view changes of one drag or scroll into one pass
+    private void requestSync() {
+        if (!syncRequested) {
+            syncRequested = true;
+            Platform.runLater(() -> {
+                syncRequested = false;
+                if (layout != null) {
+                    sync();
+                }
+            });
+        }
+    }
+
+    /**
+     * Updates the shapes of every node and edge in view, then releases the shapes of those it did not reach.
+     */
+    private void sync() {
+        generation++;
+        double minX = Double.NEGATIVE_INFINITY;
+        double minY = Double.NEGATIVE_INFINITY;
+        double maxX = Double.POSITIVE_INFINITY;
+        double maxY = Double.POSITIVE_INFINITY;
+        double minExtent = 0;
+        if (viewport != null) {
+            if (zoom != viewport.getZoom()) {
+                zoom = viewport.getZoom();
+                readable = LevelOfDetail.isTextReadable(zoom);
+                glyphFont = Font.font(LevelOfDetail.GLYPH_TEXT_PIXELS / zoom);
+                overlayLayer.setVisible(readable);
+            }
+            minExtent = LevelOfDetail.minExtent(zoom);
+            // Nodes centered just outside the view still show part of their circle or labels
+            Bounds visible = viewport.getVisibleContentBounds();
+            double margin = NODE_RADIUS * 4;
+            minX = visible.getMinX() - margin;
+            minY = visible.getMinY() - margin;
+            maxX = visible.getMaxX() + margin;
+            maxY = visible.getMaxY() + margin;
+        }
+        index.forEachNode(minX, minY, maxX, maxY, minExtent, this::drawNode);
+        index.forEachEdge(minX, minY, maxX, maxY, minExtent, this::drawEdge);
+        releaseUnreached();
+    }
+
+    private void drawNode(Node node, double x, double y, boolean collapsed) {
+        NodeShapes drawn = shapes.get(node);
+        boolean moved = true;
+        if (drawn == null) {
+            drawn = drawNodeCircleAndText(node, x, y);
+        } else {
+            moved = updateNode(drawn, x, y);
+        }
+        drawn.generation = generation;
+        drawn.circle.setVisible(!collapsed);
+        drawn.text.setVisible(readable && !collapsed);
+        updateSubtreeSizeLabel(drawn, moved);
+        if (drawn.sizeLabel != null) {
+            drawn.sizeLabel.setVisible(readable && !collapsed);
+        }
+        updateGlyph(drawn, collapsed, x, y);
+        String label = labels.get(node);
+        if (label != null && drawn.overlay == null) {
+            drawn.overlay = drawLabel(label, x, y);
+        }
+    }
+
+    /**
+     * Releases the shapes of nodes and edges that the last pass did not reach, hiding them for reuse
+     * while the pools have room.
+     */
+    private void releaseUnreached() {
+        Set<javafx.scene.Node> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Iterator<NodeShapes> it = shapes.values().iterator(); it.hasNext(); ) {
+            NodeShapes drawn = it.next();
+            if (drawn.generation == generation) {
+                continue;
+            }
+            it.remove();
+            if (drawn.overlay != null) {
+                overlayLayer.getChildren().remove(drawn.overlay);
+                drawn.overlay = null;
+            }
+            if (freeShapes.size() < POOL_LIMIT) {
+                drawn.node = null;
+                drawn.circle.setVisible(false);
+                drawn.text.setVisible(false);
+                if (drawn.sizeLabel != null) {
+                    drawn.sizeLabel.setVisible(false);
+                }
+                updateGlyph(drawn, false, 0, 0);
+                freeShapes.push(drawn);
+                continue;
+            }
+            removed.add(drawn.circle);
+            removed.add(drawn.text);
+            if (drawn.sizeLabel != null) {
+                removed.add(drawn.sizeLabel);
+            }
+            if (drawn.glyph != null) {
+                removed.add(drawn.glyph);
+                removed.add(drawn.glyphLabel);
+            }
+        }
+        for (Iterator<EdgeShape> it = edges.values().iterator(); it.hasNext(); ) {
+            EdgeShape edge = it.next();
+            if (edge.generation == generation) {
+                continue;
+            }
+            it.remove();
+            if (freeEdges.size() < POOL_LIMIT) {
+                edge.line.setVisible(false);
+                freeEdges.push(edge);
+            } else {
+                removed.add(edge.line);
+            }
+        }
+        if (!removed.isEmpty()) {
+            edgeLayer.getChildren().removeAll(removed);
+            nodeLayer.getChildren().removeAll(removed);
+            labelLayer.getChildren().removeAll(removed);
+        }
+    }
+
+    // Keeps the subtree size below the node, clear of the edges leading to its children
+    private void updateSubtreeSizeLabel(NodeShapes drawn, boolean moved) {
+        if (!renderer.isShowSubtreeSizes() || !(drawn.node instanceof AugmentedNode augmented)) {
+            if (drawn.sizeLabel != null) {
+                labelLayer.getChildren().remove(drawn.sizeLabel);
+                drawn.sizeLabel = null;
+            }
+            return;
+        }
+        Text label = drawn.sizeLabel;
+        if (label == null) {
+            label = new Text();
+            label.setTextOrigin(VPos.TOP);
+            label.setFill(Color.DIMGREY);
+            drawn.sizeLabel = label;
+            drawn.labelledSize = -1;
+            labelLayer.getChildren().add(label);
+        }
+        label.setVisible(true);
+        if (drawn.labelledSize != augmented.getSubtreeSize()) {
+            drawn.labelledSize = augmented.getSubtreeSize();
+            label.setText(Integer.toString(drawn.labelledSize));
+            moved = true;
+        }
+        if (moved) {
+            label.setX(drawn.circle.getCenterX() - label.getBoundsInLocal().getWidth() / 2);
+            label.setY(drawn.circle.getCenterY() + NODE_RADIUS + 2);
+        }
+    }
+
+    /**
+     * Shows the glyph of a collapsed subtree at (x, y), or hides it if the subtree is not collapsed.
+     * Glyph labels are sized to the zoom, so they are placed again on every pass.
+     */
+    private void updateGlyph(NodeShapes drawn, boolean collapsed, double x, double y) {
+        if (!collapsed) {
+            if (drawn.glyph != null) {
+                drawn.glyph.setVisible(false);
+                drawn.glyphLabel.setVisible(false);
+            }
+            return;
+        }
+        if (drawn.glyph == null) {
+            drawn.glyph = new Polygon();
+            drawn.glyph.setFill(Color.GAINSBORO);
+            drawn.glyph.setStroke(Color.GREY);
+            drawn.glyph.setStrokeWidth(2);
+            drawn.glyphLabel = new Text();
+            drawn.glyphLabel.setTextOrigin(VPos.BOTTOM);
+            nodeLayer.getChildren().add(drawn.glyph);
+            labelLayer.getChildren().add(drawn.glyphLabel);
+        }
+        double[] points = LevelOfDetail.glyphPoints(layout, drawn.node, x, y);
+        drawn.glyph.setUserData(drawn.node);
+        drawn.glyph.getPoints().setAll(points[0], points[1], points[2], points[3], points[4], points[5]);
+        drawn.glyph.setVisible(true);
+        String label = LevelOfDetail.glyphLabel(layout, drawn.node, (points[2] - points[4]) * zoom, measureText);
+        Text text = drawn.glyphLabel;
+        text.setVisible(label != null);
+        if (label != null) {
+            text.setFont(glyphFont);
+            text.setText(label);
+            text.setX((points[2] + points[4]) / 2 - text.getLayoutBounds().getWidth() / 2);
+            text.setY(points[3] - 1 / zoom);
+        }
+    }
+
+    @Override
+    public void clear() {
+        contentPane.getChildren().clear();
+        edgeLayer.getChildren().clear();
+        nodeLayer.getChildren().clear();
+        labelLayer.getChildren().clear();
+        overlayLayer.getChildren().clear();
+        shapes.clear();
+        edges.clear();
+        freeShapes.clear();
+        freeEdges.clear();
+        highlights.clear();
+        labels.clear();
+        layout = null;
+        index.clear();
+    }
+
+    @Override
+    public void dispose() {
+        clear();
+        if (viewport != null) {
+            viewport.removeViewListener(viewListener);
+        }
+    }
+
+    // Removes search and traversal labels, and restores the style of highlighted nodes
+    private void clearOverlays() {
+        overlayLayer.getChildren().clear();
+        highlights.clear();
+        labels.clear();
+        for (NodeShapes drawn : shapes.values()) {
+            drawn.overlay = null;
+            if (drawn.highlighted) {
+                applyStyle(drawn);
+            }
+        }
+    }
+
+    @Override
+    public void highlight(Node node, Color fill, Color stroke) {
+        highlights.put(node, new Color[] {fill, stroke});
+        NodeShapes drawn = shapes.get(node);
+        if (drawn != null) {
+            applyStyle(drawn);
+        }
+    }
+
+    @Override
+    public void label(Node node, String text) {
+        labels.put(node, text);
+        NodeShapes drawn = shapes.get(node);
+        if (drawn != null && drawn.overlay == null) {
+            drawn.overlay = drawLabel(text, drawn.circle.getCenterX(), drawn.circle.getCenterY());
+        }
+    }
+
+    private Text drawLabel(String text, double x, double y) {
+        Text label = new Text(text);
+        label.setTextOrigin(VPos.CENTER);
+        label.setX(x + NODE_RADIUS + 3);
+        label.setY(y);
+        overlayLayer.getChildren().add(label);
+        return label;
+    }
+
+    /**
+     * Draws or moves the edge leading to child.
+     */
+    private void drawEdge(Node child, double fromX, double fromY, double toX, double toY) {
+        EdgeShape edge = edges.get(child);
+        if (edge == null) {
+            edge = freeEdges.poll();
+            if (edge == null) {
+                Line line = new Line();
+                line.setStroke(Color.BLACK);
+                line.setStrokeWidth(2);
+                edge = new EdgeShape(line);
+                edgeLayer.getChildren().add(line);
+            }
+            edge.line.setVisible(true);
+            edges.put(child, edge);
+        }
+        edge.generation = generation;
+        Line line = edge.line;
+        if (line.getStartX() != fromX || line.getStartY() != fromY
+                || line.getEndX() != toX || line.getEndY() != toY) {
+            line.setStartX(fromX);
+            line.setStartY(fromY);
+            line.setEndX(toX);
+            line.setEndY(toY);
+        }
+    }
+
+    /**
+     * Draws a single node (circle + text), reusing pooled shapes if there are any.
+     * Stores the node's shapes into the map.
+     *
+     * @param node the node to draw
+     * @param x the center x-coordinate of the node.
+     * @param y the center y-coordinate of the node.
+     */
+    private NodeShapes drawNodeCircleAndText(Node node, double x, double y) {
+        NodeShapes drawn = freeShapes.poll();
+        if (drawn == null) {
+            Circle circle = new Circle(NODE_RADIUS);
+            Text nodeVal = new Text();
+            nodeVal.setTextAlignment(TextAlignment.CENTER);
+            nodeVal.setTextOrigin(VPos.CENTER);
+            drawn = new NodeShapes(circle, nodeVal);
+            nodeLayer.getChildren().addAll(circle, nodeVal);
+        }
+        drawn.node = node;
+        drawn.value = node.getValue();
+        drawn.labelledSize = -1;
+        drawn.circle.setUserData(node);
+        drawn.text.setUserData(node);
+        drawn.circle.setCenterX(x);
+        drawn.circle.setCenterY(y);
+        drawn.text.setText(Integer.toString(drawn.value));
+        drawn.text.setX(x - drawn.text.getBoundsInLocal().getWidth() / 2);
+        drawn.text.setY(y);
+        drawn.circle.setVisible(true);
+        drawn.text.setVisible(true);
+        applyStyle(drawn);
+        shapes.put(node, drawn);
+        return drawn;
+    }
+
+    /**
+     * Moves the shapes of a node drawn before to (x, y), and updates them if its value or color changed.
+     *
+     * @return true if the node's value text moved
+     */
+    private boolean updateNode(NodeShapes drawn, double x, double y) {
+        Node node = drawn.node;
+        boolean relabel = drawn.value != node.getValue();
+        if (relabel) {
+            drawn.value = node.getValue();
+            drawn.text.setText(Integer.toString(drawn.value));
+        }
+        boolean moved = relabel || drawn.circle.getCenterX() != x || drawn.circle.getCenterY() != y;
+        if (moved) {
+            drawn.circle.setCenterX(x);
+            drawn.circle.setCenterY(y);
+            drawn.text.setX(x - drawn.text.getBoundsInLocal().getWidth() / 2);
+            drawn.text.setY(y);
+        }
+        if (drawn.color != node.getColor() || drawn.highlighted != highlights.containsKey(node)) {
+            applyStyle(drawn);
+        }
+        return moved;
+    }
+
+    // Styles a node's shapes as the renderer does, then applies any search highlight over that
+    private void applyStyle(NodeShapes drawn) {
+        drawn.color = drawn.node.getColor();
+        renderer.applyStyle(drawn.node, drawn.circle, drawn.text);
+        Color[] highlight = highlights.get(drawn.node);
+        drawn.highlighted = highlight != null;
+        if (highlight != null) {
+            drawn.circle.setFill(highlight[0]);
+            drawn.circle.setStroke(highlight[1]);
+        }
+    }
+}
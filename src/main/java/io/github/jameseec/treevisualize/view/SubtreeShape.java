@@ -0,0 +1,69 @@
+package io.github.jameseec.treevisualize.view;
+
+/**
+ * Shape of a laid out subtree: where its root places its children and how much horizontal space the subtree takes
+ * up to either side of its root, all relative to the root, along with its size and height.
+ * Measured by a {@link LayoutStrategy} from the shapes of the child subtrees.
+ */
+public class SubtreeShape {
+    private final int size;
+    private final int height;
+    private final double leftChildOffset;
+    private final double rightChildOffset;
+    private final double leftExtent;
+    private final double rightExtent;
+
+    /**
+     * Constructs the shape of a subtree from the shapes of its child subtrees.
+     *
+     * @param left shape of the left subtree, or null if there is none
+     * @param right shape of the right subtree, or null if there is none
+     * @param leftChildOffset x-coordinate of the left child relative to the root, 0 if there is none
+     * @param rightChildOffset x-coordinate of the right child relative to the root, 0 if there is none
+     * @param leftExtent distance from the root to the left edge of the space the subtree takes up
+     * @param rightExtent distance from the root to the right edge of the space the subtree takes up
+     */
+    public SubtreeShape(SubtreeShape left, SubtreeShape right, double leftChildOffset, double rightChildOffset,
+                        double leftExtent, double rightExtent) {
+        this.size = 1 + ((left == null) ? 0 : left.size) + ((right == null) ? 0 : right.size);
+        this.height = 1 + Math.max((left == null) ? -1 : left.height, (right == null) ? -1 : right.height);
+        this.leftChildOffset = leftChildOffset;
+        this.rightChildOffset = rightChildOffset;
+        this.leftExtent = leftExtent;
+        this.rightExtent = rightExtent;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the height of the subtree, 0 for a leaf.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    public double getLeftChildOffset() {
+        return leftChildOffset;
+    }
+
+    public double getRightChildOffset() {
+        return rightChildOffset;
+    }
+
+    public double getLeftExtent() {
+        return leftExtent;
+    }
+
+    public double getRightExtent() {
+        return rightExtent;
+    }
+
+    /**
+     * Gets the width of the space the subtree takes up, which is never less than that of any subtree within it.
+     */
+    public double getExtent() {
+        return leftExtent + rightExtent;
+    }
+}
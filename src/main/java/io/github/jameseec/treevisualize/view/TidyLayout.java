@@ -0,0 +1,124 @@
+package io.github.jameseec.treevisualize.view;
+
+import io.github.jameseec.treevisualize.model.Node;
+
+/**
+ * Reingold–Tilford layout: each node is centered over its children, and the two subtrees of a node are pushed
+ * only as far apart as needed to keep nodes on every level they share at least {@code SEPARATION} apart.
+ * A single child sits half that distance to its side of its parent, so left children stay left.
+ * <p>
+ * Each subtree keeps its left and right contours, the outermost node on each of its levels, as linked lists that
+ * share their lower levels with the contour of the taller child subtree. Measuring a node then walks and copies
+ * only as many levels as its shorter subtree has, which adds up to linear time over the whole tree, as in
+ * Walker's threaded formulation, while leaving the shapes of child subtrees unchanged.
+ */
+final class TidyLayout implements LayoutStrategy {
+    /** Closest two nodes on one level may be, center to center. */
+    private static final double SEPARATION = TreeLayout.BASE_WIDTH_UNIT;
+    private static final TidyShape LEAF = new TidyShape(null, null, 0, 0, SEPARATION / 2, SEPARATION / 2,
+            new Contour(0, null), new Contour(0, null));
+
+    /**
+     * One level of a contour: the x-coordinate of the outermost node on the level, relative to the outermost
+     * node on the level above, or to the root for the first level.
+     */
+    private record Contour(double delta, Contour next) {
+    }
+
+    private static final class TidyShape extends SubtreeShape {
+        final Contour left;
+        final Contour right;
+
+        TidyShape(SubtreeShape leftShape, SubtreeShape rightShape, double leftChildOffset, double rightChildOffset,
+                  double leftExtent, double rightExtent, Contour left, Contour right) {
+            super(leftShape, rightShape, leftChildOffset, rightChildOffset, leftExtent, rightExtent);
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    @Override
+    public SubtreeShape measure(Node node, SubtreeShape leftShape, SubtreeShape rightShape) {
+        TidyShape left = (TidyShape) leftShape;
+        TidyShape right = (TidyShape) rightShape;
+        double half = SEPARATION / 2;
+        if (left == null && right == null) {
+            return LEAF;
+        }
+        if (right == null) {
+            return new TidyShape(left, null, -half, 0,
+                    left.getLeftExtent() + half, Math.max(half, left.getRightExtent() - half),
+                    new Contour(0, new Contour(-half, left.left.next())),
+                    new Contour(0, new Contour(-half, left.right.next())));
+        }
+        if (left == null) {
+            return new TidyShape(null, right, 0, half,
+                    Math.max(half, right.getLeftExtent() - half), right.getRightExtent() + half,
+                    new Contour(0, new Contour(half, right.left.next())),
+                    new Contour(0, new Contour(half, right.right.next())));
+        }
+        double offset = separation(left.right, right.left) / 2;
+        return new TidyShape(left, right, -offset, offset,
+                Math.max(left.getLeftExtent() + offset, right.getLeftExtent() - offset),
+                Math.max(right.getRightExtent() + offset, left.getRightExtent() - offset),
+                outline(left.left, -offset, left.getHeight(), right.left, offset, right.getHeight()),
+                outline(right.right, offset, right.getHeight(), left.right, -offset, left.getHeight()));
+    }
+
+    /**
+     * Gets the distance between the roots of two subtrees side by side that keeps their nodes at least
+     * {@code SEPARATION} apart on every level they share.
+     *
+     * @param leftRight right contour of the left subtree
+     * @param rightLeft left contour of the right subtree
+     */
+    private static double separation(Contour leftRight, Contour rightLeft) {
+        double distance = SEPARATION;
+        double leftX = 0;
+        double rightX = 0;
+        for (Contour l = leftRight.next(), r = rightLeft.next(); l != null && r != null; l = l.next(), r = r.next()) {
+            leftX += l.delta();
+            rightX += r.delta();
+            distance = Math.max(distance, leftX - rightX + SEPARATION);
+        }
+        return distance;
+    }
+
+    /**
+     * Builds the contour on one side of a node from those of its children on that side: the near child's,
+     * continued by the far child's below the levels of the near subtree. Shares the near contour if that subtree
+     * is at least as tall; otherwise copies it and joins the far contour's lower levels onto the copy.
+     *
+     * @param near contour of the child on this side
+     * @param nearOffset x-coordinate of the child on this side relative to the node
+     * @param nearHeight height of the subtree on this side
+     * @param far contour on the same side of the other child
+     * @param farOffset x-coordinate of the other child relative to the node
+     * @param farHeight height of the other subtree
+     */
+    private static Contour outline(Contour near, double nearOffset, int nearHeight,
+                                   Contour far, double farOffset, int farHeight) {
+        if (nearHeight >= farHeight) {
+            return new Contour(0, new Contour(nearOffset, near.next()));
+        }
+        double[] deltas = new double[nearHeight + 1];
+        deltas[0] = nearOffset;
+        double nearX = nearOffset;
+        for (int level = 1; level <= nearHeight; level++) {
+            near = near.next();
+            deltas[level] = near.delta();
+            nearX += near.delta();
+        }
+        // Find the far contour on the first level below the near subtree
+        double farX = farOffset;
+        for (int level = 1; level <= nearHeight + 1; level++) {
+            far = far.next();
+            farX += far.delta();
+        }
+        Contour joined = new Contour(farX - nearX, far.next());
+        for (int level = nearHeight; level >= 0; level--) {
+            joined = new Contour(deltas[level], joined);
+        }
+        return new Contour(0, joined);
+    }
+}
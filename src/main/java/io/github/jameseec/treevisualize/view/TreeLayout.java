@@ -0,0 +1,289 @@
+package io.github.jameseec.treevisualize.view;
+
+import io.github.jameseec.treevisualize.model.Node;
+import io.github.jameseec.treevisualize.model.TreeEvent;
+import javafx.geometry.Point2D;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes node positions for drawing a tree, independently of any scene graph.
+ * A {@link LayoutStrategy} measures the shape of every subtree from the shapes of its children,
+ * by default treating missing children as phantom nodes to maintain balanced spacing.
+ * <p>
+ * Shapes are kept between layouts, and a subtree is measured again only if the children of its root changed or
+ * its root was marked through {@link #invalidate} or {@link #onTreeEvent}. After an insert or delete that is the
+ * path from the root to the change, plus any rotated nodes, so laying out a balanced tree again measures
+ * O(log n) subtrees. Persistent trees need no marks, as they copy every node whose subtree changes.
+ * <p>
+ * Nodes are not placed up front: each shape holds the offsets of its root's children, so the position of a node
+ * is the sum of the offsets on the path down to it. {@link #getPosition} finds that path by value, as trees are
+ * drawn in search order, and {@link NodeIndex} places only the nodes of the subtrees within a view. A layout
+ * after a change thus costs only the subtrees measured again, however large the tree.
+ */
+public class TreeLayout {
+    /** Vertical spacing between tree levels in pixels. */
+    public static final double VERTICAL_SPACING = 70;
+    /** Base width unit for spacing. */
+    public static final double BASE_WIDTH_UNIT = 60;
+    private final LayoutStrategy strategy;
+    /** Shape of the subtree of each node, from the layout that last measured it. */
+    private Map<Node, Measured> shapes = new HashMap<>();
+    /** Nodes whose subtrees changed since the last layout without their children changing. */
+    private final Set<Node> changed = new HashSet<>();
+    private int measuredCount;
+    private Node root;
+    private double rootX;
+    private double rootY;
+    /** Nodes of the last layout in pre-order, listed on first use, or null until then. */
+    private List<Node> nodes;
+
+    /**
+     * Shape of a subtree, along with the children its root had when it was measured.
+     */
+    private record Measured(SubtreeShape shape, Node left, Node right) {
+    }
+
+    /**
+     * Constructs a layout with phantom nodes for missing children.
+     */
+    public TreeLayout() {
+        this(LayoutStrategy.PHANTOM);
+    }
+
+    public TreeLayout(LayoutStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public LayoutStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Lays out the tree rooted at root with the root at (rootX, rootY). Replaces any previous layout.
+     * Anchoring the root rather than the middle of the drawing keeps nodes where they were after a change,
+     * unless the width of a subtree between them and the root changed. Reuses the shapes of subtrees that did
+     * not change since they were last measured.
+     *
+     * @param root root of the tree, or null for an empty tree
+     * @param rootX x-coordinate of the root
+     * @param rootY y-coordinate of the root
+     */
+    public void compute(Node root, double rootX, double rootY) {
+        this.root = root;
+        this.rootX = rootX;
+        this.rootY = rootY;
+        nodes = null;
+        measuredCount = 0;
+        if (root == null) {
+            shapes.clear();
+            changed.clear();
+            return;
+        }
+        measureSubtrees(root);
+        changed.clear();
+        // Forget the shapes of nodes no longer in the tree once they outnumber those in it, which takes time
+        // linear in the tree at most once per as many removed nodes
+        if (shapes.size() > 2 * getSubtreeSize(root)) {
+            Map<Node, Measured> live = new HashMap<>();
+            for (Node node : getNodes()) {
+                live.put(node, shapes.get(node));
+            }
+            shapes = live;
+        }
+    }
+
+    /**
+     * Marks the subtree rooted at node as changed, so that the next layout measures it again.
+     * Trees that modify nodes in place must mark every node on the path to a change whose children stayed
+     * the same, which {@link #onTreeEvent} does for them.
+     *
+     * @param node root of the changed subtree, or null to do nothing
+     */
+    public void invalidate(Node node) {
+        if (node != null) {
+            changed.add(node);
+        }
+    }
+
+    /**
+     * Forgets the shapes of all subtrees, so that the next layout measures the whole tree.
+     */
+    public void invalidateAll() {
+        shapes.clear();
+        changed.clear();
+    }
+
+    /**
+     * Marks the nodes a step of an operation may have changed the subtree of: the nodes it descended through,
+     * linked children to and rotated. Can be set as the listener of a tree that modifies nodes in place.
+     */
+    public void onTreeEvent(TreeEvent event, Node node, Node other) {
+        switch (event) {
+            case VISIT, LINK -> invalidate(node);
+            case ROTATE_LEFT, ROTATE_RIGHT -> {
+                invalidate(node);
+                invalidate(other);
+            }
+            default -> {
+                // Values, heights and colors do not affect the layout
+            }
+        }
+    }
+
+    /**
+     * Gets the number of subtrees the last layout measured rather than reusing their shapes.
+     */
+    public int getMeasuredCount() {
+        return measuredCount;
+    }
+
+    /**
+     * Gets the center position of node from the last layout, or null if it was not laid out. Walks down to node
+     * by its value, summing the offsets of the nodes on the way, so takes time proportional to its depth.
+     */
+    public Point2D getPosition(Node node) {
+        double x = rootX;
+        double y = rootY;
+        Node current = root;
+        while (current != null && current != node) {
+            SubtreeShape shape = getShape(current);
+            if (node.getValue() < current.getValue()) {
+                x += shape.getLeftChildOffset();
+                current = current.getLeftChild();
+            } else {
+                x += shape.getRightChildOffset();
+                current = current.getRightChild();
+            }
+            y += VERTICAL_SPACING;
+        }
+        return (current == null) ? null : new Point2D(x, y);
+    }
+
+    /**
+     * Gets the nodes of the last layout in pre-order. Lists them on the first call after each layout, in time
+     * linear in the size of the tree.
+     */
+    public List<Node> getNodes() {
+        if (nodes == null) {
+            List<Node> preOrder = new ArrayList<>();
+            ArrayDeque<Node> stack = new ArrayDeque<>();
+            if (root != null) {
+                stack.push(root);
+            }
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                preOrder.add(node);
+                if (node.getRightChild() != null) {
+                    stack.push(node.getRightChild());
+                }
+                if (node.getLeftChild() != null) {
+                    stack.push(node.getLeftChild());
+                }
+            }
+            nodes = Collections.unmodifiableList(preOrder);
+        }
+        return nodes;
+    }
+
+    /**
+     * Gets the root of the last layout, or null if the tree was empty.
+     */
+    Node getRoot() {
+        return root;
+    }
+
+    double getRootX() {
+        return rootX;
+    }
+
+    double getRootY() {
+        return rootY;
+    }
+
+    /**
+     * Gets the shape of the subtree rooted at node from the last layout.
+     */
+    public SubtreeShape getShape(Node node) {
+        return shapes.get(node).shape();
+    }
+
+    /**
+     * Gets the x-coordinate of the left edge of the space taken up by the subtree rooted at node, in time
+     * proportional to its depth.
+     */
+    public double getSubtreeLeft(Node node) {
+        return getPosition(node).getX() - getShape(node).getLeftExtent();
+    }
+
+    /**
+     * Gets the width of the space taken up by the subtree rooted at node, in pixels. Never less than
+     * that of any subtree within it.
+     */
+    public double getSubtreeExtent(Node node) {
+        return getShape(node).getExtent();
+    }
+
+    /**
+     * Gets the number of nodes in the subtree rooted at node.
+     */
+    public int getSubtreeSize(Node node) {
+        return getShape(node).getSize();
+    }
+
+    /**
+     * Gets the height of the subtree rooted at node, 0 for a leaf.
+     */
+    public int getSubtreeHeight(Node node) {
+        return getShape(node).getHeight();
+    }
+
+    /**
+     * Measures the shapes of all changed subtrees in a single post-order pass, skipping those that are unchanged.
+     * Uses an explicit stack so that degenerate trees cannot overflow the call stack.
+     */
+    private void measureSubtrees(Node root) {
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        Node lastVisited = null;
+        Node current = root;
+        while (current != null || !stack.isEmpty()) {
+            if (current != null) {
+                if (isMeasured(current)) {
+                    lastVisited = current;
+                    current = null;
+                } else {
+                    stack.push(current);
+                    current = current.getLeftChild();
+                }
+                continue;
+            }
+            Node top = stack.peek();
+            if (top.getRightChild() != null && top.getRightChild() != lastVisited) {
+                current = top.getRightChild();
+                continue;
+            }
+            stack.pop();
+            Node leftChild = top.getLeftChild();
+            Node rightChild = top.getRightChild();
+            SubtreeShape left = (leftChild == null) ? null : getShape(leftChild);
+            SubtreeShape right = (rightChild == null) ? null : getShape(rightChild);
+            shapes.put(top, new Measured(strategy.measure(top, left, right), leftChild, rightChild));
+            measuredCount++;
+            lastVisited = top;
+        }
+    }
+
+    // Whether the shape measured for node still holds: it was not marked and has the same children
+    private boolean isMeasured(Node node) {
+        Measured measured = shapes.get(node);
+        return measured != null && measured.left() == node.getLeftChild()
+                && measured.right() == node.getRightChild() && !changed.contains(node);
+    }
+}
@@ -1,75 +1,153 @@
 package io.github.jameseec.treevisualize.view;
 
+import io.github.jameseec.treevisualize.model.ArenaTree;
+import io.github.jameseec.treevisualize.model.BTree;
+import io.github.jameseec.treevisualize.model.InOrderIterator;
 import io.github.jameseec.treevisualize.model.Node;
+import io.github.jameseec.treevisualize.model.PersistentTree;
+import io.github.jameseec.treevisualize.model.PostOrderIterator;
+import io.github.jameseec.treevisualize.model.PreOrderIterator;
 import io.github.jameseec.treevisualize.model.Tree;
-import javafx.geometry.Point2D;
-import javafx.geometry.VPos;
+import io.github.jameseec.treevisualize.model.TreeListener;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
-import javafx.scene.shape.Line;
 import javafx.scene.text.Text;
-import javafx.scene.text.TextAlignment;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
 
 /**
  * Base class for tree renderers.
  * Abstracts shared rendering operations between all trees, allowing tree-specific renderers to add
  * tree type-specific features later.
+ * <p>
+ * Renderers lay the tree out, then leave drawing to a backend: by default shapes retained in contentPane
+ * between updates, or for large trees a canvas over a {@link ZoomPanPane}. Given the pane showing them,
+ * both only draw the nodes in view. The layout keeps the shapes of unchanged subtrees between updates; for trees
+ * that modify nodes in place, the renderer listens to the tree to learn which subtrees changed.
  */
 public abstract class TreeRenderer {
-    private static final double NODE_RADIUS = 20;
-    /** Vertical spacing between tree levels in pixels. */
-    private static final double VERTICAL_SPACING = 70;
-    /** Base width unit for spacing. */
-    private static final double BASE_WIDTH_UNIT = 60;
+    static final double NODE_RADIUS = 20;
     private static final double startY = NODE_RADIUS * 2 + 20;
-    /** Map to store positions of nodes on contentPane */
-    private Map<Integer, Point2D> nodePositions;    // node's value : center position
-    private Map<Integer, Circle> nodeCircles;       // node's value : node circle
+    /** Positions of nodes on contentPane from the last update */
+    private TreeLayout layout;
+    private RenderBackend backend;
+    /** Viewport that the scene graph backend draws the nodes in view of, or null to draw every node */
+    private ZoomPanPane cullingViewport;
+    /** Root read from the tree by the last update, so that overlays match what was drawn. */
+    private Node drawnRoot;
+    /** Whether to label nodes of augmented trees with the size of their subtree */
+    private boolean showSubtreeSizes;
+    private IntConsumer onNodeClicked;
+    /** Marks the subtrees that operations change in the layout, or null if the tree replaces changed nodes. */
+    private final TreeListener layoutListener;
     protected final Tree tree;
     protected Pane contentPane;
-    /** Cache for subtree widths to avoid recalculation. */
-    private Map<Node, Integer> widthCache;
 
     protected TreeRenderer(Pane contentPane, Tree tree) {
         this.contentPane = contentPane;
         this.tree = tree;
-        nodePositions = new HashMap<>();
-        nodeCircles = new HashMap<>();
+        layout = new TreeLayout();
+        backend = new SceneGraphBackend(this, contentPane, null);
+        // Persistent trees copy every node whose subtree changes, and the others hand out fresh copies
+        if (tree instanceof PersistentTree || tree instanceof BTree || tree instanceof ArenaTree) {
+            layoutListener = null;
+        } else {
+            layoutListener = (event, node, other) -> layout.onTreeEvent(event, node, other);
+            tree.setListener(layoutListener);
+        }
     }
 
     /**
-     * Updates the pane by clearing existing content and redrawing all nodes.
+     * Updates the pane to show the tree. In the scene graph, changes only the shapes of nodes that were added,
+     * removed, moved or restyled since the last update.
      */
     public void updatePane() {
-        clearContent();
-        if (tree.getRoot() != null) {
-            drawTree();
+        drawnRoot = tree.getRoot();
+        layout.compute(drawnRoot, contentPane.getWidth() / 2, startY);
+        backend.draw(drawnRoot, layout);
+    }
+
+    /**
+     * Sets whether to draw into a canvas over viewport, which only draws the nodes in view and keeps the scene
+     * graph small however large the tree, instead of adding shapes to contentPane. Takes effect on the next
+     * update.
+     *
+     * @param viewport the pane showing contentPane, or null to draw into contentPane
+     */
+    public void setCanvasViewport(ZoomPanPane viewport) {
+        backend.dispose();
+        backend = (viewport == null)
+                ? new SceneGraphBackend(this, contentPane, cullingViewport)
+                : new CanvasBackend(this, viewport);
+    }
+
+    /**
+     * Sets the viewport showing contentPane, so that only nodes and edges in view get shapes, which are
+     * recycled as the view is zoomed and panned. Takes effect on the next update unless drawing into a canvas,
+     * which always draws only what is in view.
+     *
+     * @param viewport the pane showing contentPane, or null to give every node shapes
+     */
+    public void setCullingViewport(ZoomPanPane viewport) {
+        cullingViewport = viewport;
+        if (backend instanceof SceneGraphBackend) {
+            backend.dispose();
+            backend = new SceneGraphBackend(this, contentPane, viewport);
         }
     }
 
     /**
-     * Draws the tree by pre-calculating all subtree widths and calls recursive helper.
-     * Highlights nodes and annotates with search order if searchOrder is not null.
+     * Removes everything this renderer drew, in contentPane or over a viewport, before another renderer
+     * takes its place.
      */
-    private void drawTree() {
-        // Pre-calculate all subtree widths once
-        widthCache = new HashMap<>();
-        calculateAndCacheWidths(tree.getRoot());
+    public void dispose() {
+        backend.dispose();
+        drawnRoot = null;
+        if (layoutListener != null && tree.getListener() == layoutListener) {
+            tree.setListener(null);
+        }
+    }
 
-        // Calculate total width needed for the entire tree
-        int totalWidth = widthCache.get(tree.getRoot());
-        double treePixelWidth = totalWidth * BASE_WIDTH_UNIT;
+    /**
+     * Sets how nodes are spaced horizontally from the next update on.
+     *
+     * @param strategy {@link LayoutStrategy#PHANTOM} or {@link LayoutStrategy#TIDY}, or another strategy
+     */
+    public void setLayoutStrategy(LayoutStrategy strategy) {
+        if (strategy != layout.getStrategy()) {
+            layout = new TreeLayout(strategy);
+        }
+    }
 
-        double centerX = contentPane.getWidth() / 2;
-        double startX = centerX - treePixelWidth / 2;
+    /**
+     * Sets the handler called with the value of a node when it is clicked without dragging.
+     *
+     * @param onNodeClicked the handler, or null for none
+     */
+    public void setOnNodeClicked(IntConsumer onNodeClicked) {
+        this.onNodeClicked = onNodeClicked;
+    }
+
+    void nodeClicked(Node node) {
+        if (onNodeClicked != null) {
+            onNodeClicked.accept(node.getValue());
+        }
+    }
 
-        // Draw the tree starting from calculated position
-        drawSubtree(tree.getRoot(), startX, startY);
+    /**
+     * Sets whether nodes are labelled with the size of their subtree on the next update.
+     * Only applies to trees created with {@link io.github.jameseec.treevisualize.model.SubtreeAggregates}.
+     */
+    public void setShowSubtreeSizes(boolean showSubtreeSizes) {
+        this.showSubtreeSizes = showSubtreeSizes;
+    }
+
+    boolean isShowSubtreeSizes() {
+        return showSubtreeSizes;
     }
 
     /**
@@ -77,9 +155,9 @@ public abstract class TreeRenderer {
      * Does not reset current tree.
      */
     public void clearContent() {
-        contentPane.getChildren().clear();
-        nodePositions = new HashMap<>();
-        nodeCircles = new HashMap<>();
+        backend.clear();
+        drawnRoot = null;
+        layout.compute(null, 0, 0);
     }
 
     /**
@@ -91,225 +169,85 @@ public abstract class TreeRenderer {
     public void showSearchPath(int val) {
         // To render search numbers:
         updatePane();
-        List<Node> pathList = this.tree.findWithPath(val);
-        Map<Node, Integer> searchOrder = new HashMap<>();
-        for (int i = 0; i < pathList.size(); i++) {
-            searchOrder.put(pathList.get(i), i + 1);
-        }
-        renderSearch(searchOrder, tree.getRoot(), val);
+        renderSearch(drawnRoot, val);
     }
 
     public void showPreOrderTraversal() {
         updatePane();
-        int[] visitCount = new int[] {0};
-        renderPreOrderTraversal(tree.getRoot(), visitCount);
+        renderTraversal(new PreOrderIterator(drawnRoot));
     }
 
     public void showInOrderTraversal() {
         updatePane();
-        int[] visitCount = new int[] {0};
-        renderInOrderTraversal(tree.getRoot(), visitCount);
+        renderTraversal(new InOrderIterator(drawnRoot));
     }
 
     public void showPostOrderTraversal() {
         updatePane();
-        int[] visitCount = new int[] {0};
-        renderPostOrderTraversal(tree.getRoot(), visitCount);
+        renderTraversal(new PostOrderIterator(drawnRoot));
     }
 
-
-    private void renderPreOrderTraversal(Node node, int[] visitCount) {
-        if (node != null) {
-            visitCount[0]++;
-            drawNodeOrderLabel(node, Integer.toString(visitCount[0]));
-            renderPreOrderTraversal(node.getLeftChild(), visitCount);
-            renderPreOrderTraversal(node.getRightChild(), visitCount);
+    // Labels the drawn node holding each value with the position of the value in the traversal.
+    private void renderTraversal(PrimitiveIterator.OfInt traversal) {
+        Map<Integer, Node> nodesByValue = new HashMap<>();
+        for (Node node : layout.getNodes()) {
+            nodesByValue.put(node.getValue(), node);
         }
-    }
-
-    private void renderInOrderTraversal(Node node, int[] visitCount) {
-        if (node != null) {
-            renderInOrderTraversal(node.getLeftChild(), visitCount);
-            visitCount[0]++;
-            drawNodeOrderLabel(node, Integer.toString(visitCount[0]));
-            renderInOrderTraversal(node.getRightChild(), visitCount);
-        }
-    }
-
-    private void renderPostOrderTraversal(Node node, int[] visitCount) {
-        if (node != null) {
-            renderPostOrderTraversal(node.getLeftChild(), visitCount);
-            renderPostOrderTraversal(node.getRightChild(), visitCount);
-            visitCount[0]++;
-            drawNodeOrderLabel(node, Integer.toString(visitCount[0]));
+        int visitCount = 0;
+        while (traversal.hasNext()) {
+            visitCount++;
+            backend.label(nodesByValue.get(traversal.nextInt()), Integer.toString(visitCount));
         }
     }
 
-    // Recursively traverses tree and adds labels to show search order and highlight search path.
-    private void renderSearch(Map<Node, Integer> searchOrder, Node node, int searchVal) {
-        // Uses widthCache from last update operation
-        if (node == null) {
-            return;
-        }
-
-        renderSearchNode(searchOrder, node, searchVal);
-        if (node.getValue() < searchVal) {
-            renderSearch(searchOrder, node.getRightChild(), searchVal);
-        } else if (node.getValue() > searchVal) {
-            renderSearch(searchOrder, node.getLeftChild(), searchVal);
+    // Walks the drawn tree towards searchVal, labelling each visited node with its visit order
+    // and highlighting the search path.
+    private void renderSearch(Node node, int searchVal) {
+        int order = 0;
+        while (node != null) {
+            order++;
+            renderSearchNode(node, searchVal, order);
+            if (node.getValue() < searchVal) {
+                node = node.getRightChild();
+            } else if (node.getValue() > searchVal) {
+                node = node.getLeftChild();
+            } else {
+                // Stop if we reached searchVal.
+                break;
+            }
         }
-        // Stop recursion if we reached searchVal.
     }
 
-    private void renderSearchNode(Map<Node, Integer> searchOrder, Node node, int searchVal) {
-        Circle circle = nodeCircles.get(node.getValue());
+    private void renderSearchNode(Node node, int searchVal, int order) {
         if (node.getValue() == searchVal) {
-            circle.setFill(Color.LIGHTGREEN);
-            circle.setStroke(Color.DARKGREEN);
+            backend.highlight(node, Color.LIGHTGREEN, Color.DARKGREEN);
         } else if (node.getLeftChild() == null && node.getRightChild() == null) {
             // Search unsuccessful: reached leaf node
-            circle.setFill(Color.RED);
-            circle.setStroke(Color.BLACK);
+            backend.highlight(node, Color.RED, Color.BLACK);
         } else {
-            circle.setFill(Color.LIGHTYELLOW);
-            circle.setStroke(Color.GREY);
+            backend.highlight(node, Color.LIGHTYELLOW, Color.GREY);
         }
-
-        int order = searchOrder.get(node);
-
-        drawNodeOrderLabel(node, Integer.toString(order));
+        backend.label(node, Integer.toString(order));
     }
 
-    // Draws a label next to the node
-    private void drawNodeOrderLabel(Node node, String labelVal) {
-        Point2D pos = nodePositions.get(node.getValue());
-        double x = pos.getX();
-        double y = pos.getY();
-        Text order = new Text(labelVal);
-        order.setTextOrigin(VPos.CENTER);
-        order.setX(x + NODE_RADIUS + 3);
-        order.setY(y);
-        contentPane.getChildren().add(order);
-    }
-
-    /**
-     * Calculates and caches the widths for all subtrees.
-     * Done in a single pass to avoid redundant calculations.
-     * Width represents number of horizontal "units" required to draw the subtree.
-     *
-     * @param node the root of the subtree (can be null for phantom nodes)
-     * @return the width requirement for this subtree
-     */
-    private int calculateAndCacheWidths(Node node) {
-        // Phantom node: base width
-        if (node == null) {
-            return 1;
-        }
-
-        // Leaf node: base width
-        if (node.getLeftChild() == null && node.getRightChild() == null) {
-            widthCache.put(node, 2);
-            return 2;
-        }
-
-        // Internal node: sum of children's widths (including phantom nodes)
-        int leftWidth = calculateAndCacheWidths(node.getLeftChild());
-        int rightWidth = calculateAndCacheWidths(node.getRightChild());
-        int totalWidth = leftWidth + rightWidth;
-
-        widthCache.put(node, totalWidth);
-        return totalWidth;
-    }
-
-    /**
-     * Gets the cached width for a subtree.
-     *
-     * @param node the root of the subtree (null for phantom nodes)
-     * @return the cached width, or 1 for phantom nodes
-     */
-    private int getCachedWidth(Node node) {
-        if (node == null) return 1;
-        return widthCache.get(node);
-    }
-
-    /**
-     * Draws a subtree at the specified position.
-     * The node's position is based on the width requirements of its subtrees.
-     * Stores the center positions of all nodes into {@code nodePositions}
-     * @param node the root of the subtree to draw
-     * @param leftX the leftmost x-coordinate available for this subtree
-     * @param y the y-coordinate for this level
-     */
-    private void drawSubtree(Node node, double leftX, double y) {
-        if (node == null) {
-            return;
-        }
-
-        int leftSubtreeWidth = getCachedWidth(node.getLeftChild());
-
-        double nodeX = leftX + (leftSubtreeWidth * BASE_WIDTH_UNIT);
-
-        double childY = y + VERTICAL_SPACING;
-
-        // left subtree
-        if (node.getLeftChild() != null) {
-            // Left child positioned at the center of the left subtree's allocated space
-            int leftChildLeftWidth = getCachedWidth(node.getLeftChild().getLeftChild());
-            double leftChildX = leftX + (leftChildLeftWidth * BASE_WIDTH_UNIT);
-
-            Line leftLine = new Line(nodeX, y, leftChildX, childY);
-            leftLine.setStroke(Color.BLACK);
-            leftLine.setStrokeWidth(2);
-            contentPane.getChildren().add(leftLine);
-
-            // recursively draw left subtree
-            drawSubtree(node.getLeftChild(), leftX, childY);
-        }
-
-        // right subtree
-        if (node.getRightChild() != null) {
-            // Right subtree starts after the left subtree space
-            double rightSubtreeStartX = leftX + (leftSubtreeWidth * BASE_WIDTH_UNIT);
-            // Right child is positioned at the center of the right subtree's allocated space
-            int rightChildLeftWidth = getCachedWidth(node.getRightChild().getLeftChild());
-            double rightChildX = rightSubtreeStartX + (rightChildLeftWidth * BASE_WIDTH_UNIT);
-
-            Line rightLine = new Line(nodeX, y, rightChildX, childY);
-            rightLine.setStroke(Color.BLACK);
-            rightLine.setStrokeWidth(2);
-            contentPane.getChildren().add(rightLine);
-
-            // Recursively draw right subtree
-            drawSubtree(node.getRightChild(), rightSubtreeStartX, childY);
-        }
-        drawNodeCircleAndText(node, nodeX, y);
+    // Resets a node's shapes to a white circle with black text, then applies tree-specific styling
+    void applyStyle(Node node, Circle circle, Text text) {
+        circle.setFill(Color.WHITE);
+        circle.setStroke(Color.BLACK);
+        circle.setStrokeWidth(2);
+        text.setFill(Color.BLACK);
+        styleNode(node, circle, text);
     }
 
     /**
-     * Draws a single node (circle + text).
-     * Stores position of nodes and node circles into maps.
+     * Applies tree type-specific styling to a node's shapes. Called when the node is first drawn,
+     * when its color changes and when a search highlight is cleared.
+     * Does nothing by default, leaving a white circle with black text.
      *
-     * @param node the node to draw
-     * @param x the center x-coordinate of the node.
-     * @param y the center y-coordinate of the node.
+     * @param node the node being drawn
+     * @param circle the circle drawn for the node
+     * @param text the text showing the node's value
      */
-    private void drawNodeCircleAndText(Node node, double x, double y) {
-        Circle circle = new Circle(x, y, NODE_RADIUS);
-        nodePositions.put(node.getValue(), new Point2D(x, y));
-        nodeCircles.put(node.getValue(), circle);
-        circle.setFill(Color.WHITE);
-        circle.setStroke(Color.BLACK);
-        circle.setStrokeWidth(2);
-        contentPane.getChildren().add(circle);
-
-        Text nodeVal = new Text(Integer.toString(node.getValue()));
-        nodeVal.setTextAlignment(TextAlignment.CENTER);
-        nodeVal.setTextOrigin(VPos.CENTER);
-
-        nodeVal.setX(x - nodeVal.getBoundsInLocal().getWidth() / 2);
-        nodeVal.setY(y);
-        nodeVal.setFill(Color.BLACK);
-
-        contentPane.getChildren().add(nodeVal);
+    protected void styleNode(Node node, Circle circle, Text text) {
     }
 }
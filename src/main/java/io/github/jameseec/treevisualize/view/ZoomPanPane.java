@@ -1,5 +1,8 @@
 package io.github.jameseec.treevisualize.view;
 
+import javafx.beans.InvalidationListener;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
 import javafx.scene.Group;
 import javafx.scene.Node;
@@ -18,7 +21,8 @@ import javafx.scene.transform.Translate;
 public class ZoomPanPane extends Pane {
     private static final double SCALE_DELTA = 1.08;
     private static final double MAX_ZOOM = 2.0;
-    private static final double MIN_ZOOM = 0.5;
+    /** Low enough to fit trees of hundreds of thousands of nodes, drawn with collapsed subtrees at that zoom. */
+    private static final double MIN_ZOOM = 0.0001;
     private final Scale scale = new Scale(1, 1, 0, 0); // for zoom transformations
     private final Translate translate = new Translate(0, 0);   // for panning
     private final Node contentPane;
@@ -70,6 +74,59 @@ public class ZoomPanPane extends Pane {
         translate.setY(translate.getY() + dy);
     }
 
+    /**
+     * Gets the current zoom factor, 1 when neither zoomed in nor out.
+     */
+    public double getZoom() {
+        return scale.getX();
+    }
+
+    /**
+     * Converts a point in this pane's coordinates to the coordinates of the content.
+     */
+    public Point2D viewportToContent(double x, double y) {
+        return new Point2D((x - translate.getX()) / scale.getX(), (y - translate.getY()) / scale.getY());
+    }
+
+    /**
+     * Gets the part of the content shown in the viewport, in the coordinates of the content.
+     */
+    public Bounds getVisibleContentBounds() {
+        Point2D topLeft = viewportToContent(0, 0);
+        return new BoundingBox(topLeft.getX(), topLeft.getY(), getWidth() / scale.getX(), getHeight() / scale.getY());
+    }
+
+    /**
+     * Adds listener to be called whenever zoom, panning or the size of the viewport changes.
+     */
+    public void addViewListener(InvalidationListener listener) {
+        scale.xProperty().addListener(listener);
+        translate.xProperty().addListener(listener);
+        translate.yProperty().addListener(listener);
+        widthProperty().addListener(listener);
+        heightProperty().addListener(listener);
+    }
+
+    public void removeViewListener(InvalidationListener listener) {
+        scale.xProperty().removeListener(listener);
+        translate.xProperty().removeListener(listener);
+        translate.yProperty().removeListener(listener);
+        widthProperty().removeListener(listener);
+        heightProperty().removeListener(listener);
+    }
+
+    /**
+     * Adds a layer above the content that stays fixed to the viewport instead of zooming and panning,
+     * for layers that draw the content with the view transform themselves.
+     */
+    public void addViewportLayer(Node layer) {
+        getChildren().add(layer);
+    }
+
+    public void removeViewportLayer(Node layer) {
+        getChildren().remove(layer);
+    }
+
     /**
      * Resets zoom and resets panning.
      */
@@ -1,6 +1,7 @@
 module io.github.jameseec.treevisualize {
     requires javafx.controls;
     requires javafx.fxml;
+    requires jdk.jfr;
 
 
     opens io.github.jameseec.treevisualize to javafx.fxml;
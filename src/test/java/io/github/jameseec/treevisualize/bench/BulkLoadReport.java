@@ -0,0 +1,78 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.AVLTree;
+import io.github.jameseec.treevisualize.model.BinarySearchTree;
+import io.github.jameseec.treevisualize.model.RedBlackTree;
+import io.github.jameseec.treevisualize.model.Tree;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Compares loading random keys with a loop of {@link Tree#insert(int)} against {@link Tree#buildFrom}
+ * and {@link Tree#insertAll}, both into an empty tree and as a batch merged into an existing tree.
+ * Not a unit test. Run after {@code mvn test-compile}:
+ * {@code java -cp target/classes:target/test-classes io.github.jameseec.treevisualize.bench.BulkLoadReport}
+ */
+public class BulkLoadReport {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws InvalidNodeCountException {
+        System.out.printf("%-18s %10s %12s %12s %12s %14s %14s%n", "tree", "keys",
+                "insert ms", "buildFrom ms", "insertAll ms", "merge loop ms", "merge batch ms");
+        for (int n : new int[] {100_000, 500_000, 1_000_000}) {
+            int[] keys = new Random(n).ints(n).toArray();
+            int[] sorted = Arrays.stream(keys).sorted().distinct().toArray();
+            int[] batch = new Random(-n).ints(n / 4).toArray();
+            report("BinarySearchTree", BinarySearchTree::new, keys, sorted, batch);
+            report("AVLTree", AVLTree::new, keys, sorted, batch);
+            report("RedBlackTree", RedBlackTree::new, keys, sorted, batch);
+        }
+    }
+
+    private static void report(String label, Supplier<Tree> factory, int[] keys, int[] sorted, int[] batch)
+            throws InvalidNodeCountException {
+        double loop = Double.MAX_VALUE;
+        double build = Double.MAX_VALUE;
+        double all = Double.MAX_VALUE;
+        double mergeLoop = Double.MAX_VALUE;
+        double mergeBatch = Double.MAX_VALUE;
+        // Best of several rounds, the first of which doubles as warm-up
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            Tree looped = factory.get();
+            for (int key : keys) {
+                looped.insert(key);
+            }
+            loop = Math.min(loop, millisSince(start));
+
+            start = System.nanoTime();
+            factory.get().buildFrom(sorted);
+            build = Math.min(build, millisSince(start));
+
+            start = System.nanoTime();
+            factory.get().insertAll(keys);
+            all = Math.min(all, millisSince(start));
+
+            start = System.nanoTime();
+            for (int key : batch) {
+                looped.insert(key);
+            }
+            mergeLoop = Math.min(mergeLoop, millisSince(start));
+
+            Tree merged = factory.get();
+            merged.buildFrom(sorted);
+            start = System.nanoTime();
+            merged.insertAll(batch);
+            mergeBatch = Math.min(mergeBatch, millisSince(start));
+        }
+        System.out.printf("%-18s %,10d %12.1f %12.1f %12.1f %14.1f %14.1f%n",
+                label, keys.length, loop, build, all, mergeLoop, mergeBatch);
+    }
+
+    private static double millisSince(long start) {
+        return (System.nanoTime() - start) / 1e6;
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.ArenaAVLTree;
+import io.github.jameseec.treevisualize.model.ArenaTree;
+import io.github.jameseec.treevisualize.model.AVLTree;
+import io.github.jameseec.treevisualize.model.NodeArena;
+import io.github.jameseec.treevisualize.model.Tree;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Prints bytes per key for AVL trees built from {@link io.github.jameseec.treevisualize.model.Node} objects
+ * and from heap and off-heap {@link NodeArena}s, at 1M and 10M random keys.
+ * Not a unit test. Run after {@code mvn test-compile} with a large heap, e.g.
+ * {@code java -Xmx8g -cp target/classes:target/test-classes io.github.jameseec.treevisualize.bench.FootprintReport}
+ */
+public class FootprintReport {
+
+    public static void main(String[] args) throws InvalidNodeCountException {
+        for (int n : new int[] {1_000_000, 10_000_000}) {
+            System.out.printf("%,d keys%n", n);
+            report("Node AVLTree", n, AVLTree::new, false);
+            report("heap ArenaAVLTree", n, ArenaAVLTree::new, false);
+            report("off-heap ArenaAVLTree", n,
+                    () -> new ArenaAVLTree(NodeArena.offHeap(1024), Tree.UNBOUNDED), true);
+        }
+    }
+
+    private static void report(String label, int n, Supplier<Tree> factory, boolean offHeap)
+            throws InvalidNodeCountException {
+        long before = usedHeap();
+        Tree tree = factory.get();
+        Random random = new Random(n);
+        while (tree.getSize() < n) {
+            tree.insert(random.nextInt());
+        }
+        long heapBytes = usedHeap() - before;
+        String detail = "";
+        if (tree instanceof ArenaTree arenaTree) {
+            NodeArena arena = arenaTree.getArena();
+            long reserved = arena.footprintBytes();
+            detail = String.format(", arena reserved %.1f B/key (%,d slots)",
+                    (double) reserved / n, arena.capacity());
+            if (offHeap) {
+                heapBytes += reserved;
+            }
+        }
+        System.out.printf("  %-22s %6.1f B/key%s%n", label, (double) heapBytes / n, detail);
+        // Keep tree reachable until measured
+        if (tree.getSize() != n) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.AVLTree;
+import io.github.jameseec.treevisualize.model.BinarySearchTree;
+import io.github.jameseec.treevisualize.model.OperationResult;
+import io.github.jameseec.treevisualize.model.RedBlackTree;
+import io.github.jameseec.treevisualize.model.Tree;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Compares rotations, recolorings and throughput of {@link RedBlackTree}, {@link AVLTree} and
+ * {@link BinarySearchTree} on sorted, random and mixed insert/delete workloads.
+ * Not a unit test. Run after {@code mvn test-compile}, optionally passing the operation count:
+ * {@code java -cp target/classes:target/test-classes io.github.jameseec.treevisualize.bench.RebalanceReport 1000000}
+ */
+public class RebalanceReport {
+    /** Sorted input degrades a simple BST into a list, so it is measured at this size at most. */
+    private static final int DEGENERATE_LIMIT = 20_000;
+
+    public static void main(String[] args) throws InvalidNodeCountException {
+        int n = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("%-8s %-18s %10s %14s %14s %12s%n",
+                "workload", "tree", "ops", "rotations", "recolorings", "ops/sec");
+        for (String workload : new String[] {"sorted", "random", "mixed"}) {
+            run(workload, "RedBlackTree", RedBlackTree::new, n);
+            run(workload, "AVLTree", AVLTree::new, n);
+            run(workload, "BinarySearchTree", BinarySearchTree::new,
+                    workload.equals("sorted") ? Math.min(n, DEGENERATE_LIMIT) : n);
+        }
+    }
+
+    private static void run(String workload, String label, Supplier<Tree> factory, int n)
+            throws InvalidNodeCountException {
+        int[] keys = new int[n];
+        boolean[] inserts = new boolean[n];
+        Random random = new Random(1);
+        for (int i = 0; i < n; i++) {
+            switch (workload) {
+                case "sorted" -> keys[i] = i;
+                case "random" -> keys[i] = random.nextInt();
+                default -> keys[i] = random.nextInt(n / 2 + 1);
+            }
+            // Mixed workload: inserts and deletes in equal measure over a small key range
+            inserts[i] = !workload.equals("mixed") || random.nextBoolean();
+        }
+
+        // Warm up on a throwaway tree so the measured run is compiled
+        replay(factory.get(), keys, inserts, Math.min(n, 100_000));
+
+        Tree tree = factory.get();
+        long start = System.nanoTime();
+        long[] totals = replay(tree, keys, inserts, n);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-8s %-18s %,10d %,14d %,14d %,12.0f%n",
+                workload, label, n, totals[0], totals[1], n / seconds);
+    }
+
+    // Applies the first count operations, returning total rotations and recolorings.
+    private static long[] replay(Tree tree, int[] keys, boolean[] inserts, int count)
+            throws InvalidNodeCountException {
+        OperationResult result = new OperationResult();
+        long rotations = 0;
+        long recolorings = 0;
+        for (int i = 0; i < count; i++) {
+            if (inserts[i]) {
+                tree.insert(keys[i], result);
+            } else {
+                tree.delete(keys[i], result);
+            }
+            rotations += result.getRotations();
+            recolorings += result.getRecolorings();
+        }
+        return new long[] {rotations, recolorings};
+    }
+}
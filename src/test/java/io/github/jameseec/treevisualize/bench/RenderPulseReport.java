@@ -0,0 +1,144 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.AVLTree;
+import io.github.jameseec.treevisualize.model.Tree;
+import io.github.jameseec.treevisualize.view.AVLRenderer;
+import io.github.jameseec.treevisualize.view.TreeRenderer;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the FX thread time taken to show single inserts and deletes in AVL trees of several sizes when
+ * every shape is rebuilt, as {@link TreeRenderer#updatePane()} used to, against updating only changed shapes.
+ * Each operation is timed from the change to the tree until the pulse showing it has finished CSS and layout;
+ * the median of the measured operations is reported.
+ * Not a unit test, and needs a display. Run after {@code mvn test-compile} with JavaFX on the class path,
+ * optionally passing the tree sizes:
+ * {@code mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt}
+ * {@code java -cp target/classes:target/test-classes:$(cat target/cp.txt) io.github.jameseec.treevisualize.bench.RenderPulseReport 1000 10000}
+ * <p>
+ * Without a display, add the {@code org.testfx:openjfx-monocle:21.0.2} jar to the class path and pass
+ * {@code -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw}. Text layout still needs the
+ * Pango libraries ({@code libpangoft2-1.0}) of a desktop Linux install.
+ */
+public class RenderPulseReport {
+    private static final int WARMUP = 50;
+    private static final int OPERATIONS = 200;
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = (args.length > 0)
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {1_000, 5_000, 20_000};
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+        // Each size closes its window, which would otherwise shut the toolkit down before the next
+        Platform.setImplicitExit(false);
+        System.out.printf("%-12s %8s %12s %12s%n", "mode", "nodes", "update ms", "pulse ms");
+        for (int size : sizes) {
+            run(size, true);
+            run(size, false);
+        }
+        Platform.exit();
+    }
+
+    private static void run(int size, boolean redraw) throws Exception {
+        Tree tree = new AVLTree(Tree.UNBOUNDED);
+        tree.buildFrom(IntStream.range(0, size).map(i -> 2 * i).toArray());
+        Pane contentPane = new Pane();
+        Scene scene = new Scene(contentPane, 1200, 800);
+        TreeRenderer renderer = new AVLRenderer(tree, contentPane);
+        Stage stage = onFxThread(() -> {
+            Stage window = new Stage();
+            window.setScene(scene);
+            window.show();
+            renderer.updatePane();
+            return window;
+        });
+
+        Random random = new Random(size);
+        double[] updateMillis = new double[OPERATIONS];
+        double[] pulseMillis = new double[OPERATIONS];
+        for (int i = -WARMUP; i < OPERATIONS; i++) {
+            // Insert an odd key, then delete it again, so the tree keeps its size
+            int key = 2 * random.nextInt(size) + 1;
+            long[] nanos = timePulse(scene, () -> {
+                try {
+                    tree.insert(key);
+                } catch (InvalidNodeCountException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, renderer, redraw);
+            timePulse(scene, () -> tree.delete(key), renderer, redraw);
+            if (i >= 0) {
+                updateMillis[i] = nanos[0] / 1e6;
+                pulseMillis[i] = nanos[1] / 1e6;
+            }
+        }
+        onFxThread(() -> {
+            stage.close();
+            return null;
+        });
+        System.out.printf("%-12s %,8d %12.3f %12.3f%n", redraw ? "redraw" : "incremental", size,
+                median(updateMillis), median(pulseMillis));
+    }
+
+    /**
+     * Applies change and updates the renderer on the FX thread.
+     *
+     * @return nanoseconds until the renderer was updated, and until the next pulse finished layout
+     */
+    private static long[] timePulse(Scene scene, Runnable change, TreeRenderer renderer, boolean redraw)
+            throws Exception {
+        CompletableFuture<long[]> done = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            long start = System.nanoTime();
+            change.run();
+            if (redraw) {
+                renderer.clearContent();
+            }
+            renderer.updatePane();
+            long updated = System.nanoTime();
+            Runnable[] listener = new Runnable[1];
+            listener[0] = () -> {
+                scene.removePostLayoutPulseListener(listener[0]);
+                done.complete(new long[] {updated - start, System.nanoTime() - start});
+            };
+            scene.addPostLayoutPulseListener(listener[0]);
+            Platform.requestNextPulse();
+        });
+        return done.get(1, TimeUnit.MINUTES);
+    }
+
+    private interface FxTask<T> {
+        T call() throws Exception;
+    }
+
+    private static <T> T onFxThread(FxTask<T> task) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result.get(1, TimeUnit.MINUTES);
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
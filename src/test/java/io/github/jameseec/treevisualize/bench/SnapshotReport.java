@@ -0,0 +1,42 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.AVLTree;
+import io.github.jameseec.treevisualize.model.Tree;
+import io.github.jameseec.treevisualize.model.TreeSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Prints the time to save and load a {@link TreeSnapshot} of a 10M-key AVL tree, and the file size.
+ * Not a unit test. Run after {@code mvn test-compile}, e.g.
+ * {@code java -Xmx4g -cp target/classes:target/test-classes io.github.jameseec.treevisualize.bench.SnapshotReport}
+ */
+public class SnapshotReport {
+    private static final int KEYS = 10_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException, InvalidNodeCountException {
+        int[] keys = new Random(KEYS).ints(0, Integer.MAX_VALUE).distinct().limit(KEYS).sorted().toArray();
+        AVLTree tree = new AVLTree();
+        tree.buildFrom(keys);
+        Path file = Files.createTempFile("tree", ".bin");
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                TreeSnapshot.save(tree, file);
+                long saved = System.nanoTime();
+                Tree loaded = TreeSnapshot.load(file);
+                long loadedAt = System.nanoTime();
+                System.out.printf("%,d keys, %,d bytes: save %d ms, load %d ms (%,d keys loaded)%n",
+                        KEYS, Files.size(file), (saved - start) / 1_000_000, (loadedAt - saved) / 1_000_000,
+                        loaded.getSize());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.jameseec.treevisualize.bench;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.PersistentAVLTree;
+import io.github.jameseec.treevisualize.model.PersistentTree;
+import io.github.jameseec.treevisualize.model.VersionHistory;
+
+import java.util.Random;
+
+/**
+ * Prints the measured heap cost per retained version of a {@link PersistentAVLTree} against the estimate
+ * kept by its {@link VersionHistory}, for 10,000 random inserts into trees of 100K and 1M keys.
+ * Not a unit test. Run after {@code mvn test-compile}, e.g.
+ * {@code java -Xmx4g -cp target/classes:target/test-classes io.github.jameseec.treevisualize.bench.VersionMemoryReport}
+ */
+public class VersionMemoryReport {
+    private static final int VERSIONS = 10_000;
+
+    public static void main(String[] args) throws InvalidNodeCountException {
+        for (int n : new int[] {100_000, 1_000_000}) {
+            Random random = new Random(n);
+            int[] keys = random.ints(0, Integer.MAX_VALUE).distinct().limit(n).sorted().toArray();
+
+            PersistentTree tree = new PersistentAVLTree(PersistentTree.UNBOUNDED, VERSIONS + 2, Long.MAX_VALUE);
+            tree.buildFrom(keys);
+            long before = usedHeap();
+            int inserted = 0;
+            while (inserted < VERSIONS) {
+                if (tree.insert(random.nextInt())) {
+                    inserted++;
+                }
+            }
+            long measured = usedHeap() - before;
+
+            VersionHistory history = tree.getHistory();
+            long estimated = 0;
+            for (int i = history.getVersionCount() - VERSIONS; i < history.getVersionCount(); i++) {
+                estimated += history.getBytes(i);
+            }
+            System.out.printf("%,d keys: %.0f B/version measured, %.0f B/version estimated (%.1f nodes)%n",
+                    n, (double) measured / VERSIONS, (double) estimated / VERSIONS,
+                    (double) estimated / VersionHistory.NODE_BYTES / VERSIONS);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
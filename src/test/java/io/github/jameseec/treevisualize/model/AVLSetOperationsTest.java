@@ -0,0 +1,200 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AVLSetOperationsTest {
+
+    @Test
+    void testSetOperationsMatchTreeSet() throws InvalidNodeCountException {
+        Random random = new Random(21);
+        for (int round = 0; round < 200; round++) {
+            boolean augmented = round % 2 == 0;
+            int bound = 1 + random.nextInt(400);
+            TreeSet<Integer> first = randomSet(random, random.nextInt(300), bound);
+            TreeSet<Integer> second = randomSet(random, random.nextInt(300), bound);
+
+            AVLTree union = tree(first, augmented);
+            TreeSet<Integer> expectedUnion = new TreeSet<>(first);
+            expectedUnion.addAll(second);
+            assertEquals(expectedUnion.size() - first.size(), union.union(tree(second, augmented)));
+            assertMatches(expectedUnion, union);
+
+            AVLTree intersection = tree(first, augmented);
+            TreeSet<Integer> expectedIntersection = new TreeSet<>(first);
+            expectedIntersection.retainAll(second);
+            assertEquals(first.size() - expectedIntersection.size(), intersection.intersection(tree(second, augmented)));
+            assertMatches(expectedIntersection, intersection);
+
+            AVLTree difference = tree(first, augmented);
+            AVLTree other = tree(second, augmented);
+            TreeSet<Integer> expectedDifference = new TreeSet<>(first);
+            expectedDifference.removeAll(second);
+            assertEquals(first.size() - expectedDifference.size(), difference.difference(other));
+            assertMatches(expectedDifference, difference);
+            assertMatches(second, other);
+        }
+    }
+
+    @Test
+    void testSplitAndJoin() throws InvalidNodeCountException {
+        Random random = new Random(22);
+        for (int round = 0; round < 200; round++) {
+            boolean augmented = round % 2 == 0;
+            TreeSet<Integer> values = randomSet(random, random.nextInt(500), 1000);
+            int key = random.nextInt(1100) - 50;
+
+            AVLTree.Split split = AVLTree.split(tree(values, augmented), key);
+            assertEquals(values.contains(key), split.found());
+            assertMatches(values.headSet(key, false), split.less());
+            assertMatches(values.tailSet(key, false), split.greater());
+
+            AVLTree joined = AVLTree.join(split.less(), key, split.greater());
+            TreeSet<Integer> expected = new TreeSet<>(values);
+            expected.add(key);
+            assertMatches(expected, joined);
+            assertEquals(0, split.less().getSize());
+            assertNull(split.greater().getRoot());
+        }
+    }
+
+    @Test
+    void testJoinTreesOfDifferentHeights() throws InvalidNodeCountException {
+        AVLTree small = new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates());
+        small.buildFrom(new int[] {1, 2});
+        AVLTree large = new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates());
+        large.buildFrom(IntStream.range(10, 10_000).toArray());
+        AVLTree joined = AVLTree.join(small, 5, large);
+        assertMatches(toSet(IntStream.concat(IntStream.of(1, 2, 5), IntStream.range(10, 10_000))), joined);
+
+        assertMatches(toSet(IntStream.concat(IntStream.of(1, 2, 5), IntStream.rangeClosed(10, 10_000))),
+                AVLTree.join(joined, 10_000, new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates())));
+        assertEquals(0, joined.getSize());
+    }
+
+    @Test
+    void testDeleteRange() throws InvalidNodeCountException {
+        Random random = new Random(23);
+        for (int round = 0; round < 200; round++) {
+            boolean augmented = round % 2 == 0;
+            TreeSet<Integer> values = randomSet(random, random.nextInt(500), 1000);
+            AVLTree tree = tree(values, augmented);
+            int lo = random.nextInt(1100) - 50;
+            int hi = lo + random.nextInt(300) - 20;
+
+            int expectedRemoved = (lo > hi) ? 0 : values.subSet(lo, true, hi, true).size();
+            if (lo <= hi) {
+                values.subSet(lo, true, hi, true).clear();
+            }
+            assertEquals(expectedRemoved, tree.deleteRange(lo, hi));
+            assertMatches(values, tree);
+        }
+    }
+
+    @Test
+    void testInvalidArguments() throws InvalidNodeCountException {
+        AVLTree low = new AVLTree();
+        low.buildFrom(new int[] {1, 2, 3});
+        AVLTree high = new AVLTree();
+        high.buildFrom(new int[] {5, 6});
+        assertThrows(IllegalArgumentException.class, () -> AVLTree.join(low, 3, high));
+        assertThrows(IllegalArgumentException.class, () -> AVLTree.join(low, 6, high));
+        assertThrows(IllegalArgumentException.class, () -> low.union(low));
+        assertThrows(IllegalArgumentException.class,
+                () -> low.union(new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates())));
+
+        AVLTree bounded = new AVLTree(4);
+        bounded.buildFrom(new int[] {1, 2, 3});
+        assertThrows(InvalidNodeCountException.class, () -> bounded.union(high));
+        assertMatches(toSet(IntStream.of(1, 2, 3)), bounded);
+        assertMatches(toSet(IntStream.of(5, 6)), high);
+        assertThrows(InvalidNodeCountException.class, () -> AVLTree.join(bounded, 4, high));
+    }
+
+    @Test
+    void testLargeParallelOperations() throws InvalidNodeCountException {
+        Random random = new Random(24);
+        TreeSet<Integer> first = randomSet(random, 200_000, 1_000_000);
+        TreeSet<Integer> second = randomSet(random, 200_000, 1_000_000);
+
+        AVLTree union = tree(first, true);
+        union.union(tree(second, true));
+        TreeSet<Integer> expected = new TreeSet<>(first);
+        expected.addAll(second);
+        assertMatches(expected, union);
+
+        AVLTree intersection = tree(first, false);
+        intersection.intersection(tree(second, false));
+        expected = new TreeSet<>(first);
+        expected.retainAll(second);
+        assertMatches(expected, intersection);
+
+        AVLTree difference = tree(first, true);
+        difference.difference(tree(second, true));
+        expected = new TreeSet<>(first);
+        expected.removeAll(second);
+        assertMatches(expected, difference);
+    }
+
+    private static TreeSet<Integer> randomSet(Random random, int count, int bound) {
+        return toSet(random.ints(count, 0, bound));
+    }
+
+    private static TreeSet<Integer> toSet(IntStream values) {
+        TreeSet<Integer> set = new TreeSet<>();
+        values.forEach(set::add);
+        return set;
+    }
+
+    private static AVLTree tree(TreeSet<Integer> values, boolean augmented) throws InvalidNodeCountException {
+        AVLTree tree = augmented ? new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates()) : new AVLTree(Tree.UNBOUNDED);
+        tree.buildFrom(values.stream().mapToInt(Integer::intValue).toArray());
+        return tree;
+    }
+
+    // Checks the tree's values and size, and that every node's height, balance and aggregates are correct.
+    private static void assertMatches(SortedSet<Integer> expected, AVLTree tree) {
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), tree.stream().toArray());
+        assertEquals(expected.size(), tree.getSize());
+        if (tree.getRoot() == null) {
+            return;
+        }
+        List<Node> order = new ArrayList<>();
+        List<Node> stack = new ArrayList<>();
+        stack.add(tree.getRoot());
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            order.add(node);
+            if (node.getLeftChild() != null) {
+                stack.add(node.getLeftChild());
+            }
+            if (node.getRightChild() != null) {
+                stack.add(node.getRightChild());
+            }
+        }
+        boolean augmented = tree.getAugmentation() != null;
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Node node = order.get(i);
+            int left = AVLJoin.height(node.getLeftChild());
+            int right = AVLJoin.height(node.getRightChild());
+            assertEquals(1 + Math.max(left, right), node.getHeight(), "height at " + node.getValue());
+            assertTrue(Math.abs(left - right) <= 1, "balance at " + node.getValue());
+            if (augmented) {
+                AugmentedNode leftNode = (AugmentedNode) node.getLeftChild();
+                AugmentedNode rightNode = (AugmentedNode) node.getRightChild();
+                int size = 1 + (leftNode == null ? 0 : leftNode.getSubtreeSize())
+                        + (rightNode == null ? 0 : rightNode.getSubtreeSize());
+                assertEquals(size, ((AugmentedNode) node).getSubtreeSize(), "size at " + node.getValue());
+            }
+        }
+    }
+}
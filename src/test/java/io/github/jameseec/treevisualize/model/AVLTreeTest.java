@@ -107,6 +107,27 @@ class AVLTreeTest {
         assertEquals(expected, avl.toString());
     }
 
+    @Test
+    void testInsertResultReportsRotations() throws InvalidNodeCountException {
+        OperationResult result = new OperationResult();
+        avl.insert(30, result);
+        avl.insert(10, result);
+        assertEquals(OperationResult.Outcome.INSERTED, result.getOutcome());
+        assertEquals(1, result.getPathLength());
+        assertEquals(0, result.getRotations());
+
+        avl.insert(20, result); // LR: two single rotations
+        assertEquals(OperationResult.Outcome.INSERTED, result.getOutcome());
+        assertEquals(2, result.getPathLength());
+        assertEquals(2, result.getRotations());
+
+        avl.insert(20, result);
+        assertEquals(OperationResult.Outcome.DUPLICATE, result.getOutcome());
+        assertEquals(1, result.getPathLength());
+        assertEquals(0, result.getRotations());
+        assertEquals(3, avl.getSize());
+    }
+
     // Deletions
 
     @Test
@@ -122,6 +143,25 @@ class AVLTreeTest {
         assertEquals(3, avl.getSize());
     }
 
+    @Test
+    void testDeleteResultReportsOutcome() throws InvalidNodeCountException {
+        avl.insert(30);
+        avl.insert(20);
+        avl.insert(40);
+        avl.insert(10);
+
+        OperationResult result = avl.delete(99, new OperationResult());
+        assertEquals(OperationResult.Outcome.NOT_FOUND, result.getOutcome());
+        assertFalse(result.isChanged());
+
+        avl.delete(40, result); // root becomes left heavy: single right rotation
+        assertEquals(OperationResult.Outcome.DELETED, result.getOutcome());
+        assertEquals(2, result.getPathLength());
+        assertEquals(1, result.getRotations());
+        assertEquals(3, avl.getSize());
+        checkAVLInvariant(avl.getRoot());
+    }
+
     @Test
     void testDeleteNullNode() {
         assertFalse(avl.delete(4));
@@ -214,6 +254,7 @@ class AVLTreeTest {
 
     @Test
     void testInsertThrowsOnMaxSizeExceeded() throws InvalidNodeCountException {
+        avl = new AVLTree(AVLTree.MAX_SIZE);
         for (int i = 0; i < AVLTree.MAX_SIZE; i++) {
             assertTrue(avl.insert(i));
         }
@@ -221,6 +262,103 @@ class AVLTreeTest {
                 () -> avl.insert(999));
     }
 
+    @Test
+    void testDefaultTreeIsUnbounded() throws InvalidNodeCountException {
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(avl.insert(i));
+        }
+        assertEquals(1000, avl.getSize());
+        assertEquals(Tree.UNBOUNDED, avl.getMaxSize());
+    }
+
+    // Scaling
+
+    @Test
+    void testLargeSortedInsertAndDeleteStayBalanced() throws InvalidNodeCountException {
+        int n = 1_000_000;
+        for (int i = 0; i < n; i++) {
+            avl.insert(i);
+        }
+        assertEquals(n, avl.getSize());
+        // 1.44 * log2(n) bounds the height of an AVL tree
+        assertTrue(avl.getRoot().getHeight() <= 1.45 * (Math.log(n) / Math.log(2)));
+
+        for (int i = 0; i < n; i += 2) {
+            assertTrue(avl.delete(i));
+        }
+        assertEquals(n / 2, avl.getSize());
+        assertFalse(avl.contains(0));
+        assertTrue(avl.contains(n - 1));
+        checkAVLInvariant(avl.getRoot());
+    }
+
+    // Bulk loading
+
+    @Test
+    void testBuildFromIsBalancedWithHeights() throws InvalidNodeCountException {
+        avl.insert(999);
+        int[] keys = new int[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 2;
+        }
+        avl.buildFrom(keys);
+
+        assertEquals(1000, avl.getSize());
+        assertFalse(avl.contains(999));
+        assertEquals(9, avl.getRoot().getHeight()); // floor(log2(1000))
+        checkAVLInvariant(avl.getRoot());
+
+        // Built tree supports normal rebalancing afterwards
+        for (int i = 1; i < 200; i += 2) {
+            assertTrue(avl.insert(i));
+        }
+        checkAVLInvariant(avl.getRoot());
+    }
+
+    @Test
+    void testInsertAllMergesBatch() throws InvalidNodeCountException {
+        for (int i = 0; i < 100; i++) {
+            avl.insert(i * 3);
+        }
+        int[] batch = new int[500];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = (batch.length - i) % 250; // reverse order with duplicates
+        }
+        // 0..249 contains 84 multiples of 3 already in the tree
+        assertEquals(250 - 84, avl.insertAll(batch));
+        assertEquals(100 + 250 - 84, avl.getSize());
+        for (int i = 0; i < 250; i++) {
+            assertTrue(avl.contains(i));
+        }
+        checkAVLInvariant(avl.getRoot());
+        assertEquals(0, avl.insertAll(batch));
+    }
+
+    @Test
+    void testInsertAllRespectsMaxSize() throws InvalidNodeCountException {
+        avl = new AVLTree(10);
+        avl.insert(1);
+        assertThrows(InvalidNodeCountException.class, () -> avl.insertAll(new int[] {2, 3, 4, 5, 6, 7, 8, 9, 10, 11}));
+        assertEquals("1[null, null]", avl.toString());
+        assertThrows(InvalidNodeCountException.class, () -> avl.buildFrom(new int[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11}));
+    }
+
+    @Test
+    void testInsertAllLeavesTreeUnchangedWhenSmallBatchOverflows() throws InvalidNodeCountException {
+        avl = new AVLTree(100);
+        for (int i = 0; i < 99; i++) {
+            avl.insert(i);
+        }
+        String before = avl.toString();
+        // Small enough to insert key by key, but only one of the two new keys fits
+        assertThrows(InvalidNodeCountException.class, () -> avl.insertAll(new int[] {200, 201}));
+        assertEquals(99, avl.getSize());
+        assertEquals(before, avl.toString());
+        // Keys already in the tree do not count towards the limit
+        assertEquals(1, avl.insertAll(new int[] {5, 200}));
+        assertEquals(100, avl.getSize());
+    }
+
     /**
      * Recursively verifies AVL invariants: node heights correct and balance factor in [-1,1]
      */
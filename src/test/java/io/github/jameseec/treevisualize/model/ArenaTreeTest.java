@@ -0,0 +1,112 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaTreeTest {
+
+    @Test
+    void testArenaBSTMatchesNodeBST() throws InvalidNodeCountException {
+        assertSameShapes(new BinarySearchTree(), new ArenaBinarySearchTree());
+        assertSameShapes(new BinarySearchTree(),
+                new ArenaBinarySearchTree(NodeArena.offHeap(4), Tree.UNBOUNDED));
+    }
+
+    @Test
+    void testArenaAVLMatchesNodeAVL() throws InvalidNodeCountException {
+        assertSameShapes(new AVLTree(), new ArenaAVLTree());
+        assertSameShapes(new AVLTree(), new ArenaAVLTree(NodeArena.offHeap(4), Tree.UNBOUNDED));
+    }
+
+    @Test
+    void testFindAndPathReturnDetachedNodes() throws InvalidNodeCountException {
+        ArenaAVLTree tree = new ArenaAVLTree();
+        tree.insert(10);
+        tree.insert(20);
+        tree.insert(30);
+
+        Node found = tree.find(30);
+        assertEquals(30, found.getValue());
+        assertNull(found.getLeftChild());
+        assertNull(tree.find(25));
+
+        assertEquals(2, tree.findWithPath(30).size());
+        assertEquals(20, tree.findWithPath(30).get(0).getValue());
+        assertEquals(1, tree.getRoot().getHeight());
+        assertSame(tree.getRoot(), tree.getRoot());
+    }
+
+    @Test
+    void testDeletedSlotsAreRecycled() throws InvalidNodeCountException {
+        ArenaBinarySearchTree tree = new ArenaBinarySearchTree();
+        for (int i = 0; i < 100; i++) {
+            tree.insert(i);
+        }
+        int capacity = tree.getArena().capacity();
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 100; i += 2) {
+                assertTrue(tree.delete(i));
+            }
+            for (int i = 0; i < 100; i += 2) {
+                assertTrue(tree.insert(i));
+            }
+        }
+        assertEquals(100, tree.getArena().allocated());
+        assertEquals(capacity, tree.getArena().capacity());
+    }
+
+    @Test
+    void testBulkLoadMatchesNodeTree() throws InvalidNodeCountException {
+        int[] batch = new Random(3).ints(5000, 0, 10_000).toArray();
+        AVLTree expected = new AVLTree();
+        ArenaAVLTree actual = new ArenaAVLTree(NodeArena.offHeap(16), Tree.UNBOUNDED);
+        expected.insertAll(batch);
+        actual.insertAll(batch);
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.getSize(), actual.getArena().allocated());
+
+        // Heights in the arena must allow normal rebalancing afterwards
+        for (int i = 0; i < 10_000; i += 7) {
+            assertEquals(expected.delete(i), actual.delete(i));
+        }
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void testMaxSizeAndClear() throws InvalidNodeCountException {
+        ArenaAVLTree tree = new ArenaAVLTree(NodeArena.onHeap(0), 2);
+        tree.insert(1);
+        tree.insert(2);
+        assertThrows(InvalidNodeCountException.class, () -> tree.insert(3));
+        tree.clear();
+        assertEquals(0, tree.getSize());
+        assertNull(tree.getRoot());
+        assertFalse(tree.contains(1));
+        assertTrue(tree.insert(3));
+    }
+
+    // Applies the same random inserts and deletes to both trees and compares them after each step.
+    private void assertSameShapes(Tree expected, Tree actual) throws InvalidNodeCountException {
+        Random random = new Random(42);
+        OperationResult expectedResult = new OperationResult();
+        OperationResult actualResult = new OperationResult();
+        for (int i = 0; i < 2000; i++) {
+            int val = random.nextInt(200);
+            if (random.nextBoolean()) {
+                expected.insert(val, expectedResult);
+                actual.insert(val, actualResult);
+            } else {
+                expected.delete(val, expectedResult);
+                actual.delete(val, actualResult);
+            }
+            assertEquals(expectedResult.toString(), actualResult.toString());
+            assertEquals(expected.getSize(), actual.getSize());
+            assertEquals(expected.contains(val), actual.contains(val));
+        }
+        assertEquals(expected.toString(), actual.toString());
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AugmentationTest {
+
+    @Test
+    void testBSTAggregates() throws InvalidNodeCountException {
+        assertAggregatesMaintained(() -> new BinarySearchTree(Tree.UNBOUNDED, new SubtreeAggregates()));
+    }
+
+    @Test
+    void testAVLAggregates() throws InvalidNodeCountException {
+        assertAggregatesMaintained(() -> new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates()));
+    }
+
+    @Test
+    void testRedBlackAggregates() throws InvalidNodeCountException {
+        assertAggregatesMaintained(() -> new RedBlackTree(Tree.UNBOUNDED, new SubtreeAggregates()));
+    }
+
+    @Test
+    void testPersistentAggregates() throws InvalidNodeCountException {
+        assertAggregatesMaintained(() -> new PersistentBinarySearchTree(Tree.UNBOUNDED, new SubtreeAggregates()));
+        assertAggregatesMaintained(() -> new PersistentAVLTree(Tree.UNBOUNDED, new SubtreeAggregates()));
+    }
+
+    @Test
+    void testRankSelectAndRanges() throws InvalidNodeCountException {
+        AVLTree tree = new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates());
+        for (int i = 1; i <= 10; i++) {
+            tree.insert(i * 10);
+        }
+        assertEquals(0, tree.rank(10));
+        assertEquals(3, tree.rank(35));
+        assertEquals(10, tree.rank(1000));
+        assertEquals(10, tree.select(0));
+        assertEquals(100, tree.select(9));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.select(10));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.select(-1));
+
+        assertEquals(3, tree.countRange(20, 40));
+        assertEquals(2, tree.countRange(15, 35));
+        assertEquals(0, tree.countRange(40, 20));
+        assertEquals(10, tree.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(90, tree.sumRange(20, 40));
+        assertEquals(550, tree.sumRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+
+        AugmentedNode root = (AugmentedNode) tree.getRoot();
+        assertEquals(10, root.getSubtreeSize());
+        assertEquals(10, root.getSubtreeMin());
+        assertEquals(100, root.getSubtreeMax());
+    }
+
+    @Test
+    void testSumsDoNotOverflow() throws InvalidNodeCountException {
+        RedBlackTree tree = new RedBlackTree(Tree.UNBOUNDED, new SubtreeAggregates());
+        for (int i = 0; i < 100; i++) {
+            tree.insert(Integer.MAX_VALUE - i);
+        }
+        long expected = 0;
+        for (int i = 0; i < 100; i++) {
+            expected += Integer.MAX_VALUE - i;
+        }
+        assertEquals(expected, tree.sumRange(0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testPlainTreesRejectAggregateQueries() throws InvalidNodeCountException {
+        AVLTree tree = new AVLTree();
+        tree.insert(1);
+        assertThrows(IllegalStateException.class, () -> tree.rank(1));
+        assertThrows(IllegalStateException.class, () -> tree.sumRange(0, 1));
+        assertFalse(tree.getRoot() instanceof AugmentedNode);
+    }
+
+    // Applies random inserts, deletes and bulk loads, checking every node's aggregates and the
+    // queries against a TreeSet after each change.
+    private static void assertAggregatesMaintained(Supplier<Tree> factory) throws InvalidNodeCountException {
+        Tree tree = factory.get();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(17);
+        for (int i = 0; i < 3000; i++) {
+            int value = random.nextInt(500) - 250;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), tree.delete(value));
+            } else {
+                assertEquals(expected.add(value), tree.insert(value));
+            }
+            if (i % 1000 == 999) {
+                int[] batch = random.ints(200, -300, 300).toArray();
+                tree.insertAll(batch);
+                for (int key : batch) {
+                    expected.add(key);
+                }
+            }
+            assertEquals(expected.size(), checkAggregates(tree.getRoot()));
+
+            int lo = random.nextInt(600) - 300;
+            int hi = lo + random.nextInt(200);
+            assertEquals(expected.headSet(lo).size(), tree.rank(lo));
+            assertEquals(expected.subSet(lo, true, hi, true).size(), tree.countRange(lo, hi));
+            assertEquals(expected.subSet(lo, true, hi, true).stream().mapToLong(Integer::longValue).sum(),
+                    tree.sumRange(lo, hi));
+            if (!expected.isEmpty()) {
+                int k = random.nextInt(expected.size());
+                assertEquals(expected.stream().skip(k).findFirst().orElseThrow(), tree.select(k));
+            }
+        }
+    }
+
+    // Recomputes every node's aggregates iteratively and compares them with the stored ones.
+    private static int checkAggregates(Node root) {
+        if (root == null) {
+            return 0;
+        }
+        List<Node> order = new ArrayList<>();
+        List<Node> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            order.add(node);
+            if (node.getLeftChild() != null) {
+                stack.add(node.getLeftChild());
+            }
+            if (node.getRightChild() != null) {
+                stack.add(node.getRightChild());
+            }
+        }
+        for (int i = order.size() - 1; i >= 0; i--) {
+            AugmentedNode node = (AugmentedNode) order.get(i);
+            AugmentedNode left = (AugmentedNode) node.getLeftChild();
+            AugmentedNode right = (AugmentedNode) node.getRightChild();
+            int size = 1 + (left == null ? 0 : left.getSubtreeSize()) + (right == null ? 0 : right.getSubtreeSize());
+            long sum = node.getValue() + (left == null ? 0 : left.getSubtreeSum())
+                    + (right == null ? 0 : right.getSubtreeSum());
+            assertEquals(size, node.getSubtreeSize(), "size at " + node.getValue());
+            assertEquals(sum, node.getSubtreeSum(), "sum at " + node.getValue());
+            assertEquals(left == null ? node.getValue() : left.getSubtreeMin(), node.getSubtreeMin());
+            assertEquals(right == null ? node.getValue() : right.getSubtreeMax(), node.getSubtreeMax());
+        }
+        return order.size();
+    }
+}
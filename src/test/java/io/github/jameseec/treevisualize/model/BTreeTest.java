@@ -0,0 +1,161 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BTreeTest {
+
+    @Test
+    void testInsertAndDeleteMatchTreeSet() throws InvalidNodeCountException {
+        Random random = new Random(15);
+        for (int order : new int[]{3, 4, 5, 8, 64}) {
+            BTree tree = new BTree(order, Tree.UNBOUNDED);
+            TreeSet<Integer> expected = new TreeSet<>();
+            OperationResult result = new OperationResult();
+            for (int i = 0; i < 20_000; i++) {
+                int val = random.nextInt(2000);
+                int height = tree.getHeight();
+                if (random.nextInt(3) > 0) {
+                    tree.insert(val, result);
+                    assertEquals(expected.add(val) ? OperationResult.Outcome.INSERTED
+                            : OperationResult.Outcome.DUPLICATE, result.getOutcome());
+                } else {
+                    tree.delete(val, result);
+                    assertEquals(expected.remove(val) ? OperationResult.Outcome.DELETED
+                            : OperationResult.Outcome.NOT_FOUND, result.getOutcome());
+                }
+                if (result.isChanged()) {
+                    assertEquals(Math.max(height, 1), result.getPathLength());
+                }
+                if (i % 500 == 0) {
+                    assertValid(tree);
+                    assertMatches(expected, tree);
+                }
+            }
+            while (!expected.isEmpty()) {
+                assertTrue(tree.delete(expected.pollFirst()));
+            }
+            assertNull(tree.getRootPage());
+            assertEquals(0, tree.getSize());
+        }
+    }
+
+    @Test
+    void testBuildFromFillsValidPages() throws InvalidNodeCountException {
+        for (int order : new int[]{3, 4, 5, 7, 16}) {
+            for (int count = 0; count <= 600; count++) {
+                BTree tree = new BTree(order, Tree.UNBOUNDED);
+                tree.buildFrom(IntStream.range(0, count).map(i -> i * 2).toArray());
+                assertValid(tree);
+                assertEquals(count, tree.getSize());
+                assertArrayEquals(IntStream.range(0, count).map(i -> i * 2).toArray(), tree.stream().toArray());
+            }
+        }
+    }
+
+    @Test
+    void testInsertAllMergesIntoPages() throws InvalidNodeCountException {
+        BTree tree = new BTree(5, Tree.UNBOUNDED);
+        for (int i = 0; i < 100; i += 3) {
+            tree.insert(i);
+        }
+        assertEquals(66, tree.insertAll(IntStream.range(0, 100).toArray()));
+        assertValid(tree);
+        assertArrayEquals(IntStream.range(0, 100).toArray(), tree.stream().toArray());
+        assertTrue(tree.delete(50));
+        assertTrue(tree.insert(50));
+        assertValid(tree);
+    }
+
+    @Test
+    void testFindWithPathVisitsOnePagePerLevel() throws InvalidNodeCountException {
+        BTree tree = new BTree(4, Tree.UNBOUNDED);
+        tree.buildFrom(IntStream.range(0, 200).toArray());
+        List<Node> path = tree.findWithPath(137);
+        assertEquals(137, path.get(path.size() - 1).getValue());
+        assertTrue(path.size() <= tree.getHeight());
+        assertEquals(tree.getHeight(), tree.findWithPath(500).size());
+        assertEquals(137, tree.find(137).getValue());
+        assertNull(tree.find(-1));
+        assertFalse(tree.contains(200));
+    }
+
+    @Test
+    void testBinaryViewFollowsModifications() throws InvalidNodeCountException {
+        BTree tree = new BTree(3, 10);
+        assertNull(tree.getRoot());
+        for (int i = 1; i <= 10; i++) {
+            tree.insert(i);
+        }
+        assertThrows(InvalidNodeCountException.class, () -> tree.insert(11));
+        BinarySearchTree binary = new BinarySearchTree();
+        binary.buildFrom(IntStream.rangeClosed(1, 10).toArray());
+        assertEquals(binary.toString(), tree.toString());
+        tree.delete(5);
+        binary.delete(5);
+        binary.buildFrom(binary.stream().toArray());
+        assertEquals(binary.toString(), tree.toString());
+        assertArrayEquals(new int[]{9, 10}, IntStream.generate(tree.rangeIterator(9, 20)::nextInt).limit(2).toArray());
+        tree.clear();
+        assertNull(tree.getRoot());
+        assertFalse(tree.iterator().hasNext());
+    }
+
+    @Test
+    void testRejectsSmallOrdersAndWrapping() {
+        assertThrows(IllegalArgumentException.class, () -> new BTree(2, Tree.UNBOUNDED));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentTree(BTree::new));
+        assertThrows(IllegalArgumentException.class, () -> TreeSnapshot.Type.of(new BTree()));
+    }
+
+    private static void assertMatches(TreeSet<Integer> expected, BTree tree) {
+        assertEquals(expected.size(), tree.getSize());
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), tree.stream().toArray());
+    }
+
+    // Checks key order, page fill and that every leaf is at the same depth.
+    private static void assertValid(BTree tree) {
+        BTree.Page root = tree.getRootPage();
+        if (root == null) {
+            assertEquals(0, tree.getSize());
+            return;
+        }
+        int minKeys = (tree.getOrder() + 1) / 2 - 1;
+        int[] count = new int[1];
+        int leafDepth = checkPage(root, true, Long.MIN_VALUE, Long.MAX_VALUE, 1, tree.getOrder(), minKeys, count);
+        assertEquals(tree.getHeight(), leafDepth);
+        assertEquals(tree.getSize(), count[0]);
+    }
+
+    private static int checkPage(BTree.Page page, boolean isRoot, long lo, long hi, int depth, int order,
+                                 int minKeys, int[] count) {
+        assertTrue(page.getKeyCount() <= order - 1, "Page overflows");
+        assertTrue(page.getKeyCount() >= (isRoot ? 1 : minKeys), "Page underflows");
+        for (int i = 0; i < page.getKeyCount(); i++) {
+            long key = page.getKey(i);
+            assertTrue(key > ((i == 0) ? lo : page.getKey(i - 1)) && key < hi, "Keys out of order");
+        }
+        count[0] += page.getKeyCount();
+        if (page.isLeaf()) {
+            return depth;
+        }
+        int leafDepth = -1;
+        for (int i = 0; i <= page.getKeyCount(); i++) {
+            long childLo = (i == 0) ? lo : page.getKey(i - 1);
+            long childHi = (i == page.getKeyCount()) ? hi : page.getKey(i);
+            int childDepth = checkPage(page.getChild(i), false, childLo, childHi, depth + 1, order, minKeys, count);
+            if (leafDepth == -1) {
+                leafDepth = childDepth;
+            }
+            assertEquals(leafDepth, childDepth, "Leaves at different depths");
+        }
+        return leafDepth;
+    }
+}
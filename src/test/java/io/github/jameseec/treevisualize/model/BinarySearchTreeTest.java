@@ -33,6 +33,29 @@ class BinarySearchTreeTest {
         assertEquals(3, tree.getSize());
     }
 
+    @Test
+    void testInsertAndDeleteResults() throws InvalidNodeCountException {
+        OperationResult result = new OperationResult();
+        tree.insert(6, result);
+        assertEquals(OperationResult.Outcome.INSERTED, result.getOutcome());
+        assertEquals(2, result.getPathLength());
+        assertEquals(0, result.getRotations());
+
+        tree.insert(7, result);
+        assertEquals(OperationResult.Outcome.DUPLICATE, result.getOutcome());
+        assertFalse(result.isChanged());
+        assertEquals(4, tree.getSize());
+
+        tree.delete(5, result); // root with two children: walks to successor 6
+        assertEquals(OperationResult.Outcome.DELETED, result.getOutcome());
+        assertEquals(3, result.getPathLength());
+        assertEquals(6, tree.getRoot().getValue());
+
+        tree.delete(5, result);
+        assertEquals(OperationResult.Outcome.NOT_FOUND, result.getOutcome());
+        assertEquals(3, tree.getSize());
+    }
+
     @Test
     void testDeleteLeafNode() {
         assertTrue(tree.delete(3)); // delete leaf
@@ -111,12 +134,85 @@ class BinarySearchTreeTest {
 
     @Test
     void testExceedsMaxSize() throws InvalidNodeCountException {
-        // reset tree since our @BeforeEach inserts already
-        tree.clear();
+        tree = new BinarySearchTree(Tree.MAX_SIZE);
         for (int i = 1; i <= Tree.MAX_SIZE; i++) {
             assertTrue(tree.insert(i));
         }
         assertThrows(InvalidNodeCountException.class, () -> tree.insert(Tree.MAX_SIZE + 1));
     }
-}
 
+    @Test
+    void testDefaultTreeIsUnbounded() throws InvalidNodeCountException {
+        for (int i = 10; i < 1000; i++) {
+            assertTrue(tree.insert(i));
+        }
+        assertEquals(993, tree.getSize());
+    }
+
+    @Test
+    void testNegativeMaxSizeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BinarySearchTree(-1));
+    }
+
+    @Test
+    void testBuildFromRejectsUnsortedKeys() {
+        assertThrows(IllegalArgumentException.class, () -> tree.buildFrom(new int[] {1, 3, 2}));
+        assertThrows(IllegalArgumentException.class, () -> tree.buildFrom(new int[] {1, 1}));
+        assertEquals(3, tree.getSize());
+    }
+
+    @Test
+    void testBuildFromBalancesKeys() throws InvalidNodeCountException {
+        tree.buildFrom(new int[] {1, 2, 3, 4, 5, 6, 7});
+        assertEquals("4[2[1[null, null], 3[null, null]], 6[5[null, null], 7[null, null]]]", tree.toString());
+        tree.buildFrom(new int[0]);
+        assertNull(tree.getRoot());
+        assertEquals(0, tree.getSize());
+    }
+
+    @Test
+    void testInsertAllSmallBatchKeepsShape() throws InvalidNodeCountException {
+        BinarySearchTree large = new BinarySearchTree();
+        int[] keys = new int[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 2;
+        }
+        large.insertAll(keys);
+        Node root = large.getRoot();
+        assertEquals(2, large.insertAll(new int[] {1, 3, 3, 4}));
+        assertSame(root, large.getRoot());
+        assertEquals(1002, large.getSize());
+    }
+
+    @Test
+    void testDegenerateTreeDoesNotOverflowStack() throws Throwable {
+        // Run on a thread with a tiny stack: any recursion proportional to depth would overflow it
+        int n = 20_000;
+        Throwable[] failure = new Throwable[1];
+        Thread worker = new Thread(null, () -> {
+            try {
+                BinarySearchTree sorted = new BinarySearchTree();
+                for (int i = 0; i < n; i++) {
+                    assertTrue(sorted.insert(i));
+                }
+                assertEquals(n, sorted.getSize());
+                assertTrue(sorted.contains(n - 1));
+                assertEquals(n, sorted.findWithPath(n - 1).size());
+                assertEquals(n - 1, sorted.find(n - 1).getValue());
+                for (int i = n - 1; i >= 0; i -= 2) {
+                    assertTrue(sorted.delete(i));
+                }
+                assertTrue(sorted.delete(0));
+                assertEquals(n / 2 - 1, sorted.getSize());
+                assertFalse(sorted.contains(n - 1));
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        }, "deep-bst", 64 * 1024);
+        worker.start();
+        worker.join();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+}
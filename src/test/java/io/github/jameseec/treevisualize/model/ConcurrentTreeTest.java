@@ -0,0 +1,270 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTreeTest {
+
+    @Test
+    void testSingleThreadedBehavesLikeWrappedTree() throws InvalidNodeCountException {
+        ConcurrentTree tree = new ConcurrentTree(AVLTree::new);
+        AVLTree expected = new AVLTree();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(expected.insert(i * 7 % 101), tree.insert(i * 7 % 101));
+        }
+        assertFalse(tree.insert(0));
+        assertTrue(tree.delete(14));
+        expected.delete(14);
+
+        assertEquals(expected.toString(), tree.toString());
+        assertEquals(expected.getSize(), tree.getSize());
+        assertTrue(tree.contains(7));
+        assertFalse(tree.contains(14));
+        assertEquals(expected.getRoot().getHeight(), tree.find(expected.getRoot().getValue()).getHeight());
+        assertNull(tree.find(14));
+        assertEquals(expected.findWithPath(50).size(), tree.findWithPath(50).size());
+    }
+
+    @Test
+    void testSnapshotIsUnaffectedByLaterWrites() throws InvalidNodeCountException {
+        ConcurrentTree tree = new ConcurrentTree(RedBlackTree::new);
+        tree.insertAll(new int[] {1, 2, 3, 4, 5});
+        Tree snapshot = tree.snapshot();
+        long version = tree.getVersion();
+        assertSame(snapshot, tree.snapshot());
+        assertSame(snapshot.getRoot(), tree.getRoot());
+
+        tree.insert(6);
+        tree.delete(1);
+        assertEquals(version + 2, tree.getVersion());
+        assertNotSame(snapshot, tree.snapshot());
+        assertInstanceOf(RedBlackTree.class, snapshot);
+        assertTrue(snapshot.contains(1));
+        assertFalse(snapshot.contains(6));
+        assertEquals(5, snapshot.getSize());
+    }
+
+    @Test
+    void testRejectsArenaTrees() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentTree(ArenaAVLTree::new));
+    }
+
+    @Test
+    void testMaxSizeIsEnforced() throws InvalidNodeCountException {
+        ConcurrentTree tree = new ConcurrentTree(() -> new BinarySearchTree(2));
+        tree.insert(1);
+        tree.insert(2);
+        assertThrows(InvalidNodeCountException.class, () -> tree.insert(3));
+        assertEquals(2, tree.getSize());
+    }
+
+    /**
+     * One writer inserts even keys it never deletes, and inserts then deletes odd keys, causing rotations
+     * throughout. Readers on virtual threads must always see every even key published so far, and every
+     * snapshot must be a valid AVL tree holding only keys the writer has used.
+     */
+    @Test
+    void testReadersNeverSeeTornTreesWhileWriterRotates() throws Exception {
+        final int keyCount = 20_000;
+        final int readerCount = 64;
+        ConcurrentTree tree = new ConcurrentTree(AVLTree::new);
+        int[] evens = new Random(7).ints(0, keyCount).distinct().limit(keyCount / 2).map(i -> i * 2).toArray();
+        AtomicInteger published = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(readerCount);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < readerCount; r++) {
+                final int seed = r;
+                readers.add(executor.submit(() -> {
+                    started.countDown();
+                    Random random = new Random(seed);
+                    int checks = 0;
+                    while (!done.get()) {
+                        int visible = published.get();
+                        for (int i = 0; i < 100 && visible > 0; i++) {
+                            int key = evens[random.nextInt(visible)];
+                            assertTrue(tree.contains(key), "Published key " + key + " is missing");
+                            assertEquals(key, tree.find(key).getValue());
+                            List<Node> path = tree.findWithPath(key);
+                            assertEquals(key, path.get(path.size() - 1).getValue());
+                        }
+                        if (checks++ % 16 == 0) {
+                            Tree snapshot = tree.snapshot();
+                            assertTrue(snapshot.getSize() >= visible);
+                            assertEquals(snapshot.getSize(), checkAVLAndCount(snapshot.getRoot(), keyCount * 2));
+                            int[] keys = tree.inOrderKeys();
+                            for (int i = 1; i < keys.length; i++) {
+                                assertTrue(keys[i - 1] < keys[i]);
+                            }
+                        }
+                        Thread.yield();
+                    }
+                    return checks;
+                }));
+            }
+
+            // Otherwise, on few cores, the writer may finish before some readers are scheduled at all
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            OperationResult result = new OperationResult();
+            for (int i = 0; i < evens.length; i++) {
+                tree.insert(evens[i], result);
+                published.set(i + 1);
+                int transientKey = 2 * (evens[i] / 2) + 1;
+                tree.insert(transientKey, result);
+                tree.delete(transientKey, result);
+            }
+            done.set(true);
+
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get() > 0);
+            }
+        }
+        assertEquals(evens.length, tree.getSize());
+        assertEquals(evens.length, checkAVLAndCount(tree.getRoot(), keyCount * 2));
+    }
+
+    @Test
+    void testPersistentSnapshotsShareThePublishedVersion() throws InvalidNodeCountException {
+        ConcurrentTree tree = new ConcurrentTree(PersistentAVLTree::new);
+        tree.buildFrom(IntStream.range(0, 1000).toArray());
+        Tree before = tree.snapshot();
+        tree.insert(5000);
+        Tree after = tree.snapshot();
+        assertNotSame(before.getRoot(), after.getRoot());
+        // Only the path to the new key was copied; the left half of the tree is shared
+        assertSame(before.getRoot().getLeftChild(), after.getRoot().getLeftChild());
+        assertFalse(before.contains(5000));
+        assertEquals(1000, before.getSize());
+        assertEquals(1001, after.getSize());
+    }
+
+    /**
+     * Takes snapshots from another thread in the middle of a write, while the writer holds the write lock.
+     * Snapshots of persistent trees read the published version, so they must not wait for the write to end.
+     */
+    @Test
+    void testPersistentSnapshotsDoNotWaitForWriters() throws Exception {
+        ConcurrentTree tree = new ConcurrentTree(PersistentAVLTree::new);
+        tree.buildFrom(IntStream.range(0, 100).toArray());
+        List<Integer> seenSizes = new ArrayList<>();
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            tree.setListener((event, node, other) -> {
+                if (event == TreeEvent.LINK) {
+                    try {
+                        seenSizes.add(executor.submit(() -> tree.snapshot().getSize()).get(10, TimeUnit.SECONDS));
+                    } catch (Exception e) {
+                        throw new AssertionError("Snapshot waited for the writer", e);
+                    }
+                }
+            });
+            tree.insert(1000);
+        }
+        assertFalse(seenSizes.isEmpty());
+        assertTrue(seenSizes.stream().allMatch(size -> size == 100));
+        assertEquals(101, tree.snapshot().getSize());
+    }
+
+    /**
+     * Readers snapshot a tree far larger than {@code LOCKED_COPY_LIMIT} in a loop while one writer keeps changing
+     * it. Snapshots must never hold the writer back for a copy of the tree, so the writer keeps making progress.
+     */
+    @Test
+    void testWriterKeepsProgressingWhileReadersSnapshot() throws Exception {
+        List<Supplier<Tree>> factories = List.of(AVLTree::new, PersistentAVLTree::new);
+        for (Supplier<Tree> factory : factories) {
+            ConcurrentTree tree = new ConcurrentTree(factory);
+            int initial = ConcurrentTree.LOCKED_COPY_LIMIT * 64;
+            tree.buildFrom(IntStream.range(0, initial).map(i -> i * 2).toArray());
+            AtomicBoolean done = new AtomicBoolean();
+            List<Thread> readers = new ArrayList<>();
+            AtomicInteger snapshots = new AtomicInteger();
+            List<Throwable> failures = new CopyOnWriteArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                Thread reader = new Thread(() -> {
+                    try {
+                        while (!done.get()) {
+                            Tree snapshot = tree.snapshot();
+                            assertTrue(snapshot.getSize() >= initial);
+                            snapshots.incrementAndGet();
+                        }
+                    } catch (Throwable t) {
+                        failures.add(t);
+                    }
+                });
+                reader.start();
+                readers.add(reader);
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            int writes = 0;
+            while (System.nanoTime() < deadline) {
+                int key = 2 * (writes % initial) + 1;
+                tree.insert(key);
+                tree.delete(key);
+                writes++;
+            }
+            done.set(true);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+
+            assertTrue(failures.isEmpty(), () -> failures.get(0).toString());
+            assertTrue(writes > 1000, "Writer completed only " + writes + " writes");
+            assertEquals(initial, tree.getSize());
+            if (factory != factories.get(0)) {
+                // Persistent snapshots never copy, so readers keep up with the writer
+                assertTrue(snapshots.get() > 0);
+            }
+        }
+    }
+
+    // Checks ordering, stored heights and balance iteratively, returning the node count.
+    private static int checkAVLAndCount(Node root, int keyLimit) {
+        if (root == null) {
+            return 0;
+        }
+        List<Node> order = new ArrayList<>();
+        List<Node> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            order.add(node);
+            if (node.getLeftChild() != null) {
+                assertTrue(node.getLeftChild().getValue() < node.getValue());
+                stack.add(node.getLeftChild());
+            }
+            if (node.getRightChild() != null) {
+                assertTrue(node.getRightChild().getValue() > node.getValue());
+                stack.add(node.getRightChild());
+            }
+            assertTrue(node.getValue() >= 0 && node.getValue() < keyLimit);
+        }
+        // Children come after parents in pre-order, so check heights bottom-up
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Node node = order.get(i);
+            int left = node.getLeftChild() == null ? -1 : node.getLeftChild().getHeight();
+            int right = node.getRightChild() == null ? -1 : node.getRightChild().getHeight();
+            assertEquals(1 + Math.max(left, right), node.getHeight());
+            assertTrue(Math.abs(left - right) <= 1);
+        }
+        return order.size();
+    }
+}
@@ -0,0 +1,280 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs random mixes of operations against every type of tree and a {@link TreeSet}, failing on the first
+ * difference in results, size or contents, or on a violated invariant. Operations come in rounds that each
+ * start from an empty tree, so a failing round is shrunk by replaying smaller subsequences of it.
+ * <p>
+ * {@code -Dfuzz.operations} sets the operations per tree type and {@code -Dfuzz.seed} the seed, either a
+ * number or {@code random}; the {@code soak} Maven profile runs many more operations on a random seed.
+ */
+class DifferentialFuzzTest {
+    private static final long OPERATIONS = Long.getLong("fuzz.operations", 250_000);
+    private static final long DEFAULT_SEED = 19;
+    private static final long SEED = parseSeed(System.getProperty("fuzz.seed"));
+    private static final int ROUND_LENGTH = 20_000;
+    private static final int VALIDATE_EVERY = 500;
+    private static final long SHRINK_MILLIS = 30_000;
+
+    private enum Kind {
+        INSERT, DELETE, CONTAINS, FIND, CLEAR
+    }
+
+    private record Operation(Kind kind, int key) {
+        @Override
+        public String toString() {
+            return (kind == Kind.CLEAR) ? "clear" : kind.name().toLowerCase() + " " + key;
+        }
+    }
+
+    private record Failure(int index, String message) {
+    }
+
+    @Test
+    void testBinarySearchTree() {
+        fuzz("BinarySearchTree", BinarySearchTree::new);
+    }
+
+    @Test
+    void testAVLTree() {
+        fuzz("AVLTree", AVLTree::new);
+    }
+
+    @Test
+    void testAugmentedAVLTree() {
+        fuzz("AugmentedAVLTree", () -> new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates()));
+    }
+
+    @Test
+    void testRedBlackTree() {
+        fuzz("RedBlackTree", RedBlackTree::new);
+    }
+
+    @Test
+    void testPersistentTrees() {
+        fuzz("PersistentBinarySearchTree", PersistentBinarySearchTree::new);
+        fuzz("PersistentAVLTree", PersistentAVLTree::new);
+    }
+
+    @Test
+    void testArenaTrees() {
+        fuzz("ArenaBinarySearchTree", ArenaBinarySearchTree::new);
+        fuzz("ArenaAVLTree", ArenaAVLTree::new);
+    }
+
+    @Test
+    void testBTrees() {
+        fuzz("BTree(3)", () -> new BTree(3, Tree.UNBOUNDED));
+        fuzz("BTree", BTree::new);
+    }
+
+    @Test
+    void testConcurrentTree() {
+        fuzz("ConcurrentTree", () -> new ConcurrentTree(AVLTree::new));
+    }
+
+    @Test
+    void testShrinksFailuresToFewOperations() {
+        // The shrunk length depends on the operations generated, so this runs on a fixed seed even in a soak
+        AssertionError error = assertThrows(AssertionError.class,
+                () -> fuzz("LossyTree", LossyTree::new, DEFAULT_SEED));
+        String message = error.getMessage();
+        assertTrue(message.contains("Shrunk to 5 operations: insert"), message);
+        assertTrue(message.contains("-Dfuzz.seed=" + DEFAULT_SEED), message);
+    }
+
+    /**
+     * Binary search tree that claims to insert odd keys once it holds four nodes, without doing so.
+     */
+    private static final class LossyTree extends BinarySearchTree {
+        @Override
+        protected void insertNode(int val, OperationResult result) {
+            if (size >= 4 && (val & 1) != 0 && find(val) == null) {
+                result.setOutcome(OperationResult.Outcome.INSERTED);
+                return;
+            }
+            super.insertNode(val, result);
+        }
+    }
+
+    private static void fuzz(String name, Supplier<Tree> factory) {
+        fuzz(name, factory, SEED);
+    }
+
+    private static void fuzz(String name, Supplier<Tree> factory, long seed) {
+        long remaining = OPERATIONS;
+        for (int round = 0; remaining > 0; round++) {
+            long roundSeed = seed * 31 + name.hashCode() * 1_000_003L + round;
+            List<Operation> operations = generate(new Random(roundSeed), (int) Math.min(remaining, ROUND_LENGTH));
+            remaining -= operations.size();
+            Failure failure = run(factory, operations, VALIDATE_EVERY);
+            if (failure != null) {
+                List<Operation> shrunk = shrink(factory, operations);
+                Failure shrunkFailure = run(factory, shrunk, 1);
+                fail(name + " differs from TreeSet in round " + round + " at operation " + failure.index()
+                        + ": " + failure.message() + " (reproduce with -Dfuzz.seed=" + seed + ")\n"
+                        + "Shrunk to " + shrunk.size() + " operations: "
+                        + shrunk.stream().map(Operation::toString).collect(Collectors.joining(", "))
+                        + "\nwhich fail with: " + ((shrunkFailure == null) ? "nothing" : shrunkFailure.message()));
+            }
+        }
+    }
+
+    // Generates a round over one of a few key ranges, so that some rounds fill the range and others grow large
+    private static List<Operation> generate(Random random, int length) {
+        int range = switch (random.nextInt(3)) {
+            case 0 -> 64;
+            case 1 -> 4096;
+            default -> 1 << 20;
+        };
+        List<Operation> operations = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            int roll = random.nextInt(10_000);
+            Kind kind = (roll < 4_500) ? Kind.INSERT
+                    : (roll < 8_000) ? Kind.DELETE
+                    : (roll < 9_000) ? Kind.CONTAINS
+                    : (roll < 9_999) ? Kind.FIND
+                    : Kind.CLEAR;
+            int key = (random.nextInt(100) == 0)
+                    ? switch (random.nextInt(3)) {
+                        case 0 -> Integer.MIN_VALUE;
+                        case 1 -> Integer.MAX_VALUE;
+                        default -> random.nextInt();
+                    }
+                    : random.nextInt(range) - range / 2;
+            operations.add(new Operation(kind, key));
+        }
+        return operations;
+    }
+
+    /**
+     * Applies operations to a new tree and a new {@link TreeSet}, checking sizes after every operation
+     * and invariants and contents after every {@code validateEvery} operations and the last.
+     *
+     * @return the first failure, or null if the tree behaved like the set throughout
+     */
+    private static Failure run(Supplier<Tree> factory, List<Operation> operations, int validateEvery) {
+        Tree tree = factory.get();
+        TreeSet<Integer> expected = new TreeSet<>();
+        int index = 0;
+        try {
+            for (; index < operations.size(); index++) {
+                String mismatch = apply(tree, expected, operations.get(index));
+                if (mismatch == null && ((index + 1) % validateEvery == 0 || index == operations.size() - 1)) {
+                    mismatch = check(tree, expected);
+                }
+                if (mismatch != null) {
+                    return new Failure(index, operations.get(index) + ": " + mismatch);
+                }
+            }
+        } catch (RuntimeException | InvalidNodeCountException e) {
+            return new Failure(index, operations.get(index) + " threw " + e);
+        }
+        return null;
+    }
+
+    private static String apply(Tree tree, TreeSet<Integer> expected, Operation operation)
+            throws InvalidNodeCountException {
+        int key = operation.key();
+        switch (operation.kind()) {
+            case INSERT -> {
+                boolean inserted = tree.insert(key);
+                if (inserted != expected.add(key)) {
+                    return "insert returned " + inserted;
+                }
+            }
+            case DELETE -> {
+                boolean deleted = tree.delete(key);
+                if (deleted != expected.remove(key)) {
+                    return "delete returned " + deleted;
+                }
+            }
+            case CONTAINS -> {
+                if (tree.contains(key) != expected.contains(key)) {
+                    return "contains returned " + !expected.contains(key);
+                }
+            }
+            case FIND -> {
+                Node node = tree.find(key);
+                if (expected.contains(key) ? (node == null || node.getValue() != key) : node != null) {
+                    return "find returned " + ((node == null) ? "null" : "node " + node.getValue());
+                }
+            }
+            case CLEAR -> {
+                tree.clear();
+                expected.clear();
+            }
+        }
+        if (tree.getSize() != expected.size()) {
+            return "size is " + tree.getSize() + " instead of " + expected.size();
+        }
+        return null;
+    }
+
+    private static String check(Tree tree, TreeSet<Integer> expected) {
+        try {
+            TreeValidator.validate(tree);
+        } catch (IllegalStateException e) {
+            return e.getMessage();
+        }
+        PrimitiveIterator.OfInt actual = tree.iterator();
+        Iterator<Integer> keys = expected.iterator();
+        while (keys.hasNext()) {
+            int key = keys.next();
+            if (!actual.hasNext()) {
+                return "iteration ended before " + key;
+            }
+            int next = actual.nextInt();
+            if (next != key) {
+                return "iteration returned " + next + " instead of " + key;
+            }
+        }
+        return actual.hasNext() ? "iteration continued past " + expected.last() : null;
+    }
+
+    /**
+     * Cuts operations down to the failing prefix, then removes ever smaller chunks while the rest still fails,
+     * checking after every operation. Gives up refining after {@code SHRINK_MILLIS}.
+     */
+    private static List<Operation> shrink(Supplier<Tree> factory, List<Operation> operations) {
+        Failure failure = run(factory, operations, 1);
+        List<Operation> shrunk = new ArrayList<>(operations.subList(0, failure.index() + 1));
+        long deadline = System.currentTimeMillis() + SHRINK_MILLIS;
+        for (int chunk = shrunk.size() / 2; chunk >= 1 && System.currentTimeMillis() < deadline; chunk /= 2) {
+            int start = 0;
+            while (start < shrunk.size() && System.currentTimeMillis() < deadline) {
+                List<Operation> candidate = new ArrayList<>(shrunk.subList(0, start));
+                candidate.addAll(shrunk.subList(Math.min(start + chunk, shrunk.size()), shrunk.size()));
+                Failure candidateFailure = run(factory, candidate, 1);
+                if (candidateFailure != null) {
+                    shrunk = new ArrayList<>(candidate.subList(0, candidateFailure.index() + 1));
+                } else {
+                    start += chunk;
+                }
+            }
+        }
+        return shrunk;
+    }
+
+    private static long parseSeed(String seed) {
+        if (seed == null || seed.isEmpty()) {
+            return DEFAULT_SEED;
+        }
+        return seed.equals("random") ? ThreadLocalRandom.current().nextLong() : Long.decode(seed);
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrozenTreeTest {
+
+    @Test
+    void testLookupsMatchSortedKeysOfEverySize() {
+        for (int size = 0; size <= 300; size++) {
+            int[] keys = IntStream.range(0, size).map(i -> 2 * i).toArray();
+            FrozenTree frozen = FrozenTree.of(keys);
+            assertEquals(size, frozen.getSize());
+            assertArrayEquals(keys, IntStream.generate(frozen.iterator()::nextInt).limit(size).toArray());
+            assertEquals(size > 0, frozen.iterator().hasNext());
+            for (int val = -1; val <= 2 * size; val++) {
+                assertEquals(val >= 0 && val % 2 == 0 && val < 2 * size, frozen.contains(val));
+                if (val < 2 * size - 1) {
+                    assertEquals(Math.max(0, val + (val & 1)), frozen.ceiling(val));
+                }
+            }
+            int max = 2 * size - 2;
+            assertThrows(NoSuchElementException.class, () -> frozen.ceiling(max + 1));
+        }
+    }
+
+    @Test
+    void testFreezesTreesOfEveryType() throws InvalidNodeCountException {
+        Random random = new Random(16);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 5000; i++) {
+            expected.add(random.nextInt());
+        }
+        expected.add(Integer.MIN_VALUE);
+        expected.add(Integer.MAX_VALUE);
+        for (Tree tree : new Tree[]{new BinarySearchTree(), new AVLTree(), new RedBlackTree(), new BTree()}) {
+            for (int key : expected) {
+                tree.insert(key);
+            }
+            FrozenTree frozen = FrozenTree.of(tree);
+            tree.clear();
+            assertEquals(expected.size(), frozen.getSize());
+            for (int key : expected) {
+                assertTrue(frozen.contains(key));
+                if (key != Integer.MAX_VALUE && !expected.contains(key + 1)) {
+                    assertFalse(frozen.contains(key + 1));
+                }
+            }
+            assertEquals(expected.first(), frozen.ceiling(Integer.MIN_VALUE));
+            assertEquals(Integer.MAX_VALUE, frozen.ceiling(expected.lower(Integer.MAX_VALUE) + 1));
+        }
+    }
+
+    @Test
+    void testRejectsUnsortedKeys() {
+        assertThrows(IllegalArgumentException.class, () -> FrozenTree.of(new int[]{1, 3, 3}));
+        assertThrows(IllegalArgumentException.class, () -> FrozenTree.of(new int[]{2, 1}));
+    }
+}
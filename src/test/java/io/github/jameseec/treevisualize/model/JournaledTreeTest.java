@@ -0,0 +1,237 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledTreeTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReopenRestoresShape() throws IOException, InvalidNodeCountException {
+        List<Supplier<Tree>> factories = List.of(BinarySearchTree::new, AVLTree::new, RedBlackTree::new);
+        for (int i = 0; i < factories.size(); i++) {
+            Path journal = directory.resolve("tree" + i);
+            Tree expected = factories.get(i).get();
+            try (JournaledTree tree = new JournaledTree(journal, factories.get(i))) {
+                applyRandomOperations(tree, expected, 3000, 41);
+                assertEquals(expected.toString(), tree.toString());
+            }
+            try (JournaledTree reopened = new JournaledTree(journal, factories.get(i))) {
+                assertEquals(expected.toString(), reopened.toString());
+                assertEquals(expected.getSize(), reopened.getSize());
+                // Operations continue the same journal
+                applyRandomOperations(reopened, expected, 1000, 42);
+            }
+            try (JournaledTree reopened = new JournaledTree(journal, factories.get(i))) {
+                assertEquals(expected.toString(), reopened.toString());
+            }
+        }
+    }
+
+    @Test
+    void testCheckpointsTruncateTheJournal() throws IOException, InvalidNodeCountException {
+        AVLTree expected = new AVLTree();
+        try (JournaledTree tree = new JournaledTree(directory, AVLTree::new, 64, 5, 500)) {
+            applyRandomOperations(tree, expected, 5000, 43);
+            tree.checkpoint();
+            assertEquals(List.of(), files(OperationJournal.SEGMENT_PREFIX).stream()
+                    .filter(file -> sizeOf(file) > 0).toList());
+            assertEquals(1, files(JournaledTree.CHECKPOINT_PREFIX).size());
+            applyRandomOperations(tree, expected, 100, 44);
+        }
+        try (JournaledTree reopened = new JournaledTree(directory, AVLTree::new)) {
+            assertEquals(expected.toString(), reopened.toString());
+        }
+    }
+
+    @Test
+    void testCrashLosesOnlyUncommittedOperations() throws IOException, InvalidNodeCountException {
+        Path crashed = directory.resolve("crashed");
+        JournaledTree tree = new JournaledTree(directory.resolve("live"), RedBlackTree::new, 1_000_000, 1_000_000, 1000);
+        RedBlackTree expected = new RedBlackTree();
+        applyRandomOperations(tree, expected, 3000, 45);
+        tree.sync();
+        String committed = tree.toString();
+        tree.insert(1_000_000);
+
+        // Copy the directory as it is on disk, as if the process died before the next commit
+        copyDirectory(tree.getDirectory(), crashed);
+        try (JournaledTree recovered = new JournaledTree(crashed, RedBlackTree::new)) {
+            assertEquals(committed, recovered.toString());
+            assertFalse(recovered.contains(1_000_000));
+        }
+        tree.close();
+    }
+
+    @Test
+    void testTornRecordIsDiscarded() throws IOException, InvalidNodeCountException {
+        try (JournaledTree tree = new JournaledTree(directory, AVLTree::new)) {
+            for (int i = 0; i < 10; i++) {
+                tree.insert(i);
+            }
+        }
+        Path segment = files(OperationJournal.SEGMENT_PREFIX).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // Half of an eleventh record, then a damaged tenth record
+            channel.write(ByteBuffer.allocate(OperationJournal.RECORD_BYTES / 2), channel.size());
+            channel.write(ByteBuffer.wrap(new byte[] {7}), 9L * OperationJournal.RECORD_BYTES + 10);
+        }
+        try (JournaledTree recovered = new JournaledTree(directory, AVLTree::new)) {
+            assertArrayEquals(IntStream.range(0, 9).toArray(), recovered.stream().toArray());
+            assertEquals(10, recovered.getNextSequence());
+            recovered.insert(100);
+        }
+        try (JournaledTree recovered = new JournaledTree(directory, AVLTree::new)) {
+            assertArrayEquals(IntStream.concat(IntStream.range(0, 9), IntStream.of(100)).toArray(),
+                    recovered.stream().toArray());
+        }
+    }
+
+    @Test
+    void testGapsAmongCoveredSegmentsKeepLaterOperations() throws IOException, InvalidNodeCountException {
+        try (JournaledTree tree = new JournaledTree(directory, AVLTree::new, 1, 1000, 1_000_000)) {
+            for (int i = 0; i < 40; i++) {
+                tree.insert(i);
+            }
+        }
+        Path oldest = OperationJournal.segment(directory, 1);
+        byte[] oldestRecords = Files.readAllBytes(oldest);
+        try (JournaledTree tree = new JournaledTree(directory, AVLTree::new, 1, 1000, 1_000_000)) {
+            for (int i = 40; i < 80; i++) {
+                tree.insert(i);
+            }
+            tree.checkpoint();
+            for (int i = 80; i < 90; i++) {
+                tree.insert(i);
+            }
+            tree.sync();
+        }
+        // As if a crash while deleting the segments the checkpoint covers had removed the later one first
+        Files.write(oldest, oldestRecords);
+        assertFalse(Files.exists(OperationJournal.segment(directory, 41)));
+        try (JournaledTree recovered = new JournaledTree(directory, AVLTree::new)) {
+            assertArrayEquals(IntStream.range(0, 90).toArray(), recovered.stream().toArray());
+            assertEquals(91, recovered.getNextSequence());
+        }
+        assertFalse(Files.exists(oldest));
+    }
+
+    @Test
+    void testBulkLoadsAndClearAreDurable() throws IOException, InvalidNodeCountException {
+        try (JournaledTree tree = new JournaledTree(directory, () -> new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates()))) {
+            tree.buildFrom(IntStream.range(0, 1000).toArray());
+            tree.delete(500);
+            assertEquals(500, tree.select(500) - 1);
+        }
+        try (JournaledTree tree = new JournaledTree(directory, () -> new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates()))) {
+            assertEquals(999, tree.getSize());
+            assertEquals(501, tree.select(500));
+            tree.clear();
+            tree.insertAll(new int[] {5, 3, 9});
+        }
+        try (JournaledTree tree = new JournaledTree(directory, AVLTree::new)) {
+            assertArrayEquals(new int[] {3, 5, 9}, tree.stream().toArray());
+        }
+    }
+
+    @Test
+    void testFailedAppendLeavesTreeUnchanged() throws IOException, InvalidNodeCountException {
+        AVLTree expected = new AVLTree();
+        JournaledTree tree = new JournaledTree(directory, AVLTree::new, 1, 1000, 1_000_000);
+        applyRandomOperations(tree, expected, 500, 47);
+        // A directory where the next segment goes makes the checkpoint fail to open it, and every later append fail
+        Path blocked = Files.createDirectory(OperationJournal.segment(directory, tree.getNextSequence()));
+        assertThrows(IOException.class, tree::checkpoint);
+        int absent = IntStream.range(0, 1000).filter(value -> !expected.contains(value)).findFirst().orElseThrow();
+        int present = expected.stream().findFirst().orElseThrow();
+
+        assertThrows(UncheckedIOException.class, () -> tree.insert(absent));
+        assertThrows(UncheckedIOException.class, () -> tree.delete(present));
+        assertThrows(UncheckedIOException.class, tree::clear);
+        assertEquals(expected.toString(), tree.toString());
+        assertEquals(expected.getSize(), tree.getSize());
+        // Writes that change nothing are not journaled, so they still succeed
+        assertFalse(tree.insert(present));
+        assertFalse(tree.delete(absent));
+        tree.close();
+
+        Files.delete(blocked);
+        try (JournaledTree reopened = new JournaledTree(directory, AVLTree::new)) {
+            assertEquals(expected.toString(), reopened.toString());
+        }
+    }
+
+    @Test
+    void testPersistentTreeAndInvalidArguments() throws IOException, InvalidNodeCountException {
+        PersistentAVLTree expected = new PersistentAVLTree();
+        try (JournaledTree tree = new JournaledTree(directory, PersistentAVLTree::new, 16, 5, 200)) {
+            applyRandomOperations(tree, expected, 1000, 46);
+        }
+        try (JournaledTree tree = new JournaledTree(directory, PersistentAVLTree::new)) {
+            assertEquals(expected.toString(), tree.toString());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new JournaledTree(directory, ArenaAVLTree::new));
+        assertThrows(IllegalArgumentException.class, () -> new JournaledTree(directory, AVLTree::new, 0, 5, 5));
+
+        JournaledTree closed = new JournaledTree(directory.resolve("closed"), AVLTree::new);
+        closed.close();
+        assertThrows(IllegalStateException.class, () -> closed.insert(1));
+    }
+
+    private static void applyRandomOperations(Tree tree, Tree expected, int count, long seed)
+            throws InvalidNodeCountException {
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            int value = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.delete(value), tree.delete(value));
+            } else {
+                assertEquals(expected.insert(value), tree.insert(value));
+            }
+        }
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        List<Path> matches = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*")) {
+            files.forEach(matches::add);
+        }
+        return matches;
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void copyDirectory(Path source, Path target) throws IOException {
+        Files.createDirectories(target);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(source)) {
+            for (Path file : files) {
+                Files.copy(file, target.resolve(file.getFileName()));
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentTreeTest {
+
+    @Test
+    void testPersistentBSTMatchesBST() throws InvalidNodeCountException {
+        assertSameShapes(new BinarySearchTree(), new PersistentBinarySearchTree());
+    }
+
+    @Test
+    void testPersistentAVLMatchesAVL() throws InvalidNodeCountException {
+        assertSameShapes(new AVLTree(), new PersistentAVLTree());
+    }
+
+    @Test
+    void testEarlierVersionsAreUnchanged() throws InvalidNodeCountException {
+        PersistentAVLTree tree = new PersistentAVLTree();
+        Random random = new Random(5);
+        List<String> shapes = new ArrayList<>();
+        shapes.add(tree.toString());
+        for (int i = 0; i < 500; i++) {
+            int value = random.nextInt(200);
+            boolean changed = random.nextBoolean() ? tree.insert(value) : tree.delete(value);
+            if (changed) {
+                shapes.add(tree.toString());
+            }
+        }
+
+        VersionHistory history = tree.getHistory();
+        assertEquals(shapes.size(), history.getVersionCount());
+        for (int i = 0; i < shapes.size(); i++) {
+            tree.goToVersion(i);
+            assertEquals(shapes.get(i), tree.toString());
+        }
+    }
+
+    @Test
+    void testVersionsCopyOnlyThePath() throws InvalidNodeCountException {
+        PersistentAVLTree tree = new PersistentAVLTree();
+        for (int i = 0; i < 100_000; i++) {
+            tree.insert(i);
+        }
+        VersionHistory history = tree.getHistory();
+        // Height is at most about 1.44 log2(n), plus a few nodes moved by rotations
+        int limit = 2 * (32 - Integer.numberOfLeadingZeros(tree.getSize())) + 4;
+        for (int i = 1; i < history.getVersionCount(); i++) {
+            assertTrue(history.getCopiedNodes(i) <= limit, "Version " + i + " copied " + history.getCopiedNodes(i));
+        }
+        assertTrue(tree.delete(50_000));
+        assertTrue(history.getCopiedNodes(history.getCurrent()) <= limit);
+    }
+
+    @Test
+    void testUndoRedo() throws InvalidNodeCountException {
+        PersistentBinarySearchTree tree = new PersistentBinarySearchTree();
+        assertFalse(tree.undo());
+        tree.insert(2);
+        tree.insert(1);
+        tree.insert(3);
+        String full = tree.toString();
+
+        assertTrue(tree.undo());
+        assertFalse(tree.contains(3));
+        assertEquals(2, tree.getSize());
+        assertTrue(tree.redo());
+        assertEquals(full, tree.toString());
+        assertFalse(tree.redo());
+
+        tree.clear();
+        assertNull(tree.getRoot());
+        assertTrue(tree.undo());
+        assertEquals(full, tree.toString());
+        assertEquals(3, tree.getSize());
+
+        // A new change after undoing discards the versions that could have been redone
+        tree.undo();
+        tree.insert(4);
+        assertFalse(tree.getHistory().canRedo());
+        assertEquals("2[1[null, null], 4[null, null]]", tree.toString());
+    }
+
+    @Test
+    void testOldestVersionsAreEvicted() throws InvalidNodeCountException {
+        PersistentBinarySearchTree byCount = new PersistentBinarySearchTree(Tree.UNBOUNDED, 5, Long.MAX_VALUE);
+        for (int i = 0; i < 10; i++) {
+            byCount.insert(i);
+        }
+        assertEquals(5, byCount.getHistory().getVersionCount());
+        assertEquals(6, byCount.getHistory().getEvictedCount());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(byCount.undo());
+        }
+        assertFalse(byCount.undo());
+        assertEquals(6, byCount.getSize());
+
+        long limit = 20L * VersionHistory.NODE_BYTES;
+        PersistentAVLTree byBytes = new PersistentAVLTree(Tree.UNBOUNDED, 1000, limit);
+        for (int i = 0; i < 100; i++) {
+            byBytes.insert(i);
+            assertTrue(byBytes.getHistory().getRetainedBytes() <= limit);
+        }
+        assertEquals(100, byBytes.getSize());
+        assertTrue(byBytes.getHistory().getVersionCount() < 20);
+    }
+
+    @Test
+    void testEvictionCountsOnlyUnsharedNodes() throws InvalidNodeCountException {
+        // A built tree far over the byte limit is shared by the next version, so it is not evicted for it
+        PersistentAVLTree tree = new PersistentAVLTree(Tree.UNBOUNDED, 1000, 1024L * VersionHistory.NODE_BYTES);
+        tree.buildFrom(IntStream.range(0, 100_000).map(i -> 2 * i).toArray());
+        tree.insert(1);
+        VersionHistory history = tree.getHistory();
+        assertEquals(3, history.getVersionCount());
+        assertEquals(0, history.getEvictedCount());
+        // Copies on the path to the new key replace as many nodes of the built version, less the new node
+        assertEquals((history.getCopiedNodes(2) - 1L) * VersionHistory.NODE_BYTES, history.getRetainedBytes());
+        assertTrue(tree.undo());
+        assertEquals(history.getBytes(2), history.getRetainedBytes());
+
+        // Building again replaces every node, so the older versions go once they exceed the limit
+        tree.redo();
+        tree.buildFrom(IntStream.range(0, 2000).toArray());
+        assertEquals(1, history.getVersionCount());
+        assertEquals(0, history.getRetainedBytes());
+    }
+
+    @Test
+    void testBuildFromIsOneVersion() throws InvalidNodeCountException {
+        PersistentAVLTree tree = new PersistentAVLTree();
+        tree.insert(100);
+        tree.buildFrom(new int[] {1, 2, 3, 4, 5});
+        assertEquals(3, tree.getHistory().getVersionCount());
+        assertEquals(5, tree.getHistory().getCopiedNodes(2));
+        assertTrue(tree.undo());
+        assertTrue(tree.contains(100));
+        assertEquals(1, tree.getSize());
+    }
+
+    @Test
+    void testMaxSize() throws InvalidNodeCountException {
+        PersistentBinarySearchTree tree = new PersistentBinarySearchTree(Tree.MAX_SIZE);
+        for (int i = 0; i < Tree.MAX_SIZE; i++) {
+            tree.insert(i);
+        }
+        assertThrows(InvalidNodeCountException.class, () -> tree.insert(-1));
+    }
+
+    // Applies the same random inserts and deletes to both trees, comparing shapes after each change.
+    private static void assertSameShapes(Tree expected, Tree actual) throws InvalidNodeCountException {
+        Random random = new Random(11);
+        OperationResult expectedResult = new OperationResult();
+        OperationResult actualResult = new OperationResult();
+        for (int i = 0; i < 2000; i++) {
+            int value = random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                expected.delete(value, expectedResult);
+                actual.delete(value, actualResult);
+            } else {
+                expected.insert(value, expectedResult);
+                actual.insert(value, actualResult);
+            }
+            assertEquals(expectedResult.getOutcome(), actualResult.getOutcome());
+            assertEquals(expectedResult.getPathLength(), actualResult.getPathLength());
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(expected.getSize(), actual.getSize());
+        }
+    }
+}
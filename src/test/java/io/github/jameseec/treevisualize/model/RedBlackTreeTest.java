@@ -0,0 +1,175 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedBlackTreeTest {
+
+    private RedBlackTree rb;
+
+    @BeforeEach
+    void setUp() {
+        rb = new RedBlackTree();
+    }
+
+    // Insertions
+
+    @Test
+    void testInsertRootIsBlack() throws InvalidNodeCountException {
+        assertTrue(rb.insert(10));
+        assertEquals(Color.BLACK, rb.getRoot().getColor());
+        assertEquals(1, rb.getSize());
+    }
+
+    @Test
+    void testRedUncleRecolors() throws InvalidNodeCountException {
+        rb.insert(20);
+        rb.insert(10);
+        rb.insert(30);
+
+        OperationResult result = rb.insert(5, new OperationResult());
+        assertEquals(0, result.getRotations());
+        // parent and uncle turn black; grandparent turns red, then back to black as root
+        assertEquals(4, result.getRecolorings());
+        assertEquals(Color.BLACK, rb.getRoot().getLeftChild().getColor());
+        assertEquals(Color.BLACK, rb.getRoot().getRightChild().getColor());
+        assertEquals(Color.RED, rb.find(5).getColor());
+        checkRedBlackInvariant(rb.getRoot());
+    }
+
+    @Test
+    void testLeftRightCaseRotatesTwice() throws InvalidNodeCountException {
+        rb.insert(30);
+        rb.insert(10);
+        OperationResult result = rb.insert(20, new OperationResult());
+
+        assertEquals(2, result.getRotations());
+        assertEquals("20[10[null, null], 30[null, null]]", rb.toString());
+        assertEquals(Color.BLACK, rb.getRoot().getColor());
+        assertEquals(Color.RED, rb.getRoot().getLeftChild().getColor());
+        assertEquals(Color.RED, rb.getRoot().getRightChild().getColor());
+    }
+
+    @Test
+    void testSortedInsertStaysBalanced() throws InvalidNodeCountException {
+        int n = 100_000;
+        for (int i = 0; i < n; i++) {
+            rb.insert(i);
+        }
+        assertEquals(n, rb.getSize());
+        int blackHeight = checkRedBlackInvariant(rb.getRoot());
+        // Height is at most twice the black height
+        assertTrue(blackHeight <= 2 * (Math.log(n + 1) / Math.log(2)));
+    }
+
+    @Test
+    void testInsertDuplicateReturnsFalse() throws InvalidNodeCountException {
+        assertTrue(rb.insert(10));
+        assertFalse(rb.insert(10));
+        assertEquals(1, rb.getSize());
+    }
+
+    @Test
+    void testBuildFromProducesValidColoring() throws InvalidNodeCountException {
+        for (int n : new int[] {1, 2, 3, 7, 10, 1000}) {
+            int[] keys = new int[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = i;
+            }
+            rb.buildFrom(keys);
+            assertEquals(n, rb.getSize());
+            checkRedBlackInvariant(rb.getRoot());
+        }
+        // Built tree supports normal rebalancing afterwards
+        for (int i = 0; i < 1000; i += 3) {
+            assertTrue(rb.delete(i));
+        }
+        assertTrue(rb.insert(5000));
+        checkRedBlackInvariant(rb.getRoot());
+    }
+
+    // Deletions
+
+    @Test
+    void testDeleteLeafAndRoot() throws InvalidNodeCountException {
+        rb.insert(20);
+        rb.insert(10);
+        rb.insert(30);
+
+        assertTrue(rb.delete(10));
+        checkRedBlackInvariant(rb.getRoot());
+        assertTrue(rb.delete(20));
+        checkRedBlackInvariant(rb.getRoot());
+        assertEquals("30[null, null]", rb.toString());
+        assertFalse(rb.delete(20));
+        assertTrue(rb.delete(30));
+        assertNull(rb.getRoot());
+        assertEquals(0, rb.getSize());
+    }
+
+    @Test
+    void testDeleteBlackLeafRotatesSibling() throws InvalidNodeCountException {
+        for (int val : new int[] {20, 10, 30, 40}) {
+            rb.insert(val);
+        }
+        rb.insert(50);  // 40 becomes a black subtree root with red children
+        OperationResult result = rb.delete(10, new OperationResult());
+        assertTrue(result.getRotations() > 0);
+        checkRedBlackInvariant(rb.getRoot());
+        assertFalse(rb.contains(10));
+    }
+
+    @Test
+    void testRandomOperationsMatchTreeSet() throws InvalidNodeCountException {
+        Random random = new Random(7);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            int val = random.nextInt(500);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(val), rb.insert(val));
+            } else {
+                assertEquals(expected.remove(val), rb.delete(val));
+            }
+            if (i % 100 == 0) {
+                checkRedBlackInvariant(rb.getRoot());
+            }
+        }
+        assertEquals(expected.size(), rb.getSize());
+        checkRedBlackInvariant(rb.getRoot());
+    }
+
+    /**
+     * Recursively verifies red-black invariants: black root, no red node with a red child,
+     * equal black height on every path, and BST ordering.
+     *
+     * @return black height of the subtree, counting null leaves as 1
+     */
+    private int checkRedBlackInvariant(Node root) {
+        if (root != null) {
+            assertEquals(Color.BLACK, root.getColor(), "Root must be black");
+        }
+        return checkSubtree(root, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    private int checkSubtree(Node node, long min, long max) {
+        if (node == null) return 1;
+        assertTrue(node.getValue() > min && node.getValue() < max, "Order violated at node " + node.getValue());
+        assertNotNull(node.getColor(), "Missing color at node " + node.getValue());
+        if (node.getColor() == Color.RED) {
+            for (Node child : new Node[] {node.getLeftChild(), node.getRightChild()}) {
+                assertTrue(child == null || child.getColor() == Color.BLACK,
+                        "Red node " + node.getValue() + " has a red child");
+            }
+        }
+        int left = checkSubtree(node.getLeftChild(), min, node.getValue());
+        int right = checkSubtree(node.getRightChild(), node.getValue(), max);
+        assertEquals(left, right, "Black height mismatch at node " + node.getValue());
+        return left + (node.getColor() == Color.BLACK ? 1 : 0);
+    }
+}
@@ -0,0 +1,161 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeEventTest {
+
+    @Test
+    void testBinarySearchTreeReportsVisitsLinksAndSwaps() throws InvalidNodeCountException {
+        BinarySearchTree tree = new BinarySearchTree();
+        List<String> events = record(tree);
+        tree.insert(5);
+        tree.insert(3);
+        tree.insert(8);
+        assertEquals(List.of("LINK - 5", "VISIT 5", "LINK 5 3", "VISIT 5", "LINK 5 8"), events);
+
+        events.clear();
+        tree.delete(5);
+        assertEquals(List.of("VISIT 5", "VISIT 8", "SWAP_VALUE 8 5", "LINK 8 -"), events);
+
+        events.clear();
+        tree.contains(3);
+        assertEquals(List.of("VISIT 8", "VISIT 3"), events);
+    }
+
+    @Test
+    void testAVLTreeReportsRotationsAndHeights() throws InvalidNodeCountException {
+        AVLTree tree = new AVLTree();
+        tree.insert(1);
+        tree.insert(2);
+        List<String> events = record(tree);
+        tree.insert(3);
+        assertEquals(List.of("VISIT 1", "VISIT 2", "LINK 2 3", "HEIGHT_UPDATE 2", "LINK 1 2", "HEIGHT_UPDATE 1",
+                "ROTATE_LEFT 1 2", "HEIGHT_UPDATE 1", "HEIGHT_UPDATE 2", "LINK - 2"), events);
+    }
+
+    @Test
+    void testRedBlackTreeReportsRecolorings() throws InvalidNodeCountException {
+        RedBlackTree tree = new RedBlackTree();
+        tree.insert(1);
+        tree.insert(2);
+        List<String> events = record(tree);
+        tree.insert(3);
+        assertEquals(List.of("VISIT 1", "VISIT 2", "LINK 2 3", "ROTATE_LEFT 1 2", "LINK - 2",
+                "RECOLOR 2", "RECOLOR 1"), events);
+    }
+
+    @Test
+    void testEventsRebuildTheShapeOfEveryTree() throws InvalidNodeCountException {
+        Random random = new Random(17);
+        Tree[] trees = {new BinarySearchTree(), new AVLTree(), new RedBlackTree(),
+                new PersistentBinarySearchTree(), new PersistentAVLTree(), new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates())};
+        for (Tree tree : trees) {
+            ShadowTree shadow = new ShadowTree();
+            tree.setListener(shadow);
+            for (int i = 0; i < 3000; i++) {
+                int val = random.nextInt(300);
+                if (random.nextBoolean()) {
+                    tree.insert(val);
+                } else {
+                    tree.delete(val);
+                }
+                shadow.assertMatches(tree.getClass().getSimpleName(), tree.getRoot());
+            }
+        }
+    }
+
+    @Test
+    void testListenerSupport() throws Exception {
+        assertThrows(UnsupportedOperationException.class, () -> new ArenaAVLTree().setListener((e, n, o) -> {
+        }));
+        assertThrows(UnsupportedOperationException.class, () -> new BTree().setListener((e, n, o) -> {
+        }));
+        new BTree().setListener(null);
+
+        ConcurrentTree concurrent = new ConcurrentTree(AVLTree::new);
+        List<String> events = record(concurrent);
+        concurrent.insert(4);
+        assertEquals(List.of("LINK - 4"), events);
+        concurrent.setListener(null);
+        concurrent.insert(5);
+        assertEquals(1, events.size());
+    }
+
+    private static List<String> record(Tree tree) {
+        List<String> events = new ArrayList<>();
+        tree.setListener((event, node, other) -> {
+            StringBuilder line = new StringBuilder(event.name()).append(' ').append(name(node));
+            if (other != null || event == TreeEvent.LINK) {
+                line.append(' ').append(name(other));
+            }
+            events.add(line.toString());
+        });
+        return events;
+    }
+
+    private static String name(Node node) {
+        return (node == null) ? "-" : Integer.toString(node.getValue());
+    }
+
+    /**
+     * Tracks each node's parent from events alone, to check that they describe every change of shape.
+     */
+    private static final class ShadowTree implements TreeListener {
+        private final Map<Node, Node> parents = new IdentityHashMap<>();
+
+        @Override
+        public void onEvent(TreeEvent event, Node node, Node other) {
+            switch (event) {
+                case LINK -> {
+                    if (other != null) {
+                        parents.put(other, node);
+                    }
+                }
+                case ROTATE_LEFT -> {
+                    parents.put(node, other);
+                    if (node.getRightChild() != null) {
+                        parents.put(node.getRightChild(), node);
+                    }
+                }
+                case ROTATE_RIGHT -> {
+                    parents.put(node, other);
+                    if (node.getLeftChild() != null) {
+                        parents.put(node.getLeftChild(), node);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        void assertMatches(String tree, Node root) {
+            if (root == null) {
+                return;
+            }
+            assertTrue(parents.containsKey(root));
+            assertNull(parents.get(root));
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                for (Node child : new Node[]{node.getLeftChild(), node.getRightChild()}) {
+                    if (child != null) {
+                        assertSame(node, parents.get(child), tree);
+                        stack.push(child);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeIteratorTest {
+
+    @Test
+    void testTraversalOrdersMatchRecursiveTraversals() throws InvalidNodeCountException {
+        for (Tree tree : new Tree[] {new BinarySearchTree(), new AVLTree(), new RedBlackTree()}) {
+            new Random(3).ints(500, 0, 1000).forEach(value -> insert(tree, value));
+
+            List<Integer> pre = new ArrayList<>();
+            List<Integer> in = new ArrayList<>();
+            List<Integer> post = new ArrayList<>();
+            traverse(tree.getRoot(), pre, in, post);
+            assertEquals(pre, drain(tree.preOrderIterator()));
+            assertEquals(in, drain(tree.iterator()));
+            assertEquals(post, drain(tree.postOrderIterator()));
+        }
+    }
+
+    @Test
+    void testEmptyTree() {
+        Tree tree = new AVLTree();
+        assertFalse(tree.iterator().hasNext());
+        assertFalse(tree.preOrderIterator().hasNext());
+        assertFalse(tree.postOrderIterator().hasNext());
+        assertThrows(NoSuchElementException.class, () -> tree.postOrderIterator().nextInt());
+        assertEquals(0, tree.stream().count());
+    }
+
+    @Test
+    void testRangeIterator() throws InvalidNodeCountException {
+        AVLTree tree = new AVLTree();
+        for (int i = 0; i < 100; i += 2) {
+            tree.insert(i);
+        }
+        assertEquals(List.of(10, 12, 14), drain(tree.rangeIterator(9, 15)));
+        assertEquals(List.of(10, 12, 14), drain(tree.rangeIterator(10, 14)));
+        assertEquals(List.of(), drain(tree.rangeIterator(11, 11)));
+        assertEquals(List.of(), drain(tree.rangeIterator(20, 10)));
+        assertEquals(List.of(96, 98), drain(tree.rangeIterator(95, Integer.MAX_VALUE)));
+        assertEquals(50, drain(tree.rangeIterator(Integer.MIN_VALUE, Integer.MAX_VALUE)).size());
+    }
+
+    @Test
+    void testDegenerateTreeDoesNotRecurse() throws InvalidNodeCountException {
+        BinarySearchTree tree = new BinarySearchTree();
+        for (int i = 0; i < 20_000; i++) {
+            tree.insert(i);
+        }
+        assertEquals(20_000, drain(tree.postOrderIterator()).size());
+        assertEquals(20_000, drain(tree.preOrderIterator()).size());
+        assertEquals(20_000, drain(tree.iterator()).size());
+        assertEquals(20_000, tree.stream().count());
+    }
+
+    @Test
+    void testSplitsAreExactForAugmentedTrees() throws InvalidNodeCountException {
+        AVLTree tree = new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates());
+        tree.buildFrom(IntStream.range(0, 1000).toArray());
+
+        Spliterator.OfInt suffix = tree.spliterator();
+        assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.SORTED));
+        List<Spliterator.OfInt> parts = new ArrayList<>();
+        parts.add(suffix);
+        // Keep splitting every part, checking that sizes stay exact and the parts stay in order
+        for (int round = 0; round < 6; round++) {
+            List<Spliterator.OfInt> next = new ArrayList<>();
+            for (Spliterator.OfInt part : parts) {
+                Spliterator.OfInt prefix = part.trySplit();
+                if (prefix != null) {
+                    next.add(prefix);
+                }
+                next.add(part);
+            }
+            parts = next;
+        }
+        assertTrue(parts.size() > 16);
+        int expected = 0;
+        for (Spliterator.OfInt part : parts) {
+            long size = part.estimateSize();
+            List<Integer> values = new ArrayList<>();
+            part.forEachRemaining((int value) -> values.add(value));
+            assertEquals(size, values.size());
+            for (int value : values) {
+                assertEquals(expected++, value);
+            }
+        }
+        assertEquals(1000, expected);
+    }
+
+    @Test
+    void testParallelStreams() throws InvalidNodeCountException {
+        AVLTree tree = new AVLTree();
+        int[] values = new Random(9).ints(200_000, 0, 1_000_000).distinct().toArray();
+        for (int value : values) {
+            tree.insert(value);
+        }
+        int[] sorted = IntStream.of(values).sorted().toArray();
+        assertArrayEquals(sorted, tree.stream().parallel().toArray());
+        assertEquals(IntStream.of(values).asLongStream().sum(), tree.stream().parallel().asLongStream().sum());
+        assertEquals(IntStream.of(values).filter(v -> v % 3 == 0).count(),
+                tree.stream().parallel().filter(v -> v % 3 == 0).count());
+    }
+
+    @Test
+    void testArenaAndConcurrentTrees() throws InvalidNodeCountException {
+        ArenaAVLTree arena = new ArenaAVLTree();
+        ConcurrentTree concurrent = new ConcurrentTree(RedBlackTree::new);
+        for (int i = 0; i < 100; i++) {
+            arena.insert(i * 7 % 100);
+            concurrent.insert(i * 7 % 100);
+        }
+        assertArrayEquals(IntStream.range(0, 100).toArray(), arena.stream().toArray());
+        assertArrayEquals(IntStream.range(0, 100).toArray(), concurrent.stream().parallel().toArray());
+    }
+
+    private static List<Integer> drain(PrimitiveIterator.OfInt iterator) {
+        List<Integer> values = new ArrayList<>();
+        while (iterator.hasNext()) {
+            values.add(iterator.nextInt());
+        }
+        return values;
+    }
+
+    private static void traverse(Node node, List<Integer> pre, List<Integer> in, List<Integer> post) {
+        if (node != null) {
+            pre.add(node.getValue());
+            traverse(node.getLeftChild(), pre, in, post);
+            in.add(node.getValue());
+            traverse(node.getRightChild(), pre, in, post);
+            post.add(node.getValue());
+        }
+    }
+
+    private static void insert(Tree tree, int value) {
+        try {
+            tree.insert(value);
+        } catch (InvalidNodeCountException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeMetricsTest {
+
+    @Test
+    void testCountsWorkOfEachOperation() throws InvalidNodeCountException {
+        BinarySearchTree tree = new BinarySearchTree();
+        TreeMetrics metrics = new TreeMetrics();
+        tree.setMetrics(metrics);
+        tree.insert(5);
+        tree.insert(3);
+        tree.insert(8);
+        tree.insert(3);
+        tree.delete(5);
+        tree.contains(3);
+        tree.find(4);
+
+        TreeMetrics.Snapshot snapshot = metrics.snapshot();
+        TreeMetrics.Counts insert = snapshot.insert();
+        assertEquals(4, insert.operations());
+        assertEquals(4, insert.comparisons());
+        assertEquals(4, insert.visits());
+        assertEquals(3, insert.allocations());
+        assertEquals(0, insert.rotations());
+        assertTrue(insert.nanos() >= 0);
+
+        // Deleting the root compares once, then walks to its successor without comparing
+        TreeMetrics.Counts delete = snapshot.get(TreeMetrics.Operation.DELETE);
+        assertEquals(1, delete.operations());
+        assertEquals(1, delete.comparisons());
+        assertEquals(2, delete.visits());
+        assertEquals(0, delete.allocations());
+
+        TreeMetrics.Counts find = snapshot.find();
+        assertEquals(2, find.operations());
+        assertEquals(4, find.comparisons());
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().insert().operations());
+        assertEquals(0, metrics.snapshot().find().averageNanos());
+    }
+
+    @Test
+    void testSortedInputDegradesOnlyUnbalancedTrees() throws InvalidNodeCountException {
+        int n = 512;
+        TreeMetrics unbalanced = insertSorted(new BinarySearchTree(), n);
+        TreeMetrics avl = insertSorted(new AVLTree(), n);
+        TreeMetrics redBlack = insertSorted(new RedBlackTree(), n);
+
+        assertEquals((long) n * (n - 1) / 2, unbalanced.snapshot().insert().comparisons());
+        assertEquals(0, unbalanced.snapshot().insert().rotations());
+        assertTrue(avl.snapshot().insert().comparisons() < 10L * n);
+        assertEquals(n - 10, avl.snapshot().insert().rotations());
+        assertTrue(avl.snapshot().insert().heightUpdates() > 0);
+        assertTrue(redBlack.snapshot().insert().rotations() > 0);
+        assertTrue(redBlack.snapshot().insert().recolorings() > 0);
+        assertEquals(0, avl.snapshot().insert().recolorings());
+    }
+
+    @Test
+    void testCountsAlongsideListenerAndThroughWrappers() throws Exception {
+        AVLTree tree = new AVLTree();
+        TreeMetrics metrics = new TreeMetrics();
+        List<TreeEvent> events = new ArrayList<>();
+        tree.setListener((event, node, other) -> events.add(event));
+        tree.setMetrics(metrics);
+        tree.insert(1);
+        tree.insert(2);
+        assertEquals(1, metrics.snapshot().insert().visits());
+        assertTrue(events.contains(TreeEvent.VISIT));
+
+        tree.setMetrics(null);
+        tree.insert(3);
+        assertEquals(2, metrics.snapshot().insert().operations());
+        assertTrue(events.contains(TreeEvent.ROTATE_LEFT));
+
+        ConcurrentTree concurrent = new ConcurrentTree(PersistentAVLTree::new);
+        concurrent.setMetrics(metrics);
+        concurrent.insert(7);
+        concurrent.insert(9);
+        assertSame(metrics, concurrent.getMetrics());
+        assertEquals(4, metrics.snapshot().insert().operations());
+        // Inserting 9 allocates its node and a copy of 7 to hold it
+        assertEquals(5, metrics.snapshot().insert().allocations());
+    }
+
+    @Test
+    void testCountsArenaAndPageTreesFromTheirDescents() throws InvalidNodeCountException {
+        TreeMetrics sortedArena = insertSorted(new ArenaAVLTree(), 512);
+        TreeMetrics sortedAvl = insertSorted(new AVLTree(), 512);
+        // The arena tree has the same shapes, so it visits as many nodes and rotates as often
+        assertEquals(sortedAvl.snapshot().insert().visits(), sortedArena.snapshot().insert().visits());
+        assertEquals(sortedAvl.snapshot().insert().rotations(), sortedArena.snapshot().insert().rotations());
+        assertEquals(512, sortedArena.snapshot().insert().allocations());
+
+        ArenaAVLTree arena = new ArenaAVLTree();
+        TreeMetrics metrics = new TreeMetrics();
+        arena.setMetrics(metrics);
+        arena.insert(2);
+        arena.insert(1);
+        arena.insert(2);
+        assertTrue(arena.contains(1));
+        assertNull(arena.find(3));
+        arena.delete(1);
+        TreeMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(3, snapshot.insert().operations());
+        assertEquals(2, snapshot.insert().allocations());
+        assertEquals(2, snapshot.find().operations());
+        assertEquals(3, snapshot.find().comparisons());
+        assertEquals(1, snapshot.delete().operations());
+        assertEquals(2, snapshot.delete().visits());
+
+        // Splitting pages allocates them; every page visited is binary searched
+        TreeMetrics pages = insertSorted(new BTree(4, Tree.UNBOUNDED), 100);
+        BTree btree = new BTree(4, Tree.UNBOUNDED);
+        btree.buildFrom(IntStream.range(0, 100).toArray());
+        btree.setMetrics(pages);
+        TreeMetrics.Counts insert = pages.snapshot().insert();
+        assertEquals(100, insert.operations());
+        assertTrue(insert.allocations() > 30);
+        assertTrue(insert.comparisons() >= insert.visits());
+        assertTrue(btree.contains(50));
+        assertEquals(1, pages.snapshot().find().operations());
+        assertTrue(pages.snapshot().find().visits() <= btree.getHeight());
+        assertTrue(btree.delete(50));
+        assertTrue(pages.snapshot().delete().visits() > 0);
+        assertTrue(pages.snapshot().delete().nanos() >= 0);
+    }
+
+    @Test
+    void testRecordsFlightRecorderEvents() throws Exception {
+        Path file = Files.createTempFile("tree-operations", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(TreeOperationEvent.NAME).withoutThreshold();
+            recording.start();
+            assertTrue(TreeOperationEvent.isRecording());
+            Tree tree = new AVLTree();
+            tree.insert(1);
+            tree.insert(2);
+            tree.insert(3);
+            tree.delete(4);
+            tree.contains(3);
+            recording.stop();
+            assertFalse(TreeOperationEvent.isRecording());
+            recording.dump(file);
+        }
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(5, events.size());
+            RecordedEvent rotating = events.get(2);
+            assertEquals("AVLTree", rotating.getString("treeType"));
+            assertEquals("INSERT", rotating.getString("operation"));
+            assertEquals(3, rotating.getInt("key"));
+            assertEquals("INSERTED", rotating.getString("outcome"));
+            assertEquals(3, rotating.getInt("size"));
+            assertEquals(1, rotating.getInt("rotations"));
+            assertFalse(rotating.getDuration().isNegative());
+            assertEquals("NOT_FOUND", events.get(3).getString("outcome"));
+            RecordedEvent find = events.get(4);
+            assertEquals("FIND", find.getString("operation"));
+            assertEquals("FOUND", find.getString("outcome"));
+            assertEquals(2, find.getInt("pathLength"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testRecordsSearchesOfArenaPageAndConcurrentTrees() throws Exception {
+        Tree arena = new ArenaAVLTree();
+        Tree pages = new BTree(4, Tree.UNBOUNDED);
+        Tree concurrent = new ConcurrentTree(AVLTree::new);
+        for (Tree tree : List.of(arena, pages, concurrent)) {
+            tree.buildFrom(IntStream.range(0, 100).toArray());
+        }
+        Path file = Files.createTempFile("tree-searches", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(TreeOperationEvent.NAME).withoutThreshold();
+            recording.start();
+            for (Tree tree : List.of(arena, pages, concurrent)) {
+                assertTrue(tree.contains(42));
+                assertNull(tree.find(1000));
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(List.of("ArenaAVLTree", "ArenaAVLTree", "BTree", "BTree", "ConcurrentTree", "ConcurrentTree"),
+                    events.stream().map(event -> event.getString("treeType")).toList());
+            for (int i = 0; i < events.size(); i++) {
+                RecordedEvent event = events.get(i);
+                assertEquals("FIND", event.getString("operation"));
+                assertEquals((i % 2 == 0) ? "FOUND" : "NOT_FOUND", event.getString("outcome"));
+                assertEquals((i % 2 == 0) ? 42 : 1000, event.getInt("key"));
+                assertEquals(100, event.getInt("size"));
+                assertTrue(event.getInt("pathLength") > 0);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static TreeMetrics insertSorted(Tree tree, int n) throws InvalidNodeCountException {
+        TreeMetrics metrics = new TreeMetrics();
+        tree.setMetrics(metrics);
+        for (int i = 0; i < n; i++) {
+            tree.insert(i);
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,198 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRoundTripKeepsShapeHeightsAndColors() throws IOException, InvalidNodeCountException {
+        for (Tree tree : new Tree[] {new BinarySearchTree(), new AVLTree(), new RedBlackTree()}) {
+            Random random = new Random(31);
+            for (int i = 0; i < 3000; i++) {
+                int value = random.nextInt(2000) - 1000;
+                if (random.nextInt(4) == 0) {
+                    tree.delete(value);
+                } else {
+                    tree.insert(value);
+                }
+            }
+            Path file = directory.resolve(tree.getClass().getSimpleName() + ".bin");
+            TreeSnapshot.save(tree, file);
+            assertEquals(TreeSnapshot.HEADER_BYTES + (long) tree.getSize() * TreeSnapshot.RECORD_BYTES,
+                    Files.size(file));
+
+            Tree loaded = TreeSnapshot.load(file);
+            assertEquals(tree.getClass(), loaded.getClass());
+            assertEquals(tree.toString(), loaded.toString());
+            assertEquals(tree.getSize(), loaded.getSize());
+            if (!(tree instanceof BinarySearchTree)) {
+                assertSameMetadata(tree.getRoot(), loaded.getRoot());
+            }
+
+            // The loaded tree keeps working as a regular tree of its type
+            for (int i = 0; i < 500; i++) {
+                int value = random.nextInt(2000) - 1000;
+                assertEquals(tree.insert(value), loaded.insert(value));
+                assertEquals(tree.delete(value / 2), loaded.delete(value / 2));
+            }
+            assertEquals(tree.toString(), loaded.toString());
+        }
+    }
+
+    @Test
+    void testEmptyTree() throws IOException {
+        Path file = directory.resolve("empty.bin");
+        TreeSnapshot.save(new RedBlackTree(), file);
+        Tree loaded = TreeSnapshot.load(file);
+        assertInstanceOf(RedBlackTree.class, loaded);
+        assertNull(loaded.getRoot());
+        assertEquals(0, loaded.getSize());
+    }
+
+    @Test
+    void testDegenerateTreeDoesNotRecurse() throws IOException, InvalidNodeCountException {
+        BinarySearchTree tree = new BinarySearchTree();
+        for (int i = 0; i < 50_000; i++) {
+            tree.insert(i % 2 == 0 ? i : -i);
+        }
+        Path file = directory.resolve("deep.bin");
+        TreeSnapshot.save(tree, file);
+        Tree loaded = TreeSnapshot.load(file);
+        assertEquals(preOrder(tree), preOrder(loaded));
+    }
+
+    @Test
+    void testLoadWithAugmentation() throws IOException, InvalidNodeCountException {
+        AVLTree tree = new AVLTree();
+        tree.buildFrom(IntStream.range(0, 1000).map(i -> i * 3).toArray());
+        Path file = directory.resolve("augmented.bin");
+        TreeSnapshot.save(tree, file);
+
+        Tree loaded = TreeSnapshot.load(file, Tree.UNBOUNDED, new SubtreeAggregates());
+        assertEquals(1000, ((AugmentedNode) loaded.getRoot()).getSubtreeSize());
+        assertEquals(100, loaded.rank(300));
+        assertEquals(300, loaded.select(100));
+        assertThrows(IOException.class, () -> TreeSnapshot.load(file, 999, null));
+    }
+
+    @Test
+    void testOtherTreeKinds() throws IOException, InvalidNodeCountException {
+        ConcurrentTree concurrent = new ConcurrentTree(RedBlackTree::new);
+        ArenaAVLTree arena = new ArenaAVLTree();
+        PersistentAVLTree persistent = new PersistentAVLTree();
+        for (int i = 0; i < 200; i++) {
+            concurrent.insert(i * 7 % 200);
+            arena.insert(i * 7 % 200);
+            persistent.insert(i * 7 % 200);
+        }
+        for (Tree tree : new Tree[] {concurrent, arena, persistent}) {
+            Path file = directory.resolve("kind.bin");
+            TreeSnapshot.save(tree, file);
+            Tree loaded = TreeSnapshot.load(file);
+            assertEquals(tree.toString(), loaded.toString());
+            assertSameMetadata(tree.getRoot(), loaded.getRoot());
+        }
+    }
+
+    @Test
+    void testCorruptFilesAreRejected() throws IOException, InvalidNodeCountException {
+        AVLTree tree = new AVLTree();
+        tree.buildFrom(new int[] {1, 2, 3, 4, 5});
+        Path file = directory.resolve("tree.bin");
+        TreeSnapshot.save(tree, file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        Path truncated = directory.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> TreeSnapshot.load(truncated));
+
+        Path badMagic = directory.resolve("magic.bin");
+        byte[] copy = bytes.clone();
+        copy[0] = 'X';
+        Files.write(badMagic, copy);
+        assertThrows(IOException.class, () -> TreeSnapshot.load(badMagic));
+
+        Path badVersion = directory.resolve("version.bin");
+        copy = bytes.clone();
+        ByteBuffer.wrap(copy).putShort(4, (short) 99);
+        Files.write(badVersion, copy);
+        assertThrows(IOException.class, () -> TreeSnapshot.load(badVersion));
+
+        // Clearing the root's child flags leaves records that belong to no subtree
+        Path badShape = directory.resolve("shape.bin");
+        copy = bytes.clone();
+        copy[TreeSnapshot.HEADER_BYTES + 4] &= ~3;
+        Files.write(badShape, copy);
+        assertThrows(IOException.class, () -> TreeSnapshot.load(badShape));
+
+        // Swapping the keys of the root and its left child keeps the shape but breaks the search order
+        Path swapped = directory.resolve("swapped.bin");
+        copy = bytes.clone();
+        ByteBuffer records = ByteBuffer.wrap(copy);
+        int rootKey = records.getInt(TreeSnapshot.HEADER_BYTES);
+        int leftKey = records.getInt(TreeSnapshot.HEADER_BYTES + TreeSnapshot.RECORD_BYTES);
+        records.putInt(TreeSnapshot.HEADER_BYTES, leftKey);
+        records.putInt(TreeSnapshot.HEADER_BYTES + TreeSnapshot.RECORD_BYTES, rootKey);
+        Files.write(swapped, copy);
+        assertThrows(IOException.class, () -> TreeSnapshot.load(swapped));
+
+        // The last record of the root's left subtree is the largest key in it, so raising it above the root only
+        // breaks the bound the root sets
+        List<Integer> keys = preOrder(tree);
+        Path beyondAncestor = directory.resolve("ancestor.bin");
+        copy = bytes.clone();
+        int lastInLeft = (int) keys.stream().filter(key -> key < keys.getFirst()).count();
+        ByteBuffer.wrap(copy).putInt(TreeSnapshot.HEADER_BYTES + lastInLeft * TreeSnapshot.RECORD_BYTES,
+                keys.getFirst() + 100);
+        Files.write(beyondAncestor, copy);
+        assertThrows(IOException.class, () -> TreeSnapshot.load(beyondAncestor));
+    }
+
+    private static List<Integer> preOrder(Tree tree) {
+        List<Integer> values = new ArrayList<>();
+        PrimitiveIterator.OfInt iterator = tree.preOrderIterator();
+        while (iterator.hasNext()) {
+            values.add(iterator.nextInt());
+        }
+        return values;
+    }
+
+    // Compares the heights of AVL nodes and the colors of red-black nodes of both trees, in pre-order.
+    private static void assertSameMetadata(Node expected, Node actual) {
+        ArrayDeque<Node[]> pairs = new ArrayDeque<>();
+        if (expected != null) {
+            pairs.push(new Node[] {expected, actual});
+        }
+        while (!pairs.isEmpty()) {
+            Node[] pair = pairs.pop();
+            assertEquals(pair[0].getValue(), pair[1].getValue());
+            assertEquals(pair[0].getHeight(), pair[1].getHeight(), "height at " + pair[0].getValue());
+            assertEquals(pair[0].getColor(), pair[1].getColor(), "color at " + pair[0].getValue());
+            if (pair[0].getLeftChild() != null) {
+                pairs.push(new Node[] {pair[0].getLeftChild(), pair[1].getLeftChild()});
+            }
+            if (pair[0].getRightChild() != null) {
+                pairs.push(new Node[] {pair[0].getRightChild(), pair[1].getRightChild()});
+            }
+        }
+    }
+}
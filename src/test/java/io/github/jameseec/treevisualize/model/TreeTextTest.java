@@ -0,0 +1,131 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.Test;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeTextTest {
+
+    @Test
+    void testToStringMatchesRecursiveFormat() throws InvalidNodeCountException {
+        for (Tree tree : new Tree[] {new BinarySearchTree(), new AVLTree(), new RedBlackTree()}) {
+            assertEquals("null", tree.toString());
+            new Random(51).ints(300, -500, 500).forEach(value -> insert(tree, value));
+            assertEquals(recursive(tree.getRoot()), tree.toString());
+        }
+    }
+
+    @Test
+    void testRoundTrip() throws IOException, InvalidNodeCountException {
+        BinarySearchTree bst = new BinarySearchTree();
+        AVLTree avl = new AVLTree();
+        Random random = new Random(52);
+        for (int i = 0; i < 2000; i++) {
+            int value = random.nextInt();
+            bst.insert(value);
+            avl.insert(value);
+        }
+        StringWriter out = new StringWriter();
+        TreeText.write(bst.getRoot(), out);
+        assertEquals(bst.toString(), out.toString());
+
+        BinarySearchTree parsedBst = TreeText.read(new StringReader(out.toString()), new BinarySearchTree());
+        assertEquals(bst.toString(), parsedBst.toString());
+        assertEquals(bst.getSize(), parsedBst.getSize());
+
+        AVLTree parsedAvl = TreeText.read(new OneCharReader(avl.toString()), new AVLTree());
+        assertEquals(avl.toString(), parsedAvl.toString());
+        // Heights are restored, so the parsed tree keeps rebalancing like the original
+        for (int i = 0; i < 500; i++) {
+            int value = random.nextInt();
+            assertEquals(avl.insert(value), parsedAvl.insert(value));
+        }
+        assertEquals(avl.toString(), parsedAvl.toString());
+    }
+
+    @Test
+    void testDeepTreeDoesNotRecurse() throws IOException, InvalidNodeCountException {
+        // A right chain of 100k nodes, written out directly rather than built by sorted inserts
+        int depth = 100_000;
+        StringBuilder chain = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            chain.append(i).append("[null, ");
+        }
+        chain.append("null").append("]".repeat(depth));
+        String text = chain.toString();
+
+        BinarySearchTree parsed = TreeText.read(new StringReader(text), new BinarySearchTree());
+        assertEquals(depth, parsed.getSize());
+        assertEquals(depth - 1, parsed.getRoot().getHeight());
+        StringWriter out = new StringWriter();
+        TreeText.write(parsed.getRoot(), out);
+        assertEquals(text, out.toString());
+        assertEquals(text, parsed.toString());
+    }
+
+    @Test
+    void testWhitespaceAugmentationAndLimits() throws IOException, InvalidNodeCountException {
+        String text = " 2 [\n 1[null,null] ,\t3 [ null , null ] ] ";
+        AVLTree tree = TreeText.read(new StringReader(text), new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates()));
+        assertEquals("2[1[null, null], 3[null, null]]", tree.toString());
+        assertEquals(3, ((AugmentedNode) tree.getRoot()).getSubtreeSize());
+        assertEquals(1, tree.getRoot().getHeight());
+        assertEquals(1, tree.rank(2));
+
+        assertThrows(InvalidNodeCountException.class,
+                () -> TreeText.read(new StringReader(text), new BinarySearchTree(2)));
+        assertEquals(Integer.MIN_VALUE, TreeText.read(new StringReader("-2147483648[null, null]"),
+                new BinarySearchTree()).getRoot().getValue());
+        assertThrows(IllegalArgumentException.class, () -> TreeText.read(new StringReader("null"), new RedBlackTree()));
+    }
+
+    @Test
+    void testMalformedInput() {
+        String[] malformed = {
+            "", "nul", "1", "1[null]", "1[null, null", "1[null, null]]", "1[null; null]", "x",
+            "2147483648[null, null]", "2[3[null, null], null]", "2[null, 1[null, null]]",
+            "5[3[null, 6[null, null]], null]",
+        };
+        for (String text : malformed) {
+            assertThrows(IOException.class, () -> TreeText.read(new StringReader(text), new BinarySearchTree()), text);
+        }
+        // Valid BST, but not balanced
+        assertThrows(IOException.class,
+                () -> TreeText.read(new StringReader("1[null, 2[null, 3[null, null]]]"), new AVLTree()));
+    }
+
+    private static String recursive(Node node) {
+        if (node == null) {
+            return "null";
+        }
+        return node.getValue() + "[" + recursive(node.getLeftChild()) + ", " + recursive(node.getRightChild()) + "]";
+    }
+
+    private static void insert(Tree tree, int value) {
+        try {
+            tree.insert(value);
+        } catch (InvalidNodeCountException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Returns at most one character per read, to exercise buffer refills at every position.
+    private static final class OneCharReader extends FilterReader {
+        OneCharReader(String text) {
+            super(new StringReader(text));
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return super.read(buffer, offset, Math.min(length, 1));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.jameseec.treevisualize.model;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeValidatorTest {
+
+    @Test
+    void testAcceptsLargeTreesOfEveryType() throws InvalidNodeCountException {
+        int[] keys = IntStream.range(0, 200_000).map(i -> 3 * i).toArray();
+        Tree[] trees = {new BinarySearchTree(), new AVLTree(), new RedBlackTree(), new PersistentAVLTree(),
+                new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates()), new ArenaAVLTree(), new BTree()};
+        for (Tree tree : trees) {
+            tree.buildFrom(keys);
+            for (int i = 0; i < 1000; i++) {
+                tree.insert(3 * i + 1);
+                tree.delete(3 * i);
+            }
+            TreeValidator.validate(tree);
+        }
+        TreeValidator.validate(new AVLTree());
+    }
+
+    @Test
+    void testWalksDegenerateTreesIteratively() {
+        Node root = new Node(0);
+        Node last = root;
+        for (int i = 1; i < 1_000_000; i++) {
+            Node next = new Node(i);
+            last.setRightChild(next);
+            last = next;
+        }
+        assertEquals(1_000_000, TreeValidator.validate(root, false, false));
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> TreeValidator.validate(root, true, false));
+        assertEquals("Node 999998: stored height 0 but actual height 1", e.getMessage());
+    }
+
+    @Test
+    void testReportsBrokenInvariants() throws InvalidNodeCountException {
+        AVLTree misordered = avlOf(1, 2, 3, 4, 5, 6, 7);
+        misordered.getRoot().getLeftChild().setValue(9);
+        assertViolation("Node 9: right subtree holds 3", misordered);
+
+        AVLTree misheighted = avlOf(1, 2, 3);
+        misheighted.getRoot().setHeight(5);
+        assertViolation("Node 2: stored height 5 but actual height 1", misheighted);
+
+        AVLTree missized = avlOf(1, 2, 3);
+        missized.size = 4;
+        assertViolation("Tree has 3 nodes but its size is 4", missized);
+
+        RedBlackTree redBlack = new RedBlackTree();
+        redBlack.buildFrom(new int[]{1, 2, 3, 4, 5, 6, 7});
+        TreeValidator.validate(redBlack);
+        Node left = redBlack.getRoot().getLeftChild();
+        left.setColor(Color.RED);
+        assertViolation("Node 2: red node has a red child", redBlack);
+        left.setColor(Color.BLACK);
+        left.getLeftChild().setColor(Color.BLACK);
+        assertViolation("Node 2: black heights 1 and 0", redBlack);
+        redBlack.getRoot().setColor(Color.RED);
+        assertViolation("Node 4: root is not black", redBlack);
+
+        AVLTree augmented = new AVLTree(Tree.UNBOUNDED, new SubtreeAggregates());
+        augmented.buildFrom(new int[]{1, 2, 3});
+        augmented.getRoot().getRightChild().setValue(4);
+        assertViolation("Node 4: aggregates do not match", augmented);
+    }
+
+    @Test
+    void testChecksBTreePages() throws InvalidNodeCountException {
+        BTree tree = new BTree(4, Tree.UNBOUNDED);
+        tree.buildFrom(IntStream.range(0, 1000).toArray());
+        for (int i = 0; i < 500; i += 2) {
+            tree.delete(i);
+        }
+        TreeValidator.validate(tree);
+        assertEquals(750, TreeValidator.validatePages(tree));
+
+        BTree misordered = pagesOf(7);
+        misordered.getRootPage().setKey(0, 2);
+        assertViolation("Page 1: key 2 is out of order between 1 and 2", misordered);
+
+        BTree underfull = pagesOf(7);
+        underfull.getRootPage().getChild(0).setKeyCount(0);
+        assertViolation("Page empty: holds 0 keys, fewer than 1", underfull);
+
+        // A leaf moved up to replace its parent keeps within the parent's key range, but is a level too shallow
+        BTree uneven = pagesOf(40);
+        BTree.Page root = uneven.getRootPage();
+        root.setChild(1, root.getChild(1).getChild(0));
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> TreeValidator.validate(uneven));
+        assertTrue(e.getMessage().contains("leaf at depth"), e.getMessage());
+
+        BTree overfull = pagesOf(7);
+        overfull.getRootPage().getChild(1).setKeyCount(4);
+        assertViolation("Page 5: holds 4 keys, more than 3", overfull);
+    }
+
+    // Builds a B-tree of order 4, whose pages hold 1 to 3 keys, holding the keys 1 to n.
+    private static BTree pagesOf(int n) throws InvalidNodeCountException {
+        BTree tree = new BTree(4, Tree.UNBOUNDED);
+        tree.buildFrom(IntStream.rangeClosed(1, n).toArray());
+        return tree;
+    }
+
+    private static AVLTree avlOf(int... keys) throws InvalidNodeCountException {
+        AVLTree tree = new AVLTree();
+        for (int key : keys) {
+            tree.insert(key);
+        }
+        return tree;
+    }
+
+    private static void assertViolation(String prefix, Tree tree) {
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> TreeValidator.validate(tree));
+        assertTrue(e.getMessage().startsWith(prefix), e.getMessage());
+    }
+}
@@ -0,0 +1,274 @@
+package io.github.jameseec.treevisualize.view;
+
+import io.github.jameseec.treevisualize.exceptions.InvalidNodeCountException;
+import io.github.jameseec.treevisualize.model.AVLTree;
+import io.github.jameseec.treevisualize.model.BinarySearchTree;
+import io.github.jameseec.treevisualize.model.Node;
+import io.github.jameseec.treevisualize.model.PersistentAVLTree;
+import io.github.jameseec.treevisualize.model.PersistentBinarySearchTree;
+import io.github.jameseec.treevisualize.model.PersistentTree;
+import io.github.jameseec.treevisualize.model.RedBlackTree;
+import io.github.jameseec.treevisualize.model.SubtreeAggregates;
+import io.github.jameseec.treevisualize.model.Tree;
+import javafx.geometry.Point2D;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeLayoutTest {
+    private static final double EPSILON = 1e-6;
+
+    @Test
+    void testTidyLayoutSpacesLevelsAndCentersParents() throws InvalidNodeCountException {
+        for (int n : new int[] {1, 2, 3, 7, 50, 2000}) {
+            for (Tree tree : new Tree[] {randomTree(n, 61), sortedTree(n), zigzagTree(n)}) {
+                TreeLayout tidy = new TreeLayout(LayoutStrategy.TIDY);
+                tidy.compute(tree.getRoot(), 1000, 60);
+                assertTidy(tidy, tree.getRoot());
+                assertEquals(n, tidy.getNodes().size());
+
+                TreeLayout phantom = new TreeLayout();
+                phantom.compute(tree.getRoot(), 1000, 60);
+                assertTrue(tidy.getSubtreeExtent(tree.getRoot())
+                        <= phantom.getSubtreeExtent(tree.getRoot()) + EPSILON);
+            }
+        }
+    }
+
+    @Test
+    void testTidyLayoutOfChainsIsNarrow() throws InvalidNodeCountException {
+        // A chain steps half a unit per level, where phantom nodes add a whole unit per level
+        Tree sorted = sortedTree(1000);
+        TreeLayout tidy = new TreeLayout(LayoutStrategy.TIDY);
+        tidy.compute(sorted.getRoot(), 0, 0);
+        assertEquals(TreeLayout.BASE_WIDTH_UNIT * (999 / 2.0 + 1), tidy.getSubtreeExtent(sorted.getRoot()), EPSILON);
+        assertEquals(0, tidy.getSubtreeLeft(sorted.getRoot()) + TreeLayout.BASE_WIDTH_UNIT / 2, EPSILON);
+    }
+
+    @Test
+    void testIncrementalLayoutMatchesFreshLayout() throws InvalidNodeCountException {
+        List<Supplier<Tree>> factories = List.of(
+                () -> new BinarySearchTree(Tree.UNBOUNDED),
+                () -> new AVLTree(Tree.UNBOUNDED),
+                () -> new RedBlackTree(Tree.UNBOUNDED),
+                () -> new PersistentBinarySearchTree(Tree.UNBOUNDED, new SubtreeAggregates()),
+                () -> new PersistentAVLTree(Tree.UNBOUNDED, new SubtreeAggregates()));
+        Random random = new Random(7);
+        for (Supplier<Tree> factory : factories) {
+            for (LayoutStrategy strategy : new LayoutStrategy[] {LayoutStrategy.PHANTOM, LayoutStrategy.TIDY}) {
+                Tree tree = factory.get();
+                TreeLayout incremental = new TreeLayout(strategy);
+                // Persistent trees copy the nodes they change instead
+                if (!(tree instanceof PersistentTree)) {
+                    tree.setListener(incremental::onTreeEvent);
+                }
+                for (int i = 0; i < 3000; i++) {
+                    int op = random.nextInt(10);
+                    if (op < 6) {
+                        tree.insert(random.nextInt(2000));
+                    } else if (op < 9) {
+                        tree.delete(random.nextInt(2000));
+                    } else if (i % 500 == 0) {
+                        tree.insertAll(random.ints(200, 0, 2000).toArray());
+                    } else if (i == 1500) {
+                        tree.clear();
+                    } else {
+                        tree.find(random.nextInt(2000));
+                    }
+                    incremental.compute(tree.getRoot(), 500, 60);
+                    if (i % 7 == 0) {
+                        TreeLayout fresh = new TreeLayout(strategy);
+                        fresh.compute(tree.getRoot(), 500, 60);
+                        assertSameLayout(fresh, incremental);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testUpdateMeasuresOnlyTheChangedSpine() throws InvalidNodeCountException {
+        Tree tree = new AVLTree(Tree.UNBOUNDED);
+        TreeLayout layout = new TreeLayout();
+        tree.setListener(layout::onTreeEvent);
+        for (int i = 0; i < 100_000; i++) {
+            tree.insert(2 * i);
+        }
+        layout.compute(tree.getRoot(), 0, 0);
+        int height = layout.getSubtreeHeight(tree.getRoot());
+        for (int i = 0; i < 100; i++) {
+            tree.insert(4 * i + 1);
+            layout.compute(tree.getRoot(), 0, 0);
+            // The path down to the new node, and the few nodes a rebalance moves
+            assertTrue(layout.getMeasuredCount() <= height + 3, "Measured " + layout.getMeasuredCount());
+        }
+    }
+
+    @Test
+    void testIndexFindsTheShownNodesOfAView() throws InvalidNodeCountException {
+        Tree tree = randomTree(3000, 13);
+        TreeLayout layout = new TreeLayout(LayoutStrategy.TIDY);
+        layout.compute(tree.getRoot(), 0, 60);
+        NodeIndex index = new NodeIndex();
+        index.setLayout(layout);
+        Map<Node, Double> parentExtents = new HashMap<>();
+        parentExtents.put(tree.getRoot(), Double.POSITIVE_INFINITY);
+        for (Node node : layout.getNodes()) {
+            for (Node child : new Node[] {node.getLeftChild(), node.getRightChild()}) {
+                if (child != null) {
+                    parentExtents.put(child, layout.getSubtreeExtent(node));
+                }
+            }
+        }
+        double left = layout.getSubtreeLeft(tree.getRoot());
+        double width = layout.getSubtreeExtent(tree.getRoot());
+        double depth = layout.getSubtreeHeight(tree.getRoot()) * TreeLayout.VERTICAL_SPACING;
+        Random random = new Random(17);
+        for (int i = 0; i < 200; i++) {
+            double minX = left + random.nextDouble() * width;
+            double maxX = minX + random.nextDouble() * width / 4;
+            double minY = random.nextDouble() * depth;
+            double maxY = minY + random.nextDouble() * depth / 2;
+            double minExtent = (i % 2 == 0) ? 0 : random.nextDouble() * width / 8;
+
+            Set<Node> expected = new HashSet<>();
+            Set<Node> expectedEdges = new HashSet<>();
+            for (Node node : layout.getNodes()) {
+                Point2D position = layout.getPosition(node);
+                if (parentExtents.get(node) < minExtent) {
+                    continue;
+                }
+                if (position.getX() >= minX && position.getX() <= maxX
+                        && position.getY() >= minY && position.getY() <= maxY) {
+                    expected.add(node);
+                }
+                // Keep the edges to this node whose bounding box meets the view
+                if (node != tree.getRoot() && position.getY() > minY
+                        && position.getY() - TreeLayout.VERTICAL_SPACING <= maxY
+                        && edgeMeets(layout, tree.getRoot(), node, minX, maxX)) {
+                    expectedEdges.add(node);
+                }
+            }
+            Set<Node> found = new HashSet<>();
+            index.forEachNode(minX, minY, maxX, maxY, minExtent, (node, x, y, collapsed) -> {
+                assertEquals(layout.getPosition(node), new Point2D(x, y));
+                assertEquals(collapsed, layout.getSubtreeExtent(node) < minExtent
+                        && (node.getLeftChild() != null || node.getRightChild() != null));
+                assertTrue(found.add(node));
+            });
+            assertEquals(expected, found);
+            Set<Node> edges = new HashSet<>();
+            index.forEachEdge(minX, minY, maxX, maxY, minExtent, (child, parentX, parentY, childX, childY) -> {
+                assertEquals(layout.getPosition(child), new Point2D(childX, childY));
+                assertTrue(edges.add(child));
+            });
+            assertEquals(expectedEdges, edges);
+
+            Node nearest = expected.isEmpty() ? null : expected.iterator().next();
+            if (nearest != null) {
+                Point2D position = layout.getPosition(nearest);
+                assertEquals(nearest, index.nodeAt(position.getX() + 1, position.getY() - 1, 10, minExtent));
+            }
+        }
+    }
+
+    // Whether the edge from the parent of child to child spans some of minX to maxX
+    private static boolean edgeMeets(TreeLayout layout, Node root, Node child, double minX, double maxX) {
+        Node parent = root;
+        while (parent.getLeftChild() != child && parent.getRightChild() != child) {
+            parent = (child.getValue() < parent.getValue()) ? parent.getLeftChild() : parent.getRightChild();
+        }
+        double parentX = layout.getPosition(parent).getX();
+        double childX = layout.getPosition(child).getX();
+        return Math.min(parentX, childX) <= maxX && Math.max(parentX, childX) >= minX;
+    }
+
+    private static void assertSameLayout(TreeLayout expected, TreeLayout actual) {
+        assertEquals(expected.getNodes(), actual.getNodes());
+        for (Node node : expected.getNodes()) {
+            assertEquals(expected.getPosition(node), actual.getPosition(node), "Node " + node.getValue());
+            assertEquals(expected.getSubtreeExtent(node), actual.getSubtreeExtent(node), "Node " + node.getValue());
+            assertEquals(expected.getSubtreeSize(node), actual.getSubtreeSize(node), "Node " + node.getValue());
+            assertEquals(expected.getSubtreeHeight(node), actual.getSubtreeHeight(node), "Node " + node.getValue());
+        }
+    }
+
+    /**
+     * Checks that nodes on a level are at least a width unit apart, that children are on their own side of their
+     * parent, that a parent of two children is centered between them, and that subtrees lie within the extent
+     * of the subtrees holding them.
+     */
+    private static void assertTidy(TreeLayout layout, Node root) {
+        Map<Double, List<Double>> levels = new TreeMap<>();
+        for (Node node : layout.getNodes()) {
+            Point2D position = layout.getPosition(node);
+            levels.computeIfAbsent(position.getY(), y -> new ArrayList<>()).add(position.getX());
+        }
+        for (List<Double> level : levels.values()) {
+            level.sort(null);
+            for (int i = 1; i < level.size(); i++) {
+                assertTrue(level.get(i) - level.get(i - 1) >= TreeLayout.BASE_WIDTH_UNIT - EPSILON,
+                        "Nodes " + level.get(i - 1) + " and " + level.get(i) + " overlap");
+            }
+        }
+        double left = layout.getSubtreeLeft(root);
+        double right = left + layout.getSubtreeExtent(root);
+        for (Node node : layout.getNodes()) {
+            double x = layout.getPosition(node).getX();
+            Node leftChild = node.getLeftChild();
+            Node rightChild = node.getRightChild();
+            if (leftChild != null) {
+                assertTrue(layout.getPosition(leftChild).getX() < x, "Left child of " + node.getValue());
+            }
+            if (rightChild != null) {
+                assertTrue(layout.getPosition(rightChild).getX() > x, "Right child of " + node.getValue());
+            }
+            if (leftChild != null && rightChild != null) {
+                assertEquals(2 * x, layout.getPosition(leftChild).getX() + layout.getPosition(rightChild).getX(),
+                        EPSILON, "Node " + node.getValue() + " is not centered");
+            }
+            double subtreeLeft = layout.getSubtreeLeft(node);
+            assertTrue(subtreeLeft >= left - EPSILON);
+            assertTrue(subtreeLeft + layout.getSubtreeExtent(node) <= right + EPSILON);
+            assertTrue(x >= subtreeLeft + TreeLayout.BASE_WIDTH_UNIT / 2 - EPSILON);
+        }
+    }
+
+    private static Tree randomTree(int n, long seed) throws InvalidNodeCountException {
+        Tree tree = new BinarySearchTree(Tree.UNBOUNDED);
+        Random random = new Random(seed);
+        while (tree.getSize() < n) {
+            tree.insert(random.nextInt());
+        }
+        return tree;
+    }
+
+    private static Tree sortedTree(int n) throws InvalidNodeCountException {
+        Tree tree = new BinarySearchTree(Tree.UNBOUNDED);
+        for (int i = 0; i < n; i++) {
+            tree.insert(i);
+        }
+        return tree;
+    }
+
+    // Alternates between the smallest and largest keys left, so every node has one child on alternating sides
+    private static Tree zigzagTree(int n) throws InvalidNodeCountException {
+        Tree tree = new BinarySearchTree(Tree.UNBOUNDED);
+        int low = 0;
+        int high = n;
+        for (int i = 0; i < n; i++) {
+            tree.insert((i % 2 == 0) ? low++ : --high);
+        }
+        return tree;
+    }
+}